@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the gc profiler attached so that the allocation rate per operation is
+ * reported next to the throughput. Accepts the same arguments as the JMH command line, for
+ * example a regular expression that selects the benchmarks to run.
+ * 
+ * @author Greg Marut
+ */
+public class BenchmarkRunner
+{
+	public static void main(final String[] args) throws CommandLineOptionException, RunnerException
+	{
+		// parse the command line options and always include the gc profiler
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		new Runner(new OptionsBuilder().parent(commandLineOptions).addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+import com.gregmarut.support.beangenerator.benchmark.bean.Fixture;
+
+/**
+ * Measures {@link BeanPropertyGenerator#getList(Class, int)} and
+ * {@link BeanPropertyGenerator#getParallelList(Class, int)} at several list sizes, with every
+ * element generated or copied from a prototype
+ * 
+ * @author Greg Marut
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GetListBenchmark
+{
+	@Param({ "SHALLOW", "DEEP", "WIDE" })
+	private Fixture fixture;
+	
+	@Param({ "1", "10", "100", "1000" })
+	private int size;
+	
+	@Param({ "false", "true" })
+	private boolean parallel;
+	
+	@Param({ "false", "true" })
+	private boolean clonePrototypes;
+	
+	// holds the generator under test
+	private BeanPropertyGenerator beanPropertyGenerator;
+	
+	@Setup
+	public void setup()
+	{
+		beanPropertyGenerator = new BeanPropertyGenerator(false);
+		beanPropertyGenerator.getConfiguration().setClonePrototypes(clonePrototypes);
+	}
+	
+	@Benchmark
+	public List<?> getList()
+	{
+		if (parallel)
+		{
+			return beanPropertyGenerator.getParallelList(fixture.getBeanClass(), size);
+		}
+		
+		return beanPropertyGenerator.getList(fixture.getBeanClass(), size);
+	}
+}
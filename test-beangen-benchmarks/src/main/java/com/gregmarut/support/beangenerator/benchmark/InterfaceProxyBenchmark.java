@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+import com.gregmarut.support.beangenerator.benchmark.bean.BeanService;
+import com.gregmarut.support.beangenerator.benchmark.bean.Fixture;
+import com.gregmarut.support.beangenerator.config.Configuration;
+import com.gregmarut.support.beangenerator.proxy.GeneratorInterfaceProxy;
+
+/**
+ * Measures the creation of proxies by {@link GeneratorInterfaceProxy} and the beans that are
+ * returned by their methods
+ * 
+ * @author Greg Marut
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InterfaceProxyBenchmark
+{
+	@Param({ "SHALLOW", "DEEP", "WIDE" })
+	private Fixture fixture;
+	
+	// holds the configuration that is used by the proxies
+	private Configuration configuration;
+	
+	// holds the proxy that is invoked
+	private BeanService beanService;
+	
+	@Setup
+	public void setup()
+	{
+		configuration = new BeanPropertyGenerator(false).getConfiguration();
+		beanService = GeneratorInterfaceProxy.createProxy(configuration, BeanService.class);
+	}
+	
+	@Benchmark
+	public Object invoke()
+	{
+		return invoke(beanService);
+	}
+	
+	@Benchmark
+	public Object createAndInvoke()
+	{
+		BeanService proxy = GeneratorInterfaceProxy.createProxy(configuration, BeanService.class);
+		return invoke(proxy);
+	}
+	
+	/**
+	 * Invokes the method of the proxy that returns the bean of the current fixture
+	 * 
+	 * @param proxy
+	 * @return Object
+	 */
+	private Object invoke(final BeanService proxy)
+	{
+		switch (fixture)
+		{
+			case DEEP:
+				return proxy.getDeepBean();
+			case WIDE:
+				return proxy.getWideBean();
+			default:
+				return proxy.getShallowBean();
+		}
+	}
+}
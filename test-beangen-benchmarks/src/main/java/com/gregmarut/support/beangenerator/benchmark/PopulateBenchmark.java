@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.benchmark;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+import com.gregmarut.support.beangenerator.benchmark.bean.Fixture;
+
+/**
+ * Measures {@link BeanPropertyGenerator#populate(Object)} on freshly constructed beans
+ * 
+ * @author Greg Marut
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PopulateBenchmark
+{
+	@Param({ "SHALLOW", "DEEP", "WIDE" })
+	private Fixture fixture;
+	
+	// holds the generator under test
+	private BeanPropertyGenerator beanPropertyGenerator;
+	
+	// holds the constructor of the bean that is populated
+	private Constructor<?> constructor;
+	
+	@Setup
+	public void setup() throws NoSuchMethodException
+	{
+		beanPropertyGenerator = new BeanPropertyGenerator(false);
+		constructor = fixture.getBeanClass().getConstructor();
+	}
+	
+	@Benchmark
+	public Object populate() throws ReflectiveOperationException
+	{
+		return beanPropertyGenerator.populate(constructor.newInstance());
+	}
+}
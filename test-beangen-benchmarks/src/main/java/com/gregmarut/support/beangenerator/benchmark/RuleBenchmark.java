@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.benchmark;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+import com.gregmarut.support.beangenerator.benchmark.bean.Fixture;
+import com.gregmarut.support.beangenerator.benchmark.bean.MiddleBean;
+import com.gregmarut.support.beangenerator.rule.RuleBuilder;
+import com.gregmarut.support.beangenerator.rule.condition.Condition;
+import com.gregmarut.support.beangenerator.rule.condition.DeclaringClassCondition;
+import com.gregmarut.support.beangenerator.rule.condition.FieldNameEndsWithCondition;
+import com.gregmarut.support.beangenerator.rule.condition.FieldNameMatchesCondition;
+import com.gregmarut.support.beangenerator.rule.condition.FieldNameStartsWithCondition;
+
+/**
+ * Measures {@link BeanPropertyGenerator#get(Class)} with a large number of rules registered for
+ * the field types of the fixtures
+ * 
+ * @author Greg Marut
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RuleBenchmark
+{
+	@Param({ "SHALLOW", "DEEP", "WIDE" })
+	private Fixture fixture;
+	
+	@Param({ "10", "100" })
+	private int ruleCount;
+	
+	// determines if a rule whose condition inspects the declaring object is registered which
+	// prevents the rules from being resolved ahead of time
+	@Param({ "true", "false" })
+	private boolean statefulRules;
+	
+	// holds the generator under test
+	private BeanPropertyGenerator beanPropertyGenerator;
+	
+	@Setup
+	public void setup()
+	{
+		beanPropertyGenerator = new BeanPropertyGenerator(false);
+		RuleBuilder ruleBuilder = beanPropertyGenerator.getConfiguration().createRuleBuilder();
+		
+		// register rules that mostly do not match so that every rule has to be evaluated
+		for (int i = 0; i < ruleCount; i++)
+		{
+			switch (i % 4)
+			{
+				case 0:
+					ruleBuilder.forType(String.class).when(new FieldNameMatchesCondition("unknown" + i))
+						.thenReturn("rule" + i);
+					break;
+				case 1:
+					ruleBuilder.forType(String.class).when(new FieldNameEndsWithCondition("Suffix" + i))
+						.thenReturn("rule" + i);
+					break;
+				case 2:
+					ruleBuilder.forType(Integer.class).when(new FieldNameStartsWithCondition("prefix" + i))
+						.thenReturn(i);
+					break;
+				default:
+					ruleBuilder.forType(Integer.class).when(new FieldNameMatchesCondition("depth"))
+						.and(new DeclaringClassCondition(MiddleBean.class)).thenReturn(i);
+					break;
+			}
+		}
+		
+		// register the rules that match the fixtures
+		ruleBuilder.forType(String.class).when(new FieldNameEndsWithCondition("ID")).thenReturn("12345");
+		if (statefulRules)
+		{
+			ruleBuilder.forType(Long.class).when(new Condition()
+			{
+				@Override
+				public boolean isTrue(final Field field, final Object declaringObject)
+				{
+					return field.getName().matches("field[0-9]+");
+				}
+			}).thenReturn(42L);
+		}
+	}
+	
+	@Benchmark
+	public Object get()
+	{
+		return beanPropertyGenerator.get(fixture.getBeanClass());
+	}
+}
@@ -0,0 +1,27 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.benchmark.bean;
+
+/**
+ * An interface that is implemented by a proxy in the benchmarks
+ * 
+ * @author Greg Marut
+ */
+public interface BeanService
+{
+	ShallowBean getShallowBean();
+	
+	DeepBean getDeepBean();
+	
+	WideBean getWideBean();
+}
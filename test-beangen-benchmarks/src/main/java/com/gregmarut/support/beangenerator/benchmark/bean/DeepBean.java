@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.benchmark.bean;
+
+import java.util.List;
+
+/**
+ * A bean with several levels of nested beans and collections
+ * 
+ * @author Greg Marut
+ */
+public class DeepBean
+{
+	private String name;
+	private String ownerID;
+	private MiddleBean middle;
+	private List<MiddleBean> middles;
+	
+	public String getName()
+	{
+		return name;
+	}
+	
+	public void setName(final String name)
+	{
+		this.name = name;
+	}
+	
+	public String getOwnerID()
+	{
+		return ownerID;
+	}
+	
+	public void setOwnerID(final String ownerID)
+	{
+		this.ownerID = ownerID;
+	}
+	
+	public MiddleBean getMiddle()
+	{
+		return middle;
+	}
+	
+	public void setMiddle(final MiddleBean middle)
+	{
+		this.middle = middle;
+	}
+	
+	public List<MiddleBean> getMiddles()
+	{
+		return middles;
+	}
+	
+	public void setMiddles(final List<MiddleBean> middles)
+	{
+		this.middles = middles;
+	}
+}
@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.benchmark.bean;
+
+/**
+ * Identifies the bean classes that are used as the shape of the object graph in the benchmarks
+ * 
+ * @author Greg Marut
+ */
+public enum Fixture
+{
+	/**
+	 * A single bean with a handful of simple fields
+	 */
+	SHALLOW(ShallowBean.class),
+	
+	/**
+	 * A bean with nested beans and collections several levels deep
+	 */
+	DEEP(DeepBean.class),
+	
+	/**
+	 * A single bean with a large number of simple fields
+	 */
+	WIDE(WideBean.class);
+	
+	// holds the bean class of this fixture
+	private final Class<?> beanClass;
+	
+	private Fixture(final Class<?> beanClass)
+	{
+		this.beanClass = beanClass;
+	}
+	
+	public Class<?> getBeanClass()
+	{
+		return beanClass;
+	}
+}
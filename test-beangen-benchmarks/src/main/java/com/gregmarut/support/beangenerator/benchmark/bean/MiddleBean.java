@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.benchmark.bean;
+
+import java.util.List;
+
+/**
+ * The intermediate level of a {@link DeepBean}
+ * 
+ * @author Greg Marut
+ */
+public class MiddleBean
+{
+	private String name;
+	private int depth;
+	private ShallowBean leaf;
+	private List<ShallowBean> leaves;
+	
+	public String getName()
+	{
+		return name;
+	}
+	
+	public void setName(final String name)
+	{
+		this.name = name;
+	}
+	
+	public int getDepth()
+	{
+		return depth;
+	}
+	
+	public void setDepth(final int depth)
+	{
+		this.depth = depth;
+	}
+	
+	public ShallowBean getLeaf()
+	{
+		return leaf;
+	}
+	
+	public void setLeaf(final ShallowBean leaf)
+	{
+		this.leaf = leaf;
+	}
+	
+	public List<ShallowBean> getLeaves()
+	{
+		return leaves;
+	}
+	
+	public void setLeaves(final List<ShallowBean> leaves)
+	{
+		this.leaves = leaves;
+	}
+}
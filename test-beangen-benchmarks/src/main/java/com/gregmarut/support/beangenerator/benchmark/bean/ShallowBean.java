@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.benchmark.bean;
+
+/**
+ * A small bean with only simple fields
+ * 
+ * @author Greg Marut
+ */
+public class ShallowBean
+{
+	private String name;
+	private String accountID;
+	private int count;
+	private long id;
+	private double amount;
+	private Boolean enabled;
+	
+	public String getName()
+	{
+		return name;
+	}
+	
+	public void setName(final String name)
+	{
+		this.name = name;
+	}
+	
+	public String getAccountID()
+	{
+		return accountID;
+	}
+	
+	public void setAccountID(final String accountID)
+	{
+		this.accountID = accountID;
+	}
+	
+	public int getCount()
+	{
+		return count;
+	}
+	
+	public void setCount(final int count)
+	{
+		this.count = count;
+	}
+	
+	public long getId()
+	{
+		return id;
+	}
+	
+	public void setId(final long id)
+	{
+		this.id = id;
+	}
+	
+	public double getAmount()
+	{
+		return amount;
+	}
+	
+	public void setAmount(final double amount)
+	{
+		this.amount = amount;
+	}
+	
+	public Boolean getEnabled()
+	{
+		return enabled;
+	}
+	
+	public void setEnabled(final Boolean enabled)
+	{
+		this.enabled = enabled;
+	}
+}
@@ -0,0 +1,462 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.benchmark.bean;
+
+/**
+ * A flat bean with a large number of fields
+ * 
+ * @author Greg Marut
+ */
+public class WideBean
+{
+	private String field00;
+	private int field01;
+	private long field02;
+	private double field03;
+	private float field04;
+	private short field05;
+	private Integer field06;
+	private Long field07;
+	private Double field08;
+	private String field09;
+	private String field10;
+	private int field11;
+	private long field12;
+	private double field13;
+	private float field14;
+	private short field15;
+	private Integer field16;
+	private Long field17;
+	private Double field18;
+	private String field19;
+	private String field20;
+	private int field21;
+	private long field22;
+	private double field23;
+	private float field24;
+	private short field25;
+	private Integer field26;
+	private Long field27;
+	private Double field28;
+	private String field29;
+	private String field30;
+	private int field31;
+	private long field32;
+	private double field33;
+	private float field34;
+	private short field35;
+	private Integer field36;
+	private Long field37;
+	private Double field38;
+	private String field39;
+	
+	public String getField00()
+	{
+		return field00;
+	}
+	
+	public void setField00(final String field00)
+	{
+		this.field00 = field00;
+	}
+	
+	public int getField01()
+	{
+		return field01;
+	}
+	
+	public void setField01(final int field01)
+	{
+		this.field01 = field01;
+	}
+	
+	public long getField02()
+	{
+		return field02;
+	}
+	
+	public void setField02(final long field02)
+	{
+		this.field02 = field02;
+	}
+	
+	public double getField03()
+	{
+		return field03;
+	}
+	
+	public void setField03(final double field03)
+	{
+		this.field03 = field03;
+	}
+	
+	public float getField04()
+	{
+		return field04;
+	}
+	
+	public void setField04(final float field04)
+	{
+		this.field04 = field04;
+	}
+	
+	public short getField05()
+	{
+		return field05;
+	}
+	
+	public void setField05(final short field05)
+	{
+		this.field05 = field05;
+	}
+	
+	public Integer getField06()
+	{
+		return field06;
+	}
+	
+	public void setField06(final Integer field06)
+	{
+		this.field06 = field06;
+	}
+	
+	public Long getField07()
+	{
+		return field07;
+	}
+	
+	public void setField07(final Long field07)
+	{
+		this.field07 = field07;
+	}
+	
+	public Double getField08()
+	{
+		return field08;
+	}
+	
+	public void setField08(final Double field08)
+	{
+		this.field08 = field08;
+	}
+	
+	public String getField09()
+	{
+		return field09;
+	}
+	
+	public void setField09(final String field09)
+	{
+		this.field09 = field09;
+	}
+	
+	public String getField10()
+	{
+		return field10;
+	}
+	
+	public void setField10(final String field10)
+	{
+		this.field10 = field10;
+	}
+	
+	public int getField11()
+	{
+		return field11;
+	}
+	
+	public void setField11(final int field11)
+	{
+		this.field11 = field11;
+	}
+	
+	public long getField12()
+	{
+		return field12;
+	}
+	
+	public void setField12(final long field12)
+	{
+		this.field12 = field12;
+	}
+	
+	public double getField13()
+	{
+		return field13;
+	}
+	
+	public void setField13(final double field13)
+	{
+		this.field13 = field13;
+	}
+	
+	public float getField14()
+	{
+		return field14;
+	}
+	
+	public void setField14(final float field14)
+	{
+		this.field14 = field14;
+	}
+	
+	public short getField15()
+	{
+		return field15;
+	}
+	
+	public void setField15(final short field15)
+	{
+		this.field15 = field15;
+	}
+	
+	public Integer getField16()
+	{
+		return field16;
+	}
+	
+	public void setField16(final Integer field16)
+	{
+		this.field16 = field16;
+	}
+	
+	public Long getField17()
+	{
+		return field17;
+	}
+	
+	public void setField17(final Long field17)
+	{
+		this.field17 = field17;
+	}
+	
+	public Double getField18()
+	{
+		return field18;
+	}
+	
+	public void setField18(final Double field18)
+	{
+		this.field18 = field18;
+	}
+	
+	public String getField19()
+	{
+		return field19;
+	}
+	
+	public void setField19(final String field19)
+	{
+		this.field19 = field19;
+	}
+	
+	public String getField20()
+	{
+		return field20;
+	}
+	
+	public void setField20(final String field20)
+	{
+		this.field20 = field20;
+	}
+	
+	public int getField21()
+	{
+		return field21;
+	}
+	
+	public void setField21(final int field21)
+	{
+		this.field21 = field21;
+	}
+	
+	public long getField22()
+	{
+		return field22;
+	}
+	
+	public void setField22(final long field22)
+	{
+		this.field22 = field22;
+	}
+	
+	public double getField23()
+	{
+		return field23;
+	}
+	
+	public void setField23(final double field23)
+	{
+		this.field23 = field23;
+	}
+	
+	public float getField24()
+	{
+		return field24;
+	}
+	
+	public void setField24(final float field24)
+	{
+		this.field24 = field24;
+	}
+	
+	public short getField25()
+	{
+		return field25;
+	}
+	
+	public void setField25(final short field25)
+	{
+		this.field25 = field25;
+	}
+	
+	public Integer getField26()
+	{
+		return field26;
+	}
+	
+	public void setField26(final Integer field26)
+	{
+		this.field26 = field26;
+	}
+	
+	public Long getField27()
+	{
+		return field27;
+	}
+	
+	public void setField27(final Long field27)
+	{
+		this.field27 = field27;
+	}
+	
+	public Double getField28()
+	{
+		return field28;
+	}
+	
+	public void setField28(final Double field28)
+	{
+		this.field28 = field28;
+	}
+	
+	public String getField29()
+	{
+		return field29;
+	}
+	
+	public void setField29(final String field29)
+	{
+		this.field29 = field29;
+	}
+	
+	public String getField30()
+	{
+		return field30;
+	}
+	
+	public void setField30(final String field30)
+	{
+		this.field30 = field30;
+	}
+	
+	public int getField31()
+	{
+		return field31;
+	}
+	
+	public void setField31(final int field31)
+	{
+		this.field31 = field31;
+	}
+	
+	public long getField32()
+	{
+		return field32;
+	}
+	
+	public void setField32(final long field32)
+	{
+		this.field32 = field32;
+	}
+	
+	public double getField33()
+	{
+		return field33;
+	}
+	
+	public void setField33(final double field33)
+	{
+		this.field33 = field33;
+	}
+	
+	public float getField34()
+	{
+		return field34;
+	}
+	
+	public void setField34(final float field34)
+	{
+		this.field34 = field34;
+	}
+	
+	public short getField35()
+	{
+		return field35;
+	}
+	
+	public void setField35(final short field35)
+	{
+		this.field35 = field35;
+	}
+	
+	public Integer getField36()
+	{
+		return field36;
+	}
+	
+	public void setField36(final Integer field36)
+	{
+		this.field36 = field36;
+	}
+	
+	public Long getField37()
+	{
+		return field37;
+	}
+	
+	public void setField37(final Long field37)
+	{
+		this.field37 = field37;
+	}
+	
+	public Double getField38()
+	{
+		return field38;
+	}
+	
+	public void setField38(final Double field38)
+	{
+		this.field38 = field38;
+	}
+	
+	public String getField39()
+	{
+		return field39;
+	}
+	
+	public void setField39(final String field39)
+	{
+		this.field39 = field39;
+	}
+}
@@ -0,0 +1,440 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a {@code BeanPopulator} for every class annotated with {@code GenerateBean}. The
+ * generated populator allocates the bean with its no argument constructor and writes each field that
+ * is accessible from the package of the bean directly. Setters are never called, since their side
+ * effects would produce different beans than the reflective traversal; the remaining fields are
+ * reported with an index of -1 and remain reflective.
+ * Every generated populator is registered in
+ * {@code META-INF/services/com.gregmarut.support.beangenerator.populator.BeanPopulator}.
+ * 
+ * @author Greg Marut
+ */
+@SupportedAnnotationTypes(GenerateBeanProcessor.GENERATE_BEAN)
+public class GenerateBeanProcessor extends AbstractProcessor
+{
+	// ** Finals **//
+	static final String GENERATE_BEAN = "com.gregmarut.support.beangenerator.populator.GenerateBean";
+	static final String BEAN_POPULATOR = "com.gregmarut.support.beangenerator.populator.BeanPopulator";
+	static final String SERVICE_FILE = "META-INF/services/" + BEAN_POPULATOR;
+	static final String CLASS_SUFFIX = "_BeanPopulator";
+	
+	// holds the names of all of the populators generated by this processor
+	private final Set<String> populatorNames = new TreeSet<String>();
+	
+	@Override
+	public SourceVersion getSupportedSourceVersion()
+	{
+		return SourceVersion.latestSupported();
+	}
+	
+	@Override
+	public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv)
+	{
+		// for each of the annotations handled by this processor
+		for (TypeElement annotation : annotations)
+		{
+			// for each of the annotated elements
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation))
+			{
+				// make sure the annotated element is a class that can be referenced from its package
+				if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.PRIVATE)
+					|| ((TypeElement) element).getNestingKind() == NestingKind.LOCAL
+					|| ((TypeElement) element).getNestingKind() == NestingKind.ANONYMOUS
+					|| ((TypeElement) element).getNestingKind() == NestingKind.MEMBER
+					&& !element.getModifiers().contains(Modifier.STATIC))
+				{
+					processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+						"@GenerateBean can only be applied to top level or static nested classes that are not private",
+						element);
+					continue;
+				}
+				
+				try
+				{
+					generate((TypeElement) element);
+				}
+				catch (IOException e)
+				{
+					processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+						"Could not generate bean populator: " + e.getMessage(), element);
+				}
+			}
+		}
+		
+		// register all of the populators once processing is complete
+		if (roundEnv.processingOver() && !populatorNames.isEmpty())
+		{
+			try
+			{
+				writeServiceFile();
+			}
+			catch (IOException e)
+			{
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+					"Could not write " + SERVICE_FILE + ": " + e.getMessage());
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Generates the populator for a bean class
+	 * 
+	 * @param type
+	 * @throws IOException
+	 */
+	private void generate(final TypeElement type) throws IOException
+	{
+		// determine the names of the bean and the populator
+		final PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+		final String packageName = packageElement.getQualifiedName().toString();
+		final String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+		final String simpleBinaryName =
+			packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+		final String populatorSimpleName = simpleBinaryName.replace('$', '_') + CLASS_SUFFIX;
+		final String populatorName =
+			packageName.isEmpty() ? populatorSimpleName : packageName + "." + populatorSimpleName;
+		final String beanName = type.getQualifiedName().toString();
+		
+		// holds the writable fields
+		List<FieldWrite> fieldWrites = new ArrayList<FieldWrite>();
+		
+		// for each class in the hierarchy
+		TypeElement current = type;
+		while (null != current)
+		{
+			// for each of the fields declared in this class
+			for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements()))
+			{
+				Set<Modifier> modifiers = field.getModifiers();
+				
+				// only non static fields that are neither transient nor final are written
+				if (modifiers.contains(Modifier.TRANSIENT) || modifiers.contains(Modifier.FINAL)
+					|| modifiers.contains(Modifier.STATIC))
+				{
+					continue;
+				}
+				
+				// determine how this field can be written
+				String declaringClass = processingEnv.getElementUtils().getBinaryName(current).toString();
+				String fieldName = field.getSimpleName().toString();
+				String valueType = getValueType(field.asType());
+				
+				// fields that cannot be assigned directly are left to the reflective traversal
+				if (isAccessible(field, packageElement))
+				{
+					// inherited fields are qualified by their declaring class in case they are hidden
+					String target = current.equals(type) ? "bean" : "((" + current.getQualifiedName() + ") bean)";
+					fieldWrites.add(new FieldWrite(declaringClass, fieldName, target + "." + fieldName + " = ("
+						+ valueType + ") value"));
+				}
+			}
+			
+			current = getSuperclass(current);
+		}
+		
+		// write the source of the populator
+		JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(populatorName, type);
+		PrintWriter out = new PrintWriter(sourceFile.openWriter());
+		try
+		{
+			if (!packageName.isEmpty())
+			{
+				out.println("package " + packageName + ";");
+				out.println();
+			}
+			
+			out.println("@javax.annotation.processing.Generated(\"" + GenerateBeanProcessor.class.getName() + "\")");
+			out.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+			out.println("public final class " + populatorSimpleName + " implements " + BEAN_POPULATOR + "<"
+				+ beanName + ">");
+			out.println("{");
+			
+			// getType
+			out.println("\t@Override");
+			out.println("\tpublic Class<" + beanName + "> getType()");
+			out.println("\t{");
+			out.println("\t\treturn " + beanName + ".class;");
+			out.println("\t}");
+			out.println();
+			
+			// canInstantiate
+			final boolean canAllocate = canAllocate(type, packageElement);
+			out.println("\t@Override");
+			out.println("\tpublic boolean canInstantiate()");
+			out.println("\t{");
+			out.println("\t\treturn " + canAllocate + ";");
+			out.println("\t}");
+			out.println();
+			
+			// newInstance
+			out.println("\t@Override");
+			out.println("\tpublic " + beanName + " newInstance()");
+			out.println("\t{");
+			if (canAllocate)
+			{
+				out.println("\t\treturn new " + beanName + "();");
+			}
+			else
+			{
+				out.println("\t\tthrow new UnsupportedOperationException(\"" + beanName
+					+ " has no accessible no argument constructor\");");
+			}
+			out.println("\t}");
+			out.println();
+			
+			// indexOf
+			out.println("\t@Override");
+			out.println("\tpublic int indexOf(final Class<?> declaringClass, final String fieldName)");
+			out.println("\t{");
+			out.println("\t\tswitch (declaringClass.getName() + \"#\" + fieldName)");
+			out.println("\t\t{");
+			for (int i = 0; i < fieldWrites.size(); i++)
+			{
+				FieldWrite fieldWrite = fieldWrites.get(i);
+				out.println("\t\t\tcase \"" + fieldWrite.declaringClass + "#" + fieldWrite.fieldName + "\":");
+				out.println("\t\t\t\treturn " + i + ";");
+			}
+			out.println("\t\t\tdefault:");
+			out.println("\t\t\t\treturn -1;");
+			out.println("\t\t}");
+			out.println("\t}");
+			out.println();
+			
+			// write
+			out.println("\t@Override");
+			out.println("\tpublic void write(final " + beanName + " bean, final int index, final Object value)");
+			out.println("\t{");
+			out.println("\t\tswitch (index)");
+			out.println("\t\t{");
+			for (int i = 0; i < fieldWrites.size(); i++)
+			{
+				out.println("\t\t\tcase " + i + ":");
+				out.println("\t\t\t\t" + fieldWrites.get(i).statement + ";");
+				out.println("\t\t\t\tbreak;");
+			}
+			out.println("\t\t\tdefault:");
+			out.println("\t\t\t\tthrow new IndexOutOfBoundsException(\"No writable field with index \" + index);");
+			out.println("\t\t}");
+			out.println("\t}");
+			out.println("}");
+		}
+		finally
+		{
+			out.close();
+		}
+		
+		populatorNames.add(populatorName);
+	}
+	
+	/**
+	 * Writes the service file that registers every generated populator. Entries that were written
+	 * by an earlier compilation are preserved.
+	 * 
+	 * @throws IOException
+	 */
+	private void writeServiceFile() throws IOException
+	{
+		// holds all of the registered populators
+		Set<String> entries = new TreeSet<String>(populatorNames);
+		
+		// read the existing entries if the file already exists
+		try
+		{
+			FileObject existing =
+				processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+			Reader reader = existing.openReader(true);
+			BufferedReader bufferedReader = new BufferedReader(reader);
+			try
+			{
+				String line;
+				while (null != (line = bufferedReader.readLine()))
+				{
+					line = line.trim();
+					if (!line.isEmpty() && !line.startsWith("#"))
+					{
+						entries.add(line);
+					}
+				}
+			}
+			finally
+			{
+				bufferedReader.close();
+			}
+		}
+		catch (IOException e)
+		{
+			// the file does not exist yet
+		}
+		
+		FileObject serviceFile = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+			SERVICE_FILE);
+		PrintWriter out =
+			new PrintWriter(new OutputStreamWriter(serviceFile.openOutputStream(), StandardCharsets.UTF_8));
+		try
+		{
+			for (String entry : entries)
+			{
+				out.println(entry);
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+	
+	/**
+	 * Determines if a field can be assigned directly from the package of the bean
+	 * 
+	 * @param field
+	 * @param packageElement
+	 * @return boolean
+	 */
+	private boolean isAccessible(final Element field, final PackageElement packageElement)
+	{
+		Set<Modifier> modifiers = field.getModifiers();
+		if (modifiers.contains(Modifier.PRIVATE))
+		{
+			return false;
+		}
+		else if (modifiers.contains(Modifier.PUBLIC))
+		{
+			return true;
+		}
+		else
+		{
+			// package private and protected members are accessible from the same package
+			return processingEnv.getElementUtils().getPackageOf(field).equals(packageElement);
+		}
+	}
+	
+	/**
+	 * Determines if the bean can be allocated with its no argument constructor
+	 * 
+	 * @param type
+	 * @param packageElement
+	 * @return boolean
+	 */
+	private boolean canAllocate(final TypeElement type, final PackageElement packageElement)
+	{
+		if (type.getModifiers().contains(Modifier.ABSTRACT))
+		{
+			return false;
+		}
+		
+		for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements()))
+		{
+			if (constructor.getParameters().isEmpty() && isAccessible(constructor, packageElement))
+			{
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Returns the name of the type that a value is cast to before it is written to a field
+	 * 
+	 * @param type
+	 * @return String
+	 */
+	private String getValueType(final TypeMirror type)
+	{
+		// primitives are unboxed from their wrapper type
+		if (type.getKind().isPrimitive())
+		{
+			return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+		}
+		else
+		{
+			return processingEnv.getTypeUtils().erasure(type).toString();
+		}
+	}
+	
+	/**
+	 * Returns the superclass of a type or null if it is a direct descendant of Object
+	 * 
+	 * @param type
+	 * @return TypeElement
+	 */
+	private TypeElement getSuperclass(final TypeElement type)
+	{
+		TypeMirror superclass = type.getSuperclass();
+		if (superclass.getKind() != TypeKind.DECLARED)
+		{
+			return null;
+		}
+		
+		TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+		return element.getQualifiedName().contentEquals(Object.class.getName()) ? null : element;
+	}
+	
+	/**
+	 * Describes how a single field is written
+	 * 
+	 * @author Greg Marut
+	 */
+	private static final class FieldWrite
+	{
+		private final String declaringClass;
+		private final String fieldName;
+		private final String statement;
+		
+		private FieldWrite(final String declaringClass, final String fieldName, final String statement)
+		{
+			this.declaringClass = declaringClass;
+			this.fieldName = fieldName;
+			this.statement = statement;
+		}
+	}
+}
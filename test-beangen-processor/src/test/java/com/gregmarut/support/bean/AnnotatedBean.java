@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.bean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.gregmarut.support.beangenerator.populator.GenerateBean;
+
+/**
+ * A bean used for demonstrating generated populators. The fields are written directly or through
+ * reflection depending on their visibility.
+ *
+ * @author Greg Marut
+ */
+@GenerateBean
+public class AnnotatedBean extends AnnotatedParentBean
+{
+	private final List<AnnotatedChildBean> finalChildren;
+	private List<AnnotatedChildBean> children;
+	
+	private String name;
+	private int count;
+	private boolean active;
+	private AnnotatedChildBean child;
+	
+	// package private fields are written directly
+	String packageString;
+	
+	// fields without setters are written through reflection
+	private String noSetter;
+	
+	private transient String transientString;
+	
+	public AnnotatedBean()
+	{
+		this.finalChildren = new ArrayList<AnnotatedChildBean>();
+	}
+	
+	public List<AnnotatedChildBean> getFinalChildren()
+	{
+		return finalChildren;
+	}
+	
+	public List<AnnotatedChildBean> getChildren()
+	{
+		return children;
+	}
+	
+	public void setChildren(List<AnnotatedChildBean> children)
+	{
+		this.children = children;
+	}
+	
+	public String getName()
+	{
+		return name;
+	}
+	
+	public void setName(String name)
+	{
+		this.name = name;
+	}
+	
+	public int getCount()
+	{
+		return count;
+	}
+	
+	public void setCount(int count)
+	{
+		this.count = count;
+	}
+	
+	public boolean isActive()
+	{
+		return active;
+	}
+	
+	public void setActive(boolean active)
+	{
+		this.active = active;
+	}
+	
+	public AnnotatedChildBean getChild()
+	{
+		return child;
+	}
+	
+	public void setChild(AnnotatedChildBean child)
+	{
+		this.child = child;
+	}
+	
+	public String getPackageString()
+	{
+		return packageString;
+	}
+	
+	public String getNoSetter()
+	{
+		return noSetter;
+	}
+	
+	public String getTransientString()
+	{
+		return transientString;
+	}
+	
+	/**
+	 * A nested bean used for demonstrating generated populators
+	 */
+	@GenerateBean
+	public static class AnnotatedChildBean
+	{
+		private String childName;
+		private Double amount;
+		
+		public String getChildName()
+		{
+			return childName;
+		}
+		
+		public void setChildName(String childName)
+		{
+			this.childName = childName;
+		}
+		
+		public Double getAmount()
+		{
+			return amount;
+		}
+		
+		public void setAmount(Double amount)
+		{
+			this.amount = amount;
+		}
+	}
+}
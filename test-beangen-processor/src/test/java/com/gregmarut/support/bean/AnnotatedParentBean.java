@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.bean;
+
+import com.gregmarut.support.beangenerator.populator.GenerateBean;
+
+/**
+ * A parent bean used for demonstrating generated populators
+ *
+ * @author Greg Marut
+ */
+@GenerateBean
+public class AnnotatedParentBean
+{
+	private String parentString;
+	
+	protected long parentNumber;
+	
+	public String getParentString()
+	{
+		return parentString;
+	}
+	
+	public void setParentString(String parentString)
+	{
+		this.parentString = parentString;
+	}
+	
+	public long getParentNumber()
+	{
+		return parentNumber;
+	}
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.bean;
+
+import com.gregmarut.support.beangenerator.populator.GenerateBean;
+
+/**
+ * A bean without a no argument constructor used for demonstrating that generated populators only
+ * allocate beans they can construct
+ *
+ * @author Greg Marut
+ */
+@GenerateBean
+public class ConstructorBean
+{
+	String label;
+	
+	public ConstructorBean(final String label)
+	{
+		this.label = label;
+	}
+	
+	public String getLabel()
+	{
+		return label;
+	}
+	
+	/**
+	 * A bean that refers to a bean without a no argument constructor
+	 */
+	@GenerateBean
+	public static class ConstructorHolderBean
+	{
+		ConstructorBean constructorBean;
+		String name;
+		
+		public ConstructorBean getConstructorBean()
+		{
+			return constructorBean;
+		}
+		
+		public String getName()
+		{
+			return name;
+		}
+	}
+}
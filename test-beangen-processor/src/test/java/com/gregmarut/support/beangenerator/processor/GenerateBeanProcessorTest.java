@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.gregmarut.support.bean.AnnotatedBean;
+import com.gregmarut.support.bean.AnnotatedBean.AnnotatedChildBean;
+import com.gregmarut.support.bean.AnnotatedParentBean;
+import com.gregmarut.support.bean.ConstructorBean;
+import com.gregmarut.support.bean.ConstructorBean.ConstructorHolderBean;
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+import com.gregmarut.support.beangenerator.config.DefaultValues;
+import com.gregmarut.support.beangenerator.populator.BeanPopulator;
+import com.gregmarut.support.beangenerator.populator.BeanPopulatorRegistry;
+import com.gregmarut.support.beangenerator.rule.condition.FieldNameMatchesCondition;
+
+/**
+ * This test demonstrates that populators are generated at compile time and used by the
+ * BeanPropertyGenerator
+ * 
+ * @author Greg Marut
+ */
+public class GenerateBeanProcessorTest
+{
+	// holds the BeanPropertyGenerator which is used for creating and populating objects with test
+	// data
+	private BeanPropertyGenerator beanPropertyGenerator;
+	
+	@Before
+	public void setup()
+	{
+		// create a new BeanPropertyGenerator
+		beanPropertyGenerator = new BeanPropertyGenerator(false);
+	}
+	
+	@Test
+	public void registryTest()
+	{
+		// make sure every annotated class has a registered populator
+		assertNotNull(BeanPopulatorRegistry.find(AnnotatedBean.class));
+		assertNotNull(BeanPopulatorRegistry.find(AnnotatedChildBean.class));
+		assertNotNull(BeanPopulatorRegistry.find(AnnotatedParentBean.class));
+		
+		// classes that are not annotated have no populator
+		assertNull(BeanPopulatorRegistry.find(String.class));
+		assertNull(BeanPopulatorRegistry.find(GenerateBeanProcessorTest.class));
+	}
+	
+	@Test
+	public void fieldIndexTest()
+	{
+		BeanPopulator<AnnotatedBean> populator = BeanPopulatorRegistry.find(AnnotatedBean.class);
+		
+		// accessible fields, including inherited ones, can be written
+		assertTrue(populator.indexOf(AnnotatedBean.class, "packageString") >= 0);
+		assertTrue(populator.indexOf(AnnotatedParentBean.class, "parentNumber") >= 0);
+		
+		// private fields are never written through their setters since the setters may have side effects
+		assertEquals(-1, populator.indexOf(AnnotatedBean.class, "name"));
+		assertEquals(-1, populator.indexOf(AnnotatedParentBean.class, "parentString"));
+		
+		// fields that are final, transient or private are not written by the populator
+		assertEquals(-1, populator.indexOf(AnnotatedBean.class, "finalChildren"));
+		assertEquals(-1, populator.indexOf(AnnotatedBean.class, "transientString"));
+		assertEquals(-1, populator.indexOf(AnnotatedBean.class, "noSetter"));
+		assertEquals(-1, populator.indexOf(AnnotatedParentBean.class, "name"));
+	}
+	
+	@Test
+	public void populateTest()
+	{
+		// add a rule to ensure that the rules are still honored
+		beanPropertyGenerator.getConfiguration().createRuleBuilder().forType(String.class)
+			.when(new FieldNameMatchesCondition("name")).thenReturn("John");
+		
+		// generate the bean twice so that the second pass allocates through the populator
+		for (int i = 0; i < 2; i++)
+		{
+			AnnotatedBean bean = beanPropertyGenerator.get(AnnotatedBean.class);
+			
+			assertEquals("John", bean.getName());
+			assertEquals(DefaultValues.DEFAULT_INTEGER.intValue(), bean.getCount());
+			assertEquals(DefaultValues.DEFAULT_BOOLEAN.booleanValue(), bean.isActive());
+			assertEquals("packageString", bean.getPackageString());
+			assertEquals("noSetter", bean.getNoSetter());
+			assertEquals("parentString", bean.getParentString());
+			assertEquals(DefaultValues.DEFAULT_LONG.longValue(), bean.getParentNumber());
+			assertNull(bean.getTransientString());
+			
+			assertEquals("childName", bean.getChild().getChildName());
+			assertEquals(DefaultValues.DEFAULT_DOUBLE, bean.getChild().getAmount());
+			
+			assertEquals(BeanPropertyGenerator.DEFAULT_COLLECTION_AUTO_FILL_COUNT, bean.getChildren().size());
+			assertEquals(BeanPropertyGenerator.DEFAULT_COLLECTION_AUTO_FILL_COUNT, bean.getFinalChildren().size());
+			assertEquals("childName", bean.getFinalChildren().get(0).getChildName());
+		}
+		
+		// make sure the plan allocates through the generated populator
+		assertTrue(BeanPopulatorRegistry.find(AnnotatedBean.class).canInstantiate());
+		assertTrue(beanPropertyGenerator.getConfiguration().getBeanPlanCache().findPlan(AnnotatedBean.class)
+			.canInstantiate());
+	}
+	
+	@Test
+	public void noDefaultConstructorTest()
+	{
+		// the populator cannot allocate a bean without a no argument constructor
+		assertFalse(BeanPopulatorRegistry.find(ConstructorBean.class).canInstantiate());
+		
+		// compile the plan of the bean by populating an existing instance
+		ConstructorBean constructorBean = beanPropertyGenerator.populate(new ConstructorBean("value"));
+		assertEquals("label", constructorBean.getLabel());
+		assertFalse(beanPropertyGenerator.getConfiguration().getBeanPlanCache().findPlan(ConstructorBean.class)
+			.canInstantiate());
+		
+		// a field of the bean cannot be instantiated and is left empty like without a populator
+		ConstructorHolderBean holder = beanPropertyGenerator.get(ConstructorHolderBean.class);
+		assertNull(holder.getConstructorBean());
+		assertEquals("name", holder.getName());
+	}
+}
@@ -0,0 +1,637 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.gregmarut.support.beangenerator.cache.Cache;
+import com.gregmarut.support.beangenerator.cache.Retrieve;
+import com.gregmarut.support.beangenerator.config.CacheOverride;
+import com.gregmarut.support.beangenerator.config.Configuration;
+import com.gregmarut.support.beangenerator.config.DefaultValues;
+import com.gregmarut.support.beangenerator.config.InterfaceMapper;
+import com.gregmarut.support.beangenerator.config.RepeatDepthOverride;
+import com.gregmarut.support.beangenerator.jfr.Events;
+import com.gregmarut.support.beangenerator.jfr.GenerateEvent;
+import com.gregmarut.support.beangenerator.listener.GenerationListener;
+import com.gregmarut.support.beangenerator.metrics.GeneratorMetrics;
+import com.gregmarut.support.beangenerator.plan.PrototypeCopier;
+import com.gregmarut.support.beangenerator.rule.RuleMapping;
+
+/**
+ * <pre>
+ * This class generates beans and cascades all of its fields to fully populate a bean with test data. 
+ * 
+ * Whenever a new field is initialized, the {@link DefaultValues}, is first checked to see if a matching type is found. 
+ * If no type has been set as the default, a new instance is created and set. However, unless otherwise overridden in 
+ * the {@link DefaultValues}, String fields are handled differently. By default, A String field's default value is set 
+ * to the name of the field. 
+ * 
+ * Collections are automatically populated with X number of objects of the specified generic type where X is 
+ * <i>collectionAutoFillCount</i> in the configuration. If no generic is specified for the collection, it is not 
+ * automatically populated with objects.
+ * 
+ * A BeanPropertyGenerator is thread safe and may be shared by any number of threads, for example
+ * by tests that run in parallel. The configuration, cache and compiled bean plans are read without
+ * taking locks while the state of each traversal is confined to the calling thread. When caching
+ * is enabled, concurrent callers always receive the same cached instance of a class.
+ * </pre>
+ * 
+ * @author Greg Marut
+ */
+public final class BeanPropertyGenerator
+{
+	// ** Finals **//
+	// holds the number of objects to auto populate into a collection whenever
+	// one is created
+	public static final int DEFAULT_COLLECTION_AUTO_FILL_COUNT = 3;
+	
+	// holds the number of chunks per available processor that the index range of a parallel list
+	// is split into so that uneven chunks are balanced out
+	private static final int PARALLEL_CHUNKS_PER_PROCESSOR = 4;
+	
+	// ** Objects **//
+	// holds the cache for this BeanPropertyGenerator
+	private final Cache cache;
+	
+	// holds the configuration for this generator
+	private final Configuration configuration;
+	
+	// holds the metrics of this generator and its cache
+	private final GeneratorMetrics metrics;
+	
+	// holds the copier of the prototype of each class when prototypes are cloned
+	private final ConcurrentMap<Class<?>, PrototypeCopier> prototypeCopiers =
+		new ConcurrentHashMap<Class<?>, PrototypeCopier>();
+	
+	// holds the initializer of each thread that is reused when the traversal state is reused
+	private final ThreadLocal<BeanPropertyInitializer> reusableInitializer =
+		new ThreadLocal<BeanPropertyInitializer>()
+		{
+			@Override
+			protected BeanPropertyInitializer initialValue()
+			{
+				return new BeanPropertyInitializer(configuration, cache, metrics);
+			}
+		};
+	
+	/**
+	 * Constructs a new BeanPropertyGenerator object Bean caching is enabled by default
+	 */
+	public BeanPropertyGenerator()
+	{
+		this(true, false);
+	}
+	
+	/**
+	 * Constructs a new BeanPropertyGenerator object
+	 * 
+	 * @param useCache
+	 *        Determines whether or not to cache beans once they are created for faster performance.
+	 *        Be advised that
+	 *        once caching is enabled, any objects that are created again within the same scope
+	 *        reference the
+	 *        originally created object. If the referenced object was previously modified, all
+	 *        consequent calls
+	 *        return the same modified object.
+	 */
+	public BeanPropertyGenerator(final boolean useCache)
+	{
+		this(useCache, false);
+	}
+	
+	/**
+	 * Constructs a new BeanPropertyGenerator object
+	 * 
+	 * @param useCache
+	 *        Determines whether or not to cache beans once they are created for faster performance.
+	 *        Be advised that
+	 *        once caching is enabled, any objects that are created again within the same scope
+	 *        reference the
+	 *        originally created object. If the referenced object was previously modified, all
+	 *        consequent calls
+	 *        return the same modified object.
+	 * @param proxyUnmappedInterfaces
+	 *        Determines if interfaces that have not been mapped should be instantiated using
+	 *        dynamic proxies. These
+	 *        proxies will then generate any objects that are returned from the interfaces
+	 */
+	public BeanPropertyGenerator(final boolean useCache, final boolean proxyUnmappedInterfaces)
+	{
+		// assign the configuration
+		this.configuration = new Configuration();
+		
+		// assign the default values in the configuration
+		configuration.setDefaultValues(new DefaultValues());
+		configuration.setInterfaceMapper(new InterfaceMapper());
+		configuration.setRuleMapping(new RuleMapping());
+		configuration.setCacheOverride(new CacheOverride());
+		configuration.setRepeatDepthOverride(new RepeatDepthOverride());
+		configuration.setProxyUnmappedInterfaces(proxyUnmappedInterfaces);
+		configuration.setCollectionAutoFillCount(DEFAULT_COLLECTION_AUTO_FILL_COUNT);
+		configuration.setCache(useCache);
+		
+		// instantiate the new cache for this instance
+		this.cache = new Cache();
+		this.metrics = new GeneratorMetrics(cache);
+	}
+	
+	/**
+	 * Constructs a new BeanPropertyGenerator object
+	 * 
+	 * @param configuration
+	 *        Holds the configuration that will determine how this generator will function
+	 */
+	public BeanPropertyGenerator(final Configuration configuration)
+	{
+		// assign the configuration
+		this.configuration = configuration;
+		
+		// instantiate the new cache for this instance
+		this.cache = new Cache();
+		this.metrics = new GeneratorMetrics(cache);
+	}
+	
+	/**
+	 * Retrieves an object from the map of bean objects. If the object does not yet exist in the
+	 * map, it is initialized
+	 * and returned
+	 * 
+	 * @param clazz
+	 * @return Object
+	 */
+	public <T> T get(final Class<T> clazz)
+	{
+		return get(clazz, true);
+	}
+	
+	/**
+	 * Retrieves an object from the map of bean objects. If the object does not yet exist in the
+	 * map, it is initialized
+	 * and returned
+	 * 
+	 * @param clazz
+	 * @param populate
+	 * @return Object
+	 */
+	public <T> T get(final Class<T> clazz, final boolean populate)
+	{
+		// measure how long it takes to retrieve the bean
+		final long start = System.nanoTime();
+		
+		// the event is only passed on while a recording is running so that it costs nothing otherwise
+		GenerateEvent event = Events.beginGenerate();
+		
+		try
+		{
+			return retrieve(clazz, populate, event);
+		}
+		finally
+		{
+			metrics.getGetLatency().record(System.nanoTime() - start);
+			
+			if (null != event && event.shouldCommit())
+			{
+				event.beanClass = clazz;
+				event.commit();
+			}
+		}
+	}
+	
+	/**
+	 * Retrieves an object from the cache, copies it from a prototype or initializes it
+	 * 
+	 * @param clazz
+	 * @param populate
+	 * @param event
+	 *        the event that receives the size of the generated object graph or null
+	 * @return Object
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T retrieve(final Class<T> clazz, final boolean populate, final GenerateEvent event)
+	{
+		// check to see if caching is enabled
+		if (configuration.useCache(clazz))
+		{
+			// create the object that instructs how to retrieve the object
+			RetrieveByInitialize<T> retrieve = new RetrieveByInitialize<T>(clazz, populate, event);
+			T object = (T) cache.getOrRetieve(clazz, retrieve);
+			
+			// the object was found in the cache unless this call retrieved it
+			GenerationListener listener = configuration.getGenerationListener();
+			if (null != listener && !retrieve.retrieved)
+			{
+				listener.cacheHit(clazz);
+			}
+			
+			return object;
+		}
+		// check to see if this object is copied from a prototype
+		else if (populate && configuration.isClonePrototypes())
+		{
+			return (T) copyPrototype(clazz, event);
+		}
+		else
+		{
+			return initialize(clazz, populate, event);
+		}
+	}
+	
+	/**
+	 * Creates a new copy of the prototype of the specified class. The prototype is generated the
+	 * first time and again whenever it no longer reflects the configuration.
+	 * 
+	 * @param clazz
+	 * @param event
+	 *        the event that receives the size of the copied object graph or null
+	 * @return Object
+	 */
+	private Object copyPrototype(final Class<?> clazz, final GenerateEvent event)
+	{
+		try
+		{
+			// retrieve the copier for this class
+			PrototypeCopier prototypeCopier = prototypeCopiers.get(clazz);
+			
+			// check to see if the prototype needs to be generated
+			if (null == prototypeCopier || !prototypeCopier.isCurrent())
+			{
+				prototypeCopier = PrototypeCopier.compile(initialize(clazz, true, null), configuration);
+				prototypeCopiers.put(clazz, prototypeCopier);
+			}
+			
+			Object copy = prototypeCopier.copy();
+			
+			// every copied object counts as an instantiation of its class
+			for (Map.Entry<Class<?>, Integer> objectCount : prototypeCopier.getObjectCounts().entrySet())
+			{
+				metrics.recordInstantiations(objectCount.getKey(), objectCount.getValue());
+			}
+			
+			if (null != event)
+			{
+				event.depth = prototypeCopier.getDepth();
+				event.objectCount = prototypeCopier.getObjectCount();
+			}
+			
+			return copy;
+		}
+		catch (IllegalAccessException e)
+		{
+			throw new BeanInitializationException(e);
+		}
+	}
+	
+	/**
+	 * Discards the prototypes of every class so that they are generated again with the current
+	 * configuration
+	 */
+	public void clearPrototypes()
+	{
+		prototypeCopiers.clear();
+	}
+	
+	/**
+	 * Initializes a new object of the specified class
+	 * 
+	 * @param clazz
+	 * @param populate
+	 * @param event
+	 *        the event that receives the size of the generated object graph or null
+	 * @return T
+	 */
+	private <T> T initialize(final Class<T> clazz, final boolean populate, final GenerateEvent event)
+	{
+		BeanPropertyInitializer initializer = getBeanPropertyInitializer();
+		
+		try
+		{
+			// attempt to initialize the new model object
+			return initializer.initializeRoot(clazz, populate);
+		}
+		catch (InstantiationException e)
+		{
+			metrics.recordInstantiationFailure();
+			
+			GenerationListener listener = configuration.getGenerationListener();
+			if (null != listener)
+			{
+				listener.instantiationFailed(clazz, e);
+			}
+			
+			throw new BeanInitializationException(e);
+		}
+		catch (IllegalAccessException e)
+		{
+			throw new BeanInitializationException(e);
+		}
+		finally
+		{
+			// the state of the call remains readable until the initializer is used again
+			if (null != event)
+			{
+				event.depth = initializer.cursor.maxDepth();
+				event.objectCount = initializer.instantiations;
+			}
+		}
+	}
+	
+	/**
+	 * Creates a list and populates it with objects of the specified class type
+	 * 
+	 * @param clazz
+	 *        The class to instantiate
+	 * @return
+	 */
+	public <T> List<T> getList(final Class<T> clazz)
+	{
+		return getList(clazz, configuration.getCollectionAutoFillCount());
+	}
+	
+	/**
+	 * Creates a list and populates it with objects of the specified class type
+	 * 
+	 * @param clazz
+	 *        The class to instantiate
+	 * @param count
+	 *        How many objects to put into the list
+	 * @return
+	 */
+	public <T> List<T> getList(final Class<T> clazz, final int count)
+	{
+		// measure how long it takes to fill the list
+		final long start = System.nanoTime();
+		
+		List<T> list = new ArrayList<T>(count);
+		
+		for (int i = 0; i < count; i++)
+		{
+			// get a new populated instance of the object
+			T obj = get(clazz);
+			
+			// add the object to the list
+			list.add(obj);
+		}
+		
+		metrics.getGetListLatency().record(System.nanoTime() - start);
+		return list;
+	}
+	
+	/**
+	 * Creates a list and populates it with objects of the specified class type using the common
+	 * fork-join pool
+	 * 
+	 * @param clazz
+	 *        The class to instantiate
+	 * @param count
+	 *        How many objects to put into the list
+	 * @return
+	 * @see #getList(Class, int, Executor)
+	 */
+	public <T> List<T> getParallelList(final Class<T> clazz, final int count)
+	{
+		return getList(clazz, count, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Creates a list and populates it with objects of the specified class type. The index range of
+	 * the list is split into chunks that are generated on the given executor. Every object is
+	 * stored at its own index so the list is always in index order and, for the same
+	 * configuration, has the same contents regardless of the degree of parallelism.
+	 * 
+	 * @param clazz
+	 *        The class to instantiate
+	 * @param count
+	 *        How many objects to put into the list
+	 * @param executor
+	 *        The executor that generates the chunks of the list
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> List<T> getList(final Class<T> clazz, final int count, final Executor executor)
+	{
+		// make sure the executor is not null
+		if (null == executor)
+		{
+			throw new IllegalArgumentException("executor cannot be null");
+		}
+		
+		// make sure the count is not negative
+		if (count < 0)
+		{
+			throw new IllegalArgumentException("count cannot be negative");
+		}
+		
+		// measure how long it takes to fill the list
+		final long started = System.nanoTime();
+		
+		// holds the objects at their final index
+		final Object[] elements = new Object[count];
+		
+		// determine the size of each chunk
+		int chunks = Runtime.getRuntime().availableProcessors() * PARALLEL_CHUNKS_PER_PROCESSOR;
+		int chunkSize = Math.max(1, (count + chunks - 1) / chunks);
+		
+		// submit each chunk of the index range to the executor
+		List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>();
+		for (int start = 0; start < count; start += chunkSize)
+		{
+			final int from = start;
+			final int to = Math.min(count, start + chunkSize);
+			
+			futures.add(CompletableFuture.runAsync(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					for (int i = from; i < to; i++)
+					{
+						// get a new populated instance of the object
+						elements[i] = get(clazz);
+					}
+				}
+			}, executor));
+		}
+		
+		try
+		{
+			// wait for every chunk to complete
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).join();
+		}
+		catch (CompletionException e)
+		{
+			// rethrow the original failure of the chunk
+			if (e.getCause() instanceof RuntimeException)
+			{
+				throw (RuntimeException) e.getCause();
+			}
+			else if (e.getCause() instanceof Error)
+			{
+				throw (Error) e.getCause();
+			}
+			
+			throw e;
+		}
+		
+		metrics.getGetListLatency().record(System.nanoTime() - started);
+		return new ArrayList<T>((List<T>) Arrays.asList(elements));
+	}
+	
+	/**
+	 * Returns an unbounded stream of objects of the specified class type. Objects are only created
+	 * when they are pulled from the stream, so memory use does not grow with the number of objects
+	 * consumed. The stream must be limited or short-circuited by the caller.
+	 * 
+	 * @param clazz
+	 *        The class to instantiate
+	 * @return Stream
+	 */
+	public <T> Stream<T> stream(final Class<T> clazz)
+	{
+		return StreamSupport.stream(new BeanSpliterator<T>(this, clazz, 0, Long.MAX_VALUE, false), false);
+	}
+	
+	/**
+	 * Returns a stream of the given number of objects of the specified class type. Objects are only
+	 * created when they are pulled from the stream. A parallel stream splits the objects across the
+	 * threads of the common fork-join pool.
+	 * 
+	 * @param clazz
+	 *        The class to instantiate
+	 * @param count
+	 *        How many objects the stream contains
+	 * @return Stream
+	 */
+	public <T> Stream<T> stream(final Class<T> clazz, final long count)
+	{
+		// make sure the count is not negative
+		if (count < 0)
+		{
+			throw new IllegalArgumentException("count cannot be negative.");
+		}
+		
+		return StreamSupport.stream(new BeanSpliterator<T>(this, clazz, 0, count, true), false);
+	}
+	
+	/**
+	 * Populates an object
+	 * 
+	 * @param object
+	 * @return T
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T populate(final T object)
+	{
+		// attempt to initialize the new model object
+		return (T) getBeanPropertyInitializer().initializeRoot(object);
+	}
+	
+	/**
+	 * Returns the configuration that are associated with this bean property generator
+	 * 
+	 * @return
+	 */
+	public Configuration getConfiguration()
+	{
+		return configuration;
+	}
+	
+	/**
+	 * Return the instance of the cache object
+	 * 
+	 * @return
+	 */
+	public Cache getCache()
+	{
+		return cache;
+	}
+	
+	/**
+	 * Returns the metrics of this generator and its cache
+	 * 
+	 * @return GeneratorMetrics
+	 */
+	public GeneratorMetrics getMetrics()
+	{
+		return metrics;
+	}
+	
+	/**
+	 * Checks to see if a bean property initializer was set
+	 * 
+	 * @return
+	 */
+	protected final BeanPropertyInitializer getBeanPropertyInitializer()
+	{
+		// check to see if the initializer of this thread should be reused
+		if (configuration.isReuseTraversalState())
+		{
+			// a value or rule may generate another bean while the initializer is still in use
+			BeanPropertyInitializer initializer = reusableInitializer.get();
+			if (!initializer.isInUse())
+			{
+				return initializer;
+			}
+		}
+		
+		// create a new instance of the initializer so that it is thread safe.
+		return new BeanPropertyInitializer(configuration, cache, metrics);
+	}
+	
+	/**
+	 * Defines a blueprint for how to retrieve a root object by initializing it
+	 * 
+	 * @author Greg Marut
+	 */
+	private final class RetrieveByInitialize<T> implements Retrieve<T>
+	{
+		private final Class<T> clazz;
+		private final boolean populate;
+		private final GenerateEvent event;
+		
+		// determines whether or not the object was retrieved by this instance
+		private boolean retrieved;
+		
+		private RetrieveByInitialize(final Class<T> clazz, final boolean populate, final GenerateEvent event)
+		{
+			this.clazz = clazz;
+			this.populate = populate;
+			this.event = event;
+		}
+		
+		@Override
+		public T retrieve()
+		{
+			retrieved = true;
+			
+			GenerationListener listener = configuration.getGenerationListener();
+			if (null != listener)
+			{
+				listener.cacheMiss(clazz);
+			}
+			
+			return initialize(clazz, populate, event);
+		}
+	}
+}
@@ -0,0 +1,1283 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ *
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator;
+
+import com.gregmarut.support.beangenerator.cache.Cache;
+import com.gregmarut.support.beangenerator.cache.Retrieve;
+import com.gregmarut.support.beangenerator.config.CacheOverrideType;
+import com.gregmarut.support.beangenerator.config.Configuration;
+import com.gregmarut.support.beangenerator.config.InterfaceMapper;
+import com.gregmarut.support.beangenerator.config.TraversalMode;
+import com.gregmarut.support.beangenerator.jfr.Events;
+import com.gregmarut.support.beangenerator.jfr.InitializeEvent;
+import com.gregmarut.support.beangenerator.listener.GenerationListener;
+import com.gregmarut.support.beangenerator.metrics.GeneratorMetrics;
+import com.gregmarut.support.beangenerator.plan.BeanPlan;
+import com.gregmarut.support.beangenerator.plan.FieldPlan;
+import com.gregmarut.support.beangenerator.plan.FieldPlan.ValueSource;
+import com.gregmarut.support.beangenerator.proxy.GeneratorInterfaceProxy;
+import com.gregmarut.support.beangenerator.rule.Rule;
+import com.gregmarut.support.beangenerator.value.NullValue;
+import com.gregmarut.support.beangenerator.value.StaticValue;
+import com.gregmarut.support.beangenerator.value.Value;
+import com.gregmarut.support.util.ClassConversionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class is responsible for the actual initialization of a bean object. It uses reflection to
+ * cascade an object
+ * looking for all declared fields and creates a new instance of that class.
+ * <p>
+ * An initializer holds the traversal state of a call and is therefore confined to the thread that
+ * created it. It must not be shared between threads. Once a call has returned, the same initializer
+ * may be reused for the next call on that thread, which is how the generator avoids allocating any
+ * traversal state when {@link Configuration#isReuseTraversalState()} is enabled.
+ *
+ * @author Greg Marut
+ */
+public class BeanPropertyInitializer
+{
+	// ** Objects **//
+	// instantiate the logger
+	protected final Logger logger = LoggerFactory.getLogger(getClass());
+	
+	protected Configuration configuration;
+	
+	// holds the cache for this BeanPropertyGenerator
+	protected final Cache cache;
+	
+	// holds the metrics of the BeanPropertyGenerator
+	final GeneratorMetrics metrics;
+	
+	// holds the listener of the current call or null if none is registered. Every event is guarded
+	// by a null check so that the traversal does not pay for listeners unless one is registered.
+	GenerationListener listener;
+	
+	// holds the number of objects that were instantiated by the current call
+	int instantiations;
+	
+	// holds the number of times each class is currently being populated along the path from the
+	// root object to detect and prevent infinite loops. This map belongs to the current call only.
+	protected final Map<Class<?>, int[]> instantiationDepths;
+	
+	// holds the beans of cached classes that the current call is populating, so that cyclical
+	// references share a bean before it is complete without publishing it to the shared cache
+	private final Map<Class<?>, Object> populating;
+	
+	// holds the fields from the root object to the field that is currently being populated
+	final TraversalCursor cursor;
+	
+	// determines if a call is currently using this initializer
+	private boolean inUse;
+	
+	// holds the engine that walks the object graph without recursion once it is needed
+	private IterativeTraversal iterativeTraversal;
+	
+	/**
+	 * Constructs a new BeanPropertyInitializer
+	 *
+	 * @param configuration
+	 * @param cache
+	 * @param metrics
+	 */
+	BeanPropertyInitializer(final Configuration configuration, final Cache cache, final GeneratorMetrics metrics)
+	{
+		// make sure the configuration are not null
+		if (null == configuration)
+		{
+			throw new IllegalArgumentException("configuration cannot be null");
+		}
+		
+		// make sure the metrics are not null
+		if (null == metrics)
+		{
+			throw new IllegalArgumentException("metrics cannot be null");
+		}
+		
+		setConfiguration(configuration);
+		
+		this.instantiationDepths = new IdentityHashMap<Class<?>, int[]>();
+		this.populating = new IdentityHashMap<Class<?>, Object>();
+		this.cursor = new TraversalCursor();
+		this.cache = cache;
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * Determines if a call is currently using this initializer. This is the case when a value or
+	 * rule generates another bean while this initializer is still populating its object graph.
+	 *
+	 * @return boolean
+	 */
+	final boolean isInUse()
+	{
+		return inUse;
+	}
+	
+	/**
+	 * Initializes a class as the root object of a new call
+	 *
+	 * @param clazz
+	 * @param populate
+	 * @return Object
+	 * @throws InstantiationException
+	 * @throws IllegalAccessException
+	 */
+	final <T> T initializeRoot(final Class<T> clazz, final boolean populate)
+		throws InstantiationException, IllegalAccessException
+	{
+		inUse = true;
+		listener = configuration.getGenerationListener();
+		instantiations = 0;
+		cursor.resetMaxDepth();
+		
+		try
+		{
+			// check to see if the object graph should be walked without recursion
+			if (configuration.getTraversalMode() == TraversalMode.ITERATIVE)
+			{
+				return getIterativeTraversal().initialize(clazz, populate);
+			}
+			
+			return initialize(clazz, populate);
+		}
+		finally
+		{
+			release();
+		}
+	}
+	
+	/**
+	 * Populates an object as the root object of a new call
+	 *
+	 * @param object
+	 * @return Object
+	 */
+	final Object initializeRoot(final Object object)
+	{
+		inUse = true;
+		listener = configuration.getGenerationListener();
+		instantiations = 0;
+		cursor.resetMaxDepth();
+		
+		try
+		{
+			// check to see if the object graph should be walked without recursion
+			if (configuration.getTraversalMode() == TraversalMode.ITERATIVE)
+			{
+				return getIterativeTraversal().initialize(object);
+			}
+			
+			return initialize(object);
+		}
+		finally
+		{
+			release();
+		}
+	}
+	
+	/**
+	 * Returns the engine that walks the object graph without recursion
+	 *
+	 * @return IterativeTraversal
+	 */
+	private IterativeTraversal getIterativeTraversal()
+	{
+		// check to see if the engine needs to be created
+		if (null == iterativeTraversal)
+		{
+			iterativeTraversal = new IterativeTraversal(this);
+		}
+		
+		return iterativeTraversal;
+	}
+	
+	/**
+	 * Releases the traversal state of the current call so that this initializer can be reused
+	 */
+	private void release()
+	{
+		cursor.reset();
+		populating.clear();
+		listener = null;
+		inUse = false;
+	}
+	
+	/**
+	 * Initializes a class and returns a new instantiated object. All fields in the new object are
+	 * also instantiated.
+	 *
+	 * @param clazz
+	 * @return Object
+	 * @throws InstantiationException
+	 * @throws IllegalAccessException
+	 */
+	final <T> T initialize(final Class<T> clazz)
+		throws InstantiationException, IllegalAccessException
+	{
+		return initialize(clazz, true);
+	}
+	
+	/**
+	 * Initializes a class and returns a new instantiated object. All fields in the new object are
+	 * also instantiated
+	 * provided the populate boolean is set to true.
+	 *
+	 * @param clazz
+	 * @param populate
+	 * @return Object
+	 * @throws InstantiationException
+	 * @throws IllegalAccessException
+	 */
+	final <T> T initialize(final Class<T> clazz, final boolean populate)
+		throws InstantiationException, IllegalAccessException
+	{
+		logger.debug("Initializing {}", clazz.getName());
+		
+		// holds the object to return
+		T object = null;
+		
+		// make sure this class has not been repeated more often than allowed along the current path
+		if (getInstantiationDepth(clazz) <= configuration.getMaxRepeatDepth(clazz))
+		{
+			// the clock is only read when a listener receives the duration
+			final long started = null != listener ? startBean(clazz) : 0L;
+			
+			// the event is only begun while a recording is running so that it costs nothing otherwise
+			InitializeEvent event = Events.beginInitialize();
+			final int instantiated = instantiations;
+			
+			// determines if cyclical references share the object while it is populated
+			boolean shared = false;
+			
+			try
+			{
+				// instantiate a new version of this method
+				object = instantiate(clazz);
+				shared = beginPopulating(clazz, object);
+				
+				// make sure the new object is not null
+				// a new object can only be null if it was specifically defined as
+				// null in the
+				// configuration.getDefaultValues()
+				if (null != object && !Proxy.isProxyClass(object.getClass()))
+				{
+					if (populate)
+					{
+						// mark this class as being populated
+						int[] depth = enter(clazz);
+						
+						try
+						{
+							// populate the object via methods
+							populate(object);
+						}
+						finally
+						{
+							depth[0]--;
+						}
+					}
+				}
+			}
+			finally
+			{
+				if (shared)
+				{
+					endPopulating(clazz);
+				}
+				
+				if (null != event && event.shouldCommit())
+				{
+					commit(event, clazz, instantiated);
+				}
+				
+				if (null != listener)
+				{
+					listener.beanFinished(clazz, object, System.nanoTime() - started);
+				}
+			}
+		}
+		else
+		{
+			// an infinite loop was detected
+			logger.info("Cyclical dependency detected while attempting to initialize {}. Skipping object population.",
+				clazz.getName());
+			
+			if (null != listener)
+			{
+				listener.cycleSkipped(clazz);
+			}
+		}
+		
+		// return the object
+		return object;
+	}
+	
+	/**
+	 * Initializes an object. All fields in the new object are also instantiated.
+	 *
+	 * @param object
+	 * @return Object
+	 */
+	final Object initialize(final Object object)
+	{
+		// make sure the new object is not null
+		// a new object can only be null if it was specifically defined as null
+		// in the
+		// configuration.getDefaultValues()
+		if (null != object)
+		{
+			logger.debug("Initializing {}", object.getClass().getName());
+			
+			// the clock is only read when a listener receives the duration
+			final long started = null != listener ? startBean(object.getClass()) : 0L;
+			
+			// mark this class as being populated
+			int[] depth = enter(object.getClass());
+			
+			try
+			{
+				// populate the object via methods
+				populate(object);
+			}
+			finally
+			{
+				depth[0]--;
+				
+				if (null != listener)
+				{
+					listener.beanFinished(object.getClass(), object, System.nanoTime() - started);
+				}
+			}
+		}
+		
+		// return the new object
+		return object;
+	}
+	
+	/**
+	 * Shares a bean of a cached class with the cyclical references to its class while the current
+	 * call populates it. The bean is only visible to this call; it is published to the cache once
+	 * it is complete by the retrieval of the class that was requested.
+	 *
+	 * @param clazz
+	 * @param object
+	 * @return whether the bean is shared and must be passed to {@link #endPopulating(Class)}
+	 */
+	final boolean beginPopulating(final Class<?> clazz, final Object object)
+	{
+		// a bean that is already being populated keeps being the one that is shared
+		if (null == object || !configuration.useCache(clazz) || populating.containsKey(clazz))
+		{
+			return false;
+		}
+		
+		populating.put(clazz, object);
+		return true;
+	}
+	
+	/**
+	 * Stops sharing the bean of a class once it has been populated
+	 *
+	 * @param clazz
+	 */
+	final void endPopulating(final Class<?> clazz)
+	{
+		populating.remove(clazz);
+	}
+	
+	/**
+	 * Returns the bean of a class that the current call is populating
+	 *
+	 * @param clazz
+	 * @return the bean or null if no bean of the class is being populated
+	 */
+	final Object getPopulating(final Class<?> clazz)
+	{
+		return populating.isEmpty() ? null : populating.get(clazz);
+	}
+	
+	/**
+	 * Notifies the listener that a bean is started
+	 *
+	 * @param clazz
+	 * @return the time at which the bean was started
+	 */
+	final long startBean(final Class<?> clazz)
+	{
+		listener.beanStarted(clazz);
+		return System.nanoTime();
+	}
+	
+	/**
+	 * Commits the event of a bean that exceeded its threshold
+	 *
+	 * @param event
+	 * @param clazz
+	 * @param instantiated
+	 *        the number of objects that were instantiated by the current call before the bean was
+	 *        started
+	 */
+	final void commit(final InitializeEvent event, final Class<?> clazz, final int instantiated)
+	{
+		event.beanClass = clazz;
+		event.depth = cursor.depth();
+		event.objectCount = instantiations - instantiated;
+		event.commit();
+	}
+	
+	/**
+	 * Returns the number of times a class is currently being populated along the path from the
+	 * root object
+	 *
+	 * @param clazz
+	 * @return int
+	 */
+	final int getInstantiationDepth(final Class<?> clazz)
+	{
+		int[] depth = instantiationDepths.get(clazz);
+		return null != depth ? depth[0] : 0;
+	}
+	
+	/**
+	 * Increments the number of times a class is currently being populated
+	 *
+	 * @param clazz
+	 * @return the counter of the class which must be decremented once the object is populated
+	 */
+	final int[] enter(final Class<?> clazz)
+	{
+		// retrieve the counter of this class
+		int[] depth = instantiationDepths.get(clazz);
+		if (null == depth)
+		{
+			depth = new int[1];
+			instantiationDepths.put(clazz, depth);
+		}
+		
+		depth[0]++;
+		return depth;
+	}
+	
+	/**
+	 * Instantiates a new instance of the class. If the class is an interface, this method will
+	 * attempt to lookup the
+	 * corresponding concrete class in the {@link InterfaceMapper}.
+	 *
+	 * @param clazz
+	 * @return
+	 * @throws InstantiationException
+	 * @throws IllegalAccessException
+	 */
+	@SuppressWarnings("unchecked")
+	protected final <T> T instantiate(final Class<T> clazz)
+		throws InstantiationException, IllegalAccessException
+	{
+		// holds the object to return
+		T newObject;
+		
+		// check to see if this class is an interface
+		if (clazz.isInterface())
+		{
+			// attempt to map the interface to a concrete class to instantiate
+			// instead
+			Class<T> concreteClass = (Class<T>) configuration.getInterfaceMapper().get(clazz);
+			
+			if (null != concreteClass)
+			{
+				logger.debug("{} found to replace interface {}", concreteClass.getName(), clazz.getName());
+				
+				// instantiate a new instance of the concrete class
+				newObject = initialize(concreteClass);
+			}
+			else
+			{
+				// check to see if proxies should be generator for unmapped
+				// interfaces
+				if (configuration.getProxyUnmappedInterfaces())
+				{
+					// create a new proxy for this interface
+					newObject = GeneratorInterfaceProxy.createProxy(configuration, clazz);
+					metrics.recordInstantiation(clazz);
+					instantiations++;
+				}
+				else
+				{
+					throw new InstantiationException("Interface " + clazz.getName()
+						+ " does not have mapped concrete class in " + InterfaceMapper.class.getName());
+				}
+			}
+		}
+		// check to see if the class is an enum
+		else if (clazz.isEnum())
+		{
+			// get the array of enum constants
+			Enum<?>[] enumValues = ((Class<Enum<?>>) clazz).getEnumConstants();
+			
+			// make sure there are values
+			if (enumValues.length > 0)
+			{
+				// create a new enum value from the first value
+				newObject = (T) enumValues[0];
+			}
+			else
+			{
+				newObject = null;
+			}
+		}
+		else
+		{
+			// check to see if this value exists in the default values map
+			if (configuration.getDefaultValues().containsKey(clazz))
+			{
+				logger.debug("Found default value for {}", clazz.getName());
+				
+				// retrieve the default value
+				newObject = (T) configuration.getDefaultValues().get(clazz).getValue();
+			}
+			else
+			{
+				// make sure this class is not literally an instance of a class
+				if (!clazz.equals(Class.class))
+				{
+					// check to see if a compiled plan can allocate this object without reflection
+					BeanPlan beanPlan = configuration.getBeanPlanCache().findPlan(clazz);
+					if (null != beanPlan && beanPlan.canInstantiate())
+					{
+						newObject = (T) beanPlan.newInstance();
+					}
+					else
+					{
+						// instantiate the object
+						newObject = clazz.newInstance();
+					}
+					
+					metrics.recordInstantiation(clazz);
+					instantiations++;
+				}
+				else
+				{
+					logger.debug("Cannot instantiate a Class - assigning null.");
+					newObject = null;
+				}
+			}
+		}
+		
+		return newObject;
+	}
+	
+	/**
+	 * Fully populates an object and traverses the all of the fields recursively
+	 *
+	 * @param object
+	 */
+	protected final void populate(final Object object)
+	{
+		// retrieve the compiled plan for this class
+		BeanPlan beanPlan = configuration.getBeanPlanCache().getPlan(object);
+		
+		// set the data on the object
+		setData(object, beanPlan);
+	}
+	
+	/**
+	 * Sets the data on the object
+	 *
+	 * @param obj
+	 * @param beanPlan
+	 */
+	protected final void setData(final Object obj, final BeanPlan beanPlan)
+	{
+		// write all of the fields whose values are constants
+		beanPlan.writeConstants(obj);
+		
+		// holds the plans of the fields, iterated by index so that no iterator is created
+		List<FieldPlan> fieldPlans = beanPlan.getFieldPlans();
+		
+		// start populating the independent subgraphs in parallel if this bean is large enough
+		SubgraphTask[] subgraphTasks = isParallelPopulation(beanPlan) ? forkSubgraphs(obj, fieldPlans) : null;
+		
+		// counts the fields that were assigned a value so that the metrics are only updated once per bean
+		int populated = 0;
+		
+		// for each of the fields in the plan
+		for (int i = 0, size = fieldPlans.size(); i < size; i++)
+		{
+			FieldPlan fieldPlan = fieldPlans.get(i);
+			
+			// skip the fields that were already written as constants
+			if (fieldPlan.isConstant())
+			{
+				populated++;
+				
+				if (null != listener)
+				{
+					constantPopulated(obj, fieldPlan);
+				}
+				continue;
+			}
+			
+			// enter this field so that values can resolve the path that leads to it
+			cursor.push(fieldPlan.getField(), obj);
+			
+			try
+			{
+				// holds the value of the field
+				final Object value;
+				
+				// check to see if this field holds a collection that was already assigned
+				if (fieldPlan.getValueSource() == ValueSource.EXISTING_COLLECTION)
+				{
+					//retrieve the collection object
+					Collection<?> collection = (Collection<?>) fieldPlan.read(obj);
+					
+					//populate the collection
+					populateCollection(collection, fieldPlan);
+					value = collection;
+				}
+				// check to see if the value of this field is populated by a parallel task
+				else if (null != subgraphTasks && null != subgraphTasks[i])
+				{
+					// the values are assigned in the order of the fields like they are sequentially
+					value = subgraphTasks[i].getValue(this);
+					fieldPlan.write(obj, value);
+				}
+				else
+				{
+					// set the value on the object
+					value = getValue(obj, fieldPlan);
+					fieldPlan.write(obj, value);
+				}
+				
+				populated++;
+				
+				if (null != listener)
+				{
+					listener.fieldPopulated(obj, fieldPlan.getField(), value);
+				}
+			}
+			catch (InstantiationException e)
+			{
+				logFieldFailure(obj, fieldPlan, e);
+			}
+			catch (IllegalArgumentException e)
+			{
+				logFieldFailure(obj, fieldPlan, e);
+			}
+			catch (IllegalAccessException e)
+			{
+				logFieldFailure(obj, fieldPlan, e);
+			}
+			finally
+			{
+				cursor.pop();
+			}
+		}
+		
+		metrics.recordFieldsPopulated(populated);
+	}
+	
+	/**
+	 * Reports a field whose constant value was already written by a generated populator to the
+	 * listener, in the same way as a field that is assigned during the traversal
+	 *
+	 * @param obj
+	 * @param fieldPlan
+	 */
+	final void constantPopulated(final Object obj, final FieldPlan fieldPlan)
+	{
+		try
+		{
+			if (fieldPlan.getValueSource() == ValueSource.RULE)
+			{
+				listener.ruleMatched(obj, fieldPlan.getField(), fieldPlan.getRule());
+			}
+			
+			listener.fieldPopulated(obj, fieldPlan.getField(), fieldPlan.read(obj));
+		}
+		catch (IllegalAccessException e)
+		{
+			logFieldFailure(obj, fieldPlan, e);
+		}
+	}
+	
+	/**
+	 * Determines if the independent subgraphs of a bean are populated in parallel. This is only the
+	 * case when the result is guaranteed to be identical to populating them one after the other.
+	 *
+	 * @param beanPlan
+	 * @return boolean
+	 */
+	private boolean isParallelPopulation(final BeanPlan beanPlan)
+	{
+		return configuration.isParallelPopulation() && beanPlan.getSubgraphCount() > 0
+			&& beanPlan.getSubgraphCount() >= configuration.getParallelThreshold()
+			&& !beanPlan.isRuleLookupRequired() && !configuration.isCache()
+			&& !configuration.getCacheOverride().containsValue(CacheOverrideType.CACHE);
+	}
+	
+	/**
+	 * Forks a task for every independent subgraph of an object
+	 *
+	 * @param obj
+	 * @param fieldPlans
+	 * @return the task of each field or null if the field is populated by this initializer
+	 */
+	private SubgraphTask[] forkSubgraphs(final Object obj, final List<FieldPlan> fieldPlans)
+	{
+		SubgraphTask[] subgraphTasks = new SubgraphTask[fieldPlans.size()];
+		for (int i = 0; i < subgraphTasks.length; i++)
+		{
+			FieldPlan fieldPlan = fieldPlans.get(i);
+			if (!fieldPlan.isConstant() && fieldPlan.isSubgraph())
+			{
+				subgraphTasks[i] = new SubgraphTask(fork(fieldPlan, obj), obj, fieldPlan);
+				subgraphTasks[i].fork();
+			}
+		}
+		
+		return subgraphTasks;
+	}
+	
+	/**
+	 * Adds the objects that a forked initializer instantiated and the depth that it reached to the
+	 * state of this initializer, so that the events of this traversal describe the whole graph
+	 *
+	 * @param forked
+	 */
+	private void merge(final BeanPropertyInitializer forked)
+	{
+		instantiations += forked.instantiations;
+		cursor.extendMaxDepth(forked.cursor.maxDepth());
+	}
+	
+	/**
+	 * Creates an initializer that continues the current traversal with a field of an object on
+	 * another thread. The new initializer starts with its own copy of the cycle detection state.
+	 *
+	 * @param fieldPlan
+	 * @param obj
+	 * @return BeanPropertyInitializer
+	 */
+	private BeanPropertyInitializer fork(final FieldPlan fieldPlan, final Object obj)
+	{
+		BeanPropertyInitializer forked = new BeanPropertyInitializer(configuration, cache, metrics);
+		forked.listener = listener;
+		
+		// copy the classes that are currently being populated along the path
+		for (Map.Entry<Class<?>, int[]> entry : instantiationDepths.entrySet())
+		{
+			if (entry.getValue()[0] > 0)
+			{
+				forked.instantiationDepths.put(entry.getKey(), new int[] { entry.getValue()[0] });
+			}
+		}
+		
+		// copy the path and enter the field
+		forked.cursor.pushAll(cursor);
+		forked.cursor.push(fieldPlan.getField(), obj);
+		
+		return forked;
+	}
+	
+	/**
+	 * Logs that a field could not be populated. The remaining fields of the object are still
+	 * populated.
+	 *
+	 * @param obj
+	 * @param fieldPlan
+	 * @param e
+	 */
+	final void logFieldFailure(final Object obj, final FieldPlan fieldPlan, final Exception e)
+	{
+		if (e instanceof InstantiationException)
+		{
+			metrics.recordInstantiationFailure();
+			
+			if (null != listener)
+			{
+				listener.instantiationFailed(fieldPlan.getType(), (InstantiationException) e);
+			}
+			
+			// This condition typically occurs with data types that aren't currently
+			// supported.
+			// Info log level is used here rather than Error or Warn because there are cases
+			// where we don't mind if some fields are not initialized.
+			// One type that we've seen is JAXBElement, which can't
+			// be set to generated values without more info (such as namespace).
+			// However, some other fields in the object that are not of type JAXBElement
+			// will get set, and depending on the test case, this may be fine.
+			logger.info("Could not initialize property named: {} of type: {} in object of type: {}",
+				fieldPlan.getField().getName(), fieldPlan.getType().getName(), obj.getClass().getCanonicalName());
+		}
+		else
+		{
+			logger.error(e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Resolves the value to assign to a field according to its plan
+	 *
+	 * @param obj
+	 * @param fieldPlan
+	 * @return
+	 * @throws InstantiationException
+	 * @throws IllegalAccessException
+	 */
+	protected final Object getValue(final Object obj, final FieldPlan fieldPlan)
+		throws InstantiationException, IllegalAccessException
+	{
+		// holds the rule to use for this field
+		Rule<?> rule = fieldPlan.getRule();
+		
+		// check to see if the rules could not be resolved ahead of time
+		if (fieldPlan.isRuleLookupRequired())
+		{
+			rule = checkForMatchingRule(obj, fieldPlan.getField(), fieldPlan.getType());
+			metrics.recordRuleEvaluation();
+		}
+		
+		// check to see if a value was found based on the rules
+		if (null != rule)
+		{
+			logger.debug("Rule found for \"{}\":{}", fieldPlan.getField().getName(), fieldPlan.getType().getName());
+			metrics.recordRuleMatch();
+			
+			if (null != listener)
+			{
+				listener.ruleMatched(obj, fieldPlan.getField(), rule);
+			}
+			
+			// set the value to the value defined in the rule
+			return fieldPlan.isResolved() && rule == fieldPlan.getRule() ? fieldPlan.getResolvedValue()
+				: resolve(rule.getValue());
+		}
+		
+		switch (fieldPlan.getValueSource())
+		{
+			case COLLECTION:
+				// instantiate a new collection object
+				@SuppressWarnings("unchecked")
+				Collection<Object> collection =
+					(Collection<Object>) instantiate(fieldPlan.getType());
+				
+				// populate the collection
+				populateCollection(collection, fieldPlan);
+				return collection;
+			
+			case DEFAULT_VALUE:
+				logger.debug("Found default value for \"{}\":{}", fieldPlan.getField().getName(),
+					fieldPlan.getType().getName());
+				
+				// retrieve the default value unless it was already resolved by the plan
+				return fieldPlan.isResolved() ? fieldPlan.getResolvedValue() : resolve(fieldPlan.getDefaultValue());
+			
+			default:
+				return getBeanValue(fieldPlan.getType());
+		}
+	}
+	
+	/**
+	 * Retrieves the value for the field that is currently being populated. The path to the field is
+	 * only created for values that may depend on it.
+	 *
+	 * @param value
+	 * @return Object
+	 */
+	final Object resolve(final Value<?> value)
+	{
+		// static values never depend on the path
+		if (value.getClass() == StaticValue.class || value.getClass() == NullValue.class)
+		{
+			return value.getValue();
+		}
+		
+		return value.getValue(cursor.path());
+	}
+	
+	/**
+	 * Converts a parameter type to a value to be set onto the method.
+	 *
+	 * @param clazz
+	 * @return
+	 * @throws InstantiationException
+	 * @throws IllegalAccessException
+	 */
+	protected final Object getValue(final Class<?> clazz)
+		throws InstantiationException, IllegalAccessException
+	{
+		// holds the value of the object to return
+		final Object obj;
+		
+		// make sure the parameter is not null
+		if (null != clazz)
+		{
+			// check to see if this parameter is a type of collection
+			if (Collection.class.isAssignableFrom(clazz))
+			{
+				// instantiate a new collection object, the generic type is unknown so it remains empty
+				obj = instantiate(clazz);
+			}
+			// check to see if this value exists in the default values map
+			else if (configuration.getDefaultValues().containsKey(clazz))
+			{
+				// retrieve the default value
+				obj = configuration.getDefaultValues().get(clazz).getValue();
+			}
+			else
+			{
+				obj = getBeanValue(clazz);
+			}
+		}
+		else
+		{
+			obj = null;
+		}
+		
+		return obj;
+	}
+	
+	/**
+	 * Retrieves a fully initialized bean from the cache or initializes a new one
+	 *
+	 * @param clazz
+	 * @return
+	 */
+	protected final Object getBeanValue(final Class<?> clazz)
+	{
+		// check to see if caching is enabled
+		if (configuration.useCache(clazz))
+		{
+			// a cyclical reference shares the bean that this call is populating
+			Object populated = getPopulating(clazz);
+			if (null != populated)
+			{
+				if (null != listener)
+				{
+					listener.cacheHit(clazz);
+				}
+				
+				return populated;
+			}
+			
+			// create the object that instructs how to retrieve the object
+			RetrieveByInitialize retrieve = new RetrieveByInitialize(clazz);
+			Object bean = cache.getOrRetieve(clazz, retrieve);
+			
+			// the bean was found in the cache unless this call retrieved it
+			if (null != listener && !retrieve.retrieved)
+			{
+				listener.cacheHit(clazz);
+			}
+			
+			return bean;
+		}
+		else
+		{
+			return initializeBean(clazz);
+		}
+	}
+	
+	/**
+	 * Initializes a bean for the field that is currently being populated. Any failure is logged and
+	 * the field is left null.
+	 *
+	 * @param clazz
+	 * @return the new bean or null if it could not be initialized
+	 */
+	private Object initializeBean(final Class<?> clazz)
+	{
+		try
+		{
+			return initialize(clazz);
+		}
+		catch (InstantiationException e)
+		{
+			logInstantiationFailure(clazz, e);
+			return null;
+		}
+		catch (IllegalAccessException e)
+		{
+			logger.warn(e.getMessage(), e);
+			return null;
+		}
+	}
+	
+	/**
+	 * Logs that a bean for the field that is currently being populated could not be instantiated
+	 *
+	 * @param clazz
+	 * @param e
+	 */
+	final void logInstantiationFailure(final Class<?> clazz, final InstantiationException e)
+	{
+		metrics.recordInstantiationFailure();
+		
+		if (null != listener)
+		{
+			listener.instantiationFailed(clazz, e);
+		}
+		
+		StringBuilder message = new StringBuilder();
+		message.append("Failed to instantiate \"");
+		message.append(clazz.getName());
+		message.append("\"");
+		
+		// check to see if there is a field member in the path
+		Field field = cursor.currentField();
+		if (null != field)
+		{
+			message.append(" for field \"");
+			message.append(field.getName());
+			message.append("\" on declaring class \"");
+			message.append(cursor.currentDeclaringObject().getClass().getName());
+			message.append("\"");
+		}
+		
+		logger.warn(message.toString(), e);
+	}
+	
+	/**
+	 * Populates a collection with test data using the element type resolved in the field plan
+	 *
+	 * @param collection
+	 * @param fieldPlan
+	 */
+	protected final void populateCollection(final Collection collection, final FieldPlan fieldPlan)
+	{
+		try
+		{
+			// make sure the collection is not null and that it is not a proxy
+			if (null != collection && !Proxy.isProxyClass(collection.getClass()))
+			{
+				// make sure the generic class was found
+				if (null != fieldPlan.getElementType())
+				{
+					// populate this collection
+					populateCollection(collection, fieldPlan.getElementType());
+				}
+				else
+				{
+					logger.debug(
+						"Could not populate the collection of {} because the generic class type could not be determined.",
+						fieldPlan.getField().getName());
+				}
+			}
+		}
+		catch (InstantiationException e)
+		{
+			logger.error(e.getMessage(), e);
+		}
+		catch (IllegalAccessException e)
+		{
+			logger.error(e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Populates a collection of objects with the given class type
+	 *
+	 * @param collection
+	 * @param clazz
+	 * @throws InstantiationException
+	 * @throws IllegalAccessException
+	 */
+	protected final void populateCollection(final Collection collection, Class<?> clazz)
+		throws InstantiationException, IllegalAccessException
+	{
+		logger.debug("Populating {} with objects of type {}", collection.getClass().getName(), clazz.getName());
+		
+		// for the specific number of times to auto fill lists
+		for (int i = 0; i < configuration.getCollectionAutoFillCount(); i++)
+		{
+			// get the value for this class type
+			Object object = getValue(clazz);
+			
+			// make sure the object is not null
+			if (null != object)
+			{
+				// add the object to the collection
+				collection.add(object);
+			}
+		}
+	}
+	
+	/**
+	 * Checks the {@link Configuration} to determine if there are any {@link Rule} that match this
+	 * specific field name. If a match is found, the {@link Rule} is returned.
+	 *
+	 * @param declaringObject the object where the field is declared
+	 * @param field
+	 * @param clazz
+	 * @return Rule
+	 */
+	protected final Rule<?> checkForMatchingRule(final Object declaringObject, final Field field, final Class<?> clazz)
+	{
+		// holds the value to return
+		Rule<?> rule = null;
+		
+		// make sure the rule mapping object is not null
+		if (null != configuration.getRuleMapping())
+		{
+			/*
+			 * convert the class from its primitive value if applicable, otherwise use the original
+			 * value The reason
+			 * that primitives have to be cast up is because Generics does not support primitives.
+			 */
+			Class<?> nonPrimitiveClass = ClassConversionUtil.convertToNonPrimitive(clazz);
+			
+			// find the rule that matches this field using the indexes of the rule mapping
+			rule = configuration.getRuleMapping().findMatchingRule(nonPrimitiveClass, field, declaringObject);
+		}
+		
+		return rule;
+	}
+	
+	/**
+	 * Sets the configuration
+	 *
+	 * @param configuration
+	 */
+	public final void setConfiguration(final Configuration configuration)
+	{
+		if (null == configuration)
+		{
+			throw new IllegalArgumentException("configuration cannot be null.");
+		}
+		
+		this.configuration = configuration;
+	}
+	
+	/**
+	 * Retrieves the configuration
+	 *
+	 * @return
+	 */
+	public final Configuration getConfiguration()
+	{
+		return configuration;
+	}
+	
+	/**
+	 * Populates the value of a single field with its own initializer so that it can run on another
+	 * thread
+	 *
+	 * @author Greg Marut
+	 */
+	private static final class SubgraphTask extends RecursiveTask<Object>
+	{
+		private static final long serialVersionUID = 4183640170185317042L;
+		
+		private final transient BeanPropertyInitializer initializer;
+		private final transient Object obj;
+		private final transient FieldPlan fieldPlan;
+		
+		// holds the checked exception that was thrown while retrieving the value
+		private transient Exception failure;
+		
+		private SubgraphTask(final BeanPropertyInitializer initializer, final Object obj, final FieldPlan fieldPlan)
+		{
+			this.initializer = initializer;
+			this.obj = obj;
+			this.fieldPlan = fieldPlan;
+		}
+		
+		@Override
+		protected Object compute()
+		{
+			try
+			{
+				return initializer.getValue(obj, fieldPlan);
+			}
+			catch (InstantiationException e)
+			{
+				failure = e;
+			}
+			catch (IllegalAccessException e)
+			{
+				failure = e;
+			}
+			
+			return null;
+		}
+		
+		/**
+		 * Waits for the value of the field and merges the state of the forked initializer into the
+		 * initializer that forked it
+		 *
+		 * @param parent
+		 * @return Object
+		 * @throws InstantiationException
+		 * @throws IllegalAccessException
+		 */
+		private Object getValue(final BeanPropertyInitializer parent) throws InstantiationException,
+			IllegalAccessException
+		{
+			Object value = join();
+			parent.merge(initializer);
+			
+			// rethrow the failure so that it is handled like it is sequentially
+			if (failure instanceof InstantiationException)
+			{
+				throw (InstantiationException) failure;
+			}
+			else if (failure instanceof IllegalAccessException)
+			{
+				throw (IllegalAccessException) failure;
+			}
+			
+			return value;
+		}
+	}
+	
+	/**
+	 * Defines a blueprint for how to retrieve an object by calling the initialize method
+	 *
+	 * @author Greg Marut
+	 */
+	protected class RetrieveByInitialize implements Retrieve<Object>
+	{
+		private Class<?> clazz;
+		
+		// determines whether or not the object was retrieved by this instance
+		private boolean retrieved;
+		
+		public RetrieveByInitialize(final Class<?> clazz)
+		{
+			this.clazz = clazz;
+		}
+		
+		@Override
+		public Object retrieve()
+		{
+			retrieved = true;
+			
+			if (null != listener)
+			{
+				listener.cacheMiss(clazz);
+			}
+			
+			return initializeBean(clazz);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Spliterator} that generates a bean for each index of a range only when it is pulled by
+ * the consumer. The range is split in half whenever a parallel stream asks for more work so that
+ * each half is generated on a different thread.
+ * 
+ * @author Greg Marut
+ */
+final class BeanSpliterator<T> implements Spliterator<T>
+{
+	// holds the generator that creates the beans
+	private final BeanPropertyGenerator beanPropertyGenerator;
+	
+	// holds the class of the beans to generate
+	private final Class<T> clazz;
+	
+	// determines if the range has a known size
+	private final boolean sized;
+	
+	// holds the next index to generate
+	private long index;
+	
+	// holds the index after the last bean to generate
+	private final long fence;
+	
+	/**
+	 * Constructs a new BeanSpliterator
+	 * 
+	 * @param beanPropertyGenerator
+	 * @param clazz
+	 * @param index
+	 * @param fence
+	 * @param sized
+	 *        whether or not the range is bounded. Unbounded ranges use {@link Long#MAX_VALUE} as the
+	 *        fence.
+	 */
+	BeanSpliterator(final BeanPropertyGenerator beanPropertyGenerator, final Class<T> clazz, final long index,
+		final long fence, final boolean sized)
+	{
+		this.beanPropertyGenerator = beanPropertyGenerator;
+		this.clazz = clazz;
+		this.index = index;
+		this.fence = fence;
+		this.sized = sized;
+	}
+	
+	@Override
+	public boolean tryAdvance(final Consumer<? super T> action)
+	{
+		// check to see if the range has been exhausted
+		if (index >= fence)
+		{
+			return false;
+		}
+		
+		index++;
+		action.accept(beanPropertyGenerator.get(clazz));
+		return true;
+	}
+	
+	@Override
+	public void forEachRemaining(final Consumer<? super T> action)
+	{
+		// generate every remaining bean of the range
+		while (index < fence)
+		{
+			index++;
+			action.accept(beanPropertyGenerator.get(clazz));
+		}
+	}
+	
+	@Override
+	public Spliterator<T> trySplit()
+	{
+		// determine the middle of the remaining range
+		long middle = index + ((fence - index) >>> 1);
+		
+		// make sure there is enough left to split
+		if (middle <= index)
+		{
+			return null;
+		}
+		
+		// hand the lower half of the range to the new spliterator
+		BeanSpliterator<T> prefix = new BeanSpliterator<T>(beanPropertyGenerator, clazz, index, middle, sized);
+		index = middle;
+		return prefix;
+	}
+	
+	@Override
+	public long estimateSize()
+	{
+		return fence - index;
+	}
+	
+	@Override
+	public int characteristics()
+	{
+		return sized ? ORDERED | IMMUTABLE | SIZED | SUBSIZED : ORDERED | IMMUTABLE;
+	}
+}
@@ -0,0 +1,945 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.slf4j.Logger;
+
+import com.gregmarut.support.beangenerator.config.Configuration;
+import com.gregmarut.support.beangenerator.config.TraversalMode;
+import com.gregmarut.support.beangenerator.jfr.Events;
+import com.gregmarut.support.beangenerator.jfr.InitializeEvent;
+import com.gregmarut.support.beangenerator.plan.BeanPlan;
+import com.gregmarut.support.beangenerator.plan.FieldPlan;
+import com.gregmarut.support.beangenerator.plan.FieldPlan.ValueSource;
+import com.gregmarut.support.beangenerator.rule.Rule;
+
+/**
+ * Walks the object graph of a bean with an explicit stack of frames instead of recursive calls.
+ * Each frame mirrors one of the recursive methods of the {@link BeanPropertyInitializer}: a bean
+ * frame instantiates and populates an object, a populate frame assigns the fields of an object one
+ * after the other and a collection frame fills a collection. Whenever a frame needs a nested object
+ * it pushes another frame and resumes once that frame has completed, so the objects are created,
+ * cached and assigned in exactly the same order as the recursive walk while the depth of the graph
+ * is no longer limited by the call stack.
+ * <p>
+ * Failures unwind the stack until they reach the frame that corresponds to the method that would
+ * have caught them in the recursive walk. The engine belongs to a single initializer and is
+ * confined to its thread.
+ * 
+ * @author Greg Marut
+ * @see TraversalMode#ITERATIVE
+ */
+final class IterativeTraversal
+{
+	// returned by a frame that pushed another frame which must complete first
+	private static final Object PENDING = new Object();
+	
+	// returned by a frame that does not handle a failure
+	private static final Object RETHROW = new Object();
+	
+	// holds the initial number of frames
+	private static final int INITIAL_CAPACITY = 16;
+	
+	// holds the initializer whose state this engine shares
+	private final BeanPropertyInitializer initializer;
+	
+	// holds the logger of the initializer
+	private final Logger logger;
+	
+	// holds the stack of frames that are in progress
+	private Frame[] frames;
+	
+	// holds the number of frames on the stack
+	private int size;
+	
+	IterativeTraversal(final BeanPropertyInitializer initializer)
+	{
+		this.initializer = initializer;
+		this.logger = initializer.logger;
+		this.frames = new Frame[INITIAL_CAPACITY];
+	}
+	
+	/**
+	 * Initializes a class and returns a new instantiated object. All fields in the new object are
+	 * also instantiated provided the populate boolean is set to true.
+	 * 
+	 * @param clazz
+	 * @param populate
+	 * @return Object
+	 * @throws InstantiationException
+	 * @throws IllegalAccessException
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T initialize(final Class<T> clazz, final boolean populate) throws InstantiationException, IllegalAccessException
+	{
+		return (T) execute(new BeanFrame(clazz, populate, false, false));
+	}
+	
+	/**
+	 * Initializes an object. All fields in the object are instantiated.
+	 * 
+	 * @param object
+	 * @return Object
+	 */
+	Object initialize(final Object object)
+	{
+		// make sure the object is not null
+		if (null == object)
+		{
+			return null;
+		}
+		
+		try
+		{
+			return execute(new BeanFrame(object));
+		}
+		catch (InstantiationException e)
+		{
+			// failures of the fields are handled while they are populated so this is never reached
+			throw new BeanInitializationException(e);
+		}
+		catch (IllegalAccessException e)
+		{
+			throw new BeanInitializationException(e);
+		}
+	}
+	
+	/**
+	 * Runs frames until the given frame has completed
+	 * 
+	 * @param root
+	 * @return the result of the given frame
+	 * @throws InstantiationException
+	 * @throws IllegalAccessException
+	 */
+	private Object execute(final Frame root) throws InstantiationException, IllegalAccessException
+	{
+		final int base = size;
+		push(root);
+		
+		// holds the result of the frame that completed last
+		Object result = null;
+		
+		while (size > base)
+		{
+			// holds either the result of the frame on top of the stack or PENDING
+			Object outcome;
+			
+			try
+			{
+				outcome = frames[size - 1].step(result);
+			}
+			catch (Throwable failure)
+			{
+				outcome = recover(failure, base);
+			}
+			
+			// check to see if the frame on top of the stack has completed
+			if (PENDING == outcome)
+			{
+				result = null;
+			}
+			else
+			{
+				pop();
+				result = outcome;
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Unwinds the stack until a frame handles the failure
+	 * 
+	 * @param failure
+	 * @param base
+	 *        the size of the stack when the current call started
+	 * @return the outcome of the frame that handled the failure, which is now on top of the stack
+	 * @throws InstantiationException
+	 * @throws IllegalAccessException
+	 */
+	private Object recover(final Throwable failure, final int base) throws InstantiationException,
+		IllegalAccessException
+	{
+		while (size > base)
+		{
+			Object outcome = frames[size - 1].fail(failure);
+			if (RETHROW != outcome)
+			{
+				return outcome;
+			}
+			
+			pop();
+		}
+		
+		// no frame handled the failure so it is passed on to the caller
+		if (failure instanceof InstantiationException)
+		{
+			throw (InstantiationException) failure;
+		}
+		else if (failure instanceof IllegalAccessException)
+		{
+			throw (IllegalAccessException) failure;
+		}
+		else if (failure instanceof RuntimeException)
+		{
+			throw (RuntimeException) failure;
+		}
+		else if (failure instanceof Error)
+		{
+			throw (Error) failure;
+		}
+		else
+		{
+			throw new BeanInitializationException((Exception) failure);
+		}
+	}
+	
+	/**
+	 * Pushes a frame onto the stack
+	 * 
+	 * @param frame
+	 */
+	private void push(final Frame frame)
+	{
+		// make sure there is room for another frame
+		if (size == frames.length)
+		{
+			frames = Arrays.copyOf(frames, size << 1);
+		}
+		
+		frames[size++] = frame;
+	}
+	
+	/**
+	 * Removes the frame on top of the stack
+	 */
+	private void pop()
+	{
+		frames[--size] = null;
+	}
+	
+	/**
+	 * Returns the configuration of the initializer
+	 * 
+	 * @return Configuration
+	 */
+	private Configuration configuration()
+	{
+		return initializer.getConfiguration();
+	}
+	
+	/**
+	 * Instantiates a new instance of the class. A mapped interface is initialized as its concrete
+	 * class by another frame, which populates the object as well.
+	 * 
+	 * @param clazz
+	 * @return the new object or PENDING
+	 * @throws InstantiationException
+	 * @throws IllegalAccessException
+	 */
+	private Object instantiate(final Class<?> clazz) throws InstantiationException, IllegalAccessException
+	{
+		// check to see if this class is an interface that is mapped to a concrete class
+		if (clazz.isInterface())
+		{
+			Class<?> concreteClass = configuration().getInterfaceMapper().get(clazz);
+			if (null != concreteClass)
+			{
+				logger.debug("{} found to replace interface {}", concreteClass.getName(), clazz.getName());
+				
+				push(new BeanFrame(concreteClass, true, false, false));
+				return PENDING;
+			}
+		}
+		
+		return initializer.instantiate(clazz);
+	}
+	
+	/**
+	 * Retrieves a fully initialized bean from the cache or initializes a new one
+	 * 
+	 * @param clazz
+	 * @return the cached object or PENDING
+	 */
+	private Object getBeanValue(final Class<?> clazz)
+	{
+		// check to see if caching is enabled
+		final boolean cached = configuration().useCache(clazz);
+		if (cached)
+		{
+			// a cyclical reference shares the bean that this traversal is populating
+			Object populated = initializer.getPopulating(clazz);
+			if (null != populated)
+			{
+				if (null != initializer.listener)
+				{
+					initializer.listener.cacheHit(clazz);
+				}
+				
+				return populated;
+			}
+			
+			// unless the object is cached, this traversal now retrieves it while other threads wait
+			Object object = initializer.cache.acquire(clazz);
+			if (null != object)
+			{
+				if (null != initializer.listener)
+				{
+					initializer.listener.cacheHit(clazz);
+				}
+				
+				return object;
+			}
+			
+			if (null != initializer.listener)
+			{
+				initializer.listener.cacheMiss(clazz);
+			}
+		}
+		
+		push(new BeanFrame(clazz, true, true, cached));
+		return PENDING;
+	}
+	
+	/**
+	 * Converts a class to a value to be added to a collection
+	 * 
+	 * @param clazz
+	 * @return the value or PENDING
+	 * @throws InstantiationException
+	 * @throws IllegalAccessException
+	 */
+	private Object getValue(final Class<?> clazz) throws InstantiationException, IllegalAccessException
+	{
+		// check to see if this parameter is a type of collection
+		if (Collection.class.isAssignableFrom(clazz))
+		{
+			// instantiate a new collection object, the generic type is unknown so it remains empty
+			return instantiate(clazz);
+		}
+		// check to see if this value exists in the default values map
+		else if (configuration().getDefaultValues().containsKey(clazz))
+		{
+			return configuration().getDefaultValues().get(clazz).getValue();
+		}
+		else
+		{
+			return getBeanValue(clazz);
+		}
+	}
+	
+	/**
+	 * A unit of work on the stack
+	 * 
+	 * @author Greg Marut
+	 */
+	private abstract static class Frame
+	{
+		/**
+		 * Continues this frame
+		 * 
+		 * @param result
+		 *        the result of the frame that completed last or null if this frame is started or
+		 *        continued after a handled failure
+		 * @return the result of this frame or PENDING if another frame was pushed
+		 * @throws InstantiationException
+		 * @throws IllegalAccessException
+		 */
+		abstract Object step(Object result) throws InstantiationException, IllegalAccessException;
+		
+		/**
+		 * Releases the state of this frame after a failure and determines if it is handled here
+		 * 
+		 * @param failure
+		 * @return the result of this frame, PENDING to continue this frame or RETHROW
+		 */
+		Object fail(final Throwable failure)
+		{
+			return RETHROW;
+		}
+	}
+	
+	/**
+	 * Instantiates and populates a bean
+	 * 
+	 * @author Greg Marut
+	 */
+	private final class BeanFrame extends Frame
+	{
+		private static final int START = 0;
+		private static final int INSTANTIATED = 1;
+		private static final int POPULATE = 2;
+		private static final int POPULATED = 3;
+		
+		private final Class<?> clazz;
+		private final boolean populate;
+		
+		// determines if failures are logged and the bean is left null
+		private final boolean recoverable;
+		
+		// determines if the bean is added to the cache once it is complete
+		private final boolean cached;
+		
+		private int state;
+		private Object object;
+		
+		// holds the counter of the class while the bean is being populated
+		private int[] depth;
+		
+		// determines if cyclical references share the bean while it is being populated
+		private boolean shared;
+		
+		// holds the time at which the bean was started if a listener receives the duration
+		private long started;
+		
+		// holds the event of the bean while a recording is running
+		private InitializeEvent event;
+		
+		// holds the number of objects that were instantiated by the call before the bean was started
+		private int instantiated;
+		
+		BeanFrame(final Class<?> clazz, final boolean populate, final boolean recoverable, final boolean cached)
+		{
+			this.clazz = clazz;
+			this.populate = populate;
+			this.recoverable = recoverable;
+			this.cached = cached;
+			this.state = START;
+		}
+		
+		BeanFrame(final Object object)
+		{
+			this(object.getClass(), true, false, false);
+			this.object = object;
+			this.state = POPULATE;
+			
+			logger.debug("Initializing {}", clazz.getName());
+			
+			if (null != initializer.listener)
+			{
+				started = initializer.startBean(clazz);
+			}
+		}
+		
+		@Override
+		Object step(Object result) throws InstantiationException, IllegalAccessException
+		{
+			switch (state)
+			{
+				case START:
+					logger.debug("Initializing {}", clazz.getName());
+					
+					// make sure this class has not been repeated more often than allowed along the
+					// current path
+					if (initializer.getInstantiationDepth(clazz) > configuration().getMaxRepeatDepth(clazz))
+					{
+						// an infinite loop was detected
+						logger.info(
+							"Cyclical dependency detected while attempting to initialize {}. Skipping object population.",
+							clazz.getName());
+						
+						if (null != initializer.listener)
+						{
+							initializer.listener.cycleSkipped(clazz);
+						}
+						
+						return complete(null);
+					}
+					
+					if (null != initializer.listener)
+					{
+						started = initializer.startBean(clazz);
+					}
+					
+					// the event is only kept while a recording is running
+					event = Events.beginInitialize();
+					if (null != event)
+					{
+						instantiated = initializer.instantiations;
+					}
+					
+					state = INSTANTIATED;
+					result = instantiate(clazz);
+					if (PENDING == result)
+					{
+						return PENDING;
+					}
+					
+					// fall through
+				case INSTANTIATED:
+					object = result;
+					
+					// make sure the new object is not null and can be populated
+					if (null == object || Proxy.isProxyClass(object.getClass()) || !populate)
+					{
+						finish(object);
+						return complete(object);
+					}
+					
+					// cyclical references share the object while it is populated
+					shared = initializer.beginPopulating(clazz, object);
+					
+					// fall through
+				case POPULATE:
+					// mark this class as being populated
+					depth = initializer.enter(clazz);
+					state = POPULATED;
+					push(new PopulateFrame(object));
+					return PENDING;
+					
+				default:
+					exit();
+					finish(object);
+					return complete(object);
+			}
+		}
+		
+		@Override
+		Object fail(final Throwable failure)
+		{
+			exit();
+			finish(state != START ? object : null);
+			
+			// release the threads that are waiting for this bean
+			if (cached)
+			{
+				initializer.cache.release(clazz, null);
+			}
+			
+			// check to see if this bean is initialized like RetrieveByInitialize
+			if (recoverable)
+			{
+				if (failure instanceof InstantiationException)
+				{
+					initializer.logInstantiationFailure(clazz, (InstantiationException) failure);
+					return null;
+				}
+				else if (failure instanceof IllegalAccessException)
+				{
+					logger.warn(failure.getMessage(), failure);
+					return null;
+				}
+			}
+			
+			return RETHROW;
+		}
+		
+		/**
+		 * Releases the counter of the class if this bean is being populated
+		 */
+		private void exit()
+		{
+			if (null != depth)
+			{
+				depth[0]--;
+				depth = null;
+			}
+			
+			if (shared)
+			{
+				initializer.endPopulating(clazz);
+				shared = false;
+			}
+		}
+		
+		/**
+		 * Notifies the listener that this bean is finished
+		 * 
+		 * @param result
+		 */
+		private void finish(final Object result)
+		{
+			if (null != event && event.shouldCommit())
+			{
+				initializer.commit(event, clazz, instantiated);
+			}
+			
+			if (null != initializer.listener)
+			{
+				initializer.listener.beanFinished(clazz, result, System.nanoTime() - started);
+			}
+		}
+		
+		/**
+		 * Completes this frame
+		 * 
+		 * @param result
+		 * @return the result of this frame
+		 */
+		private Object complete(final Object result)
+		{
+			// every caller shares the object that was cached first
+			return cached ? initializer.cache.release(clazz, result) : result;
+		}
+	}
+	
+	/**
+	 * Assigns the fields of an object according to its {@link BeanPlan}
+	 * 
+	 * @author Greg Marut
+	 */
+	private final class PopulateFrame extends Frame
+	{
+		private static final int FIELD_START = 0;
+		private static final int FIELD_VALUE = 1;
+		private static final int FIELD_COLLECTION_CREATED = 2;
+		private static final int FIELD_COLLECTION_FILLED = 3;
+		private static final int FIELD_DONE = 4;
+		
+		private final Object obj;
+		
+		// holds the plans of the fields once they have been retrieved
+		private List<FieldPlan> fieldPlans;
+		
+		// holds the index of the next field
+		private int index;
+		
+		// holds the field that is being populated or null between fields
+		private FieldPlan fieldPlan;
+		private int state;
+		
+		// holds the collection of the field that is being populated
+		private Collection<?> collection;
+		
+		// counts the fields that were assigned a value
+		private int populated;
+		
+		PopulateFrame(final Object obj)
+		{
+			this.obj = obj;
+		}
+		
+		@Override
+		Object step(final Object result) throws InstantiationException, IllegalAccessException
+		{
+			// check to see if the plan needs to be retrieved
+			if (null == fieldPlans)
+			{
+				BeanPlan beanPlan = configuration().getBeanPlanCache().getPlan(obj);
+				
+				// write all of the fields whose values are constants
+				beanPlan.writeConstants(obj);
+				fieldPlans = beanPlan.getFieldPlans();
+			}
+			// continue the field that was waiting for another frame
+			else if (null != fieldPlan && !advance(result))
+			{
+				return PENDING;
+			}
+			
+			while (index < fieldPlans.size())
+			{
+				FieldPlan next = fieldPlans.get(index++);
+				
+				// skip the fields that were already written as constants
+				if (next.isConstant())
+				{
+					populated++;
+					
+					if (null != initializer.listener)
+					{
+						initializer.constantPopulated(obj, next);
+					}
+					continue;
+				}
+				
+				// enter this field so that values can resolve the path that leads to it
+				fieldPlan = next;
+				state = FIELD_START;
+				initializer.cursor.push(next.getField(), obj);
+				
+				if (!advance(null))
+				{
+					return PENDING;
+				}
+			}
+			
+			initializer.metrics.recordFieldsPopulated(populated);
+			return obj;
+		}
+		
+		@Override
+		Object fail(final Throwable failure)
+		{
+			// failures outside of a field are not handled here
+			if (null == fieldPlan)
+			{
+				return RETHROW;
+			}
+			
+			// holds whether or not the remaining fields are still populated
+			final boolean handled =
+				failure instanceof InstantiationException || failure instanceof IllegalArgumentException
+					|| failure instanceof IllegalAccessException;
+			if (handled)
+			{
+				initializer.logFieldFailure(obj, fieldPlan, (Exception) failure);
+			}
+			
+			finishField();
+			return handled ? PENDING : RETHROW;
+		}
+		
+		/**
+		 * Advances the current field until it needs another frame or has been assigned
+		 * 
+		 * @param result
+		 *        the result of the frame that the field was waiting for
+		 * @return true if the field is complete
+		 * @throws InstantiationException
+		 * @throws IllegalAccessException
+		 */
+		private boolean advance(final Object result) throws InstantiationException, IllegalAccessException
+		{
+			// holds the outcome of the current stage of the field
+			Object outcome = result;
+			
+			// holds the value that was assigned to the field
+			Object value = null;
+			
+			while (FIELD_DONE != state)
+			{
+				switch (state)
+				{
+					case FIELD_START:
+						outcome = startField();
+						break;
+					
+					case FIELD_COLLECTION_CREATED:
+						// the new collection is populated before it is assigned
+						collection = (Collection<?>) outcome;
+						state = FIELD_COLLECTION_FILLED;
+						outcome = fill(collection);
+						break;
+					
+					case FIELD_COLLECTION_FILLED:
+						// an existing collection has already been assigned to the field
+						if (fieldPlan.getValueSource() == ValueSource.COLLECTION)
+						{
+							fieldPlan.write(obj, collection);
+						}
+						
+						value = collection;
+						state = FIELD_DONE;
+						break;
+					
+					default:
+						// set the value on the object
+						fieldPlan.write(obj, outcome);
+						value = outcome;
+						state = FIELD_DONE;
+						break;
+				}
+				
+				// check to see if the field is waiting for another frame
+				if (PENDING == outcome)
+				{
+					return false;
+				}
+			}
+			
+			populated++;
+			
+			if (null != initializer.listener)
+			{
+				initializer.listener.fieldPopulated(obj, fieldPlan.getField(), value);
+			}
+			
+			finishField();
+			return true;
+		}
+		
+		/**
+		 * Starts populating the current field according to its plan
+		 * 
+		 * @return the outcome of the first stage
+		 * @throws InstantiationException
+		 * @throws IllegalAccessException
+		 */
+		private Object startField() throws InstantiationException, IllegalAccessException
+		{
+			// check to see if this field holds a collection that was already assigned
+			if (fieldPlan.getValueSource() == ValueSource.EXISTING_COLLECTION)
+			{
+				collection = (Collection<?>) fieldPlan.read(obj);
+				state = FIELD_COLLECTION_FILLED;
+				return fill(collection);
+			}
+			
+			// holds the rule to use for this field
+			Rule<?> rule = fieldPlan.getRule();
+			
+			// check to see if the rules could not be resolved ahead of time
+			if (fieldPlan.isRuleLookupRequired())
+			{
+				rule = initializer.checkForMatchingRule(obj, fieldPlan.getField(), fieldPlan.getType());
+				initializer.metrics.recordRuleEvaluation();
+			}
+			
+			// check to see if a value was found based on the rules
+			state = FIELD_VALUE;
+			if (null != rule)
+			{
+				initializer.metrics.recordRuleMatch();
+				
+				if (null != initializer.listener)
+				{
+					initializer.listener.ruleMatched(obj, fieldPlan.getField(), rule);
+				}
+				
+				return fieldPlan.isResolved() && rule == fieldPlan.getRule() ? fieldPlan.getResolvedValue()
+					: initializer.resolve(rule.getValue());
+			}
+			
+			switch (fieldPlan.getValueSource())
+			{
+				case COLLECTION:
+					state = FIELD_COLLECTION_CREATED;
+					return instantiate(fieldPlan.getType());
+					
+				case DEFAULT_VALUE:
+					return fieldPlan.isResolved() ? fieldPlan.getResolvedValue()
+						: initializer.resolve(fieldPlan.getDefaultValue());
+					
+				default:
+					return getBeanValue(fieldPlan.getType());
+			}
+		}
+		
+		/**
+		 * Fills the collection of the current field with objects of its element type
+		 * 
+		 * @param collection
+		 * @return PENDING if the collection is filled by another frame
+		 */
+		private Object fill(final Collection<?> collection)
+		{
+			// make sure the collection is not null and that it is not a proxy
+			if (null != collection && !Proxy.isProxyClass(collection.getClass()))
+			{
+				// make sure the generic class was found
+				if (null != fieldPlan.getElementType())
+				{
+					push(new CollectionFrame(collection, fieldPlan.getElementType()));
+					return PENDING;
+				}
+				
+				logger.debug(
+					"Could not populate the collection of {} because the generic class type could not be determined.",
+					fieldPlan.getField().getName());
+			}
+			
+			return null;
+		}
+		
+		/**
+		 * Leaves the current field
+		 */
+		private void finishField()
+		{
+			initializer.cursor.pop();
+			fieldPlan = null;
+			collection = null;
+		}
+	}
+	
+	/**
+	 * Fills a collection with objects of its element type
+	 * 
+	 * @author Greg Marut
+	 */
+	private final class CollectionFrame extends Frame
+	{
+		private final Collection<Object> collection;
+		private final Class<?> elementType;
+		
+		// holds the number of objects that have been requested so far
+		private int count;
+		
+		// determines if this frame is waiting for an object
+		private boolean waiting;
+		
+		@SuppressWarnings("unchecked")
+		CollectionFrame(final Collection<?> collection, final Class<?> elementType)
+		{
+			this.collection = (Collection<Object>) collection;
+			this.elementType = elementType;
+			
+			logger.debug("Populating {} with objects of type {}", collection.getClass().getName(),
+				elementType.getName());
+		}
+		
+		@Override
+		Object step(final Object result) throws InstantiationException, IllegalAccessException
+		{
+			// check to see if an object was retrieved by another frame
+			if (waiting)
+			{
+				waiting = false;
+				add(result);
+			}
+			
+			// for the specific number of times to auto fill lists
+			while (count < configuration().getCollectionAutoFillCount())
+			{
+				count++;
+				
+				// get the value for this class type
+				Object object = getValue(elementType);
+				if (PENDING == object)
+				{
+					waiting = true;
+					return PENDING;
+				}
+				
+				add(object);
+			}
+			
+			return collection;
+		}
+		
+		@Override
+		Object fail(final Throwable failure)
+		{
+			// the collection is left partially filled like the recursive walk does
+			if (failure instanceof InstantiationException || failure instanceof IllegalAccessException)
+			{
+				logger.error(failure.getMessage(), failure);
+				return collection;
+			}
+			
+			return RETHROW;
+		}
+		
+		/**
+		 * Adds an object to the collection
+		 * 
+		 * @param object
+		 */
+		private void add(final Object object)
+		{
+			// make sure the object is not null
+			if (null != object)
+			{
+				collection.add(object);
+			}
+		}
+	}
+}
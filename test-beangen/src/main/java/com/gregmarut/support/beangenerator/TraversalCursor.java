@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+import com.gregmarut.support.beangenerator.model.FieldPath;
+
+/**
+ * Tracks the fields from the root object to the field that is currently being populated. Entering
+ * a field only records it in a reusable frame. The immutable {@link FieldPath} is created from the
+ * frames only when a value actually asks for it, and each path node is reused until its frame is
+ * left, so fields whose values do not depend on the path do not allocate anything.
+ * <p>
+ * A cursor belongs to a single {@link BeanPropertyInitializer} and is confined to its thread.
+ * 
+ * @author Greg Marut
+ */
+final class TraversalCursor
+{
+	// holds the initial number of frames
+	private static final int INITIAL_CAPACITY = 16;
+	
+	// holds the field of each frame
+	private Field[] fields;
+	
+	// holds the object declaring the field of each frame
+	private Object[] declaringObjects;
+	
+	// holds the path of each frame once it has been created
+	private FieldPath[] paths;
+	
+	// holds the number of frames that are currently entered
+	private int depth;
+	
+	// holds the largest number of frames that were entered since the maximum was reset
+	private int maxDepth;
+	
+	TraversalCursor()
+	{
+		fields = new Field[INITIAL_CAPACITY];
+		declaringObjects = new Object[INITIAL_CAPACITY];
+		paths = new FieldPath[INITIAL_CAPACITY];
+	}
+	
+	/**
+	 * Enters a field of the declaring object
+	 * 
+	 * @param field
+	 * @param declaringObject
+	 */
+	void push(final Field field, final Object declaringObject)
+	{
+		// make sure there is room for another frame
+		if (depth == fields.length)
+		{
+			int capacity = depth << 1;
+			fields = Arrays.copyOf(fields, capacity);
+			declaringObjects = Arrays.copyOf(declaringObjects, capacity);
+			paths = Arrays.copyOf(paths, capacity);
+		}
+		
+		fields[depth] = field;
+		declaringObjects[depth] = declaringObject;
+		paths[depth] = null;
+		depth++;
+		
+		if (depth > maxDepth)
+		{
+			maxDepth = depth;
+		}
+	}
+	
+	/**
+	 * Leaves the field that was entered last
+	 */
+	void pop()
+	{
+		depth--;
+		
+		// release the references so that the generated objects are not retained by this cursor
+		fields[depth] = null;
+		declaringObjects[depth] = null;
+		paths[depth] = null;
+	}
+	
+	/**
+	 * Returns the path to the field that is currently being populated, creating the path nodes that
+	 * do not exist yet
+	 * 
+	 * @return the path or null if no field has been entered
+	 */
+	FieldPath path()
+	{
+		// check to see if no field has been entered
+		if (0 == depth)
+		{
+			return null;
+		}
+		
+		// find the deepest frame that already has a path
+		int first = depth;
+		while (first > 0 && null == paths[first - 1])
+		{
+			first--;
+		}
+		
+		// create the missing path nodes from that frame down to the current field
+		for (int i = first; i < depth; i++)
+		{
+			paths[i] = new FieldPath(i > 0 ? paths[i - 1] : null, fields[i], declaringObjects[i]);
+		}
+		
+		return paths[depth - 1];
+	}
+	
+	/**
+	 * Returns the field that is currently being populated
+	 * 
+	 * @return the field or null if no field has been entered
+	 */
+	Field currentField()
+	{
+		return depth > 0 ? fields[depth - 1] : null;
+	}
+	
+	/**
+	 * Returns the object declaring the field that is currently being populated
+	 * 
+	 * @return the declaring object or null if no field has been entered
+	 */
+	Object currentDeclaringObject()
+	{
+		return depth > 0 ? declaringObjects[depth - 1] : null;
+	}
+	
+	/**
+	 * Returns the number of fields that are currently entered
+	 * 
+	 * @return int
+	 */
+	int depth()
+	{
+		return depth;
+	}
+	
+	/**
+	 * Returns the largest number of fields that were entered at the same time since the maximum was
+	 * reset
+	 * 
+	 * @return int
+	 */
+	int maxDepth()
+	{
+		return maxDepth;
+	}
+	
+	/**
+	 * Raises the largest number of fields that were entered at the same time, for instance to the
+	 * depth that a cursor of a forked traversal reached
+	 * 
+	 * @param depth
+	 */
+	void extendMaxDepth(final int depth)
+	{
+		if (depth > maxDepth)
+		{
+			maxDepth = depth;
+		}
+	}
+	
+	/**
+	 * Enters every field that is currently entered in another cursor. The paths that were already
+	 * created are immutable and shared.
+	 * 
+	 * @param other
+	 */
+	void pushAll(final TraversalCursor other)
+	{
+		for (int i = 0; i < other.depth; i++)
+		{
+			push(other.fields[i], other.declaringObjects[i]);
+			paths[depth - 1] = other.paths[i];
+		}
+	}
+	
+	/**
+	 * Leaves every field that is still entered
+	 */
+	void reset()
+	{
+		while (depth > 0)
+		{
+			pop();
+		}
+	}
+	
+	/**
+	 * Starts measuring the largest number of fields that are entered at the same time from the
+	 * current depth
+	 */
+	void resetMaxDepth()
+	{
+		maxDepth = depth;
+	}
+}
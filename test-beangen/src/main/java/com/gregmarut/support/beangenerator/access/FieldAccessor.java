@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.access;
+
+import java.lang.reflect.Field;
+
+/**
+ * Reads and writes the value of a single field. Accessors are created once per field by a
+ * {@link FieldAccessorFactory} and reused for every object that is populated.
+ * 
+ * @author Greg Marut
+ */
+public interface FieldAccessor
+{
+	/**
+	 * Returns the field that this accessor reads and writes
+	 * 
+	 * @return Field
+	 */
+	Field getField();
+	
+	/**
+	 * Reads the value of the field
+	 * 
+	 * @param target
+	 *        the object that declares the field
+	 * @return Object
+	 * @throws IllegalAccessException
+	 */
+	Object get(Object target) throws IllegalAccessException;
+	
+	/**
+	 * Writes the value of the field. Primitive fields are unboxed and widened following the same
+	 * rules as {@link Field#set(Object, Object)}.
+	 * 
+	 * @param target
+	 *        the object that declares the field
+	 * @param value
+	 * @throws IllegalAccessException
+	 *         if the field cannot be written
+	 * @throws IllegalArgumentException
+	 *         if the value cannot be assigned to the field
+	 */
+	void set(Object target, Object value) throws IllegalAccessException;
+}
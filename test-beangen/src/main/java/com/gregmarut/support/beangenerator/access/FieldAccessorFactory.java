@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.access;
+
+import java.lang.reflect.Field;
+
+import com.gregmarut.support.beangenerator.config.Configuration;
+
+/**
+ * Creates the {@link FieldAccessor}s used to read and write fields. The factory is chosen per
+ * {@link Configuration} which allows different backends to be compared under the same load.
+ * 
+ * @author Greg Marut
+ */
+public interface FieldAccessorFactory
+{
+	/**
+	 * Creates a new accessor for a field
+	 * 
+	 * @param field
+	 * @return FieldAccessor
+	 * @throws IllegalAccessException
+	 *         if the field cannot be accessed by this backend
+	 */
+	FieldAccessor create(Field field) throws IllegalAccessException;
+}
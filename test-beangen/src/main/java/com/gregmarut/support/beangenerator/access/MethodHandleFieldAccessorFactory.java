@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.access;
+
+import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Creates {@link FieldAccessor}s that use cached {@link MethodHandle} getters and setters. The
+ * access checks are performed once when the handles are created instead of on every call, and the
+ * handles can be inlined by the JIT. The handles only receive values of the exact type of the field;
+ * every other value is written through reflection so that widening conversions are applied and
+ * narrowing conversions, null primitives and values of the wrong type are rejected with an
+ * {@link IllegalArgumentException} just like {@link Field#set(Object, Object)}.
+ * 
+ * @author Greg Marut
+ */
+public class MethodHandleFieldAccessorFactory implements FieldAccessorFactory, Serializable
+{
+	private static final long serialVersionUID = 4310944637145911862L;
+	
+	// holds the erased types of the handles
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+	
+	@Override
+	public FieldAccessor create(final Field field) throws IllegalAccessException
+	{
+		// static fields have no receiver, so the reflective semantics are kept for them
+		if (Modifier.isStatic(field.getModifiers()))
+		{
+			return new ReflectionFieldAccessorFactory().create(field);
+		}
+		
+		// an accessible field is unreflected without access checks, and the values that are written
+		// through reflection need the field to be accessible as well
+		try
+		{
+			field.setAccessible(true);
+		}
+		catch (RuntimeException e)
+		{
+			// the field belongs to a module that does not allow access
+			throw new IllegalAccessException(e.getMessage());
+		}
+		
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		MethodHandle getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+		
+		// final fields are only ever read
+		MethodHandle setter =
+			Modifier.isFinal(field.getModifiers()) ? null : lookup.unreflectSetter(field).asType(SETTER_TYPE);
+		
+		return new MethodHandleFieldAccessor(field, getter, setter);
+	}
+	
+	/**
+	 * Reads and writes a field using method handles
+	 * 
+	 * @author Greg Marut
+	 */
+	private static final class MethodHandleFieldAccessor implements FieldAccessor
+	{
+		private final Field field;
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+		
+		// holds the type of the values that are written through the setter handle
+		private final Class<?> exactType;
+		
+		private MethodHandleFieldAccessor(final Field field, final MethodHandle getter, final MethodHandle setter)
+		{
+			this.field = field;
+			this.getter = getter;
+			this.setter = setter;
+			this.exactType = MethodType.methodType(field.getType()).wrap().returnType();
+		}
+		
+		@Override
+		public Field getField()
+		{
+			return field;
+		}
+		
+		@Override
+		public Object get(final Object target) throws IllegalAccessException
+		{
+			try
+			{
+				return (Object) getter.invokeExact(target);
+			}
+			catch (RuntimeException e)
+			{
+				throw e;
+			}
+			catch (Error e)
+			{
+				throw e;
+			}
+			catch (Throwable e)
+			{
+				throw new IllegalStateException(e);
+			}
+		}
+		
+		@Override
+		public void set(final Object target, final Object value) throws IllegalAccessException
+		{
+			// make sure the field can be written
+			if (null == setter)
+			{
+				throw new IllegalAccessException("Cannot write final field " + field);
+			}
+			
+			// reflection widens the other wrapper types and rejects null primitives and wrong types
+			if (null != value ? !exactType.isInstance(value) : field.getType().isPrimitive())
+			{
+				field.set(target, value);
+				return;
+			}
+			
+			try
+			{
+				setter.invokeExact(target, value);
+			}
+			catch (RuntimeException e)
+			{
+				throw e;
+			}
+			catch (Error e)
+			{
+				throw e;
+			}
+			catch (Throwable e)
+			{
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.access;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+
+/**
+ * Creates {@link FieldAccessor}s that use {@link Field#get(Object)} and
+ * {@link Field#set(Object, Object)}
+ * 
+ * @author Greg Marut
+ */
+public class ReflectionFieldAccessorFactory implements FieldAccessorFactory, Serializable
+{
+	private static final long serialVersionUID = -2153381426934728706L;
+	
+	@Override
+	public FieldAccessor create(final Field field) throws IllegalAccessException
+	{
+		try
+		{
+			field.setAccessible(true);
+		}
+		catch (RuntimeException e)
+		{
+			// the field belongs to a module or security context that does not allow access
+			throw new IllegalAccessException(e.getMessage());
+		}
+		
+		return new ReflectionFieldAccessor(field);
+	}
+	
+	/**
+	 * Reads and writes a field using reflection
+	 * 
+	 * @author Greg Marut
+	 */
+	private static final class ReflectionFieldAccessor implements FieldAccessor
+	{
+		private final Field field;
+		
+		private ReflectionFieldAccessor(final Field field)
+		{
+			this.field = field;
+		}
+		
+		@Override
+		public Field getField()
+		{
+			return field;
+		}
+		
+		@Override
+		public Object get(final Object target) throws IllegalAccessException
+		{
+			return field.get(target);
+		}
+		
+		@Override
+		public void set(final Object target, final Object value) throws IllegalAccessException
+		{
+			field.set(target, value);
+		}
+	}
+}
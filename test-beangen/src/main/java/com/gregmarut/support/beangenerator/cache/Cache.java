@@ -0,0 +1,472 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.gregmarut.support.beangenerator.jfr.CacheRetrieveEvent;
+import com.gregmarut.support.beangenerator.jfr.Events;
+
+/**
+ * Caches one object per class. By default every object is strongly held until it is invalidated; a
+ * {@link CachePolicy} can bound the number of objects, let cached classes be unloaded and let the
+ * garbage collector clear objects when memory runs low. An object that was evicted is simply
+ * retrieved again the next time it is requested.
+ * 
+ * @author Greg Marut
+ */
+public final class Cache
+{
+	// ** Objects **//
+	// instantiate the logger
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+	
+	// holds the store that will hold cached objects according to the current policy
+	private volatile CacheStore store;
+	
+	// holds the classes whose objects are currently being retrieved
+	private final ConcurrentHashMap<Class<?>, Flight> flights = new ConcurrentHashMap<Class<?>, Flight>();
+	
+	// holds the flight that each blocked thread is waiting for
+	private final ConcurrentHashMap<Thread, Flight> waiting = new ConcurrentHashMap<Thread, Flight>();
+	
+	// count the lookups, retrievals and evictions of this cache
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder builds = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	
+	public Cache()
+	{
+		this(CachePolicy.unbounded());
+	}
+	
+	/**
+	 * Creates a cache with the given policy
+	 * 
+	 * @param policy
+	 */
+	public Cache(final CachePolicy policy)
+	{
+		setPolicy(policy);
+	}
+	
+	/**
+	 * Returns the policy of this cache
+	 * 
+	 * @return CachePolicy
+	 */
+	public CachePolicy getPolicy()
+	{
+		return store.getPolicy();
+	}
+	
+	/**
+	 * Replaces the policy of this cache. Every cached object is discarded.
+	 * 
+	 * @param policy
+	 */
+	public void setPolicy(final CachePolicy policy)
+	{
+		// make sure the policy is not null
+		if (null == policy)
+		{
+			throw new IllegalArgumentException("policy cannot be null");
+		}
+		
+		store = new CacheStore(policy, evictions);
+	}
+	
+	/**
+	 * Retrieves an object from the cache
+	 * 
+	 * @param key
+	 * @return the cached object or null if there is none
+	 */
+	public Object get(final Class<?> key)
+	{
+		return store.get(key);
+	}
+	
+	/**
+	 * Places an object into the cache
+	 * 
+	 * @param key
+	 * @param value
+	 */
+	public void put(final Class<?> key, final Object value)
+	{
+		// make sure the key and value are not null
+		if (null != key && null != value)
+		{
+			store.put(key, value, false);
+		}
+	}
+	
+	/**
+	 * Places an object into the cache unless an object of the same class has already been cached
+	 * 
+	 * @param key
+	 * @param value
+	 * @return the object that was cached first or the given value if it could not be cached
+	 */
+	public Object putIfAbsent(final Class<?> key, final Object value)
+	{
+		// make sure the key and value are not null
+		if (null != key && null != value)
+		{
+			return store.put(key, value, true);
+		}
+		
+		return value;
+	}
+	
+	/**
+	 * First, this attempts to pull the object from the cache. If the object does not exist in the cache, it is
+	 * attempted to be retrieved and the cache is updated provided that the object was retrieved successfully.
+	 * Only one thread at a time retrieves the object of a class while every other thread that requests the
+	 * same class waits for it.
+	 * 
+	 * @param key
+	 * @param retrieve
+	 * @return
+	 */
+	public Object getOrRetieve(final Class<?> key, final Retrieve<?> retrieve)
+	{
+		logger.debug("Attempting to lookup {} from the cache.", key.getName());
+		
+		// the event is only begun while a recording is running so that it costs nothing otherwise
+		CacheRetrieveEvent event = Events.beginCacheRetrieve();
+		
+		// determines whether or not this thread retrieved the object
+		boolean retrieved = false;
+		
+		// attempt to retrieve the object from the cache or wait for another thread that retrieves it
+		Object object = acquire(key);
+		
+		// check to see if the object is null
+		if (null == object)
+		{
+			retrieved = true;
+			
+			logger.debug("{} was not found in the cache. Attempting to retrieve...", key.getName());
+			
+			try
+			{
+				// attempt to retrieve the object
+				object = retrieve.retrieve();
+			}
+			finally
+			{
+				// update the cache with this object and hand it to the waiting threads
+				object = release(key, object);
+			}
+		}
+		else
+		{
+			logger.debug("Found {} in the cache.", key.getName());
+		}
+		
+		if (null != event && event.shouldCommit())
+		{
+			event.beanClass = key;
+			event.retrieved = retrieved;
+			event.commit();
+		}
+		
+		return object;
+	}
+	
+	/**
+	 * Retrieves an object from the cache, waiting while another thread is retrieving the object of the same
+	 * class. If null is returned, the calling thread is responsible for retrieving the object and must pass
+	 * it to {@link #release(Class, Object)} afterwards, even if the object could not be retrieved.
+	 * <p>
+	 * A thread that requests a class that it is already retrieving itself receives the object that it placed
+	 * into the cache early, if any, or retrieves another one. The generator never places objects early; it
+	 * shares incomplete beans within its own traversal only. A thread never waits for another thread
+	 * that is directly or indirectly waiting for it; it receives the early object as well or retrieves its own.
+	 * 
+	 * @param key
+	 * @return the cached object or null if the calling thread has to retrieve it
+	 */
+	public Object acquire(final Class<?> key)
+	{
+		// count whether the object was found or has to be retrieved by the calling thread
+		final Object object = lookup(key);
+		(null != object ? hits : misses).increment();
+		return object;
+	}
+	
+	/**
+	 * Retrieves an object from the cache as described by {@link #acquire(Class)}
+	 * 
+	 * @param key
+	 * @return the cached object or null if the calling thread has to retrieve it
+	 */
+	private Object lookup(final Class<?> key)
+	{
+		final Thread current = Thread.currentThread();
+		
+		while (true)
+		{
+			Flight flight = flights.get(key);
+			if (null == flight)
+			{
+				Object object = store.get(key);
+				if (null != object)
+				{
+					// an object is placed early while its graph is still being populated, so it is only complete
+					// once no thread is retrieving it anymore
+					flight = flights.get(key);
+					if (null == flight)
+					{
+						return object;
+					}
+				}
+				else
+				{
+					// attempt to become the thread that retrieves this object
+					Flight created = new Flight(current);
+					flight = flights.putIfAbsent(key, created);
+					if (null == flight)
+					{
+						return null;
+					}
+				}
+			}
+			
+			// check to see if this class is requested again while this thread is retrieving it
+			if (flight.owner == current)
+			{
+				Object object = store.get(key);
+				if (null == object)
+				{
+					flight.holds++;
+				}
+				
+				return object;
+			}
+			
+			// check to see if waiting for the other thread would never end
+			if (isWaitingFor(flight, current))
+			{
+				logger.debug("{} is being retrieved by a thread that is waiting for this one.", key.getName());
+				return store.get(key);
+			}
+			
+			// wait for the other thread and use its object. If it could not retrieve the object, this thread
+			// attempts to retrieve it instead.
+			Object object = await(flight, current);
+			if (null != object)
+			{
+				return object;
+			}
+		}
+	}
+	
+	/**
+	 * Completes the retrieval of an object after {@link #acquire(Class)} returned null. The object is placed
+	 * into the cache unless another object has already been cached, and every thread that is waiting for it
+	 * receives the cached object.
+	 * 
+	 * @param key
+	 * @param value
+	 * the object that was retrieved or null if it could not be retrieved
+	 * @return the object that was cached first or the given value if it could not be cached
+	 */
+	public Object release(final Class<?> key, final Object value)
+	{
+		// update the cache with this object unless another thread has already done so, in which case every
+		// caller shares the object that was cached first
+		final Object object = putIfAbsent(key, value);
+		if (null != value)
+		{
+			builds.increment();
+		}
+		
+		// check to see if this thread is retrieving the object, which it may not be if it had to retrieve its
+		// own object instead of waiting
+		Flight flight = flights.get(key);
+		if (null != flight && flight.owner == Thread.currentThread() && --flight.holds == 0)
+		{
+			logger.debug("Releasing the threads that are waiting for {}", key.getName());
+			
+			flights.remove(key, flight);
+			flight.complete(object);
+		}
+		
+		return object;
+	}
+	
+	/**
+	 * Determines whether the thread that owns the given flight is directly or indirectly waiting for the
+	 * current thread. The current thread must be registered as waiting for the flight beforehand, so that
+	 * of two threads that start waiting for each other at the same time, at least one notices it.
+	 * 
+	 * @param flight
+	 * @param current
+	 * @return boolean
+	 */
+	private boolean isWaitingFor(final Flight flight, final Thread current)
+	{
+		waiting.put(current, flight);
+		
+		// follow the chain of waiting threads, which cannot be longer than the number of waiting threads
+		Flight next = flight;
+		for (int i = waiting.size(); null != next && i >= 0; i--)
+		{
+			if (next.owner == current)
+			{
+				waiting.remove(current);
+				return true;
+			}
+			
+			next = waiting.get(next.owner);
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Waits until the given flight is complete
+	 * 
+	 * @param flight
+	 * @param current
+	 * @return the object that was retrieved by the flight or null if it could not be retrieved
+	 */
+	private Object await(final Flight flight, final Thread current)
+	{
+		boolean interrupted = false;
+		try
+		{
+			while (true)
+			{
+				try
+				{
+					flight.latch.await();
+					return flight.result;
+				}
+				catch (InterruptedException e)
+				{
+					// the object is still needed, so the interrupt is restored once it is available
+					interrupted = true;
+				}
+			}
+		}
+		finally
+		{
+			waiting.remove(current);
+			if (interrupted)
+			{
+				current.interrupt();
+			}
+		}
+	}
+	
+	/**
+	 * Discards the object of the given class so that it is retrieved again the next time it is
+	 * requested
+	 * 
+	 * @param key
+	 */
+	public void invalidate(final Class<?> key)
+	{
+		// make sure the key is not null
+		if (null != key)
+		{
+			store.invalidate(key);
+		}
+	}
+	
+	/**
+	 * Discards every cached object
+	 */
+	public void clear()
+	{
+		store.clear();
+	}
+	
+	/**
+	 * Returns a snapshot of the statistics of this cache
+	 * 
+	 * @return CacheStats
+	 */
+	public CacheStats getStats()
+	{
+		return new CacheStats(hits.sum(), misses.sum(), builds.sum(), evictions.sum());
+	}
+	
+	/**
+	 * Resets the statistics of this cache
+	 */
+	public void resetStats()
+	{
+		hits.reset();
+		misses.reset();
+		builds.reset();
+		evictions.reset();
+	}
+	
+	/**
+	 * Returns the number of cached classes. Objects that were cleared by the garbage collector may be
+	 * counted until the cache is next used.
+	 * 
+	 * @return int
+	 */
+	public int size()
+	{
+		return store.size();
+	}
+	
+	/**
+	 * The retrieval of the object of a class by a single thread
+	 */
+	private static final class Flight
+	{
+		// holds the thread that retrieves the object
+		private final Thread owner;
+		
+		// holds the number of nested retrievals of the class by the owner, which is only accessed by the owner
+		private int holds;
+		
+		// releases the waiting threads once the object is retrieved
+		private final CountDownLatch latch;
+		
+		// holds the object that was retrieved
+		private volatile Object result;
+		
+		private Flight(final Thread owner)
+		{
+			this.owner = owner;
+			this.holds = 1;
+			this.latch = new CountDownLatch(1);
+		}
+		
+		/**
+		 * Hands the retrieved object to the waiting threads
+		 * 
+		 * @param result
+		 */
+		private void complete(final Object result)
+		{
+			this.result = result;
+			latch.countDown();
+		}
+	}
+}
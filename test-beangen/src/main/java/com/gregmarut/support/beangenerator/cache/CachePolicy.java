@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.cache;
+
+/**
+ * Describes how many objects a {@link Cache} holds and how strongly it holds them. A policy is
+ * immutable; every method that changes an option returns a new policy.
+ * 
+ * @author Greg Marut
+ */
+public final class CachePolicy
+{
+	// ** Objects **//
+	// holds the policy of a cache that never discards its objects
+	private static final CachePolicy UNBOUNDED = new CachePolicy(0, EvictionPolicy.LRU, false, false);
+	
+	// holds the maximum number of objects in the cache or 0 if the cache is unbounded
+	private final int maximumSize;
+	
+	// holds the policy that chooses the object to discard when the cache is full
+	private final EvictionPolicy evictionPolicy;
+	
+	// determines whether the cache allows its classes to be unloaded
+	private final boolean weakKeys;
+	
+	// determines whether the garbage collector may clear cached objects when memory runs low
+	private final boolean softValues;
+	
+	private CachePolicy(final int maximumSize, final EvictionPolicy evictionPolicy, final boolean weakKeys,
+		final boolean softValues)
+	{
+		this.maximumSize = maximumSize;
+		this.evictionPolicy = evictionPolicy;
+		this.weakKeys = weakKeys;
+		this.softValues = softValues;
+	}
+	
+	/**
+	 * Returns the policy of a cache that strongly holds every object until it is invalidated
+	 * 
+	 * @return CachePolicy
+	 */
+	public static CachePolicy unbounded()
+	{
+		return UNBOUNDED;
+	}
+	
+	/**
+	 * Returns a copy of this policy that holds at most the given number of objects
+	 * 
+	 * @param maximumSize
+	 * the maximum number of objects or 0 for an unbounded cache
+	 * @param evictionPolicy
+	 * the policy that chooses the object to discard when the cache is full
+	 * @return CachePolicy
+	 */
+	public CachePolicy maximumSize(final int maximumSize, final EvictionPolicy evictionPolicy)
+	{
+		// make sure the maximum size is not negative
+		if (maximumSize < 0)
+		{
+			throw new IllegalArgumentException("maximumSize cannot be negative.");
+		}
+		
+		// make sure the eviction policy is not null
+		if (null == evictionPolicy)
+		{
+			throw new IllegalArgumentException("evictionPolicy cannot be null");
+		}
+		
+		return new CachePolicy(maximumSize, evictionPolicy, weakKeys, softValues);
+	}
+	
+	/**
+	 * Returns a copy of this policy that only weakly references the cached classes. An entry is
+	 * discarded once its class is no longer used anywhere else, and the cached object does not prevent
+	 * the class or its class loader from being unloaded.
+	 * 
+	 * @return CachePolicy
+	 */
+	public CachePolicy weakKeys()
+	{
+		return new CachePolicy(maximumSize, evictionPolicy, true, softValues);
+	}
+	
+	/**
+	 * Returns a copy of this policy that softly references the cached objects, so the garbage
+	 * collector may discard them when memory runs low. A discarded object is generated again the next
+	 * time it is requested.
+	 * 
+	 * @return CachePolicy
+	 */
+	public CachePolicy softValues()
+	{
+		return new CachePolicy(maximumSize, evictionPolicy, weakKeys, true);
+	}
+	
+	/**
+	 * Returns the maximum number of objects in the cache or 0 if the cache is unbounded
+	 * 
+	 * @return int
+	 */
+	public int getMaximumSize()
+	{
+		return maximumSize;
+	}
+	
+	/**
+	 * Determines whether the cache discards objects when it is full
+	 * 
+	 * @return boolean
+	 */
+	public boolean isBounded()
+	{
+		return maximumSize > 0;
+	}
+	
+	public EvictionPolicy getEvictionPolicy()
+	{
+		return evictionPolicy;
+	}
+	
+	public boolean isWeakKeys()
+	{
+		return weakKeys;
+	}
+	
+	public boolean isSoftValues()
+	{
+		return softValues;
+	}
+}
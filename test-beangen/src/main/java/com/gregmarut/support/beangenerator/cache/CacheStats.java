@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.cache;
+
+/**
+ * An immutable snapshot of the statistics of a {@link Cache}
+ * 
+ * @author Greg Marut
+ */
+public final class CacheStats
+{
+	// holds the number of lookups that found a cached object
+	private final long hits;
+	
+	// holds the number of lookups that had to retrieve the object
+	private final long misses;
+	
+	// holds the number of objects that were retrieved
+	private final long builds;
+	
+	// holds the number of objects that were evicted by the policy or cleared by the garbage collector
+	private final long evictions;
+	
+	public CacheStats(final long hits, final long misses, final long builds, final long evictions)
+	{
+		this.hits = hits;
+		this.misses = misses;
+		this.builds = builds;
+		this.evictions = evictions;
+	}
+	
+	/**
+	 * Returns the number of lookups that found a cached object, including lookups that waited for another
+	 * thread to retrieve it
+	 * 
+	 * @return long
+	 */
+	public long getHits()
+	{
+		return hits;
+	}
+	
+	/**
+	 * Returns the number of lookups that had to retrieve the object themselves
+	 * 
+	 * @return long
+	 */
+	public long getMisses()
+	{
+		return misses;
+	}
+	
+	/**
+	 * Returns the number of objects that were retrieved and offered to the cache
+	 * 
+	 * @return long
+	 */
+	public long getBuilds()
+	{
+		return builds;
+	}
+	
+	/**
+	 * Returns the number of objects that were evicted by the policy or cleared by the garbage collector
+	 * 
+	 * @return long
+	 */
+	public long getEvictions()
+	{
+		return evictions;
+	}
+	
+	/**
+	 * Returns the ratio of lookups that found a cached object or 0 if there were no lookups
+	 * 
+	 * @return double
+	 */
+	public double getHitRate()
+	{
+		long requests = hits + misses;
+		return 0 == requests ? 0 : (double) hits / requests;
+	}
+}
@@ -0,0 +1,795 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.cache;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the objects of a {@link Cache} according to a {@link CachePolicy}. Lookups never block; the
+ * order in which the objects were used is only updated when the eviction lock is free, so that
+ * concurrent readers of a bounded cache skip the bookkeeping instead of waiting for each other.
+ * 
+ * @author Greg Marut
+ */
+final class CacheStore
+{
+	// ** Objects **//
+	// holds the policy of this store
+	private final CachePolicy policy;
+	
+	// holds the entry of each cached class, keyed by the class itself or by a weak reference to it
+	private final ConcurrentHashMap<Object, Entry> entries;
+	
+	// receives the weak keys and soft values that were cleared by the garbage collector
+	private final ReferenceQueue<Object> referenceQueue;
+	
+	// holds the cached object of each class when the keys are weak. A cached object references its
+	// own class, so the object is only reachable through its class and never pins the class loader.
+	private final ClassValue<Holder> holders;
+	
+	// guards the access order and the frequency sketch of a bounded store
+	private final ReentrantLock evictionLock;
+	
+	// holds the most recently added entries that have not yet been admitted into the main space
+	private final AccessOrder window;
+	
+	// holds the admitted entries from the most to the least recently used
+	private final AccessOrder main;
+	
+	// holds the number of entries in the window and in the main space
+	private final int windowCapacity;
+	private final int mainCapacity;
+	
+	// estimates the recent use of each class or null if every new entry is admitted
+	private final FrequencySketch sketch;
+	
+	// counts the entries that were evicted by the policy or cleared by the garbage collector
+	private final LongAdder evictions;
+	
+	/**
+	 * Creates an empty store
+	 * 
+	 * @param policy
+	 * @param evictions
+	 */
+	CacheStore(final CachePolicy policy, final LongAdder evictions)
+	{
+		this.policy = policy;
+		this.evictions = evictions;
+		this.entries = new ConcurrentHashMap<Object, Entry>();
+		this.referenceQueue = (policy.isWeakKeys() || policy.isSoftValues()) ? new ReferenceQueue<Object>() : null;
+		this.holders = policy.isWeakKeys() ? new ClassValue<Holder>()
+		{
+			@Override
+			protected Holder computeValue(final Class<?> type)
+			{
+				return new Holder();
+			}
+		} : null;
+		this.evictionLock = new ReentrantLock();
+		this.window = new AccessOrder();
+		this.main = new AccessOrder();
+		
+		// a cache of a single object has no room for a window
+		final int maximumSize = policy.getMaximumSize();
+		if (EvictionPolicy.TINY_LFU == policy.getEvictionPolicy() && maximumSize > 1)
+		{
+			this.windowCapacity = Math.max(1, maximumSize / 100);
+			this.sketch = new FrequencySketch(maximumSize);
+		}
+		else
+		{
+			this.windowCapacity = 0;
+			this.sketch = null;
+		}
+		this.mainCapacity = maximumSize - windowCapacity;
+	}
+	
+	CachePolicy getPolicy()
+	{
+		return policy;
+	}
+	
+	/**
+	 * Retrieves the object of the given class or null if none is cached
+	 * 
+	 * @param key
+	 * @return Object
+	 */
+	Object get(final Class<?> key)
+	{
+		// discard the entries that were cleared by the garbage collector
+		drainReferences();
+		
+		Entry entry = entries.get(lookupKey(key));
+		Object value = (null != entry) ? entry.getValue() : null;
+		recordAccess((null != sketch) ? hash(key) : 0, (null != value) ? entry : null);
+		return value;
+	}
+	
+	/**
+	 * Places an object into the store
+	 * 
+	 * @param key
+	 * @param value
+	 * @param onlyIfAbsent
+	 * whether an object that is already cached is kept
+	 * @return the object that is cached for the class
+	 */
+	Object put(final Class<?> key, final Object value, final boolean onlyIfAbsent)
+	{
+		// discard the entries that were cleared by the garbage collector
+		drainReferences();
+		
+		while (true)
+		{
+			// find or create the entry of this class
+			Entry entry = entries.get(lookupKey(key));
+			if (null == entry)
+			{
+				Entry created = createEntry(key);
+				entry = entries.putIfAbsent(created.key, created);
+				if (null == entry)
+				{
+					entry = created;
+				}
+			}
+			
+			// the holder of an entry that was removed may already have been discarded
+			Holder holder = entry.getHolder();
+			if (null == holder)
+			{
+				detach(entry);
+				continue;
+			}
+			
+			// check to see if another object is already cached
+			Object stored = holder.get();
+			Object existing = unwrap(stored, entry);
+			if (null != existing && onlyIfAbsent)
+			{
+				recordAccess(entry.hash, entry);
+				return existing;
+			}
+			
+			if (holder.compareAndSet(stored, wrap(value, entry)))
+			{
+				// the entry may have been evicted at the same time, in which case the object is placed again
+				if (entries.get(entry.key) != entry)
+				{
+					continue;
+				}
+				
+				// check to see if the entry has just been filled
+				if (null == existing)
+				{
+					onInsert(entry);
+				}
+				else
+				{
+					recordAccess(entry.hash, entry);
+				}
+				
+				return value;
+			}
+		}
+	}
+	
+	/**
+	 * Discards the object of the given class
+	 * 
+	 * @param key
+	 */
+	void invalidate(final Class<?> key)
+	{
+		// discard the entries that were cleared by the garbage collector
+		drainReferences();
+		
+		Entry entry = entries.get(lookupKey(key));
+		if (null != entry)
+		{
+			remove(entry);
+		}
+	}
+	
+	/**
+	 * Discards every object
+	 */
+	void clear()
+	{
+		for (Entry entry : entries.values())
+		{
+			remove(entry);
+		}
+		
+		// discard the references that were cleared in the meantime
+		drainReferences();
+	}
+	
+	/**
+	 * Returns the number of cached classes
+	 * 
+	 * @return int
+	 */
+	int size()
+	{
+		// discard the entries that were cleared by the garbage collector
+		drainReferences();
+		
+		return entries.size();
+	}
+	
+	/**
+	 * Creates the entry of a class that is not yet cached
+	 * 
+	 * @param key
+	 * @return Entry
+	 */
+	private Entry createEntry(final Class<?> key)
+	{
+		if (policy.isWeakKeys())
+		{
+			// the entry only weakly references the holder which is kept alive by the class itself
+			return new Entry(new WeakKey(key, referenceQueue), hash(key),
+				new WeakReference<Holder>(holders.get(key)));
+		}
+		else
+		{
+			return new Entry(key, hash(key), new Holder());
+		}
+	}
+	
+	/**
+	 * Returns the hash of a class that is counted by the frequency sketch. The name is used instead
+	 * of the identity of the class so that the eviction decisions are the same in every run.
+	 * 
+	 * @param key
+	 * @return int
+	 */
+	private static int hash(final Class<?> key)
+	{
+		return key.getName().hashCode();
+	}
+	
+	/**
+	 * Returns the key that finds the entry of the given class
+	 * 
+	 * @param key
+	 * @return Object
+	 */
+	private Object lookupKey(final Class<?> key)
+	{
+		return policy.isWeakKeys() ? new LookupKey(key) : key;
+	}
+	
+	/**
+	 * Wraps an object the way it is held by an entry
+	 * 
+	 * @param value
+	 * @param entry
+	 * @return Object
+	 */
+	private Object wrap(final Object value, final Entry entry)
+	{
+		if (policy.isSoftValues())
+		{
+			return new SoftValue(value, entry, referenceQueue);
+		}
+		
+		// the holder of a weak key is shared by every entry of its class, so the object remembers
+		// the entry that placed it
+		return policy.isWeakKeys() ? new OwnedValue(value, entry) : value;
+	}
+	
+	/**
+	 * Returns the object that is held for an entry or null if it was cleared or was placed by
+	 * another entry of the same class
+	 * 
+	 * @param stored
+	 * @param entry
+	 * @return Object
+	 */
+	private static Object unwrap(final Object stored, final Entry entry)
+	{
+		if (!isOwnedBy(stored, entry))
+		{
+			return null;
+		}
+		else if (stored instanceof SoftValue)
+		{
+			return ((SoftValue) stored).get();
+		}
+		else if (stored instanceof OwnedValue)
+		{
+			return ((OwnedValue) stored).value;
+		}
+		else
+		{
+			return stored;
+		}
+	}
+	
+	/**
+	 * Determines if an object that is held by a holder was placed by an entry. Objects that do not
+	 * remember their entry are held by a holder of their own.
+	 * 
+	 * @param stored
+	 * @param entry
+	 * @return boolean
+	 */
+	private static boolean isOwnedBy(final Object stored, final Entry entry)
+	{
+		if (stored instanceof SoftValue)
+		{
+			return ((SoftValue) stored).entry == entry;
+		}
+		else if (stored instanceof OwnedValue)
+		{
+			return ((OwnedValue) stored).entry == entry;
+		}
+		else
+		{
+			return true;
+		}
+	}
+	
+	/**
+	 * Discards the object of an entry that was removed. An entry that replaced it in the meantime
+	 * shares the holder when the keys are weak, so an object that was placed by another entry is
+	 * kept.
+	 * 
+	 * @param entry
+	 */
+	private static void release(final Entry entry)
+	{
+		Holder holder = entry.getHolder();
+		if (null != holder)
+		{
+			Object stored = holder.get();
+			if (null != stored && isOwnedBy(stored, entry))
+			{
+				holder.compareAndSet(stored, null);
+			}
+		}
+	}
+	
+	/**
+	 * Removes an entry and discards its object
+	 * 
+	 * @param entry
+	 */
+	private void remove(final Entry entry)
+	{
+		if (detach(entry))
+		{
+			release(entry);
+		}
+	}
+	
+	/**
+	 * Removes an entry from the map and the access order
+	 * 
+	 * @param entry
+	 * @return whether the entry was still in the map
+	 */
+	private boolean detach(final Entry entry)
+	{
+		if (!entries.remove(entry.key, entry))
+		{
+			return false;
+		}
+		
+		if (policy.isBounded())
+		{
+			evictionLock.lock();
+			try
+			{
+				if (null != entry.list)
+				{
+					entry.list.remove(entry);
+				}
+			}
+			finally
+			{
+				evictionLock.unlock();
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Removes the entries whose class was unloaded or whose object was cleared by the garbage collector
+	 */
+	private void drainReferences()
+	{
+		// nothing can be cleared when the keys and values are strongly referenced
+		if (null == referenceQueue)
+		{
+			return;
+		}
+		
+		Reference<?> reference;
+		while (null != (reference = referenceQueue.poll()))
+		{
+			if (reference instanceof WeakKey)
+			{
+				// the class is gone and its object along with it, since only the class referenced it
+				Entry entry = entries.get(reference);
+				if (null != entry && detach(entry))
+				{
+					evictions.increment();
+				}
+			}
+			else
+			{
+				// only remove the entry if it still holds the object that was cleared
+				SoftValue softValue = (SoftValue) reference;
+				Holder holder = softValue.entry.getHolder();
+				if ((null == holder || holder.compareAndSet(softValue, null)) && detach(softValue.entry))
+				{
+					evictions.increment();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Records a request for a class so that the eviction policy can rank it
+	 * 
+	 * @param hash
+	 * the hash of the class
+	 * @param entry
+	 * the entry that was found or null if the class was not cached
+	 */
+	private void recordAccess(final int hash, final Entry entry)
+	{
+		// the access order of an unbounded store is never used, and a request is simply skipped when
+		// another thread is updating the access order
+		if (!policy.isBounded() || !evictionLock.tryLock())
+		{
+			return;
+		}
+		
+		try
+		{
+			if (null != sketch)
+			{
+				sketch.increment(hash);
+			}
+			
+			if (null != entry && null != entry.list)
+			{
+				entry.list.moveToFront(entry);
+			}
+		}
+		finally
+		{
+			evictionLock.unlock();
+		}
+	}
+	
+	/**
+	 * Adds a filled entry to the access order and evicts the entries that no longer fit
+	 * 
+	 * @param entry
+	 */
+	private void onInsert(final Entry entry)
+	{
+		if (!policy.isBounded())
+		{
+			return;
+		}
+		
+		evictionLock.lock();
+		try
+		{
+			// the entry may have been removed since it was filled
+			if (null == entry.list && entries.get(entry.key) == entry)
+			{
+				if (null != sketch)
+				{
+					sketch.increment(entry.hash);
+				}
+				
+				(windowCapacity > 0 ? window : main).addFirst(entry);
+				evict();
+			}
+		}
+		finally
+		{
+			evictionLock.unlock();
+		}
+	}
+	
+	/**
+	 * Evicts entries until the window and the main space fit their capacity. Must be called while
+	 * holding the eviction lock.
+	 */
+	private void evict()
+	{
+		// an entry that leaves the window replaces the least recently used entry of the main space
+		// only if its class has been requested more often
+		while (window.size > windowCapacity)
+		{
+			Entry candidate = window.removeLast();
+			if (main.size < mainCapacity)
+			{
+				main.addFirst(candidate);
+			}
+			else
+			{
+				Entry victim = main.getLast();
+				if (sketch.frequency(candidate.hash) > sketch.frequency(victim.hash))
+				{
+					main.remove(victim);
+					discard(victim);
+					main.addFirst(candidate);
+				}
+				else
+				{
+					discard(candidate);
+				}
+			}
+		}
+		
+		while (main.size > mainCapacity)
+		{
+			discard(main.removeLast());
+		}
+	}
+	
+	/**
+	 * Removes an entry that was already taken out of the access order and discards its object
+	 * 
+	 * @param entry
+	 */
+	private void discard(final Entry entry)
+	{
+		if (entries.remove(entry.key, entry))
+		{
+			evictions.increment();
+			release(entry);
+		}
+	}
+	
+	/**
+	 * Holds the cached object of a class, either directly or as a {@link SoftValue}
+	 */
+	private static final class Holder extends AtomicReference<Object>
+	{
+		private static final long serialVersionUID = 1L;
+	}
+	
+	/**
+	 * The entry of a cached class which is linked into the access order of a bounded store
+	 */
+	private static final class Entry
+	{
+		// holds the key of this entry in the map
+		private final Object key;
+		
+		// holds the hash of the class that is counted by the frequency sketch
+		private final int hash;
+		
+		// holds the holder or a weak reference to the holder when the keys are weak
+		private final Object holder;
+		
+		// holds the links of the access order which are guarded by the eviction lock
+		private AccessOrder list;
+		private Entry previous;
+		private Entry next;
+		
+		private Entry(final Object key, final int hash, final Object holder)
+		{
+			this.key = key;
+			this.hash = hash;
+			this.holder = holder;
+		}
+		
+		/**
+		 * Returns the holder of this entry or null if it was discarded along with its class
+		 * 
+		 * @return Holder
+		 */
+		@SuppressWarnings("unchecked")
+		private Holder getHolder()
+		{
+			return (holder instanceof Holder) ? (Holder) holder : ((WeakReference<Holder>) holder).get();
+		}
+		
+		/**
+		 * Returns the cached object or null if there is none
+		 * 
+		 * @return Object
+		 */
+		private Object getValue()
+		{
+			Holder current = getHolder();
+			return (null != current) ? unwrap(current.get(), this) : null;
+		}
+	}
+	
+	/**
+	 * A weak reference to a class which equals every other weak reference to the same class
+	 */
+	private static final class WeakKey extends WeakReference<Class<?>>
+	{
+		// holds the hash of the class which is kept after the class is cleared
+		private final int hash;
+		
+		private WeakKey(final Class<?> key, final ReferenceQueue<Object> referenceQueue)
+		{
+			super(key, referenceQueue);
+			this.hash = key.hashCode();
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+		
+		@Override
+		public boolean equals(final Object obj)
+		{
+			// a cleared key only equals itself
+			if (this == obj)
+			{
+				return true;
+			}
+			
+			Class<?> referent = get();
+			if (obj instanceof LookupKey)
+			{
+				return null != referent && referent == ((LookupKey) obj).key;
+			}
+			
+			if (!(obj instanceof WeakKey))
+			{
+				return false;
+			}
+			
+			return null != referent && referent == ((WeakKey) obj).get();
+		}
+	}
+	
+	/**
+	 * A strong reference to a class which only finds the entry of a weak key, so that a lookup does
+	 * not create a reference object
+	 */
+	private static final class LookupKey
+	{
+		// holds the class that is looked up
+		private final Class<?> key;
+		
+		private LookupKey(final Class<?> key)
+		{
+			this.key = key;
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return key.hashCode();
+		}
+		
+		@Override
+		public boolean equals(final Object obj)
+		{
+			if (obj instanceof LookupKey)
+			{
+				return key == ((LookupKey) obj).key;
+			}
+			
+			return (obj instanceof WeakKey) && key == ((WeakKey) obj).get();
+		}
+	}
+	
+	/**
+	 * A strongly referenced cached object which remembers the entry that placed it
+	 */
+	private static final class OwnedValue
+	{
+		// holds the cached object
+		private final Object value;
+		
+		// holds the entry that placed the object
+		private final Entry entry;
+		
+		private OwnedValue(final Object value, final Entry entry)
+		{
+			this.value = value;
+			this.entry = entry;
+		}
+	}
+	
+	/**
+	 * A soft reference to a cached object which remembers its entry
+	 */
+	private static final class SoftValue extends SoftReference<Object>
+	{
+		// holds the entry that held the object
+		private final Entry entry;
+		
+		private SoftValue(final Object value, final Entry entry, final ReferenceQueue<Object> referenceQueue)
+		{
+			super(value, referenceQueue);
+			this.entry = entry;
+		}
+	}
+	
+	/**
+	 * A doubly linked list of entries from the most to the least recently used
+	 */
+	private static final class AccessOrder
+	{
+		// holds the sentinel that links the first and the last entry
+		private final Entry sentinel;
+		
+		// holds the number of entries in this list
+		private int size;
+		
+		private AccessOrder()
+		{
+			sentinel = new Entry(null, 0, null);
+			sentinel.previous = sentinel;
+			sentinel.next = sentinel;
+		}
+		
+		private void addFirst(final Entry entry)
+		{
+			entry.list = this;
+			entry.previous = sentinel;
+			entry.next = sentinel.next;
+			sentinel.next.previous = entry;
+			sentinel.next = entry;
+			size++;
+		}
+		
+		private void remove(final Entry entry)
+		{
+			entry.previous.next = entry.next;
+			entry.next.previous = entry.previous;
+			entry.previous = null;
+			entry.next = null;
+			entry.list = null;
+			size--;
+		}
+		
+		private void moveToFront(final Entry entry)
+		{
+			remove(entry);
+			addFirst(entry);
+		}
+		
+		private Entry getLast()
+		{
+			return sentinel.previous;
+		}
+		
+		private Entry removeLast()
+		{
+			Entry last = sentinel.previous;
+			remove(last);
+			return last;
+		}
+	}
+}
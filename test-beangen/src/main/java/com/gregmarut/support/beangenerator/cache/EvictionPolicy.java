@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.cache;
+
+/**
+ * Determines which object is discarded when a bounded cache is full
+ * 
+ * @author Greg Marut
+ */
+public enum EvictionPolicy
+{
+	/**
+	 * The object that was used least recently is discarded
+	 */
+	LRU,
+	
+	/**
+	 * New objects are kept in a small window that is ordered by recent use. An object that leaves the
+	 * window is only admitted into the rest of the cache if it has been requested more often than the
+	 * object it would replace, so that a burst of classes that are only requested once does not flush
+	 * the classes that are requested repeatedly.
+	 */
+	TINY_LFU
+}
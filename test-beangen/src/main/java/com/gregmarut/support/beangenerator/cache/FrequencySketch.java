@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.cache;
+
+/**
+ * Estimates how often each key has been used recently with a count-min sketch of small counters.
+ * All counters are halved periodically so that keys which are no longer used are forgotten. This
+ * class is not thread safe and is guarded by the lock of the store that owns it.
+ * 
+ * @author Greg Marut
+ */
+final class FrequencySketch
+{
+	// ** Finals **//
+	// holds the number of counters that are incremented for each key
+	private static final int DEPTH = 4;
+	
+	// holds the largest value of a counter
+	private static final int MAXIMUM_COUNT = 15;
+	
+	// holds the seeds of the hash function of each row
+	private static final int[] SEEDS = { 0x97cb3127, 0xb3ac3ee5, 0x9f6a2b5d, 0xc2b2ae35 };
+	
+	// ** Objects **//
+	// holds the counters of all rows
+	private final byte[] counters;
+	
+	// holds the number of counters in a row minus one
+	private final int mask;
+	
+	// holds the number of increments after which all counters are halved
+	private final int sampleSize;
+	
+	// holds the number of increments since the counters were last halved
+	private int additions;
+	
+	/**
+	 * Creates a sketch for a cache of the given size
+	 * 
+	 * @param maximumSize
+	 */
+	FrequencySketch(final int maximumSize)
+	{
+		// use a power of two number of counters per row so that an index is a simple mask, with several
+		// counters per entry so that rarely used keys seldom share all of their counters with frequent ones
+		int width = Integer.highestOneBit(Math.max(16, maximumSize) - 1) << 3;
+		this.counters = new byte[DEPTH * width];
+		this.mask = width - 1;
+		this.sampleSize = 10 * Math.max(16, maximumSize);
+	}
+	
+	/**
+	 * Records a use of the key with the given hash
+	 * 
+	 * @param hash
+	 */
+	void increment(final int hash)
+	{
+		boolean incremented = false;
+		for (int row = 0; row < DEPTH; row++)
+		{
+			// increment this counter unless it has already reached its limit
+			int index = indexOf(hash, row);
+			if (counters[index] < MAXIMUM_COUNT)
+			{
+				counters[index]++;
+				incremented = true;
+			}
+		}
+		
+		// check to see if it is time to age all counters
+		if (incremented && ++additions >= sampleSize)
+		{
+			reset();
+		}
+	}
+	
+	/**
+	 * Returns the estimated number of recent uses of the key with the given hash
+	 * 
+	 * @param hash
+	 * @return int
+	 */
+	int frequency(final int hash)
+	{
+		// every counter of the key may be shared with other keys, so the smallest one is the best estimate
+		int frequency = MAXIMUM_COUNT;
+		for (int row = 0; row < DEPTH; row++)
+		{
+			frequency = Math.min(frequency, counters[indexOf(hash, row)]);
+		}
+		
+		return frequency;
+	}
+	
+	/**
+	 * Returns the index of the counter of the given hash in the given row
+	 * 
+	 * @param hash
+	 * @param row
+	 * @return int
+	 */
+	private int indexOf(final int hash, final int row)
+	{
+		// mix all bits of the seeded hash into the low bits that select the counter
+		int h = (hash ^ SEEDS[row]) * 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return row * (mask + 1) + (h & mask);
+	}
+	
+	/**
+	 * Halves every counter
+	 */
+	private void reset()
+	{
+		for (int i = 0; i < counters.length; i++)
+		{
+			counters[i] >>= 1;
+		}
+		
+		additions /= 2;
+	}
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.config;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A map of values keyed by class. Reads never take locks and may happen concurrently with
+ * modifications from other threads.
+ * 
+ * @author Greg Marut
+ */
+public abstract class ClassMapContainer<E> implements Serializable
+{
+	private static final long serialVersionUID = -5674202025647585631L;
+	
+	// holds the map
+	private final Map<Class<?>, E> map;
+	
+	// holds the number of times this container has been modified
+	private volatile int modificationCount;
+	
+	/**
+	 * Constructs the default values map
+	 */
+	public ClassMapContainer()
+	{
+		map = new ConcurrentHashMap<Class<?>, E>();
+		
+		// add the default values to the map
+		setupDefaultValues();
+	}
+	
+	public final synchronized void put(final Class<?> key, final E value)
+	{
+		// make sure the key is not null
+		if (null == key)
+		{
+			throw new IllegalArgumentException("key cannot be null.");
+		}
+		
+		// make sure the value is not null
+		if (null == value)
+		{
+			throw new IllegalArgumentException("value cannot be null.");
+		}
+		
+		// create a new value object
+		map.put(key, value);
+		modificationCount++;
+	}
+	
+	public final E get(final Class<?> key)
+	{
+		// the concurrent map does not permit null keys
+		if (null == key)
+		{
+			return null;
+		}
+		
+		// retrieve the value object from the map
+		return map.get(key);
+	}
+	
+	public final synchronized E remove(final Class<?> key)
+	{
+		// remove the object from the map if it exists
+		E value = map.remove(key);
+		modificationCount++;
+		return value;
+	}
+	
+	public final boolean containsKey(final Class<?> key)
+	{
+		return null != key && map.containsKey(key);
+	}
+	
+	public final boolean containsValue(final E value)
+	{
+		return null != value && map.containsValue(value);
+	}
+	
+	/**
+	 * Returns a read only view of the classes in this container
+	 * 
+	 * @return Set
+	 */
+	public final Set<Class<?>> keySet()
+	{
+		return Collections.unmodifiableSet(map.keySet());
+	}
+	
+	public final synchronized void clear()
+	{
+		map.clear();
+		modificationCount++;
+	}
+	
+	public final synchronized void reset()
+	{
+		clear();
+		setupDefaultValues();
+	}
+	
+	/**
+	 * Returns the number of times this container has been modified. This allows anything derived
+	 * from the contents of this container to detect when it has become stale.
+	 * 
+	 * @return int
+	 */
+	public final int getModificationCount()
+	{
+		return modificationCount;
+	}
+	
+	protected abstract void setupDefaultValues();
+}
@@ -0,0 +1,637 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.config;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.gregmarut.support.beangenerator.access.FieldAccessorFactory;
+import com.gregmarut.support.beangenerator.access.ReflectionFieldAccessorFactory;
+import com.gregmarut.support.beangenerator.listener.CompositeGenerationListener;
+import com.gregmarut.support.beangenerator.listener.GenerationListener;
+import com.gregmarut.support.beangenerator.plan.BeanPlanCache;
+import com.gregmarut.support.beangenerator.rule.RuleBuilder;
+import com.gregmarut.support.beangenerator.rule.RuleMapping;
+
+/**
+ * Holds the instructions for how beans are populated. A configuration may be shared by
+ * generators on several threads. All of its settings are safely published and reads never take
+ * locks, however the configuration is expected to be set up before it is used concurrently.
+ * Changes made while beans are being generated are picked up by subsequent calls.
+ * 
+ * @author Greg Marut
+ */
+public class Configuration implements Serializable
+{
+	private static final long serialVersionUID = 370522421960645850L;
+	
+	// holds the default number of independent subgraphs a bean needs before they are populated in
+	// parallel
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 8;
+	
+	// holds the default values to use for initializing model objects
+	private volatile DefaultValues defaultValues;
+	
+	// holds the interface mapper for initializing model objects
+	private volatile InterfaceMapper interfaceMapper;
+	
+	// holds the rule mapping for setting custom values on specific fields
+	private volatile RuleMapping ruleMapping;
+	
+	// holds the object that instructions which classes to either cache or omit from cache
+	private volatile CacheOverride cacheOverride;
+	
+	// holds the maximum repeat depth of specific classes
+	private volatile RepeatDepthOverride repeatDepthOverride;
+	
+	// holds the way that the object graph is walked
+	private volatile TraversalMode traversalMode = TraversalMode.RECURSIVE;
+	
+	// determines whether or not the independent subgraphs of large beans are populated in parallel
+	private volatile boolean parallelPopulation;
+	
+	// holds the number of independent subgraphs a bean needs before they are populated in parallel
+	private volatile int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+	
+	// holds the backend that is used to read and write fields
+	private volatile FieldAccessorFactory fieldAccessorFactory = new ReflectionFieldAccessorFactory();
+	
+	// holds the number of objects to auto populate into a collection whenever
+	// one is created
+	private volatile int collectionAutoFillCount;
+	
+	// holds the number of times an object of a class may be nested inside another object of the
+	// same class
+	private volatile int maxRepeatDepth;
+	
+	// determines whether or not unmapped interfaces should be proxied
+	private volatile boolean proxyUnmappedInterfaces;
+	
+	// ** Primitives **//
+	// determines whether or not beans should be cached
+	// once they are initialized
+	private volatile boolean cache;
+	
+	// determines whether or not populators should be generated at runtime to write fields without
+	// reflection
+	private volatile boolean generatePopulators;
+	
+	// determines whether or not each thread reuses its traversal state across calls
+	private volatile boolean reuseTraversalState;
+	
+	// determines whether or not uncached beans are copied from a prototype of their class
+	private volatile boolean clonePrototypes;
+	
+	// holds the compiled bean plans that are shared by every generator using this configuration
+	private transient volatile BeanPlanCache beanPlanCache;
+	
+	// holds the listeners that were registered in the order in which they were added
+	private transient volatile GenerationListener[] generationListeners = new GenerationListener[0];
+	
+	// holds the listener that receives the events of the traversal or null if none was registered
+	private transient volatile GenerationListener generationListener;
+	
+	/**
+	 * Sets the {@link DefaultValues} to be used when populating test data
+	 * 
+	 * @param defaultValues
+	 */
+	public void setDefaultValues(final DefaultValues defaultValues)
+	{
+		this.defaultValues = defaultValues;
+	}
+	
+	/**
+	 * Returns the {@link DefaultValues}
+	 * 
+	 * @return DefaultValues
+	 */
+	public DefaultValues getDefaultValues()
+	{
+		return defaultValues;
+	}
+	
+	/**
+	 * Sets the {@link InterfaceMapper} to determine which concrete classes should be instantiated in place of
+	 * pre-defined interfaces
+	 * 
+	 * @param interfaceMapper
+	 */
+	public void setInterfaceMapper(final InterfaceMapper interfaceMapper)
+	{
+		this.interfaceMapper = interfaceMapper;
+	}
+	
+	/**
+	 * Returns the {@link InterfaceMapper}
+	 * 
+	 * @return InterfaceMapper
+	 */
+	public InterfaceMapper getInterfaceMapper()
+	{
+		return interfaceMapper;
+	}
+	
+	/**
+	 * Sets the {@link RuleMapping} object to handle special cases
+	 * 
+	 * @param ruleMapping
+	 */
+	public void setRuleMapping(final RuleMapping ruleMapping)
+	{
+		this.ruleMapping = ruleMapping;
+	}
+	
+	/**
+	 * Returns the {@link RuleMapping}
+	 * 
+	 * @return RuleMapping
+	 */
+	public RuleMapping getRuleMapping()
+	{
+		return ruleMapping;
+	}
+	
+	/**
+	 * @return the cacheOverride
+	 */
+	public CacheOverride getCacheOverride()
+	{
+		return cacheOverride;
+	}
+	
+	/**
+	 * @param cacheOverride
+	 *            the cacheOverride to set
+	 */
+	public void setCacheOverride(CacheOverride cacheOverride)
+	{
+		this.cacheOverride = cacheOverride;
+	}
+	
+	/**
+	 * @return the repeatDepthOverride
+	 */
+	public RepeatDepthOverride getRepeatDepthOverride()
+	{
+		return repeatDepthOverride;
+	}
+	
+	/**
+	 * @param repeatDepthOverride
+	 *            the repeatDepthOverride to set
+	 */
+	public void setRepeatDepthOverride(RepeatDepthOverride repeatDepthOverride)
+	{
+		this.repeatDepthOverride = repeatDepthOverride;
+	}
+	
+	/**
+	 * Returns the number of times an object of any class may be nested inside another object of
+	 * the same class unless it is overridden in the {@link RepeatDepthOverride}
+	 * 
+	 * @return int
+	 */
+	public int getMaxRepeatDepth()
+	{
+		return maxRepeatDepth;
+	}
+	
+	/**
+	 * Sets the number of times an object of any class may be nested inside another object of the
+	 * same class. A depth of 0, which is the default, stops at the first cycle and leaves the
+	 * repeated field null.
+	 * 
+	 * @param maxRepeatDepth
+	 */
+	public void setMaxRepeatDepth(int maxRepeatDepth)
+	{
+		// make sure the depth is not a negative number
+		if (maxRepeatDepth < 0)
+		{
+			throw new IllegalArgumentException("maxRepeatDepth cannot be negative.");
+		}
+		
+		this.maxRepeatDepth = maxRepeatDepth;
+	}
+	
+	/**
+	 * Returns the number of times an object of this specific class may be nested inside another
+	 * object of the same class
+	 * 
+	 * @param clazz
+	 * @return int
+	 */
+	public int getMaxRepeatDepth(final Class<?> clazz)
+	{
+		// check to see if the repeat depth override contains this class
+		RepeatDepthOverride override = repeatDepthOverride;
+		Integer depth = null != override ? override.get(clazz) : null;
+		return null != depth ? depth : maxRepeatDepth;
+	}
+	
+	/**
+	 * Determines if a cache should be used when creating objects
+	 * 
+	 * @return boolean
+	 */
+	public boolean isCache()
+	{
+		return cache;
+	}
+	
+	public void setCache(boolean cache)
+	{
+		this.cache = cache;
+	}
+	
+	/**
+	 * Determines if populator classes are generated at runtime to allocate beans and write their
+	 * fields without reflection
+	 * 
+	 * @return boolean
+	 */
+	public boolean isGeneratePopulators()
+	{
+		return generatePopulators;
+	}
+	
+	/**
+	 * Sets whether or not populator classes are generated at runtime to allocate beans and write
+	 * their fields without reflection. This requires ASM on the classpath and a Java 15 or later
+	 * runtime, otherwise reflection is used. Any field or class that cannot be handled by a generated
+	 * populator falls back to reflection.
+	 * 
+	 * @param generatePopulators
+	 */
+	public void setGeneratePopulators(boolean generatePopulators)
+	{
+		this.generatePopulators = generatePopulators;
+	}
+	
+	/**
+	 * Determines if each thread reuses its traversal state across calls instead of creating new
+	 * state for every call
+	 * 
+	 * @return boolean
+	 */
+	public boolean isReuseTraversalState()
+	{
+		return reuseTraversalState;
+	}
+	
+	/**
+	 * Sets whether or not each thread reuses its traversal state across calls. When enabled, a
+	 * generator keeps one initializer per thread so that populating a field does not create any
+	 * garbage besides the generated objects themselves. A nested call made by a value or rule while
+	 * a bean is being generated still receives its own state.
+	 * 
+	 * @param reuseTraversalState
+	 */
+	public void setReuseTraversalState(boolean reuseTraversalState)
+	{
+		this.reuseTraversalState = reuseTraversalState;
+	}
+	
+	/**
+	 * Determines if beans that are not cached are copied from a prototype of their class instead
+	 * of being generated again
+	 * 
+	 * @return boolean
+	 */
+	public boolean isClonePrototypes()
+	{
+		return clonePrototypes;
+	}
+	
+	/**
+	 * Sets whether or not beans that are not cached are copied from a prototype of their class.
+	 * When enabled, the first bean of each class is generated as a prototype and compiled into a
+	 * copier, and every following bean is a deep copy of that prototype. Objects that are shared
+	 * within the prototype are shared within each copy, while default values and cached beans are
+	 * shared with the prototype in the same way as with a newly generated bean.
+	 * <p>
+	 * Values and rules are only evaluated for the prototype, so values that return a different
+	 * result on each call are repeated in every copy. Prototypes are generated again whenever the
+	 * {@link DefaultValues} or {@link RuleMapping} are modified, while other changes to this
+	 * configuration require the prototypes of the generator to be cleared.
+	 * 
+	 * @param clonePrototypes
+	 */
+	public void setClonePrototypes(boolean clonePrototypes)
+	{
+		this.clonePrototypes = clonePrototypes;
+	}
+	
+	/**
+	 * Returns the way that the object graph of a bean is walked
+	 * 
+	 * @return TraversalMode
+	 */
+	public TraversalMode getTraversalMode()
+	{
+		return traversalMode;
+	}
+	
+	/**
+	 * Sets the way that the object graph of a bean is walked. Use {@link TraversalMode#ITERATIVE}
+	 * for object graphs that are too deep for the call stack.
+	 * 
+	 * @param traversalMode
+	 */
+	public void setTraversalMode(final TraversalMode traversalMode)
+	{
+		// make sure the mode is not null
+		if (null == traversalMode)
+		{
+			throw new IllegalArgumentException("traversalMode cannot be null.");
+		}
+		
+		this.traversalMode = traversalMode;
+	}
+	
+	/**
+	 * Determines if the independent subgraphs of large beans are populated in parallel
+	 * 
+	 * @return boolean
+	 */
+	public boolean isParallelPopulation()
+	{
+		return parallelPopulation;
+	}
+	
+	/**
+	 * Sets whether or not the independent subgraphs of large beans are populated in parallel. Each
+	 * field of a bean that holds another bean or a collection is an independent subgraph. Once a
+	 * bean has at least {@link #getParallelThreshold()} of them, they are populated as fork join
+	 * tasks in the common pool, each with its own copy of the cycle detection state, and the values
+	 * are assigned in the order of the fields, so the bean is identical to one populated on a single
+	 * thread.
+	 * <p>
+	 * Beans are populated on a single thread whenever beans are cached or the rules of one of their
+	 * fields depend on the state of the declaring object, since the order of population matters in
+	 * both cases. Custom values must be thread safe and must not depend on the state of the objects
+	 * along their path. Parallel population applies to {@link TraversalMode#RECURSIVE}.
+	 * 
+	 * @param parallelPopulation
+	 */
+	public void setParallelPopulation(boolean parallelPopulation)
+	{
+		this.parallelPopulation = parallelPopulation;
+	}
+	
+	/**
+	 * Returns the number of independent subgraphs a bean needs before they are populated in
+	 * parallel
+	 * 
+	 * @return int
+	 */
+	public int getParallelThreshold()
+	{
+		return parallelThreshold;
+	}
+	
+	/**
+	 * Sets the number of independent subgraphs a bean needs before they are populated in parallel,
+	 * so that small beans do not pay for the overhead of the tasks
+	 * 
+	 * @param parallelThreshold
+	 */
+	public void setParallelThreshold(int parallelThreshold)
+	{
+		// make sure the threshold is not a negative number
+		if (parallelThreshold < 0)
+		{
+			throw new IllegalArgumentException("parallelThreshold cannot be negative.");
+		}
+		
+		this.parallelThreshold = parallelThreshold;
+	}
+	
+	/**
+	 * Returns the backend that is used to read and write fields
+	 * 
+	 * @return FieldAccessorFactory
+	 */
+	public FieldAccessorFactory getFieldAccessorFactory()
+	{
+		return fieldAccessorFactory;
+	}
+	
+	/**
+	 * Sets the backend that is used to read and write fields. Fields that are written by a generated
+	 * populator fall back to this backend whenever the populator cannot handle a value.
+	 * 
+	 * @param fieldAccessorFactory
+	 */
+	public void setFieldAccessorFactory(final FieldAccessorFactory fieldAccessorFactory)
+	{
+		// make sure the factory is not null
+		if (null == fieldAccessorFactory)
+		{
+			throw new IllegalArgumentException("fieldAccessorFactory cannot be null.");
+		}
+		
+		this.fieldAccessorFactory = fieldAccessorFactory;
+	}
+	
+	/**
+	 * Sets the number of objects that should be pre-populated into collections whenever one is created
+	 * 
+	 * @param collectionAutoFillCount
+	 */
+	public void setCollectionAutoFillCount(int collectionAutoFillCount)
+	{
+		// make sure the auto fill count is not a negative number
+		if (collectionAutoFillCount < 0)
+		{
+			throw new IllegalArgumentException("collectionAutoFillCount cannot be negative.");
+		}
+		
+		this.collectionAutoFillCount = collectionAutoFillCount;
+	}
+	
+	/**
+	 * Returns the number of objects that will be pre-populated into collections
+	 * 
+	 * @return int
+	 */
+	public int getCollectionAutoFillCount()
+	{
+		return collectionAutoFillCount;
+	}
+	
+	public boolean getProxyUnmappedInterfaces()
+	{
+		return proxyUnmappedInterfaces;
+	}
+	
+	public void setProxyUnmappedInterfaces(boolean proxyUnmappedInterfaces)
+	{
+		this.proxyUnmappedInterfaces = proxyUnmappedInterfaces;
+	}
+	
+	/**
+	 * Determines if this specific class should use the cache or not
+	 * 
+	 * @param clazz
+	 * @return
+	 */
+	public boolean useCache(final Class<?> clazz)
+	{
+		// check to see if the cache override contains this class
+		if (cacheOverride.containsKey(clazz))
+		{
+			// switch based on the cache enum
+			switch (cacheOverride.get(clazz))
+			{
+				case CACHE:
+					return true;
+				case DO_NOT_CACHE:
+					return false;
+				default:
+					return isCache();
+			}
+		}
+		else
+		{
+			return isCache();
+		}
+	}
+	
+	/**
+	 * Returns the {@link BeanPlanCache} which holds the compiled bean plans for this configuration
+	 * 
+	 * @return BeanPlanCache
+	 */
+	public BeanPlanCache getBeanPlanCache()
+	{
+		// check to see if the bean plan cache needs to be created
+		BeanPlanCache result = beanPlanCache;
+		if (null == result)
+		{
+			synchronized (this)
+			{
+				result = beanPlanCache;
+				if (null == result)
+				{
+					result = new BeanPlanCache(this);
+					beanPlanCache = result;
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	public RuleBuilder createRuleBuilder()
+	{
+		return new RuleBuilder(getRuleMapping());
+	}
+	
+	/**
+	 * Registers a {@link GenerationListener} that receives the events of every subsequent call
+	 * 
+	 * @param listener
+	 */
+	public synchronized void addGenerationListener(final GenerationListener listener)
+	{
+		// make sure the listener is not null
+		if (null == listener)
+		{
+			throw new IllegalArgumentException("listener cannot be null.");
+		}
+		
+		// a deserialized configuration starts without listeners
+		GenerationListener[] listeners = null != generationListeners ? generationListeners : new GenerationListener[0];
+		listeners = Arrays.copyOf(listeners, listeners.length + 1);
+		listeners[listeners.length - 1] = listener;
+		setGenerationListeners(listeners);
+	}
+	
+	/**
+	 * Removes a {@link GenerationListener} that was registered before
+	 * 
+	 * @param listener
+	 * @return true if the listener was registered
+	 */
+	public synchronized boolean removeGenerationListener(final GenerationListener listener)
+	{
+		// holds the index of the listener
+		final int index = getGenerationListeners().indexOf(listener);
+		if (index < 0)
+		{
+			return false;
+		}
+		
+		// copy the remaining listeners
+		GenerationListener[] listeners = new GenerationListener[generationListeners.length - 1];
+		System.arraycopy(generationListeners, 0, listeners, 0, index);
+		System.arraycopy(generationListeners, index + 1, listeners, index, listeners.length - index);
+		setGenerationListeners(listeners);
+		
+		return true;
+	}
+	
+	/**
+	 * Returns the listeners that were registered in the order in which they receive the events
+	 * 
+	 * @return List
+	 */
+	public List<GenerationListener> getGenerationListeners()
+	{
+		GenerationListener[] listeners = generationListeners;
+		if (null == listeners)
+		{
+			return Collections.emptyList();
+		}
+		
+		return Collections.unmodifiableList(Arrays.asList(listeners));
+	}
+	
+	/**
+	 * Returns the listener that receives the events of the traversal. Every registered listener is
+	 * combined into a single listener so that the traversal only checks a single reference.
+	 * 
+	 * @return the listener or null if none was registered
+	 */
+	public GenerationListener getGenerationListener()
+	{
+		return generationListener;
+	}
+	
+	/**
+	 * Replaces the registered listeners
+	 * 
+	 * @param listeners
+	 */
+	private void setGenerationListeners(final GenerationListener[] listeners)
+	{
+		this.generationListeners = listeners;
+		
+		switch (listeners.length)
+		{
+			case 0:
+				this.generationListener = null;
+				break;
+			case 1:
+				this.generationListener = listeners[0];
+				break;
+			default:
+				this.generationListener = new CompositeGenerationListener(listeners);
+				break;
+		}
+	}
+}
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.config;
+
+/**
+ * Holds the maximum repeat depth for specific classes. The repeat depth is the number of times an
+ * object of a class may be nested inside another object of the same class. This allows recursive
+ * structures such as trees and linked nodes to be generated to a bounded depth.
+ * 
+ * @author Greg Marut
+ * @see Configuration#getMaxRepeatDepth(Class)
+ */
+public class RepeatDepthOverride extends ClassMapContainer<Integer>
+{
+	private static final long serialVersionUID = -6403985561227462157L;
+	
+	@Override
+	protected void setupDefaultValues()
+	{
+		// no default values to add
+	}
+}
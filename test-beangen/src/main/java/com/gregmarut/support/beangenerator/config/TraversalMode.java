@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.config;
+
+/**
+ * Determines how the object graph of a bean is walked while it is being populated
+ * 
+ * @author Greg Marut
+ */
+public enum TraversalMode
+{
+	/**
+	 * Every nested object is populated by a recursive call, so the depth of the object graph is
+	 * limited by the size of the call stack
+	 */
+	RECURSIVE,
+	
+	/**
+	 * The object graph is walked with an explicit stack of pending work, so objects may be nested
+	 * as deep as the heap allows. The populated beans are identical to the recursive walk.
+	 */
+	ITERATIVE
+}
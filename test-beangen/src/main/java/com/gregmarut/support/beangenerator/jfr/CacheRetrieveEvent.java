@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Records a lookup of the cache that took longer than the threshold, either because the bean was
+ * generated or because the thread waited for another thread that generated it. The event has no
+ * depth or object count of its own: a bean that is generated by this thread is measured by the
+ * enclosing {@link GenerateEvent}, and a thread that waited did not instantiate any objects.
+ * 
+ * @author Greg Marut
+ */
+@Name(CacheRetrieveEvent.NAME)
+@Label("Cache Retrieve")
+@Description("Retrieves a bean from the cache or generates it")
+@Category(GenerateEvent.CATEGORY)
+@Threshold(GenerateEvent.DEFAULT_THRESHOLD)
+@StackTrace(false)
+public final class CacheRetrieveEvent extends Event
+{
+	// holds the name of this event
+	public static final String NAME = "com.gregmarut.support.beangenerator.CacheRetrieve";
+	
+	@Label("Bean Class")
+	public Class<?> beanClass;
+	
+	@Label("Retrieved")
+	@Description("Whether or not the bean was generated by this thread")
+	public boolean retrieved;
+}
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.jfr;
+
+/**
+ * Begins the flight recorder events of the bean generator. An event is only created while a
+ * recording has enabled it, so that it costs nothing otherwise. The events extend
+ * {@code jdk.jfr.Event}, which does not exist in every Java 8 runtime; this class never loads an
+ * event class unless the flight recorder API is present, and every method returns null without it.
+ * 
+ * @author Greg Marut
+ */
+public final class Events
+{
+	// determines whether or not the flight recorder API exists in this runtime
+	private static final boolean AVAILABLE = isFlightRecorderPresent();
+	
+	private Events()
+	{
+		
+	}
+	
+	/**
+	 * Begins the event of a call to the generator
+	 * 
+	 * @return the event or null if it is not enabled
+	 */
+	public static GenerateEvent beginGenerate()
+	{
+		if (AVAILABLE)
+		{
+			GenerateEvent event = new GenerateEvent();
+			if (event.isEnabled())
+			{
+				event.begin();
+				return event;
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Begins the event of a single bean of the object graph
+	 * 
+	 * @return the event or null if it is not enabled
+	 */
+	public static InitializeEvent beginInitialize()
+	{
+		if (AVAILABLE)
+		{
+			InitializeEvent event = new InitializeEvent();
+			if (event.isEnabled())
+			{
+				event.begin();
+				return event;
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Begins the event of a lookup of the cache
+	 * 
+	 * @return the event or null if it is not enabled
+	 */
+	public static CacheRetrieveEvent beginCacheRetrieve()
+	{
+		if (AVAILABLE)
+		{
+			CacheRetrieveEvent event = new CacheRetrieveEvent();
+			if (event.isEnabled())
+			{
+				event.begin();
+				return event;
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Begins the event of the test of the getters and setters of a class
+	 * 
+	 * @return the event or null if it is not enabled
+	 */
+	public static GetterSetterTestEvent beginGetterSetterTest()
+	{
+		if (AVAILABLE)
+		{
+			GetterSetterTestEvent event = new GetterSetterTestEvent();
+			if (event.isEnabled())
+			{
+				event.begin();
+				return event;
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Determines if the flight recorder API can be loaded
+	 * 
+	 * @return boolean
+	 */
+	private static boolean isFlightRecorderPresent()
+	{
+		try
+		{
+			Class.forName("jdk.jfr.Event", false, Events.class.getClassLoader());
+			return true;
+		}
+		catch (ClassNotFoundException e)
+		{
+			return false;
+		}
+		catch (LinkageError e)
+		{
+			return false;
+		}
+	}
+}
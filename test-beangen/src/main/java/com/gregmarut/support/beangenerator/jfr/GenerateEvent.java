@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Records a call to {@link com.gregmarut.support.beangenerator.BeanPropertyGenerator#get(Class, boolean)}
+ * that took longer than the threshold. The threshold can be changed in the settings of a recording
+ * using the {@link #NAME} of this event.
+ * 
+ * @author Greg Marut
+ */
+@Name(GenerateEvent.NAME)
+@Label("Generate Bean")
+@Description("Retrieves a bean from the cache, copies it from a prototype or generates it")
+@Category(GenerateEvent.CATEGORY)
+@Threshold(GenerateEvent.DEFAULT_THRESHOLD)
+@StackTrace(false)
+public final class GenerateEvent extends Event
+{
+	// holds the name of this event
+	public static final String NAME = "com.gregmarut.support.beangenerator.Generate";
+	
+	// holds the category of the events of the bean generator
+	public static final String CATEGORY = "Bean Generator";
+	
+	// holds the default duration that an event must exceed to be recorded
+	public static final String DEFAULT_THRESHOLD = "20 ms";
+	
+	@Label("Bean Class")
+	public Class<?> beanClass;
+	
+	@Label("Depth")
+	@Description("The deepest field that was populated, relative to the root object")
+	public int depth;
+	
+	@Label("Object Count")
+	@Description("The number of objects that were instantiated or copied from a prototype")
+	public int objectCount;
+}
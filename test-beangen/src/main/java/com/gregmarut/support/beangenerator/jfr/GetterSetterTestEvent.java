@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Records the test of the getters and setters of a class that took longer than the threshold. The
+ * depth and object count of the tested bean are not repeated here; they are recorded by the
+ * {@link GenerateEvent} of the bean that is nested within this event.
+ * 
+ * @author Greg Marut
+ */
+@Name(GetterSetterTestEvent.NAME)
+@Label("Getter Setter Test")
+@Description("Generates a bean and tests the getter and setter of each of its fields")
+@Category(GenerateEvent.CATEGORY)
+@Threshold(GenerateEvent.DEFAULT_THRESHOLD)
+@StackTrace(false)
+public final class GetterSetterTestEvent extends Event
+{
+	// holds the name of this event
+	public static final String NAME = "com.gregmarut.support.beantest.GetterSetterTest";
+	
+	@Label("Target Class")
+	public Class<?> targetClass;
+	
+	@Label("Property Count")
+	@Description("The number of fields whose getter and setter were tested")
+	public int propertyCount;
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Records the instantiation and population of a single bean, including its nested beans, that took
+ * longer than the threshold
+ * 
+ * @author Greg Marut
+ */
+@Name(InitializeEvent.NAME)
+@Label("Initialize Bean")
+@Description("Instantiates and populates a bean of the object graph")
+@Category(GenerateEvent.CATEGORY)
+@Threshold(GenerateEvent.DEFAULT_THRESHOLD)
+@StackTrace(false)
+public final class InitializeEvent extends Event
+{
+	// holds the name of this event
+	public static final String NAME = "com.gregmarut.support.beangenerator.Initialize";
+	
+	@Label("Bean Class")
+	public Class<?> beanClass;
+	
+	@Label("Depth")
+	@Description("The number of fields from the root object to this bean")
+	public int depth;
+	
+	@Label("Object Count")
+	@Description("The number of objects that were instantiated for this bean and its nested beans")
+	public int objectCount;
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.listener;
+
+import java.lang.reflect.Field;
+
+import com.gregmarut.support.beangenerator.rule.Rule;
+
+/**
+ * Forwards every event to several listeners in the order in which they were registered
+ * 
+ * @author Greg Marut
+ */
+public final class CompositeGenerationListener implements GenerationListener
+{
+	// holds the listeners that receive the events
+	private final GenerationListener[] listeners;
+	
+	/**
+	 * Creates a listener that forwards to the given listeners
+	 * 
+	 * @param listeners
+	 */
+	public CompositeGenerationListener(final GenerationListener... listeners)
+	{
+		// make sure the listeners are not null
+		if (null == listeners)
+		{
+			throw new IllegalArgumentException("listeners cannot be null");
+		}
+		
+		this.listeners = listeners.clone();
+	}
+	
+	@Override
+	public void beanStarted(final Class<?> type)
+	{
+		for (GenerationListener listener : listeners)
+		{
+			listener.beanStarted(type);
+		}
+	}
+	
+	@Override
+	public void beanFinished(final Class<?> type, final Object bean, final long nanos)
+	{
+		for (GenerationListener listener : listeners)
+		{
+			listener.beanFinished(type, bean, nanos);
+		}
+	}
+	
+	@Override
+	public void fieldPopulated(final Object bean, final Field field, final Object value)
+	{
+		for (GenerationListener listener : listeners)
+		{
+			listener.fieldPopulated(bean, field, value);
+		}
+	}
+	
+	@Override
+	public void ruleMatched(final Object bean, final Field field, final Rule<?> rule)
+	{
+		for (GenerationListener listener : listeners)
+		{
+			listener.ruleMatched(bean, field, rule);
+		}
+	}
+	
+	@Override
+	public void cacheHit(final Class<?> type)
+	{
+		for (GenerationListener listener : listeners)
+		{
+			listener.cacheHit(type);
+		}
+	}
+	
+	@Override
+	public void cacheMiss(final Class<?> type)
+	{
+		for (GenerationListener listener : listeners)
+		{
+			listener.cacheMiss(type);
+		}
+	}
+	
+	@Override
+	public void cycleSkipped(final Class<?> type)
+	{
+		for (GenerationListener listener : listeners)
+		{
+			listener.cycleSkipped(type);
+		}
+	}
+	
+	@Override
+	public void instantiationFailed(final Class<?> type, final InstantiationException e)
+	{
+		for (GenerationListener listener : listeners)
+		{
+			listener.instantiationFailed(type, e);
+		}
+	}
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.listener;
+
+import java.lang.reflect.Field;
+
+import com.gregmarut.support.beangenerator.rule.Rule;
+
+/**
+ * Receives the events of the traversal while beans are being generated, for example to attach a
+ * profiler or a tracer. Listeners are registered on the configuration and every method does nothing
+ * by default, so a listener only implements the events it needs. The events are delivered on the
+ * thread that generates the bean and in the order in which they occur, so a listener that is shared
+ * by several threads must be thread safe. Listeners must not modify the beans.
+ * 
+ * @author Greg Marut
+ */
+public interface GenerationListener
+{
+	/**
+	 * Called before a bean is instantiated and populated
+	 * 
+	 * @param type
+	 * the class of the bean
+	 */
+	default void beanStarted(final Class<?> type)
+	{
+		
+	}
+	
+	/**
+	 * Called after a bean was instantiated and populated
+	 * 
+	 * @param type
+	 * the class of the bean
+	 * @param bean
+	 * the bean or null if it could not be instantiated
+	 * @param nanos
+	 * the time since the bean was started, including the time to populate its nested beans
+	 */
+	default void beanFinished(final Class<?> type, final Object bean, final long nanos)
+	{
+		
+	}
+	
+	/**
+	 * Called after a value was assigned to a field of a bean
+	 * 
+	 * @param bean
+	 * @param field
+	 * @param value
+	 */
+	default void fieldPopulated(final Object bean, final Field field, final Object value)
+	{
+		
+	}
+	
+	/**
+	 * Called when the value of a field is taken from a rule
+	 * 
+	 * @param bean
+	 * @param field
+	 * @param rule
+	 */
+	default void ruleMatched(final Object bean, final Field field, final Rule<?> rule)
+	{
+		
+	}
+	
+	/**
+	 * Called when a bean was found in the cache
+	 * 
+	 * @param type
+	 */
+	default void cacheHit(final Class<?> type)
+	{
+		
+	}
+	
+	/**
+	 * Called when a bean was not found in the cache and is generated, before it is started
+	 * 
+	 * @param type
+	 */
+	default void cacheMiss(final Class<?> type)
+	{
+		
+	}
+	
+	/**
+	 * Called when a bean is left null because its class already repeats as often as allowed along the
+	 * path from the root object
+	 * 
+	 * @param type
+	 */
+	default void cycleSkipped(final Class<?> type)
+	{
+		
+	}
+	
+	/**
+	 * Called when an object could not be instantiated
+	 * 
+	 * @param type
+	 * @param e
+	 */
+	default void instantiationFailed(final Class<?> type, final InstantiationException e)
+	{
+		
+	}
+}
@@ -0,0 +1,381 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import com.gregmarut.support.beangenerator.cache.Cache;
+
+/**
+ * Counts what a generator does while it generates beans. Every counter is striped so that threads
+ * which generate beans at the same time do not contend, and recording never allocates once every
+ * class has been seen, so the metrics can be left enabled. The metrics are read either through
+ * {@link #snapshot()} or through JMX after they were registered with {@link #register(String)}.
+ * 
+ * @author Greg Marut
+ */
+public final class GeneratorMetrics implements GeneratorMetricsMXBean
+{
+	// ** Finals **//
+	// holds the domain and type of the object names of the registered metrics
+	private static final String OBJECT_NAME_PREFIX = "com.gregmarut.support.beangenerator:type=GeneratorMetrics,name=";
+	
+	// holds the percentile that is reported through JMX
+	private static final double REPORTED_PERCENTILE = 99;
+	
+	// ** Objects **//
+	// holds the cache of the generator
+	private final Cache cache;
+	
+	// holds the number of objects that were instantiated per class, keyed by the name of the class so
+	// that neither the classes nor their class loaders are kept from being unloaded
+	private final ConcurrentHashMap<String, LongAdder> instantiations;
+	
+	// count the failures, fields and rules
+	private final LongAdder instantiationFailures;
+	private final LongAdder fieldsPopulated;
+	private final LongAdder ruleEvaluations;
+	private final LongAdder ruleMatches;
+	
+	// holds the durations of the calls to get and getList
+	private final LatencyHistogram getLatency;
+	private final LatencyHistogram getListLatency;
+	
+	// holds the name under which these metrics are registered or null if they are not registered
+	private volatile ObjectName objectName;
+	
+	/**
+	 * Creates the metrics of a generator
+	 * 
+	 * @param cache
+	 * the cache of the generator
+	 */
+	public GeneratorMetrics(final Cache cache)
+	{
+		// make sure the cache is not null
+		if (null == cache)
+		{
+			throw new IllegalArgumentException("cache cannot be null");
+		}
+		
+		this.cache = cache;
+		this.instantiations = new ConcurrentHashMap<String, LongAdder>();
+		this.instantiationFailures = new LongAdder();
+		this.fieldsPopulated = new LongAdder();
+		this.ruleEvaluations = new LongAdder();
+		this.ruleMatches = new LongAdder();
+		this.getLatency = new LatencyHistogram();
+		this.getListLatency = new LatencyHistogram();
+	}
+	
+	/**
+	 * Records that an object of the given class was instantiated
+	 * 
+	 * @param clazz
+	 */
+	public void recordInstantiation(final Class<?> clazz)
+	{
+		getCounter(clazz).increment();
+	}
+	
+	/**
+	 * Records that the given number of objects of a class were instantiated at once
+	 * 
+	 * @param clazz
+	 * @param count
+	 */
+	public void recordInstantiations(final Class<?> clazz, final int count)
+	{
+		if (count > 0)
+		{
+			getCounter(clazz).add(count);
+		}
+	}
+	
+	/**
+	 * Returns the counter of the instantiations of a class
+	 * 
+	 * @param clazz
+	 * @return LongAdder
+	 */
+	private LongAdder getCounter(final Class<?> clazz)
+	{
+		LongAdder counter = instantiations.get(clazz.getName());
+		if (null == counter)
+		{
+			// the first thread that sees this class creates its counter
+			LongAdder created = new LongAdder();
+			counter = instantiations.putIfAbsent(clazz.getName(), created);
+			if (null == counter)
+			{
+				counter = created;
+			}
+		}
+		
+		return counter;
+	}
+	
+	/**
+	 * Records that an object could not be instantiated
+	 */
+	public void recordInstantiationFailure()
+	{
+		instantiationFailures.increment();
+	}
+	
+	/**
+	 * Records that the given number of fields of a bean were assigned a value
+	 * 
+	 * @param count
+	 */
+	public void recordFieldsPopulated(final int count)
+	{
+		if (count > 0)
+		{
+			fieldsPopulated.add(count);
+		}
+	}
+	
+	/**
+	 * Records that the rules were evaluated for a field while it was populated
+	 */
+	public void recordRuleEvaluation()
+	{
+		ruleEvaluations.increment();
+	}
+	
+	/**
+	 * Records that the value of a field was taken from a rule
+	 */
+	public void recordRuleMatch()
+	{
+		ruleMatches.increment();
+	}
+	
+	/**
+	 * Returns the histogram of the durations of the calls to get
+	 * 
+	 * @return LatencyHistogram
+	 */
+	public LatencyHistogram getGetLatency()
+	{
+		return getLatency;
+	}
+	
+	/**
+	 * Returns the histogram of the durations of the calls to getList
+	 * 
+	 * @return LatencyHistogram
+	 */
+	public LatencyHistogram getGetListLatency()
+	{
+		return getListLatency;
+	}
+	
+	/**
+	 * Returns a snapshot of every metric of the generator and its cache
+	 * 
+	 * @return MetricsSnapshot
+	 */
+	public MetricsSnapshot snapshot()
+	{
+		// order the classes by name so that the snapshot reads the same every time
+		List<String> classNames = new ArrayList<String>(instantiations.keySet());
+		Collections.sort(classNames);
+		
+		Map<String, Long> counts = new LinkedHashMap<String, Long>();
+		for (String className : classNames)
+		{
+			counts.put(className, instantiations.get(className).sum());
+		}
+		
+		return new MetricsSnapshot(cache.getStats(), Collections.unmodifiableMap(counts), instantiationFailures.sum(),
+			fieldsPopulated.sum(), ruleEvaluations.sum(), ruleMatches.sum(), getLatency.snapshot(),
+			getListLatency.snapshot());
+	}
+	
+	/**
+	 * Registers these metrics with the platform MBean server
+	 * 
+	 * @param name
+	 * the name that distinguishes these metrics from the metrics of other generators
+	 * @return the object name of the registered metrics
+	 * @throws JMException
+	 * if the name is invalid or already registered
+	 */
+	public ObjectName register(final String name) throws JMException
+	{
+		// make sure the name is not null
+		if (null == name)
+		{
+			throw new IllegalArgumentException("name cannot be null");
+		}
+		
+		ObjectName registeredName = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, registeredName);
+		objectName = registeredName;
+		
+		return registeredName;
+	}
+	
+	/**
+	 * Unregisters these metrics from the platform MBean server if they are registered
+	 * 
+	 * @throws JMException
+	 */
+	public void unregister() throws JMException
+	{
+		ObjectName registeredName = objectName;
+		if (null != registeredName)
+		{
+			objectName = null;
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+		}
+	}
+	
+	@Override
+	public void reset()
+	{
+		// the counters of the classes are kept so that recording does not allocate them again
+		for (LongAdder counter : instantiations.values())
+		{
+			counter.reset();
+		}
+		
+		instantiationFailures.reset();
+		fieldsPopulated.reset();
+		ruleEvaluations.reset();
+		ruleMatches.reset();
+		getLatency.reset();
+		getListLatency.reset();
+		cache.resetStats();
+	}
+	
+	@Override
+	public long getCacheHits()
+	{
+		return cache.getStats().getHits();
+	}
+	
+	@Override
+	public long getCacheMisses()
+	{
+		return cache.getStats().getMisses();
+	}
+	
+	@Override
+	public long getCacheBuilds()
+	{
+		return cache.getStats().getBuilds();
+	}
+	
+	@Override
+	public long getCacheEvictions()
+	{
+		return cache.getStats().getEvictions();
+	}
+	
+	@Override
+	public double getCacheHitRate()
+	{
+		return cache.getStats().getHitRate();
+	}
+	
+	@Override
+	public Map<String, Long> getInstantiations()
+	{
+		return new LinkedHashMap<String, Long>(snapshot().getInstantiations());
+	}
+	
+	@Override
+	public long getInstantiationFailures()
+	{
+		return instantiationFailures.sum();
+	}
+	
+	@Override
+	public long getFieldsPopulated()
+	{
+		return fieldsPopulated.sum();
+	}
+	
+	@Override
+	public long getRuleEvaluations()
+	{
+		return ruleEvaluations.sum();
+	}
+	
+	@Override
+	public long getRuleMatches()
+	{
+		return ruleMatches.sum();
+	}
+	
+	@Override
+	public long getGetCount()
+	{
+		return getLatency.snapshot().getCount();
+	}
+	
+	@Override
+	public double getGetMeanMillis()
+	{
+		return LatencySnapshot.toMillis(getLatency.snapshot().getMeanNanos());
+	}
+	
+	@Override
+	public double getGet99thPercentileMillis()
+	{
+		return LatencySnapshot.toMillis(getLatency.snapshot().getPercentileNanos(REPORTED_PERCENTILE));
+	}
+	
+	@Override
+	public double getGetMaxMillis()
+	{
+		return LatencySnapshot.toMillis(getLatency.snapshot().getMaxNanos());
+	}
+	
+	@Override
+	public long getGetListCount()
+	{
+		return getListLatency.snapshot().getCount();
+	}
+	
+	@Override
+	public double getGetListMeanMillis()
+	{
+		return LatencySnapshot.toMillis(getListLatency.snapshot().getMeanNanos());
+	}
+	
+	@Override
+	public double getGetList99thPercentileMillis()
+	{
+		return LatencySnapshot.toMillis(getListLatency.snapshot().getPercentileNanos(REPORTED_PERCENTILE));
+	}
+	
+	@Override
+	public double getGetListMaxMillis()
+	{
+		return LatencySnapshot.toMillis(getListLatency.snapshot().getMaxNanos());
+	}
+}
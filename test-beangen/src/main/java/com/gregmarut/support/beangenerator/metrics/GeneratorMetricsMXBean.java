@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.metrics;
+
+import java.util.Map;
+
+/**
+ * The management interface of the {@link GeneratorMetrics} of a generator. Durations are reported
+ * in milliseconds.
+ * 
+ * @author Greg Marut
+ */
+public interface GeneratorMetricsMXBean
+{
+	long getCacheHits();
+	
+	long getCacheMisses();
+	
+	long getCacheBuilds();
+	
+	long getCacheEvictions();
+	
+	double getCacheHitRate();
+	
+	/**
+	 * Returns the number of objects that were instantiated, keyed by the name of their class
+	 * 
+	 * @return Map
+	 */
+	Map<String, Long> getInstantiations();
+	
+	long getInstantiationFailures();
+	
+	long getFieldsPopulated();
+	
+	long getRuleEvaluations();
+	
+	long getRuleMatches();
+	
+	long getGetCount();
+	
+	double getGetMeanMillis();
+	
+	double getGet99thPercentileMillis();
+	
+	double getGetMaxMillis();
+	
+	long getGetListCount();
+	
+	double getGetListMeanMillis();
+	
+	double getGetList99thPercentileMillis();
+	
+	double getGetListMaxMillis();
+	
+	/**
+	 * Resets every metric of the generator and its cache
+	 */
+	void reset();
+}
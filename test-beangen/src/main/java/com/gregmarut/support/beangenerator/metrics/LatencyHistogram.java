@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Records durations in buckets whose bounds are powers of two nanoseconds. Recording a duration
+ * only increments striped counters, so any number of threads may record without contention.
+ * 
+ * @author Greg Marut
+ */
+public final class LatencyHistogram
+{
+	// ** Finals **//
+	// holds the number of buckets, one for every bit of a duration
+	static final int BUCKETS = 64;
+	
+	// ** Objects **//
+	// holds the number of durations of each bucket. Bucket i holds the durations that are shorter
+	// than 2^i nanoseconds but not shorter than 2^(i-1) nanoseconds.
+	private final LongAdder[] buckets;
+	
+	// holds the sum of all durations
+	private final LongAdder total;
+	
+	// holds the longest duration
+	private final LongAccumulator max;
+	
+	public LatencyHistogram()
+	{
+		buckets = new LongAdder[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			buckets[i] = new LongAdder();
+		}
+		
+		total = new LongAdder();
+		max = new LongAccumulator(new LongBinaryOperator()
+		{
+			@Override
+			public long applyAsLong(final long left, final long right)
+			{
+				return Math.max(left, right);
+			}
+		}, 0);
+	}
+	
+	/**
+	 * Records a duration
+	 * 
+	 * @param nanos
+	 */
+	public void record(final long nanos)
+	{
+		// a clock that went backwards is recorded as no time at all
+		final long duration = Math.max(0, nanos);
+		
+		buckets[Math.min(BUCKETS - 1, BUCKETS - Long.numberOfLeadingZeros(duration))].increment();
+		total.add(duration);
+		max.accumulate(duration);
+	}
+	
+	/**
+	 * Returns a snapshot of the recorded durations. Durations that are recorded while the snapshot
+	 * is taken may or may not be part of it.
+	 * 
+	 * @return LatencySnapshot
+	 */
+	public LatencySnapshot snapshot()
+	{
+		long[] counts = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			counts[i] = buckets[i].sum();
+		}
+		
+		return new LatencySnapshot(counts, total.sum(), max.get());
+	}
+	
+	/**
+	 * Discards every recorded duration
+	 */
+	public void reset()
+	{
+		for (LongAdder bucket : buckets)
+		{
+			bucket.reset();
+		}
+		
+		total.reset();
+		max.reset();
+	}
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An immutable snapshot of a {@link LatencyHistogram}
+ * 
+ * @author Greg Marut
+ */
+public final class LatencySnapshot
+{
+	// holds the number of durations of each bucket
+	private final long[] counts;
+	
+	// holds the number of durations
+	private final long count;
+	
+	// holds the sum of all durations in nanoseconds
+	private final long totalNanos;
+	
+	// holds the longest duration in nanoseconds
+	private final long maxNanos;
+	
+	LatencySnapshot(final long[] counts, final long totalNanos, final long maxNanos)
+	{
+		this.counts = counts;
+		this.totalNanos = totalNanos;
+		this.maxNanos = maxNanos;
+		
+		long sum = 0;
+		for (long bucketCount : counts)
+		{
+			sum += bucketCount;
+		}
+		this.count = sum;
+	}
+	
+	/**
+	 * Returns the number of recorded durations
+	 * 
+	 * @return long
+	 */
+	public long getCount()
+	{
+		return count;
+	}
+	
+	/**
+	 * Returns the sum of all durations in nanoseconds
+	 * 
+	 * @return long
+	 */
+	public long getTotalNanos()
+	{
+		return totalNanos;
+	}
+	
+	/**
+	 * Returns the longest duration in nanoseconds
+	 * 
+	 * @return long
+	 */
+	public long getMaxNanos()
+	{
+		return maxNanos;
+	}
+	
+	/**
+	 * Returns the mean duration in nanoseconds or 0 if no duration was recorded
+	 * 
+	 * @return double
+	 */
+	public double getMeanNanos()
+	{
+		return 0 == count ? 0 : (double) totalNanos / count;
+	}
+	
+	/**
+	 * Returns an upper bound of the given percentile in nanoseconds. The bound is at most twice the
+	 * actual percentile and never more than the longest duration.
+	 * 
+	 * @param percentile
+	 * a value between 0 and 100
+	 * @return long
+	 */
+	public long getPercentileNanos(final double percentile)
+	{
+		// make sure the percentile is valid
+		if (percentile < 0 || percentile > 100)
+		{
+			throw new IllegalArgumentException("percentile must be between 0 and 100");
+		}
+		
+		// find the bucket that holds the duration of this rank
+		long rank = (long) Math.ceil(count * percentile / 100);
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++)
+		{
+			seen += counts[i];
+			if (seen >= rank && seen > 0)
+			{
+				// the upper bound of bucket i is 2^i - 1 nanoseconds
+				return Math.min((1L << i) - 1, maxNanos);
+			}
+		}
+		
+		return 0;
+	}
+	
+	/**
+	 * Returns the given duration in milliseconds
+	 * 
+	 * @param nanos
+	 * @return double
+	 */
+	static double toMillis(final double nanos)
+	{
+		return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+}
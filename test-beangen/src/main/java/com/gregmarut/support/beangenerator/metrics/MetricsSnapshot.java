@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.metrics;
+
+import java.util.Map;
+
+import com.gregmarut.support.beangenerator.cache.CacheStats;
+
+/**
+ * An immutable snapshot of the {@link GeneratorMetrics} of a generator. The counters are read one
+ * after another while other threads may keep generating, so counters that are related may be
+ * slightly out of step with each other.
+ * 
+ * @author Greg Marut
+ */
+public final class MetricsSnapshot
+{
+	// holds the statistics of the cache of the generator
+	private final CacheStats cacheStats;
+	
+	// holds the number of objects that were instantiated per class
+	private final Map<String, Long> instantiations;
+	
+	// holds the number of objects that could not be instantiated
+	private final long instantiationFailures;
+	
+	// holds the number of fields that were assigned a value
+	private final long fieldsPopulated;
+	
+	// holds the number of times the rules were evaluated for a field while it was populated
+	private final long ruleEvaluations;
+	
+	// holds the number of fields whose value was taken from a rule
+	private final long ruleMatches;
+	
+	// holds the durations of the calls to get and getList
+	private final LatencySnapshot getLatency;
+	private final LatencySnapshot getListLatency;
+	
+	MetricsSnapshot(final CacheStats cacheStats, final Map<String, Long> instantiations,
+		final long instantiationFailures, final long fieldsPopulated, final long ruleEvaluations,
+		final long ruleMatches, final LatencySnapshot getLatency, final LatencySnapshot getListLatency)
+	{
+		this.cacheStats = cacheStats;
+		this.instantiations = instantiations;
+		this.instantiationFailures = instantiationFailures;
+		this.fieldsPopulated = fieldsPopulated;
+		this.ruleEvaluations = ruleEvaluations;
+		this.ruleMatches = ruleMatches;
+		this.getLatency = getLatency;
+		this.getListLatency = getListLatency;
+	}
+	
+	public CacheStats getCacheStats()
+	{
+		return cacheStats;
+	}
+	
+	/**
+	 * Returns the number of objects that were instantiated per class name, ordered by the name.
+	 * Objects that were copied from a prototype are counted as well. Default values, enum constants
+	 * and objects that were read from a snapshot are not instantiated.
+	 * 
+	 * @return Map
+	 */
+	public Map<String, Long> getInstantiations()
+	{
+		return instantiations;
+	}
+	
+	/**
+	 * Returns the number of objects of the given class that were instantiated
+	 * 
+	 * @param clazz
+	 * @return long
+	 */
+	public long getInstantiations(final Class<?> clazz)
+	{
+		Long count = instantiations.get(clazz.getName());
+		return null != count ? count : 0;
+	}
+	
+	/**
+	 * Returns the number of objects of every class that were instantiated
+	 * 
+	 * @return long
+	 */
+	public long getTotalInstantiations()
+	{
+		long total = 0;
+		for (Long count : instantiations.values())
+		{
+			total += count;
+		}
+		
+		return total;
+	}
+	
+	/**
+	 * Returns the number of objects that could not be instantiated, whether the failure was logged
+	 * or thrown
+	 * 
+	 * @return long
+	 */
+	public long getInstantiationFailures()
+	{
+		return instantiationFailures;
+	}
+	
+	/**
+	 * Returns the number of fields that were assigned a value, including the fields whose constant
+	 * values were written by a generated populator
+	 * 
+	 * @return long
+	 */
+	public long getFieldsPopulated()
+	{
+		return fieldsPopulated;
+	}
+	
+	/**
+	 * Returns the number of times the rules were evaluated for a field while it was populated. The
+	 * rules of most fields are evaluated once when the plan of their class is compiled, which is
+	 * not counted here.
+	 * 
+	 * @return long
+	 */
+	public long getRuleEvaluations()
+	{
+		return ruleEvaluations;
+	}
+	
+	/**
+	 * Returns the number of fields whose value was taken from a rule
+	 * 
+	 * @return long
+	 */
+	public long getRuleMatches()
+	{
+		return ruleMatches;
+	}
+	
+	public LatencySnapshot getGetLatency()
+	{
+		return getLatency;
+	}
+	
+	public LatencySnapshot getGetListLatency()
+	{
+		return getListLatency;
+	}
+}
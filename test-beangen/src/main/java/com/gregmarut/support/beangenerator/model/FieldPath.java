@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.model;
+
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * An immutable path of field members from the root object to the field that is currently being
+ * populated. Each path links to the path of its parent, so extending a path never copies the
+ * members that lead to it and the same ancestors are shared by every field beneath them.
+ * 
+ * @author Greg Marut
+ */
+public final class FieldPath extends FieldMember
+{
+	// holds the path that leads to the declaring object or null if this is the first field
+	private final FieldPath parent;
+	
+	// holds the number of field members in this path
+	private final int depth;
+	
+	/**
+	 * Constructs a new FieldPath
+	 * 
+	 * @param parent
+	 *        the path that leads to the declaring object or null if the declaring object is the
+	 *        root object
+	 * @param field
+	 * @param declaringObject
+	 */
+	public FieldPath(final FieldPath parent, final Field field, final Object declaringObject)
+	{
+		super(field, declaringObject);
+		this.parent = parent;
+		this.depth = null != parent ? parent.depth + 1 : 1;
+	}
+	
+	/**
+	 * Returns the path that leads to the declaring object of this field
+	 * 
+	 * @return the parent path or null if the declaring object is the root object
+	 */
+	public FieldPath parent()
+	{
+		return parent;
+	}
+	
+	/**
+	 * Returns the number of field members in this path
+	 * 
+	 * @return int
+	 */
+	public int depth()
+	{
+		return depth;
+	}
+	
+	/**
+	 * Returns the field members of this path starting with the field of the root object
+	 * 
+	 * @return List
+	 */
+	public List<FieldMember> path()
+	{
+		// walk the path from the leaf to the root
+		FieldMember[] members = new FieldMember[depth];
+		FieldPath current = this;
+		for (int i = depth - 1; i >= 0; i--)
+		{
+			members[i] = current;
+			current = current.parent;
+		}
+		
+		return Collections.unmodifiableList(Arrays.asList(members));
+	}
+	
+	/**
+	 * Copies this path into a new deque with the field of this path at the head, which is the
+	 * layout of the field member stack used by {@link com.gregmarut.support.beangenerator.value.Value}
+	 * implementations written against the deque
+	 * 
+	 * @return Deque
+	 */
+	public Deque<FieldMember> toDeque()
+	{
+		Deque<FieldMember> deque = new ArrayDeque<FieldMember>(depth);
+		for (FieldPath current = this; null != current; current = current.parent)
+		{
+			deque.addLast(current);
+		}
+		
+		return deque;
+	}
+	
+	/**
+	 * Builds a path from a field member stack whose head is the most recent field
+	 * 
+	 * @param fieldMemberStack
+	 * @return the path or null if the stack is empty
+	 */
+	public static FieldPath fromDeque(final Deque<FieldMember> fieldMemberStack)
+	{
+		FieldPath path = null;
+		
+		// build the path from the root to the head of the stack
+		for (Iterator<FieldMember> iterator = fieldMemberStack.descendingIterator(); iterator.hasNext();)
+		{
+			FieldMember fieldMember = iterator.next();
+			path = new FieldPath(path, fieldMember.getField(), fieldMember.getDeclaringObject());
+		}
+		
+		return path;
+	}
+}
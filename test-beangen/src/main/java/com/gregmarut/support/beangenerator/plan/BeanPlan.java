@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.plan;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable, compiled description of how to populate every object of a specific class. A plan
+ * holds the ordered list of writable fields along with the resolved source of each value so that
+ * populating an object does not need to inspect the class or the configuration again.
+ * 
+ * @author Greg Marut
+ */
+public final class BeanPlan
+{
+	// holds the class that this plan populates
+	private final Class<?> type;
+	
+	// holds the ordered list of field plans
+	private final List<FieldPlan> fieldPlans;
+	
+	// holds the generated populator that allocates the bean or null if reflection is used
+	private final GeneratedPopulator instantiator;
+	
+	// holds the generated populators that write the constant fields
+	private final GeneratedPopulator[] constantWriters;
+	
+	// holds the number of fields whose values are independent subgraphs
+	private final int subgraphCount;
+	
+	// determines if the rules of any field must be evaluated when the field is populated
+	private final boolean ruleLookupRequired;
+	
+	BeanPlan(final Class<?> type, final FieldPlan[] fieldPlans)
+	{
+		this(type, fieldPlans, null, new GeneratedPopulator[0]);
+	}
+	
+	BeanPlan(final Class<?> type, final FieldPlan[] fieldPlans, final GeneratedPopulator instantiator,
+		final GeneratedPopulator[] constantWriters)
+	{
+		this.type = type;
+		this.fieldPlans = Collections.unmodifiableList(Arrays.asList(fieldPlans));
+		this.instantiator = instantiator;
+		this.constantWriters = constantWriters;
+		
+		// count the subgraphs and determine if any field depends on the state of the bean
+		int subgraphs = 0;
+		boolean lookupRequired = false;
+		for (FieldPlan fieldPlan : fieldPlans)
+		{
+			if (fieldPlan.isSubgraph())
+			{
+				subgraphs++;
+			}
+			
+			lookupRequired |= fieldPlan.isRuleLookupRequired();
+		}
+		
+		this.subgraphCount = subgraphs;
+		this.ruleLookupRequired = lookupRequired;
+	}
+	
+	/**
+	 * Returns the class that this plan populates
+	 * 
+	 * @return Class
+	 */
+	public Class<?> getType()
+	{
+		return type;
+	}
+	
+	/**
+	 * Returns the ordered list of field plans
+	 * 
+	 * @return List
+	 */
+	public List<FieldPlan> getFieldPlans()
+	{
+		return fieldPlans;
+	}
+	
+	/**
+	 * Returns the number of fields whose values are independent subgraphs
+	 * 
+	 * @return int
+	 * @see FieldPlan#isSubgraph()
+	 */
+	public int getSubgraphCount()
+	{
+		return subgraphCount;
+	}
+	
+	/**
+	 * Determines if the rules of any field must be evaluated when the field is populated, in which
+	 * case the value of a field may depend on the fields that were populated before it
+	 * 
+	 * @return boolean
+	 */
+	public boolean isRuleLookupRequired()
+	{
+		return ruleLookupRequired;
+	}
+	
+	/**
+	 * Determines if this plan can allocate new instances of the bean without reflection
+	 * 
+	 * @return boolean
+	 */
+	public boolean canInstantiate()
+	{
+		return null != instantiator;
+	}
+	
+	/**
+	 * Allocates a new instance of the bean using the generated populator
+	 * 
+	 * @return Object
+	 * @throws UnsupportedOperationException
+	 *         if this plan cannot allocate the bean
+	 */
+	public Object newInstance()
+	{
+		// make sure a generated populator is available
+		if (null == instantiator)
+		{
+			throw new UnsupportedOperationException("No generated populator for " + type.getName());
+		}
+		
+		return instantiator.newInstance();
+	}
+	
+	/**
+	 * Writes every field whose value is a constant. These fields are marked with
+	 * {@link FieldPlan#isConstant()} and do not need to be written again.
+	 * 
+	 * @param obj
+	 */
+	public void writeConstants(final Object obj)
+	{
+		for (GeneratedPopulator constantWriter : constantWriters)
+		{
+			constantWriter.writeConstants(obj);
+		}
+	}
+}
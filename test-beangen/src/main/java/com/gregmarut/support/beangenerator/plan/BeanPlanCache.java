@@ -0,0 +1,472 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.plan;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.gregmarut.support.beangenerator.access.FieldAccessor;
+import com.gregmarut.support.beangenerator.access.FieldAccessorFactory;
+import com.gregmarut.support.beangenerator.config.Configuration;
+import com.gregmarut.support.beangenerator.config.DefaultValues;
+import com.gregmarut.support.beangenerator.plan.FieldPlan.ValueSource;
+import com.gregmarut.support.beangenerator.populator.BeanPopulator;
+import com.gregmarut.support.beangenerator.populator.BeanPopulatorRegistry;
+import com.gregmarut.support.beangenerator.rule.Rule;
+import com.gregmarut.support.beangenerator.rule.RuleMapping;
+import com.gregmarut.support.beangenerator.value.NullValue;
+import com.gregmarut.support.beangenerator.value.StaticValue;
+import com.gregmarut.support.beangenerator.value.StringValue;
+import com.gregmarut.support.beangenerator.value.Value;
+import com.gregmarut.support.util.ClassConversionUtil;
+import com.gregmarut.support.util.ReflectionUtil;
+
+/**
+ * Compiles and holds the {@link BeanPlan} for every class populated with a {@link Configuration}.
+ * Plans are built once and shared by every generator using the same configuration. Whenever the
+ * {@link DefaultValues} or {@link RuleMapping} of the configuration are replaced or modified, all
+ * existing plans are discarded and compiled again on demand.
+ * 
+ * @author Greg Marut
+ */
+public final class BeanPlanCache
+{
+	// ** Finals **//
+	// determines whether or not the runtime can define the hidden classes of generated populators
+	private static final boolean HIDDEN_CLASSES = isHiddenClassSupported();
+	
+	// ** Objects **//
+	// instantiate the logger
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+	
+	// holds the configuration that plans are compiled against
+	private final Configuration configuration;
+	
+	// holds the plans compiled for the current state of the configuration
+	private volatile Generation generation;
+	
+	public BeanPlanCache(final Configuration configuration)
+	{
+		// make sure the configuration is not null
+		if (null == configuration)
+		{
+			throw new IllegalArgumentException("configuration cannot be null");
+		}
+		
+		this.configuration = configuration;
+		this.generation = new Generation(configuration);
+	}
+	
+	/**
+	 * Returns the plan for the class of the given object, compiling it if it does not yet exist
+	 * 
+	 * @param object
+	 *        an instance of the class to retrieve the plan for
+	 * @return BeanPlan
+	 */
+	public BeanPlan getPlan(final Object object)
+	{
+		// holds the plans for the current state of the configuration
+		Generation current = currentGeneration();
+		
+		// attempt to retrieve the existing plan
+		final Class<?> clazz = object.getClass();
+		BeanPlan plan = current.plans.get(clazz);
+		
+		// check to see if the plan needs to be compiled
+		if (null == plan)
+		{
+			plan = compile(object);
+			
+			// add the plan unless another thread has already done so
+			BeanPlan existing = current.plans.putIfAbsent(clazz, plan);
+			if (null != existing)
+			{
+				plan = existing;
+			}
+		}
+		
+		return plan;
+	}
+	
+	/**
+	 * Returns the plan for a class if it has already been compiled
+	 * 
+	 * @param clazz
+	 * @return the plan or null if no plan has been compiled for this class yet
+	 */
+	public BeanPlan findPlan(final Class<?> clazz)
+	{
+		return currentGeneration().plans.get(clazz);
+	}
+	
+	/**
+	 * Returns a token that identifies the plans for the current state of the configuration. The
+	 * token changes whenever the plans are discarded.
+	 * 
+	 * @return Object
+	 */
+	public Object getGeneration()
+	{
+		return currentGeneration();
+	}
+	
+	/**
+	 * Discards all of the compiled plans
+	 */
+	public void clear()
+	{
+		generation = new Generation(configuration);
+	}
+	
+	/**
+	 * Returns the plans for the current state of the configuration
+	 * 
+	 * @return Generation
+	 */
+	private Generation currentGeneration()
+	{
+		Generation current = generation;
+		
+		// check to see if the configuration has changed since these plans were compiled
+		if (!current.isCurrent(configuration))
+		{
+			logger.debug("Configuration has changed. Discarding compiled bean plans.");
+			current = new Generation(configuration);
+			generation = current;
+		}
+		
+		return current;
+	}
+	
+	/**
+	 * Compiles a new plan for the class of the given object
+	 * 
+	 * @param object
+	 * @return BeanPlan
+	 */
+	private BeanPlan compile(final Object object)
+	{
+		logger.debug("Compiling bean plan for {}", object.getClass().getName());
+		
+		// holds the list of field plans
+		List<FieldPlan> fieldPlans = new ArrayList<FieldPlan>();
+		
+		// for each of the fields in this class and all parent classes
+		for (Field field : ReflectionUtil.getAllFields(object))
+		{
+			// make sure this field is not transient
+			if (!Modifier.isTransient(field.getModifiers()))
+			{
+				// get the type of this field
+				Class<?> clazz = field.getType();
+				
+				// make sure the field is not final
+				if (!Modifier.isFinal(field.getModifiers()))
+				{
+					FieldAccessor accessor = createAccessor(field);
+					if (null != accessor)
+					{
+						fieldPlans.add(compileWritableField(object, accessor, clazz));
+					}
+				}
+				// check to see if this final field is a type of collection
+				else if (Collection.class.isAssignableFrom(clazz))
+				{
+					FieldAccessor accessor = createAccessor(field);
+					if (null != accessor)
+					{
+						fieldPlans.add(new FieldPlan(accessor, ValueSource.EXISTING_COLLECTION, null, false, null,
+							extractElementType(field)));
+					}
+				}
+			}
+		}
+		
+		BeanPlan beanPlan = new BeanPlan(object.getClass(), fieldPlans.toArray(new FieldPlan[fieldPlans.size()]));
+		
+		// populators that were generated at compile time are always preferred
+		BeanPopulator<?> beanPopulator = BeanPopulatorRegistry.find(object.getClass());
+		if (null != beanPopulator)
+		{
+			logger.debug("Using compile time populator {}", beanPopulator.getClass().getName());
+			beanPlan = CompiledPopulator.apply(beanPlan, beanPopulator);
+		}
+		// check to see if populators should be generated for this plan
+		else if (configuration.isGeneratePopulators())
+		{
+			beanPlan = generatePopulators(beanPlan);
+		}
+		
+		return beanPlan;
+	}
+	
+	/**
+	 * Generates the populators for a plan. If the populators cannot be generated, the plan is
+	 * returned unchanged and reflection is used instead.
+	 * 
+	 * @param beanPlan
+	 * @return BeanPlan
+	 */
+	private BeanPlan generatePopulators(final BeanPlan beanPlan)
+	{
+		// hidden classes require Java 15 or later
+		if (!HIDDEN_CLASSES)
+		{
+			logger.debug("Could not generate a populator for {}: hidden classes are not supported", beanPlan
+				.getType().getName());
+			return beanPlan;
+		}
+		
+		try
+		{
+			return PopulatorGenerator.generate(beanPlan);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			logger.debug("Could not generate a populator for {}: {}", beanPlan.getType().getName(), e.getMessage());
+		}
+		catch (RuntimeException e)
+		{
+			logger.debug("Could not generate a populator for {}: {}", beanPlan.getType().getName(), e.getMessage());
+		}
+		catch (LinkageError e)
+		{
+			// this typically occurs when ASM is not on the classpath
+			logger.info("Could not generate a populator for {}: {}", beanPlan.getType().getName(), e.toString());
+		}
+		
+		return beanPlan;
+	}
+	
+	/**
+	 * Determines if the runtime can define hidden classes. The check is made reflectively so that
+	 * the library remains usable on runtimes that predate them.
+	 * 
+	 * @return boolean
+	 */
+	private static boolean isHiddenClassSupported()
+	{
+		try
+		{
+			Class<?> classOption = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+			MethodHandles.Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class, Array.newInstance(
+				classOption, 0).getClass());
+			return true;
+		}
+		catch (ClassNotFoundException e)
+		{
+			return false;
+		}
+		catch (NoSuchMethodException e)
+		{
+			return false;
+		}
+	}
+	
+	/**
+	 * Compiles the plan for a field whose value is assigned
+	 * 
+	 * @param declaringObject
+	 * @param accessor
+	 * @param clazz
+	 * @return FieldPlan
+	 */
+	private FieldPlan compileWritableField(final Object declaringObject, final FieldAccessor accessor,
+		final Class<?> clazz)
+	{
+		// retrieve the field for this accessor
+		Field field = accessor.getField();
+		
+		// holds the matching rule if one exists
+		Rule<?> rule = null;
+		
+		// determines if the rules must be evaluated when the field is populated
+		boolean ruleLookupRequired = false;
+		
+		// make sure the rule mapping object is not null
+		RuleMapping ruleMapping = configuration.getRuleMapping();
+		if (null != ruleMapping)
+		{
+			// rules are always grouped by the non primitive type since generics do not support primitives
+			Class<?> nonPrimitiveClass = ClassConversionUtil.convertToNonPrimitive(clazz);
+			
+			// check to see if any rule depends on the state of the declaring object
+			if (!ruleMapping.isCacheable(nonPrimitiveClass))
+			{
+				// the rules cannot be resolved ahead of time
+				ruleLookupRequired = true;
+			}
+			else
+			{
+				// the last rule that matches wins
+				rule = ruleMapping.findMatchingRule(nonPrimitiveClass, field, declaringObject);
+			}
+		}
+		
+		// check to see if a rule was resolved
+		if (null != rule)
+		{
+			return new FieldPlan(accessor, ValueSource.RULE, rule, false, null, null, isPathIndependent(rule.getValue()),
+				resolveValue(rule.getValue(), field));
+		}
+		// check to see if this field is a type of collection
+		else if (Collection.class.isAssignableFrom(clazz))
+		{
+			return new FieldPlan(accessor, ValueSource.COLLECTION, null, ruleLookupRequired, null,
+				extractElementType(field));
+		}
+		// check to see if this value exists in the default values map
+		else if (configuration.getDefaultValues().containsKey(clazz))
+		{
+			Value<?> defaultValue = configuration.getDefaultValues().get(clazz);
+			return new FieldPlan(accessor, ValueSource.DEFAULT_VALUE, null, ruleLookupRequired, defaultValue, null,
+				isPathIndependent(defaultValue), resolveValue(defaultValue, field));
+		}
+		else
+		{
+			return new FieldPlan(accessor, ValueSource.BEAN, null, ruleLookupRequired, null, null);
+		}
+	}
+	
+	/**
+	 * Determines if a value can be retrieved once when the plan is compiled. Only the built in values
+	 * qualify since their subclasses may depend on the path to the field.
+	 * 
+	 * @param value
+	 * @return boolean
+	 */
+	private static boolean isPathIndependent(final Value<?> value)
+	{
+		return null != value && (value.getClass() == StaticValue.class || value.getClass() == NullValue.class
+			|| value.getClass() == StringValue.class);
+	}
+	
+	/**
+	 * Retrieves the value for a field if it does not depend on the path to the field
+	 * 
+	 * @param value
+	 * @param field
+	 * @return the value or null if it must be retrieved every time the field is populated
+	 */
+	private static Object resolveValue(final Value<?> value, final Field field)
+	{
+		// check to see if this value must be retrieved every time
+		if (!isPathIndependent(value))
+		{
+			return null;
+		}
+		// the default string value is always the name of the field
+		else if (value.getClass() == StringValue.class)
+		{
+			return field.getName();
+		}
+		else
+		{
+			return value.getValue();
+		}
+	}
+	
+	/**
+	 * Extracts the element type of a collection field
+	 * 
+	 * @param field
+	 * @return the element type or null if it could not be determined
+	 */
+	private Class<?> extractElementType(final Field field)
+	{
+		// extract the generic classes for this field
+		List<Class<?>> genericClasses = ReflectionUtil.extractGenericClasses(field);
+		return genericClasses.isEmpty() ? null : genericClasses.get(0);
+	}
+	
+	/**
+	 * Creates the accessor for a field using the backend of the configuration
+	 * 
+	 * @param field
+	 * @return the accessor or null if access was denied and the field should be skipped
+	 */
+	private FieldAccessor createAccessor(final Field field)
+	{
+		try
+		{
+			return configuration.getFieldAccessorFactory().create(field);
+		}
+		catch (IllegalAccessException e)
+		{
+			// the field belongs to a module or security context that does not allow access
+			logger.debug("Skipping inaccessible field {}: {}", field, e.getMessage());
+			return null;
+		}
+		catch (RuntimeException e)
+		{
+			logger.debug("Skipping inaccessible field {}: {}", field, e.getMessage());
+			return null;
+		}
+	}
+	
+	/**
+	 * Holds the plans that were compiled against one specific state of the configuration
+	 * 
+	 * @author Greg Marut
+	 */
+	private static final class Generation
+	{
+		private final DefaultValues defaultValues;
+		private final int defaultValuesModificationCount;
+		private final RuleMapping ruleMapping;
+		private final int ruleMappingModificationCount;
+		private final FieldAccessorFactory fieldAccessorFactory;
+		private final boolean generatePopulators;
+		
+		// holds the map of compiled plans
+		private final ConcurrentMap<Class<?>, BeanPlan> plans;
+		
+		private Generation(final Configuration configuration)
+		{
+			this.defaultValues = configuration.getDefaultValues();
+			this.defaultValuesModificationCount = null != defaultValues ? defaultValues.getModificationCount() : 0;
+			this.ruleMapping = configuration.getRuleMapping();
+			this.ruleMappingModificationCount = null != ruleMapping ? ruleMapping.getModificationCount() : 0;
+			this.fieldAccessorFactory = configuration.getFieldAccessorFactory();
+			this.generatePopulators = configuration.isGeneratePopulators();
+			this.plans = new ConcurrentHashMap<Class<?>, BeanPlan>();
+		}
+		
+		/**
+		 * Determines if these plans still reflect the state of the configuration
+		 * 
+		 * @param configuration
+		 * @return boolean
+		 */
+		private boolean isCurrent(final Configuration configuration)
+		{
+			return defaultValues == configuration.getDefaultValues()
+				&& ruleMapping == configuration.getRuleMapping()
+				&& fieldAccessorFactory == configuration.getFieldAccessorFactory()
+				&& generatePopulators == configuration.isGeneratePopulators()
+				&& (null == defaultValues || defaultValuesModificationCount == defaultValues.getModificationCount())
+				&& (null == ruleMapping || ruleMappingModificationCount == ruleMapping.getModificationCount());
+		}
+	}
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.plan;
+
+import com.gregmarut.support.beangenerator.populator.BeanPopulator;
+
+/**
+ * Adapts a {@link BeanPopulator} that was generated at compile time so that it can be used by a
+ * {@link BeanPlan} in the same way as a populator generated at runtime
+ * 
+ * @author Greg Marut
+ */
+final class CompiledPopulator extends GeneratedPopulator
+{
+	// holds the populator generated at compile time
+	private final BeanPopulator<Object> beanPopulator;
+	
+	@SuppressWarnings("unchecked")
+	CompiledPopulator(final BeanPopulator<?> beanPopulator)
+	{
+		this.beanPopulator = (BeanPopulator<Object>) beanPopulator;
+	}
+	
+	/**
+	 * Creates a new plan that uses a populator generated at compile time
+	 * 
+	 * @param beanPlan
+	 * @param beanPopulator
+	 * @return BeanPlan
+	 */
+	static BeanPlan apply(final BeanPlan beanPlan, final BeanPopulator<?> beanPopulator)
+	{
+		CompiledPopulator populator = new CompiledPopulator(beanPopulator);
+		
+		// rewrite each of the field plans that the populator is able to write
+		FieldPlan[] fieldPlans = new FieldPlan[beanPlan.getFieldPlans().size()];
+		for (int i = 0; i < fieldPlans.length; i++)
+		{
+			FieldPlan fieldPlan = beanPlan.getFieldPlans().get(i);
+			int index =
+				beanPopulator.indexOf(fieldPlan.getField().getDeclaringClass(), fieldPlan.getField().getName());
+			
+			// fields that are only read or cannot be written by the populator remain reflective
+			if (index >= 0 && fieldPlan.getValueSource() != FieldPlan.ValueSource.EXISTING_COLLECTION)
+			{
+				fieldPlans[i] = fieldPlan.withPopulator(populator, index, false);
+			}
+			else
+			{
+				fieldPlans[i] = fieldPlan;
+			}
+		}
+		
+		// beans that the populator cannot allocate are instantiated through reflection
+		GeneratedPopulator instantiator = beanPopulator.canInstantiate() ? populator : null;
+		return new BeanPlan(beanPlan.getType(), fieldPlans, instantiator, new GeneratedPopulator[0]);
+	}
+	
+	@Override
+	public Object newInstance()
+	{
+		return beanPopulator.newInstance();
+	}
+	
+	@Override
+	public void writeConstants(final Object bean)
+	{
+		// values are always resolved from the configuration
+	}
+	
+	@Override
+	public void write(final Object bean, final int index, final Object value)
+	{
+		beanPopulator.write(bean, index, value);
+	}
+}
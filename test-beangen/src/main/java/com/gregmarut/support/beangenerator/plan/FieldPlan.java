@@ -0,0 +1,301 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.plan;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+import com.gregmarut.support.beangenerator.access.FieldAccessor;
+import com.gregmarut.support.beangenerator.rule.Rule;
+import com.gregmarut.support.beangenerator.value.Value;
+
+/**
+ * Holds everything that was resolved ahead of time for populating a single field. The field has
+ * already been opened through a {@link FieldAccessor} and the source of its value has already been determined from the
+ * configuration.
+ * 
+ * @author Greg Marut
+ */
+public final class FieldPlan
+{
+	/**
+	 * Describes where the value for a field comes from
+	 */
+	public enum ValueSource
+	{
+		/**
+		 * The value is taken from a matching {@link Rule}
+		 */
+		RULE,
+		
+		/**
+		 * The value is taken from the default values of the configuration
+		 */
+		DEFAULT_VALUE,
+		
+		/**
+		 * A new collection is instantiated and populated with objects of the element type
+		 */
+		COLLECTION,
+		
+		/**
+		 * The collection already assigned to this (final) field is populated with objects of the
+		 * element type
+		 */
+		EXISTING_COLLECTION,
+		
+		/**
+		 * A new bean is instantiated and populated
+		 */
+		BEAN
+	}
+	
+	// holds the accessor that reads and writes the field that this plan populates
+	private final FieldAccessor accessor;
+	
+	// holds the source of the value for this field
+	private final ValueSource valueSource;
+	
+	// holds the rule whose value is assigned to this field
+	private final Rule<?> rule;
+	
+	// determines if the rules need to be evaluated every time this field is populated
+	private final boolean ruleLookupRequired;
+	
+	// holds the default value to assign to this field
+	private final Value<?> defaultValue;
+	
+	// holds the element type of the collection
+	private final Class<?> elementType;
+	
+	// determines if the value of the rule or default value was resolved when this plan was compiled
+	private final boolean resolved;
+	
+	// holds the value that was resolved when this plan was compiled
+	private final Object resolvedValue;
+	
+	// holds the generated populator that writes this field or null if the accessor is used
+	private final GeneratedPopulator populator;
+	
+	// holds the index of this field within the generated populator
+	private final int populatorIndex;
+	
+	// determines if the value of this field is written by the generated populator as a constant
+	private final boolean constant;
+	
+	// holds the type that the generated populator casts the value to, which is the wrapper type of
+	// a primitive field
+	private final Class<?> populatorType;
+	
+	// determines if the field is primitive and therefore cannot be written with null
+	private final boolean primitive;
+	
+	FieldPlan(final FieldAccessor accessor, final ValueSource valueSource, final Rule<?> rule, final boolean ruleLookupRequired,
+		final Value<?> defaultValue, final Class<?> elementType)
+	{
+		this(accessor, valueSource, rule, ruleLookupRequired, defaultValue, elementType, false, null);
+	}
+	
+	FieldPlan(final FieldAccessor accessor, final ValueSource valueSource, final Rule<?> rule, final boolean ruleLookupRequired,
+		final Value<?> defaultValue, final Class<?> elementType, final boolean resolved, final Object resolvedValue)
+	{
+		this(accessor, valueSource, rule, ruleLookupRequired, defaultValue, elementType, resolved, resolvedValue, null,
+			-1, false);
+	}
+	
+	private FieldPlan(final FieldAccessor accessor, final ValueSource valueSource, final Rule<?> rule,
+		final boolean ruleLookupRequired, final Value<?> defaultValue, final Class<?> elementType,
+		final boolean resolved, final Object resolvedValue, final GeneratedPopulator populator,
+		final int populatorIndex, final boolean constant)
+	{
+		this.accessor = accessor;
+		this.valueSource = valueSource;
+		this.rule = rule;
+		this.ruleLookupRequired = ruleLookupRequired;
+		this.defaultValue = defaultValue;
+		this.elementType = elementType;
+		this.resolved = resolved;
+		this.resolvedValue = resolvedValue;
+		this.populator = populator;
+		this.populatorIndex = populatorIndex;
+		this.constant = constant;
+		
+		Class<?> type = accessor.getField().getType();
+		this.populatorType = MethodType.methodType(type).wrap().returnType();
+		this.primitive = type.isPrimitive();
+	}
+	
+	/**
+	 * Creates a copy of this plan that writes the field through a generated populator
+	 * 
+	 * @param populator
+	 * @param populatorIndex
+	 * @param constant
+	 * @return FieldPlan
+	 */
+	FieldPlan withPopulator(final GeneratedPopulator populator, final int populatorIndex, final boolean constant)
+	{
+		return new FieldPlan(accessor, valueSource, rule, ruleLookupRequired, defaultValue, elementType, resolved,
+			resolvedValue, populator, populatorIndex, constant);
+	}
+	
+	/**
+	 * Writes a value to this field on the given object
+	 * 
+	 * @param obj
+	 * @param value
+	 * @throws IllegalAccessException
+	 */
+	public void write(final Object obj, final Object value) throws IllegalAccessException
+	{
+		// the generated populator only accepts values of the exact type of the field, while the
+		// accessor also handles widening conversions and reports null primitives consistently
+		if (null != populator && (null != value ? populatorType.isInstance(value) : !primitive))
+		{
+			populator.write(obj, populatorIndex, value);
+		}
+		else
+		{
+			accessor.set(obj, value);
+		}
+	}
+	
+	/**
+	 * Reads the current value of this field on the given object
+	 * 
+	 * @param obj
+	 * @return Object
+	 * @throws IllegalAccessException
+	 */
+	public Object read(final Object obj) throws IllegalAccessException
+	{
+		return accessor.get(obj);
+	}
+	
+	/**
+	 * Returns the field. Use {@link #read(Object)} and {@link #write(Object, Object)} to access its
+	 * value.
+	 * 
+	 * @return Field
+	 */
+	public Field getField()
+	{
+		return accessor.getField();
+	}
+	
+	/**
+	 * Returns the type of the field
+	 * 
+	 * @return Class
+	 */
+	public Class<?> getType()
+	{
+		return accessor.getField().getType();
+	}
+	
+	/**
+	 * Returns the source of the value for this field
+	 * 
+	 * @return ValueSource
+	 */
+	public ValueSource getValueSource()
+	{
+		return valueSource;
+	}
+	
+	/**
+	 * Returns the rule that was matched for this field if the value source is
+	 * {@link ValueSource#RULE}
+	 * 
+	 * @return Rule
+	 */
+	public Rule<?> getRule()
+	{
+		return rule;
+	}
+	
+	/**
+	 * Determines if at least one of the rules for this type of field depends on the state of the
+	 * declaring object and must therefore be evaluated every time this field is populated. If no
+	 * rule matches, the value source of this plan is used.
+	 * 
+	 * @return boolean
+	 */
+	public boolean isRuleLookupRequired()
+	{
+		return ruleLookupRequired;
+	}
+	
+	/**
+	 * Returns the default value if the value source is {@link ValueSource#DEFAULT_VALUE}
+	 * 
+	 * @return Value
+	 */
+	public Value<?> getDefaultValue()
+	{
+		return defaultValue;
+	}
+	
+	/**
+	 * Determines if the value of the rule or default value of this plan does not depend on the path
+	 * to the field and was therefore already retrieved when this plan was compiled
+	 * 
+	 * @return boolean
+	 */
+	public boolean isResolved()
+	{
+		return resolved;
+	}
+	
+	/**
+	 * Returns the value of the rule or default value of this plan if {@link #isResolved()}
+	 * 
+	 * @return Object
+	 */
+	public Object getResolvedValue()
+	{
+		return resolvedValue;
+	}
+	
+	/**
+	 * Returns the generic element type of the collection or null if it could not be determined
+	 * 
+	 * @return Class
+	 */
+	public Class<?> getElementType()
+	{
+		return elementType;
+	}
+	
+	/**
+	 * Determines if the value of this field is a new bean or collection that is populated
+	 * independently of the other fields of the declaring object
+	 * 
+	 * @return boolean
+	 */
+	public boolean isSubgraph()
+	{
+		return valueSource == ValueSource.BEAN || valueSource == ValueSource.COLLECTION;
+	}
+	
+	/**
+	 * Determines if the value of this field is a constant that has already been written by
+	 * {@link GeneratedPopulator#writeConstants(Object)}
+	 * 
+	 * @return boolean
+	 */
+	public boolean isConstant()
+	{
+		return constant;
+	}
+}
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.plan;
+
+/**
+ * The base class of the populators that are generated at runtime for a {@link BeanPlan}. A
+ * populator is generated for each class in the hierarchy of the bean that declares fields and is
+ * defined as a hidden nestmate of that class, which allows it to allocate the bean and write its
+ * fields with direct field stores instead of reflection. Populators generated at compile time are
+ * adapted to this class as well.
+ * 
+ * @author Greg Marut
+ */
+public abstract class GeneratedPopulator
+{
+	/**
+	 * Allocates a new instance of the bean using its no argument constructor
+	 * 
+	 * @return Object
+	 * @throws UnsupportedOperationException
+	 *         if this populator cannot allocate the bean
+	 */
+	public Object newInstance()
+	{
+		throw new UnsupportedOperationException();
+	}
+	
+	/**
+	 * Writes every field whose value is a constant known when the plan was compiled. Primitive
+	 * constants are written without boxing.
+	 * 
+	 * @param bean
+	 */
+	public abstract void writeConstants(Object bean);
+	
+	/**
+	 * Writes a value to a field. Primitive fields are unboxed from their wrapper type.
+	 * 
+	 * @param bean
+	 * @param index
+	 *        the index of the field within this populator
+	 * @param value
+	 */
+	public abstract void write(Object bean, int index, Object value);
+}
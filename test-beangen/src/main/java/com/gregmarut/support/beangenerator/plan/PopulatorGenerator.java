@@ -0,0 +1,492 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.plan;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import com.gregmarut.support.beangenerator.plan.FieldPlan.ValueSource;
+import com.gregmarut.support.beangenerator.rule.Rule;
+import com.gregmarut.support.beangenerator.value.NullValue;
+import com.gregmarut.support.beangenerator.value.StaticValue;
+import com.gregmarut.support.beangenerator.value.StringValue;
+import com.gregmarut.support.beangenerator.value.Value;
+
+/**
+ * Generates the {@link GeneratedPopulator} classes for a {@link BeanPlan}. One hidden class is
+ * defined for every class in the hierarchy that declares a planned field, since a nestmate may only
+ * access the private fields of its own nest host. The hidden class APIs of Java 15 are only used
+ * once the {@link BeanPlanCache} has verified that the runtime supports them.
+ * 
+ * @author Greg Marut
+ */
+final class PopulatorGenerator implements Opcodes
+{
+	// holds the suffix of the generated class names
+	private static final String CLASS_SUFFIX = "$$Populator";
+	
+	private static final String SUPER_NAME = Type.getInternalName(GeneratedPopulator.class);
+	private static final String OBJECT_NAME = Type.getInternalName(Object.class);
+	
+	private PopulatorGenerator()
+	{
+		
+	}
+	
+	/**
+	 * Generates the populators for a plan and returns a new plan that uses them
+	 * 
+	 * @param beanPlan
+	 * @return BeanPlan
+	 * @throws ReflectiveOperationException
+	 *         if a populator could not be defined
+	 */
+	static BeanPlan generate(final BeanPlan beanPlan) throws ReflectiveOperationException
+	{
+		// group the field plans by the class that declares the field
+		Map<Class<?>, List<FieldPlan>> segments = new LinkedHashMap<Class<?>, List<FieldPlan>>();
+		for (FieldPlan fieldPlan : beanPlan.getFieldPlans())
+		{
+			Class<?> declaringClass = fieldPlan.getField().getDeclaringClass();
+			
+			// fields that are only read remain reflective
+			if (fieldPlan.getValueSource() == ValueSource.EXISTING_COLLECTION)
+			{
+				continue;
+			}
+			
+			List<FieldPlan> segment = segments.get(declaringClass);
+			if (null == segment)
+			{
+				segment = new ArrayList<FieldPlan>();
+				segments.put(declaringClass, segment);
+			}
+			segment.add(fieldPlan);
+		}
+		
+		// the bean class is always given a populator so that it can be allocated
+		if (!segments.containsKey(beanPlan.getType()))
+		{
+			segments.put(beanPlan.getType(), new ArrayList<FieldPlan>());
+		}
+		
+		// holds the field plans that are rewritten to use the generated populators
+		Map<FieldPlan, FieldPlan> rewritten = new IdentityHashMap<FieldPlan, FieldPlan>();
+		List<GeneratedPopulator> constantWriters = new ArrayList<GeneratedPopulator>();
+		GeneratedPopulator instantiator = null;
+		
+		// for each class that declares fields
+		for (Map.Entry<Class<?>, List<FieldPlan>> entry : segments.entrySet())
+		{
+			final Class<?> owner = entry.getKey();
+			final boolean allocate = owner.equals(beanPlan.getType()) && canAllocate(owner);
+			
+			// define the hidden class as a nestmate of the declaring class
+			Lookup lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+			
+			// fields whose type cannot be referenced from the nest of the owner remain reflective
+			final List<FieldPlan> fieldPlans = new ArrayList<FieldPlan>();
+			for (FieldPlan fieldPlan : entry.getValue())
+			{
+				if (isAccessible(lookup, fieldPlan.getType()))
+				{
+					fieldPlans.add(fieldPlan);
+				}
+			}
+			
+			byte[] bytes = generate(owner, fieldPlans, allocate);
+			Class<?> populatorClass = lookup.defineHiddenClass(bytes, true, Lookup.ClassOption.NESTMATE).lookupClass();
+			GeneratedPopulator populator =
+				(GeneratedPopulator) populatorClass.getDeclaredConstructor().newInstance();
+			
+			if (allocate)
+			{
+				instantiator = populator;
+			}
+			
+			// rewrite each of the field plans to use this populator
+			boolean hasConstants = false;
+			for (int i = 0; i < fieldPlans.size(); i++)
+			{
+				FieldPlan fieldPlan = fieldPlans.get(i);
+				boolean constant = isConstant(fieldPlan);
+				hasConstants |= constant;
+				rewritten.put(fieldPlan, fieldPlan.withPopulator(populator, i, constant));
+			}
+			
+			if (hasConstants)
+			{
+				constantWriters.add(populator);
+			}
+		}
+		
+		// keep the original order of the fields
+		FieldPlan[] fieldPlans = new FieldPlan[beanPlan.getFieldPlans().size()];
+		for (int i = 0; i < fieldPlans.length; i++)
+		{
+			FieldPlan fieldPlan = beanPlan.getFieldPlans().get(i);
+			fieldPlans[i] = rewritten.containsKey(fieldPlan) ? rewritten.get(fieldPlan) : fieldPlan;
+		}
+		
+		return new BeanPlan(beanPlan.getType(), fieldPlans, instantiator, constantWriters.toArray(new GeneratedPopulator[constantWriters.size()]));
+	}
+	
+	/**
+	 * Generates the bytes of a populator class
+	 * 
+	 * @param owner
+	 * @param fieldPlans
+	 * @param allocate
+	 * @return byte[]
+	 */
+	private static byte[] generate(final Class<?> owner, final List<FieldPlan> fieldPlans, final boolean allocate)
+	{
+		final String ownerName = Type.getInternalName(owner);
+		
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES)
+		{
+			@Override
+			protected String getCommonSuperClass(final String type1, final String type2)
+			{
+				// the generated code never merges two different reference types
+				return OBJECT_NAME;
+			}
+		};
+		cw.visit(V17, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, ownerName + CLASS_SUFFIX, null, SUPER_NAME, null);
+		
+		// the default constructor
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, SUPER_NAME, "<init>", "()V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		
+		// allocate the bean directly
+		if (allocate)
+		{
+			mv = cw.visitMethod(ACC_PUBLIC, "newInstance", "()Ljava/lang/Object;", null, null);
+			mv.visitCode();
+			mv.visitTypeInsn(NEW, ownerName);
+			mv.visitInsn(DUP);
+			mv.visitMethodInsn(INVOKESPECIAL, ownerName, "<init>", "()V", false);
+			mv.visitInsn(ARETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+		
+		// write the constants
+		mv = cw.visitMethod(ACC_PUBLIC, "writeConstants", "(Ljava/lang/Object;)V", null, null);
+		mv.visitCode();
+		for (FieldPlan fieldPlan : fieldPlans)
+		{
+			if (isConstant(fieldPlan))
+			{
+				Field field = fieldPlan.getField();
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitTypeInsn(CHECKCAST, ownerName);
+				pushConstant(mv, field.getType(), getConstantValue(fieldPlan));
+				mv.visitFieldInsn(PUTFIELD, ownerName, field.getName(), Type.getDescriptor(field.getType()));
+			}
+		}
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		
+		// write a single field by index
+		mv = cw.visitMethod(ACC_PUBLIC, "write", "(Ljava/lang/Object;ILjava/lang/Object;)V", null, null);
+		mv.visitCode();
+		Label end = new Label();
+		if (!fieldPlans.isEmpty())
+		{
+			Label[] cases = new Label[fieldPlans.size()];
+			for (int i = 0; i < cases.length; i++)
+			{
+				cases[i] = new Label();
+			}
+			
+			mv.visitVarInsn(ILOAD, 2);
+			mv.visitTableSwitchInsn(0, cases.length - 1, end, cases);
+			
+			for (int i = 0; i < cases.length; i++)
+			{
+				Field field = fieldPlans.get(i).getField();
+				mv.visitLabel(cases[i]);
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitTypeInsn(CHECKCAST, ownerName);
+				mv.visitVarInsn(ALOAD, 3);
+				unbox(mv, field.getType());
+				mv.visitFieldInsn(PUTFIELD, ownerName, field.getName(), Type.getDescriptor(field.getType()));
+				mv.visitInsn(RETURN);
+			}
+		}
+		mv.visitLabel(end);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	/**
+	 * Determines if the bean can be allocated with a direct constructor call
+	 * 
+	 * @param clazz
+	 * @return boolean
+	 */
+	private static boolean canAllocate(final Class<?> clazz)
+	{
+		// interfaces, enums and abstract classes can never be allocated
+		if (clazz.isInterface() || clazz.isEnum() || Modifier.isAbstract(clazz.getModifiers()))
+		{
+			return false;
+		}
+		
+		try
+		{
+			clazz.getDeclaredConstructor();
+			return true;
+		}
+		catch (NoSuchMethodException e)
+		{
+			return false;
+		}
+	}
+	
+	/**
+	 * Determines if a type can be referenced from the generated code
+	 * 
+	 * @param lookup
+	 * @param type
+	 * @return boolean
+	 */
+	private static boolean isAccessible(final Lookup lookup, final Class<?> type)
+	{
+		// find the element type of arrays
+		Class<?> elementType = type;
+		while (elementType.isArray())
+		{
+			elementType = elementType.getComponentType();
+		}
+		
+		try
+		{
+			// primitives are always accessible
+			if (!elementType.isPrimitive())
+			{
+				lookup.accessClass(elementType);
+			}
+			return true;
+		}
+		catch (IllegalAccessException e)
+		{
+			return false;
+		}
+	}
+	
+	/**
+	 * Determines if the value of a field is a constant that can be embedded into the populator
+	 * 
+	 * @param fieldPlan
+	 * @return boolean
+	 */
+	static boolean isConstant(final FieldPlan fieldPlan)
+	{
+		// make sure the value of this field does not depend on the rules at runtime
+		if (fieldPlan.isRuleLookupRequired())
+		{
+			return false;
+		}
+		
+		// holds the value that is assigned to this field
+		final Value<?> value;
+		if (fieldPlan.getValueSource() == ValueSource.RULE)
+		{
+			Rule<?> rule = fieldPlan.getRule();
+			value = rule.getValue();
+		}
+		else if (fieldPlan.getValueSource() == ValueSource.DEFAULT_VALUE)
+		{
+			value = fieldPlan.getDefaultValue();
+		}
+		else
+		{
+			return false;
+		}
+		
+		final Class<?> type = fieldPlan.getType();
+		
+		// the default string value is always the name of the field
+		if (value.getClass().equals(StringValue.class))
+		{
+			return type.equals(String.class);
+		}
+		// static values never change
+		else if (value.getClass().equals(StaticValue.class) || value.getClass().equals(NullValue.class))
+		{
+			Object constant = value.getValue();
+			if (type.isPrimitive())
+			{
+				// make sure the constant can be assigned without conversion
+				return null != constant && isPrimitiveWrapper(type, constant);
+			}
+			else
+			{
+				return null == constant || constant instanceof String && type.equals(String.class);
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Returns the constant value of a field
+	 * 
+	 * @param fieldPlan
+	 * @return Object
+	 */
+	private static Object getConstantValue(final FieldPlan fieldPlan)
+	{
+		Value<?> value =
+			fieldPlan.getValueSource() == ValueSource.RULE ? fieldPlan.getRule().getValue()
+				: fieldPlan.getDefaultValue();
+		
+		if (value instanceof StringValue)
+		{
+			return fieldPlan.getField().getName();
+		}
+		else
+		{
+			return value.getValue();
+		}
+	}
+	
+	/**
+	 * Determines if a constant is the exact wrapper type of a primitive type
+	 * 
+	 * @param type
+	 * @param constant
+	 * @return boolean
+	 */
+	private static boolean isPrimitiveWrapper(final Class<?> type, final Object constant)
+	{
+		return type == int.class && constant instanceof Integer || type == long.class && constant instanceof Long
+			|| type == float.class && constant instanceof Float || type == double.class && constant instanceof Double
+			|| type == short.class && constant instanceof Short || type == byte.class && constant instanceof Byte
+			|| type == char.class && constant instanceof Character
+			|| type == boolean.class && constant instanceof Boolean;
+	}
+	
+	/**
+	 * Pushes a constant onto the operand stack
+	 * 
+	 * @param mv
+	 * @param type
+	 * @param constant
+	 */
+	private static void pushConstant(final MethodVisitor mv, final Class<?> type, final Object constant)
+	{
+		if (null == constant)
+		{
+			mv.visitInsn(ACONST_NULL);
+		}
+		else if (type == short.class || type == byte.class)
+		{
+			mv.visitLdcInsn(((Number) constant).intValue());
+		}
+		else if (type == char.class)
+		{
+			mv.visitLdcInsn((int) ((Character) constant).charValue());
+		}
+		else if (type == boolean.class)
+		{
+			mv.visitInsn(((Boolean) constant) ? ICONST_1 : ICONST_0);
+		}
+		else
+		{
+			// int, long, float, double and String are all loadable constants
+			mv.visitLdcInsn(constant);
+		}
+	}
+	
+	/**
+	 * Converts the reference on top of the operand stack to the type of the field
+	 * 
+	 * @param mv
+	 * @param type
+	 */
+	private static void unbox(final MethodVisitor mv, final Class<?> type)
+	{
+		if (type.isPrimitive())
+		{
+			// determine the wrapper type for this primitive
+			final Class<?> wrapper;
+			if (type == int.class)
+			{
+				wrapper = Integer.class;
+			}
+			else if (type == long.class)
+			{
+				wrapper = Long.class;
+			}
+			else if (type == float.class)
+			{
+				wrapper = Float.class;
+			}
+			else if (type == double.class)
+			{
+				wrapper = Double.class;
+			}
+			else if (type == short.class)
+			{
+				wrapper = Short.class;
+			}
+			else if (type == byte.class)
+			{
+				wrapper = Byte.class;
+			}
+			else if (type == char.class)
+			{
+				wrapper = Character.class;
+			}
+			else
+			{
+				wrapper = Boolean.class;
+			}
+			
+			String wrapperName = Type.getInternalName(wrapper);
+			mv.visitTypeInsn(CHECKCAST, wrapperName);
+			mv.visitMethodInsn(INVOKEVIRTUAL, wrapperName, type.getName() + "Value",
+				"()" + Type.getDescriptor(type), false);
+		}
+		else
+		{
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+		}
+	}
+}
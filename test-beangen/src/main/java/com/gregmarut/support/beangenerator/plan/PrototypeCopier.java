@@ -0,0 +1,749 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.plan;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.gregmarut.support.beangenerator.config.Configuration;
+import com.gregmarut.support.beangenerator.plan.FieldPlan.ValueSource;
+
+/**
+ * Creates deep copies of a prototype bean. The object graph of the prototype is walked once when
+ * the copier is compiled and flattened into a list of objects to allocate and fill, where every
+ * reference to another object of the graph has already been resolved to its index in that list.
+ * Copying therefore neither walks the graph nor looks up objects by identity, and objects that
+ * are shared within the prototype are shared within each copy. Fields are written through the
+ * compiled {@link BeanPlan} of each class, so generated populators are used when available.
+ * <p>
+ * Beans, collections, maps and arrays are copied. Enums, classes, proxies, default values, cached
+ * beans and any other objects of the java packages are shared between the prototype and its
+ * copies, in the same way that they are shared between generated beans.
+ * 
+ * @author Greg Marut
+ */
+public final class PrototypeCopier
+{
+	// ** Finals **//
+	// holds the erased type of the constructor handles
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+	
+	// ** Objects **//
+	// instantiate the logger
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+	
+	// holds the objects to copy in the order that they are allocated, starting with the root
+	private final Node[] nodes;
+	
+	// holds the prototype itself if it is shared instead of copied
+	private final Object sharedRoot;
+	
+	// holds the number of levels of copied objects, counting the root as the first level
+	private final int depth;
+	
+	// holds the number of objects of each class that are allocated by every copy
+	private final Map<Class<?>, Integer> objectCounts;
+	
+	// holds the plans that this copier was compiled against
+	private final BeanPlanCache beanPlanCache;
+	private final Object generation;
+	
+	private PrototypeCopier(final Object prototype, final Node[] nodes, final int depth,
+		final Map<Class<?>, Integer> objectCounts, final BeanPlanCache beanPlanCache, final Object generation)
+	{
+		this.nodes = nodes;
+		this.sharedRoot = nodes.length == 0 ? prototype : null;
+		this.depth = depth;
+		this.objectCounts = Collections.unmodifiableMap(objectCounts);
+		this.beanPlanCache = beanPlanCache;
+		this.generation = generation;
+		
+		logger.debug("Compiled prototype copier for {} with {} objects", null != prototype ? prototype.getClass()
+			.getName() : null, nodes.length);
+	}
+	
+	/**
+	 * Compiles a copier for a prototype
+	 * 
+	 * @param prototype
+	 *        the fully populated bean to copy. The prototype must not be modified afterwards.
+	 * @param configuration
+	 *        the configuration that the prototype was generated with
+	 * @return PrototypeCopier
+	 * @throws IllegalAccessException
+	 *         if a field of the prototype cannot be read
+	 */
+	public static PrototypeCopier compile(final Object prototype, final Configuration configuration)
+		throws IllegalAccessException
+	{
+		// make sure the configuration is not null
+		if (null == configuration)
+		{
+			throw new IllegalArgumentException("configuration cannot be null");
+		}
+		
+		// retrieve the generation before any plan is compiled so that a concurrent change is detected
+		BeanPlanCache beanPlanCache = configuration.getBeanPlanCache();
+		Object generation = beanPlanCache.getGeneration();
+		
+		Compiler compiler = new Compiler(configuration, beanPlanCache);
+		compiler.reference(prototype);
+		
+		// compile each object, which adds the objects that it references to the end of the list
+		for (int i = 0; i < compiler.nodes.size(); i++)
+		{
+			compiler.level = compiler.levels.get(i);
+			compiler.nodes.get(i).compile(compiler, compiler.prototypes.get(i), i);
+		}
+		
+		return new PrototypeCopier(prototype, compiler.nodes.toArray(new Node[compiler.nodes.size()]),
+			compiler.depth, compiler.objectCounts, beanPlanCache, generation);
+	}
+	
+	/**
+	 * Determines if this copier still reflects the state of the configuration. A copier becomes
+	 * stale whenever the compiled bean plans are discarded.
+	 * 
+	 * @return boolean
+	 */
+	public boolean isCurrent()
+	{
+		return beanPlanCache.getGeneration() == generation;
+	}
+	
+	/**
+	 * Returns the number of objects that are allocated by each copy
+	 * 
+	 * @return int
+	 */
+	public int getObjectCount()
+	{
+		return nodes.length;
+	}
+	
+	/**
+	 * Returns the number of objects of each class that are allocated by each copy
+	 * 
+	 * @return Map
+	 */
+	public Map<Class<?>, Integer> getObjectCounts()
+	{
+		return objectCounts;
+	}
+	
+	/**
+	 * Returns the number of levels of objects that are allocated by each copy, where the root is
+	 * the first level and the objects it references are the second
+	 * 
+	 * @return int
+	 */
+	public int getDepth()
+	{
+		return depth;
+	}
+	
+	/**
+	 * Creates a new deep copy of the prototype
+	 * 
+	 * @return Object
+	 * @throws IllegalAccessException
+	 *         if a field of the copy cannot be written
+	 */
+	public Object copy() throws IllegalAccessException
+	{
+		// check to see if the prototype is shared
+		if (nodes.length == 0)
+		{
+			return sharedRoot;
+		}
+		
+		// allocate every object first so that references in any direction can be resolved
+		Object[] objects = new Object[nodes.length];
+		for (int i = 0; i < nodes.length; i++)
+		{
+			objects[i] = nodes[i].allocate(objects);
+		}
+		
+		// fill each of the objects
+		for (int i = 0; i < nodes.length; i++)
+		{
+			nodes[i].fill(objects[i], objects);
+		}
+		
+		return objects[0];
+	}
+	
+	/**
+	 * Invokes a constructor handle
+	 * 
+	 * @param constructor
+	 * @return Object
+	 */
+	private static Object newInstance(final MethodHandle constructor)
+	{
+		try
+		{
+			return (Object) constructor.invokeExact();
+		}
+		catch (RuntimeException e)
+		{
+			throw e;
+		}
+		catch (Error e)
+		{
+			throw e;
+		}
+		catch (Throwable e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Resolves a value that is either a shared constant or a reference to a copied object
+	 * 
+	 * @param sources
+	 * @param index
+	 * @param objects
+	 *        the copied objects
+	 * @return Object
+	 */
+	private static Object resolve(final Sources sources, final int index, final Object[] objects)
+	{
+		int reference = sources.references[index];
+		return reference < 0 ? sources.constants[index] : objects[reference];
+	}
+	
+	/**
+	 * Walks the prototype and decides which of its objects are copied
+	 * 
+	 * @author Greg Marut
+	 */
+	private static final class Compiler
+	{
+		private final Configuration configuration;
+		private final BeanPlanCache beanPlanCache;
+		
+		// holds the objects to copy and the index of each of them
+		private final List<Node> nodes = new ArrayList<Node>();
+		private final List<Object> prototypes = new ArrayList<Object>();
+		private final Map<Object, Integer> indexes = new IdentityHashMap<Object, Integer>();
+		
+		// holds the level of each object, the level of the object that is being compiled and the
+		// number of levels of the graph
+		private final List<Integer> levels = new ArrayList<Integer>();
+		private int level;
+		private int depth;
+		
+		// holds the number of objects of each class
+		private final Map<Class<?>, Integer> objectCounts = new LinkedHashMap<Class<?>, Integer>();
+		
+		private Compiler(final Configuration configuration, final BeanPlanCache beanPlanCache)
+		{
+			this.configuration = configuration;
+			this.beanPlanCache = beanPlanCache;
+		}
+		
+		/**
+		 * Returns the index of the copy of an object, adding the object if it has not been seen yet
+		 * 
+		 * @param value
+		 * @return the index of the object or -1 if the value is shared
+		 */
+		private int reference(final Object value)
+		{
+			// null values are written as they are
+			if (null == value)
+			{
+				return -1;
+			}
+			
+			// check to see if this object was already added
+			Integer index = indexes.get(value);
+			if (null != index)
+			{
+				return index;
+			}
+			
+			Node node = createNode(value);
+			return null != node ? add(value, node) : -1;
+		}
+		
+		/**
+		 * Adds an object to copy
+		 * 
+		 * @param value
+		 * @param node
+		 * @return the index of the object
+		 */
+		private int add(final Object value, final Node node)
+		{
+			int index = nodes.size();
+			indexes.put(value, index);
+			nodes.add(node);
+			prototypes.add(value);
+			
+			// the objects are compiled breadth first so an object is one level below the first
+			// object that references it
+			int objectLevel = index == 0 ? 0 : level + 1;
+			levels.add(objectLevel);
+			depth = Math.max(depth, objectLevel + 1);
+			
+			Integer count = objectCounts.get(value.getClass());
+			objectCounts.put(value.getClass(), null != count ? count + 1 : 1);
+			return index;
+		}
+		
+		/**
+		 * Creates the node that copies an object
+		 * 
+		 * @param value
+		 * @return the node or null if the object is shared
+		 */
+		private Node createNode(final Object value)
+		{
+			Class<?> clazz = value.getClass();
+			
+			// check to see if this is an array
+			if (clazz.isArray())
+			{
+				return new ArrayNode(clazz.getComponentType(), Array.getLength(value));
+			}
+			// check to see if this is a collection
+			else if (value instanceof Collection)
+			{
+				// a sorted set would lose its comparator
+				boolean ordered = value instanceof SortedSet && null != ((SortedSet<?>) value).comparator();
+				MethodHandle constructor = ordered ? null : findPublicConstructor(clazz);
+				return null != constructor ? new CollectionNode(constructor) : null;
+			}
+			// check to see if this is a map
+			else if (value instanceof Map)
+			{
+				// a sorted map would lose its comparator
+				boolean ordered = value instanceof SortedMap && null != ((SortedMap<?, ?>) value).comparator();
+				MethodHandle constructor = ordered ? null : findPublicConstructor(clazz);
+				return null != constructor ? new MapNode(constructor) : null;
+			}
+			// check to see if this object is shared in the same way as with a generated bean
+			else if (value instanceof Enum || value instanceof Class || Proxy.isProxyClass(clazz)
+				|| clazz.getName().startsWith("java.") || configuration.getDefaultValues().containsKey(clazz)
+				|| (!nodes.isEmpty() && configuration.useCache(clazz)))
+			{
+				return null;
+			}
+			else
+			{
+				// compile the plan of this bean if it does not exist yet
+				BeanPlan beanPlan = beanPlanCache.getPlan(value);
+				
+				// retrieve the constructor unless the plan can allocate the bean itself
+				MethodHandle constructor = beanPlan.canInstantiate() ? null : findConstructor(clazz);
+				return beanPlan.canInstantiate() || null != constructor ? new BeanNode(beanPlan, constructor) : null;
+			}
+		}
+		
+		/**
+		 * Assigns the source of a value to an index
+		 * 
+		 * @param sources
+		 * @param index
+		 * @param value
+		 */
+		private void source(final Sources sources, final int index, final Object value)
+		{
+			sources.references[index] = reference(value);
+			sources.constants[index] = sources.references[index] < 0 ? value : null;
+		}
+		
+		/**
+		 * Finds the public no argument constructor of a collection or map
+		 * 
+		 * @param clazz
+		 * @return the constructor or null if it does not exist
+		 */
+		private static MethodHandle findPublicConstructor(final Class<?> clazz)
+		{
+			try
+			{
+				return MethodHandles.publicLookup().findConstructor(clazz, MethodType.methodType(void.class)).asType(
+					CONSTRUCTOR_TYPE);
+			}
+			catch (NoSuchMethodException e)
+			{
+				return null;
+			}
+			catch (IllegalAccessException e)
+			{
+				return null;
+			}
+		}
+		
+		/**
+		 * Finds the no argument constructor of a bean
+		 * 
+		 * @param clazz
+		 * @return the constructor or null if it does not exist or is not accessible
+		 */
+		private static MethodHandle findConstructor(final Class<?> clazz)
+		{
+			try
+			{
+				Constructor<?> constructor = clazz.getDeclaredConstructor();
+				constructor.setAccessible(true);
+				return MethodHandles.lookup().unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+			}
+			catch (NoSuchMethodException e)
+			{
+				return null;
+			}
+			catch (IllegalAccessException e)
+			{
+				return null;
+			}
+			catch (RuntimeException e)
+			{
+				// the constructor belongs to a module that does not allow access
+				return null;
+			}
+		}
+	}
+	
+	/**
+	 * Holds the value of each element of a copied object as either a shared constant or the index
+	 * of another copied object
+	 * 
+	 * @author Greg Marut
+	 */
+	private static final class Sources
+	{
+		private final Object[] constants;
+		private final int[] references;
+		
+		private Sources(final int size)
+		{
+			this.constants = new Object[size];
+			this.references = new int[size];
+		}
+	}
+	
+	/**
+	 * Allocates and fills the copy of one object of the prototype
+	 * 
+	 * @author Greg Marut
+	 */
+	private abstract static class Node
+	{
+		/**
+		 * Walks the prototype of this node. This is called exactly once before the copier is
+		 * published.
+		 * 
+		 * @param compiler
+		 * @param prototype
+		 * @param index
+		 *        the index of this node
+		 * @throws IllegalAccessException
+		 */
+		abstract void compile(Compiler compiler, Object prototype, int index) throws IllegalAccessException;
+		
+		/**
+		 * Allocates a new copy. The objects of lower indexes have already been allocated.
+		 * 
+		 * @param objects
+		 * @return Object
+		 * @throws IllegalAccessException
+		 */
+		abstract Object allocate(Object[] objects) throws IllegalAccessException;
+		
+		/**
+		 * Fills a copy once every object has been allocated
+		 * 
+		 * @param target
+		 * @param objects
+		 * @throws IllegalAccessException
+		 */
+		abstract void fill(Object target, Object[] objects) throws IllegalAccessException;
+	}
+	
+	/**
+	 * Copies a bean field by field using its compiled plan
+	 * 
+	 * @author Greg Marut
+	 */
+	private static final class BeanNode extends Node
+	{
+		private final BeanPlan beanPlan;
+		private final MethodHandle constructor;
+		
+		// holds the plans of the fields that are written and their values
+		private FieldPlan[] fieldPlans;
+		private Sources sources;
+		
+		private BeanNode(final BeanPlan beanPlan, final MethodHandle constructor)
+		{
+			this.beanPlan = beanPlan;
+			this.constructor = constructor;
+		}
+		
+		@Override
+		void compile(final Compiler compiler, final Object prototype, final int index) throws IllegalAccessException
+		{
+			List<FieldPlan> writable = new ArrayList<FieldPlan>();
+			for (FieldPlan fieldPlan : beanPlan.getFieldPlans())
+			{
+				// final collections are created by the constructor of the copy and filled in place
+				if (fieldPlan.getValueSource() == ValueSource.EXISTING_COLLECTION)
+				{
+					Object collection = fieldPlan.read(prototype);
+					if (null != collection && !compiler.indexes.containsKey(collection))
+					{
+						compiler.add(collection, new ExistingCollectionNode(index, fieldPlan));
+					}
+				}
+				else
+				{
+					writable.add(fieldPlan);
+				}
+			}
+			
+			fieldPlans = writable.toArray(new FieldPlan[writable.size()]);
+			sources = new Sources(fieldPlans.length);
+			for (int i = 0; i < fieldPlans.length; i++)
+			{
+				compiler.source(sources, i, fieldPlans[i].read(prototype));
+			}
+		}
+		
+		@Override
+		Object allocate(final Object[] objects)
+		{
+			return null == constructor ? beanPlan.newInstance() : newInstance(constructor);
+		}
+		
+		@Override
+		void fill(final Object target, final Object[] objects) throws IllegalAccessException
+		{
+			for (int i = 0; i < fieldPlans.length; i++)
+			{
+				fieldPlans[i].write(target, resolve(sources, i, objects));
+			}
+		}
+	}
+	
+	/**
+	 * Copies a collection element by element
+	 * 
+	 * @author Greg Marut
+	 */
+	private static class CollectionNode extends Node
+	{
+		private final MethodHandle constructor;
+		
+		// holds the values of the elements in the order of iteration
+		private Sources sources;
+		
+		private CollectionNode(final MethodHandle constructor)
+		{
+			this.constructor = constructor;
+		}
+		
+		@Override
+		final void compile(final Compiler compiler, final Object prototype, final int index)
+		{
+			Collection<?> collection = (Collection<?>) prototype;
+			sources = new Sources(collection.size());
+			
+			int i = 0;
+			for (Object element : collection)
+			{
+				compiler.source(sources, i++, element);
+			}
+		}
+		
+		@Override
+		Object allocate(final Object[] objects) throws IllegalAccessException
+		{
+			return newInstance(constructor);
+		}
+		
+		@Override
+		@SuppressWarnings("unchecked")
+		final void fill(final Object target, final Object[] objects)
+		{
+			Collection<Object> collection = (Collection<Object>) target;
+			for (int i = 0; i < sources.references.length; i++)
+			{
+				collection.add(resolve(sources, i, objects));
+			}
+		}
+	}
+	
+	/**
+	 * Fills the collection that the constructor of a copied bean assigned to a final field
+	 * 
+	 * @author Greg Marut
+	 */
+	private static final class ExistingCollectionNode extends CollectionNode
+	{
+		// holds the index of the bean that declares the field
+		private final int owner;
+		private final FieldPlan fieldPlan;
+		
+		private ExistingCollectionNode(final int owner, final FieldPlan fieldPlan)
+		{
+			super(null);
+			this.owner = owner;
+			this.fieldPlan = fieldPlan;
+		}
+		
+		@Override
+		Object allocate(final Object[] objects) throws IllegalAccessException
+		{
+			// the bean that declares the field is always allocated first
+			Collection<?> collection = (Collection<?>) fieldPlan.read(objects[owner]);
+			collection.clear();
+			return collection;
+		}
+	}
+	
+	/**
+	 * Copies a map entry by entry
+	 * 
+	 * @author Greg Marut
+	 */
+	private static final class MapNode extends Node
+	{
+		private final MethodHandle constructor;
+		
+		// holds the keys and values in the order of iteration
+		private Sources keys;
+		private Sources values;
+		
+		private MapNode(final MethodHandle constructor)
+		{
+			this.constructor = constructor;
+		}
+		
+		@Override
+		void compile(final Compiler compiler, final Object prototype, final int index)
+		{
+			Map<?, ?> map = (Map<?, ?>) prototype;
+			keys = new Sources(map.size());
+			values = new Sources(map.size());
+			
+			int i = 0;
+			for (Map.Entry<?, ?> entry : map.entrySet())
+			{
+				compiler.source(keys, i, entry.getKey());
+				compiler.source(values, i++, entry.getValue());
+			}
+		}
+		
+		@Override
+		Object allocate(final Object[] objects)
+		{
+			return newInstance(constructor);
+		}
+		
+		@Override
+		@SuppressWarnings("unchecked")
+		void fill(final Object target, final Object[] objects)
+		{
+			Map<Object, Object> map = (Map<Object, Object>) target;
+			for (int i = 0; i < keys.references.length; i++)
+			{
+				map.put(resolve(keys, i, objects), resolve(values, i, objects));
+			}
+		}
+	}
+	
+	/**
+	 * Copies an array. Primitive elements and shared values are copied with the array while
+	 * references to copied objects are assigned afterwards.
+	 * 
+	 * @author Greg Marut
+	 */
+	private static final class ArrayNode extends Node
+	{
+		private final Class<?> componentType;
+		private final int length;
+		
+		// holds the prototype of the array and the values of its elements
+		private Object prototype;
+		private Sources sources;
+		
+		private ArrayNode(final Class<?> componentType, final int length)
+		{
+			this.componentType = componentType;
+			this.length = length;
+		}
+		
+		@Override
+		void compile(final Compiler compiler, final Object prototype, final int index)
+		{
+			this.prototype = prototype;
+			
+			// the elements of primitive arrays are always copied as they are
+			if (!componentType.isPrimitive())
+			{
+				Object[] array = (Object[]) prototype;
+				sources = new Sources(length);
+				for (int i = 0; i < length; i++)
+				{
+					compiler.source(sources, i, array[i]);
+				}
+			}
+		}
+		
+		@Override
+		Object allocate(final Object[] objects)
+		{
+			Object array = Array.newInstance(componentType, length);
+			System.arraycopy(prototype, 0, array, 0, length);
+			return array;
+		}
+		
+		@Override
+		void fill(final Object target, final Object[] objects)
+		{
+			// check to see if any of the elements reference other objects
+			if (null != sources)
+			{
+				Object[] array = (Object[]) target;
+				for (int i = 0; i < length; i++)
+				{
+					if (sources.references[i] >= 0)
+					{
+						array[i] = objects[sources.references[i]];
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.populator;
+
+/**
+ * Allocates a bean and writes its fields without reflection. Implementations are generated at
+ * compile time for classes annotated with {@link GenerateBean}. The populator only stores values;
+ * the values themselves are still resolved from the default values, interface mapper and rule
+ * mapping of the configuration so that the generated populators honor exactly the same semantics as
+ * reflection.
+ * 
+ * @author Greg Marut
+ * @param <T>
+ */
+public interface BeanPopulator<T>
+{
+	/**
+	 * Returns the class of the bean that this populator handles
+	 * 
+	 * @return Class
+	 */
+	Class<T> getType();
+	
+	/**
+	 * Determines if this populator can allocate new instances of the bean
+	 * 
+	 * @return false if the bean is abstract or has no accessible no argument constructor
+	 */
+	boolean canInstantiate();
+	
+	/**
+	 * Allocates a new instance of the bean
+	 * 
+	 * @return T
+	 * @throws UnsupportedOperationException
+	 *         if the bean cannot be allocated, see {@link #canInstantiate()}
+	 */
+	T newInstance();
+	
+	/**
+	 * Returns the index used to write a field with {@link #write(Object, int, Object)}
+	 * 
+	 * @param declaringClass
+	 *        the class that declares the field
+	 * @param fieldName
+	 *        the name of the field
+	 * @return the index of the field or -1 if this populator cannot write the field
+	 */
+	int indexOf(Class<?> declaringClass, String fieldName);
+	
+	/**
+	 * Writes a value to a field of the bean
+	 * 
+	 * @param bean
+	 * @param index
+	 *        the index returned by {@link #indexOf(Class, String)}
+	 * @param value
+	 */
+	void write(T bean, int index, Object value);
+}
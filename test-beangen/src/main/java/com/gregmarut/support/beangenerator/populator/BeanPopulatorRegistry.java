@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.populator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.WeakHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Discovers the {@link BeanPopulator}s that were generated at compile time. Populators are
+ * registered through the {@link ServiceLoader} provider files of the class loader that defines a
+ * bean. The provider files of each class loader are read once into an index of populated class
+ * names, and a populator is only instantiated when its bean class is first looked up. Neither the
+ * index nor the populators keep the classes or their class loaders from being unloaded.
+ * 
+ * @author Greg Marut
+ */
+public final class BeanPopulatorRegistry
+{
+	// ** Objects **//
+	// instantiate the logger
+	private static final Logger logger = LoggerFactory.getLogger(BeanPopulatorRegistry.class);
+	
+	// holds the provider file of the generated populators
+	private static final String SERVICE_FILE = "META-INF/services/" + BeanPopulator.class.getName();
+	
+	// holds the names of the populators of each class loader keyed by the names of their classes
+	private static final Map<ClassLoader, Map<String, String>> indexes =
+		new WeakHashMap<ClassLoader, Map<String, String>>();
+	
+	// holds the populator that was discovered for each class or null if there is none
+	private static final ClassValue<BeanPopulator<?>> populators = new ClassValue<BeanPopulator<?>>()
+	{
+		@Override
+		protected BeanPopulator<?> computeValue(final Class<?> type)
+		{
+			return load(type);
+		}
+	};
+	
+	private BeanPopulatorRegistry()
+	{
+		
+	}
+	
+	/**
+	 * Returns the generated populator for a class
+	 * 
+	 * @param clazz
+	 * @return the populator or null if none was generated for this class
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> BeanPopulator<T> find(final Class<T> clazz)
+	{
+		return (BeanPopulator<T>) populators.get(clazz);
+	}
+	
+	/**
+	 * Finds the registered populator of a class. Only the populator whose type argument is the
+	 * class is instantiated.
+	 * 
+	 * @param clazz
+	 * @return the populator or null if none was generated for this class
+	 */
+	private static BeanPopulator<?> load(final Class<?> clazz)
+	{
+		// classes of the bootstrap class loader never have generated populators
+		ClassLoader classLoader = clazz.getClassLoader();
+		if (null == classLoader)
+		{
+			return null;
+		}
+		
+		// look up the populator that was registered for this class
+		String populatorName = getIndex(classLoader).get(clazz.getName());
+		if (null == populatorName)
+		{
+			return null;
+		}
+		
+		try
+		{
+			Class<?> populatorClass = Class.forName(populatorName, true, classLoader);
+			BeanPopulator<?> populator = (BeanPopulator<?>) populatorClass.getDeclaredConstructor().newInstance();
+			logger.debug("Registering generated populator {}", populatorName);
+			return populator;
+		}
+		catch (ReflectiveOperationException e)
+		{
+			logger.warn("Could not instantiate the generated populator " + populatorName, e);
+		}
+		catch (LinkageError e)
+		{
+			logger.warn("Could not instantiate the generated populator " + populatorName, e);
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Returns the index of the populators that are registered with a class loader. The index is
+	 * built the first time the class loader is used.
+	 * 
+	 * @param classLoader
+	 * @return the names of the populators keyed by the names of the classes they populate
+	 */
+	private static Map<String, String> getIndex(final ClassLoader classLoader)
+	{
+		synchronized (indexes)
+		{
+			Map<String, String> index = indexes.get(classLoader);
+			if (null == index)
+			{
+				index = buildIndex(classLoader);
+				indexes.put(classLoader, index);
+			}
+			
+			return index;
+		}
+	}
+	
+	/**
+	 * Reads the provider files of a class loader. The populator classes are loaded without being
+	 * initialized in order to determine the classes they populate.
+	 * 
+	 * @param classLoader
+	 * @return the names of the populators keyed by the names of the classes they populate
+	 */
+	private static Map<String, String> buildIndex(final ClassLoader classLoader)
+	{
+		// holds the index that is being built
+		Map<String, String> index = new HashMap<String, String>();
+		
+		try
+		{
+			Enumeration<URL> serviceFiles = classLoader.getResources(SERVICE_FILE);
+			while (serviceFiles.hasMoreElements())
+			{
+				for (String populatorName : readServiceFile(serviceFiles.nextElement()))
+				{
+					try
+					{
+						Type type = getPopulatedType(Class.forName(populatorName, false, classLoader));
+						if (type instanceof Class && !index.containsKey(((Class<?>) type).getName()))
+						{
+							index.put(((Class<?>) type).getName(), populatorName);
+						}
+					}
+					catch (ClassNotFoundException e)
+					{
+						logger.warn("Could not load the generated populator " + populatorName, e);
+					}
+					catch (LinkageError e)
+					{
+						logger.warn("Could not load the generated populator " + populatorName, e);
+					}
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			logger.warn("Could not read the generated bean populators", e);
+		}
+		
+		return index.isEmpty() ? Collections.<String, String> emptyMap() : index;
+	}
+	
+	/**
+	 * Reads the class names that are listed in a provider file
+	 * 
+	 * @param serviceFile
+	 * @return the class names in the order they are listed
+	 * @throws IOException
+	 */
+	private static List<String> readServiceFile(final URL serviceFile) throws IOException
+	{
+		// holds the names that were read
+		List<String> names = new ArrayList<String>();
+		
+		BufferedReader reader =
+			new BufferedReader(new InputStreamReader(serviceFile.openStream(), StandardCharsets.UTF_8));
+		try
+		{
+			String line;
+			while (null != (line = reader.readLine()))
+			{
+				// strip the comments of the line
+				int comment = line.indexOf('#');
+				if (comment >= 0)
+				{
+					line = line.substring(0, comment);
+				}
+				
+				line = line.trim();
+				if (!line.isEmpty())
+				{
+					names.add(line);
+				}
+			}
+		}
+		finally
+		{
+			reader.close();
+		}
+		
+		return names;
+	}
+	
+	/**
+	 * Returns the type argument of the {@link BeanPopulator} interface of a populator class
+	 * 
+	 * @param populatorClass
+	 * @return the populated type or null if it cannot be determined
+	 */
+	private static Type getPopulatedType(final Class<?> populatorClass)
+	{
+		for (Type type : populatorClass.getGenericInterfaces())
+		{
+			if (type instanceof ParameterizedType && BeanPopulator.class.equals(((ParameterizedType) type).getRawType()))
+			{
+				return ((ParameterizedType) type).getActualTypeArguments()[0];
+			}
+		}
+		
+		return null;
+	}
+}
@@ -90,9 +90,25 @@ public class Rule<V> implements Condition
 		return value;
 	}
 	
+	/**
+	 * Returns the condition that determines if this rule matches a field
+	 * 
+	 * @return Condition
+	 */
+	public Condition getCondition()
+	{
+		return condition;
+	}
+	
 	@Override
 	public boolean isTrue(final Field field, final Object declaringObject)
 	{
 		return condition.isTrue(field, declaringObject);
 	}
+	
+	@Override
+	public boolean isCacheable()
+	{
+		return condition.isCacheable();
+	}
 }
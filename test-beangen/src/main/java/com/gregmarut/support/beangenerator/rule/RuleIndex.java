@@ -0,0 +1,429 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.rule;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.gregmarut.support.beangenerator.rule.condition.AndCondition;
+import com.gregmarut.support.beangenerator.rule.condition.Condition;
+import com.gregmarut.support.beangenerator.rule.condition.DeclaringAnyClassCondition;
+import com.gregmarut.support.beangenerator.rule.condition.DeclaringClassCondition;
+import com.gregmarut.support.beangenerator.rule.condition.FieldNameEndsWithCondition;
+import com.gregmarut.support.beangenerator.rule.condition.FieldNameMatchesCondition;
+import com.gregmarut.support.beangenerator.rule.condition.FieldNameStartsWithCondition;
+import com.gregmarut.support.beangenerator.rule.condition.OrCondition;
+
+/**
+ * An immutable index over the rules of one type. Every rule is filed under a key that any
+ * matching field must have: its exact name, a prefix or suffix of its name, or its declaring
+ * class. A lookup only evaluates the rules filed under the keys of the field, plus the rules whose
+ * conditions are opaque and must always be scanned. As with a linear scan, the rule that was
+ * added last wins.
+ * 
+ * @author Greg Marut
+ */
+final class RuleIndex
+{
+	// holds the rules in the order they were added
+	private final Rule<?>[] rules;
+	
+	// holds the deque of rules that is exposed by the rule mapping
+	private final Deque<Rule<?>> deque;
+	
+	// holds the positions of the rules keyed by the exact field name
+	private final Map<String, int[]> exactNames;
+	
+	// holds the positions of the rules keyed by the prefix of the field name
+	private final Trie prefixes;
+	
+	// holds the positions of the rules keyed by the reversed suffix of the field name
+	private final Trie suffixes;
+	
+	// holds the positions of the rules keyed by the class that declares the field
+	private final Map<Class<?>, int[]> declaringClasses;
+	
+	// holds the positions of the rules keyed by the class of the declaring object
+	private final Map<Class<?>, int[]> declaringObjectClasses;
+	
+	// holds the positions of the rules that must always be evaluated
+	private final int[] opaque;
+	
+	// determines if every rule can be resolved ahead of time
+	private final boolean cacheable;
+	
+	/**
+	 * Builds the index for the given rules
+	 * 
+	 * @param rules
+	 *        the rules in the order they were added
+	 */
+	RuleIndex(final Deque<Rule<?>> rules)
+	{
+		this.deque = rules;
+		this.rules = rules.toArray(new Rule<?>[rules.size()]);
+		
+		// holds the positions while the index is being built
+		Map<String, List<Integer>> exactNames = new HashMap<String, List<Integer>>();
+		Map<Class<?>, List<Integer>> declaringClasses = new HashMap<Class<?>, List<Integer>>();
+		Map<Class<?>, List<Integer>> declaringObjectClasses = new HashMap<Class<?>, List<Integer>>();
+		List<Integer> opaque = new ArrayList<Integer>();
+		this.prefixes = new Trie();
+		this.suffixes = new Trie();
+		
+		boolean cacheable = true;
+		
+		// for each of the rules
+		for (int i = 0; i < this.rules.length; i++)
+		{
+			cacheable &= this.rules[i].isCacheable();
+			
+			// determine the keys that this rule is filed under
+			List<Key> keys = keysOf(this.rules[i].getCondition());
+			if (null == keys)
+			{
+				opaque.add(i);
+			}
+			else
+			{
+				for (Key key : keys)
+				{
+					switch (key.kind)
+					{
+						case EXACT_NAME:
+							add(exactNames, (String) key.value, i);
+							break;
+						case PREFIX:
+							prefixes.add((String) key.value, i);
+							break;
+						case SUFFIX:
+							suffixes.add(reverse((String) key.value), i);
+							break;
+						case DECLARING_CLASS:
+							add(declaringClasses, (Class<?>) key.value, i);
+							break;
+						default:
+							add(declaringObjectClasses, (Class<?>) key.value, i);
+							break;
+					}
+				}
+			}
+		}
+		
+		this.exactNames = freeze(exactNames);
+		this.declaringClasses = freeze(declaringClasses);
+		this.declaringObjectClasses = freeze(declaringObjectClasses);
+		this.opaque = toArray(opaque);
+		this.cacheable = cacheable;
+	}
+	
+	/**
+	 * Returns the rules in the order they were added
+	 * 
+	 * @return Deque
+	 */
+	Deque<Rule<?>> getRules()
+	{
+		return deque;
+	}
+	
+	/**
+	 * Determines if every rule in this index can be resolved ahead of time
+	 * 
+	 * @return boolean
+	 */
+	boolean isCacheable()
+	{
+		return cacheable;
+	}
+	
+	/**
+	 * Finds the rule that was added last among the rules that match the field
+	 * 
+	 * @param field
+	 * @param declaringObject
+	 * @return the matching rule or null if no rule matches
+	 */
+	Rule<?> find(final Field field, final Object declaringObject)
+	{
+		// holds the position of the best match
+		int best = -1;
+		
+		String name = field.getName();
+		best = evaluate(exactNames.get(name), best, field, declaringObject);
+		best = evaluate(declaringClasses.get(field.getDeclaringClass()), best, field, declaringObject);
+		if (null != declaringObject)
+		{
+			best = evaluate(declaringObjectClasses.get(declaringObject.getClass()), best, field, declaringObject);
+		}
+		
+		// walk the prefixes of the name
+		Trie.Node node = prefixes.root;
+		for (int i = 0; null != node; i++)
+		{
+			best = evaluate(node.positions, best, field, declaringObject);
+			node = i < name.length() ? node.child(name.charAt(i)) : null;
+		}
+		
+		// walk the suffixes of the name from the end
+		node = suffixes.root;
+		for (int i = name.length() - 1; null != node; i--)
+		{
+			best = evaluate(node.positions, best, field, declaringObject);
+			node = i >= 0 ? node.child(name.charAt(i)) : null;
+		}
+		
+		best = evaluate(opaque, best, field, declaringObject);
+		return best >= 0 ? rules[best] : null;
+	}
+	
+	/**
+	 * Evaluates the candidate rules that were added after the current best match, starting with
+	 * the most recent one
+	 * 
+	 * @param positions
+	 *        the positions of the candidates in ascending order
+	 * @param best
+	 *        the position of the current best match
+	 * @param field
+	 * @param declaringObject
+	 * @return the position of the new best match
+	 */
+	private int evaluate(final int[] positions, final int best, final Field field, final Object declaringObject)
+	{
+		if (null != positions)
+		{
+			for (int i = positions.length - 1; i >= 0 && positions[i] > best; i--)
+			{
+				// the keys only narrow down the candidates so the full condition must still be true
+				if (rules[positions[i]].isTrue(field, declaringObject))
+				{
+					return positions[i];
+				}
+			}
+		}
+		
+		return best;
+	}
+	
+	/**
+	 * Determines the keys that a field must have for the condition to be true
+	 * 
+	 * @param condition
+	 * @return the keys of which at least one must match, or null if the condition is opaque
+	 */
+	private static List<Key> keysOf(final Condition condition)
+	{
+		// only the built in conditions are indexed since subclasses may change their behavior
+		Class<?> type = condition.getClass();
+		if (type == Rule.class)
+		{
+			return keysOf(((Rule<?>) condition).getCondition());
+		}
+		else if (type == FieldNameMatchesCondition.class)
+		{
+			return single(KeyKind.EXACT_NAME, ((FieldNameMatchesCondition) condition).getPattern());
+		}
+		else if (type == FieldNameStartsWithCondition.class)
+		{
+			return single(KeyKind.PREFIX, ((FieldNameStartsWithCondition) condition).getPattern());
+		}
+		else if (type == FieldNameEndsWithCondition.class)
+		{
+			return single(KeyKind.SUFFIX, ((FieldNameEndsWithCondition) condition).getPattern());
+		}
+		else if (type == DeclaringClassCondition.class)
+		{
+			return single(KeyKind.DECLARING_CLASS, ((DeclaringClassCondition) condition).getDeclaringClass());
+		}
+		else if (type == DeclaringAnyClassCondition.class)
+		{
+			return single(KeyKind.DECLARING_OBJECT_CLASS,
+				((DeclaringAnyClassCondition) condition).getDeclaringClass());
+		}
+		else if (type == AndCondition.class)
+		{
+			// every nested condition must be true so the most selective one is enough
+			List<Key> best = null;
+			for (Condition nested : ((AndCondition) condition).getConditions())
+			{
+				List<Key> keys = keysOf(nested);
+				if (null != keys && (null == best || rank(keys) < rank(best)))
+				{
+					best = keys;
+				}
+			}
+			
+			return best;
+		}
+		else if (type == OrCondition.class)
+		{
+			// any nested condition may be true so the rule is filed under all of their keys
+			List<Key> all = new ArrayList<Key>();
+			for (Condition nested : ((OrCondition) condition).getConditions())
+			{
+				List<Key> keys = keysOf(nested);
+				if (null == keys)
+				{
+					return null;
+				}
+				
+				all.addAll(keys);
+			}
+			
+			return all;
+		}
+		else
+		{
+			return null;
+		}
+	}
+	
+	/**
+	 * Ranks a set of keys by how many fields they are expected to match, lower is better
+	 * 
+	 * @param keys
+	 * @return int
+	 */
+	private static int rank(final List<Key> keys)
+	{
+		int rank = 0;
+		for (Key key : keys)
+		{
+			rank = Math.max(rank, key.kind.ordinal());
+		}
+		
+		return rank * 1024 + keys.size();
+	}
+	
+	private static List<Key> single(final KeyKind kind, final Object value)
+	{
+		List<Key> keys = new ArrayList<Key>(1);
+		keys.add(new Key(kind, value));
+		return keys;
+	}
+	
+	private static <K> void add(final Map<K, List<Integer>> map, final K key, final int position)
+	{
+		List<Integer> positions = map.get(key);
+		if (null == positions)
+		{
+			positions = new ArrayList<Integer>();
+			map.put(key, positions);
+		}
+		
+		positions.add(position);
+	}
+	
+	private static <K> Map<K, int[]> freeze(final Map<K, List<Integer>> map)
+	{
+		Map<K, int[]> frozen = new HashMap<K, int[]>();
+		for (Map.Entry<K, List<Integer>> entry : map.entrySet())
+		{
+			frozen.put(entry.getKey(), toArray(entry.getValue()));
+		}
+		
+		return frozen;
+	}
+	
+	private static int[] toArray(final List<Integer> list)
+	{
+		int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++)
+		{
+			array[i] = list.get(i);
+		}
+		
+		return array;
+	}
+	
+	private static String reverse(final String value)
+	{
+		return new StringBuilder(value).reverse().toString();
+	}
+	
+	/**
+	 * Describes what part of a field a key is compared against. The order is the expected
+	 * selectivity, most selective first.
+	 */
+	private enum KeyKind
+	{
+		EXACT_NAME, PREFIX, SUFFIX, DECLARING_CLASS, DECLARING_OBJECT_CLASS
+	}
+	
+	/**
+	 * A key that a rule is filed under
+	 */
+	private static final class Key
+	{
+		private final KeyKind kind;
+		private final Object value;
+		
+		private Key(final KeyKind kind, final Object value)
+		{
+			this.kind = kind;
+			this.value = value;
+		}
+	}
+	
+	/**
+	 * A character trie whose nodes hold the positions of the rules filed under the string leading
+	 * to that node
+	 */
+	private static final class Trie
+	{
+		private final Node root = new Node();
+		
+		private void add(final String key, final int position)
+		{
+			Node node = root;
+			for (int i = 0; i < key.length(); i++)
+			{
+				Node child = node.child(key.charAt(i));
+				if (null == child)
+				{
+					child = new Node();
+					if (null == node.children)
+					{
+						node.children = new HashMap<Character, Node>();
+					}
+					
+					node.children.put(key.charAt(i), child);
+				}
+				
+				node = child;
+			}
+			
+			// positions are added in ascending order
+			int[] positions = null == node.positions ? new int[1] : Arrays.copyOf(node.positions, node.positions.length + 1);
+			positions[positions.length - 1] = position;
+			node.positions = positions;
+		}
+		
+		private static final class Node
+		{
+			private Map<Character, Node> children;
+			private int[] positions;
+			
+			private Node child(final char c)
+			{
+				return null == children ? null : children.get(c);
+			}
+		}
+	}
+}
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.rule;
+
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A class that contains a map of rules grouped by the type of parameter. Each rule is created and grouped against one
+ * specific type of parameter. These rules are used to handle specific cases for setter methods that match the rule
+ * pattern and parameter type. Whenever these methods are discovered during bean initialization, their values are
+ * substituted with the value declared in the rule.
+ * <p>
+ * The rules of each type are held in copy-on-write snapshots so that lookups never take locks and
+ * may run concurrently with rules being added or removed on other threads. Each snapshot is
+ * indexed by the field names and declaring classes that its conditions require, so finding the
+ * matching rule does not need to evaluate every rule.
+ * 
+ * @author Greg Marut
+ */
+public class RuleMapping
+{
+	// holds the indexed rules for a specific type of class variable
+	private final Map<Class<?>, RuleIndex> ruleMap;
+	
+	// holds the number of times this rule mapping has been modified
+	private volatile int modificationCount;
+	
+	/**
+	 * Constructs a new RuleMapping object
+	 */
+	public RuleMapping()
+	{
+		// instantiate the rule map
+		ruleMap = new ConcurrentHashMap<Class<?>, RuleIndex>();
+	}
+	
+	/**
+	 * Returns the list of rules based on the class type. The returned deque is a copy, so modifying
+	 * it does not change the rules of this mapping.
+	 * 
+	 * @param clazz
+	 * @return Deque
+	 */
+	public Deque<Rule<?>> get(final Class<?> clazz)
+	{
+		Deque<Rule<?>> rules = getSnapshot(clazz);
+		return null != rules ? new ArrayDeque<Rule<?>>(rules) : null;
+	}
+	
+	/**
+	 * Returns the current snapshot of the rules of a type, which is shared with every reader and
+	 * must not be modified
+	 * 
+	 * @param clazz
+	 * @return Deque
+	 */
+	private Deque<Rule<?>> getSnapshot(final Class<?> clazz)
+	{
+		// the concurrent map does not permit null keys
+		if (null == clazz)
+		{
+			return null;
+		}
+		
+		// retrieve the indexed rules for this type
+		RuleIndex ruleIndex = ruleMap.get(clazz);
+		return null != ruleIndex ? ruleIndex.getRules() : null;
+	}
+	
+	/**
+	 * Finds the rule for a field. If several rules match, the rule that was added last wins.
+	 * 
+	 * @param clazz
+	 *        the non primitive type of the field
+	 * @param field
+	 * @param declaringObject
+	 *        the object that is declaring the field
+	 * @return the matching rule or null if no rule matches
+	 */
+	public Rule<?> findMatchingRule(final Class<?> clazz, final Field field, final Object declaringObject)
+	{
+		// the concurrent map does not permit null keys
+		if (null == clazz)
+		{
+			return null;
+		}
+		
+		// retrieve the indexed rules for this type
+		RuleIndex ruleIndex = ruleMap.get(clazz);
+		return null != ruleIndex ? ruleIndex.find(field, declaringObject) : null;
+	}
+	
+	/**
+	 * Determines if every rule for a type can be resolved ahead of time
+	 * 
+	 * @param clazz
+	 * @return boolean
+	 * @see Rule#isCacheable()
+	 */
+	public boolean isCacheable(final Class<?> clazz)
+	{
+		// retrieve the indexed rules for this type
+		RuleIndex ruleIndex = null != clazz ? ruleMap.get(clazz) : null;
+		return null == ruleIndex || ruleIndex.isCacheable();
+	}
+	
+	/**
+	 * Returns a read only view of the types that have rules
+	 * 
+	 * @return Set
+	 */
+	public Set<Class<?>> getTypes()
+	{
+		return Collections.unmodifiableSet(ruleMap.keySet());
+	}
+	
+	/**
+	 * Adds a new rule
+	 * 
+	 * @param rule
+	 */
+	public synchronized void add(final Rule<?> rule)
+	{
+		// fetch the list from the map of rules
+		Deque<Rule<?>> rules = getSnapshot(rule.getReturnType());
+		
+		// make sure the rule does not already exist
+		if (null == rules || !rules.contains(rule))
+		{
+			// copy the current rules so that readers never observe a partially updated list
+			Deque<Rule<?>> updated = null == rules ? new ArrayDeque<Rule<?>>() : new ArrayDeque<Rule<?>>(rules);
+			updated.add(rule);
+			
+			// index and publish the new list of rules
+			ruleMap.put(rule.getReturnType(), new RuleIndex(updated));
+			modificationCount++;
+		}
+	}
+	
+	/**
+	 * Determines if rules exist for a specific parameter type
+	 * 
+	 * @param clazz
+	 * @return
+	 */
+	public boolean contains(final Class<?> clazz)
+	{
+		return null != clazz && ruleMap.containsKey(clazz);
+	}
+	
+	/**
+	 * Removes a list of rules from the map based on the class
+	 * 
+	 * @param clazz
+	 */
+	public synchronized void remove(final Class<?> clazz)
+	{
+		ruleMap.remove(clazz);
+		modificationCount++;
+	}
+	
+	/**
+	 * Returns the number of times rules have been added or removed. This allows anything derived
+	 * from these rules to detect when it has become stale.
+	 * 
+	 * @return int
+	 */
+	public int getModificationCount()
+	{
+		return modificationCount;
+	}
+}
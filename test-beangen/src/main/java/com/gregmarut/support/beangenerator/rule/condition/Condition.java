@@ -26,4 +26,17 @@ public interface Condition
 	 * @return
 	 */
 	boolean isTrue(final Field field, final Object declaringObject);
+	
+	/**
+	 * Determines if the outcome of this condition depends solely on the field and the class of the
+	 * declaring object. Conditions that return true here are evaluated once per class and the
+	 * result is reused for every object of that class. Custom conditions that inspect the state of
+	 * the declaring object must return false.
+	 * 
+	 * @return
+	 */
+	default boolean isCacheable()
+	{
+		return false;
+	}
 }
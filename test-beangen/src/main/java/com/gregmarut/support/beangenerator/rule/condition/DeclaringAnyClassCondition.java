@@ -29,9 +29,25 @@ public class DeclaringAnyClassCondition implements Condition
 		this.declaringClass = declaringClass;
 	}
 	
+	/**
+	 * Returns the class that must declare the field
+	 * 
+	 * @return Class
+	 */
+	public Class<?> getDeclaringClass()
+	{
+		return declaringClass;
+	}
+	
 	@Override
 	public boolean isTrue(final Field field, final Object declaringObject)
 	{
 		return declaringObject.getClass().equals(declaringClass);
 	}
+	
+	@Override
+	public boolean isCacheable()
+	{
+		return true;
+	}
 }
@@ -28,9 +28,25 @@ public class DeclaringClassCondition implements Condition
 		this.declaringClass = declaringClass;
 	}
 	
+	/**
+	 * Returns the class that must declare the field
+	 * 
+	 * @return Class
+	 */
+	public Class<?> getDeclaringClass()
+	{
+		return declaringClass;
+	}
+	
 	@Override
 	public boolean isTrue(final Field field, final Object declaringObject)
 	{
 		return field.getDeclaringClass().equals(declaringClass);
 	}
+	
+	@Override
+	public boolean isCacheable()
+	{
+		return true;
+	}
 }
@@ -21,7 +21,6 @@ public abstract class FieldNameCondition implements Condition
 	 * Creates a new simple Rule to check the pattern against the field name
 	 * 
 	 * @param pattern
-	 * @param value
 	 */
 	public FieldNameCondition(final String pattern)
 	{
@@ -35,4 +34,14 @@ public abstract class FieldNameCondition implements Condition
 			throw new IllegalArgumentException("pattern cannot be null.");
 		}
 	}
+	
+	/**
+	 * Returns the pattern of the field name to match
+	 * 
+	 * @return String
+	 */
+	public String getPattern()
+	{
+		return pattern;
+	}
 }
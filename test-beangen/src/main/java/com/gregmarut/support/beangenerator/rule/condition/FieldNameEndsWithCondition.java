@@ -34,4 +34,10 @@ public class FieldNameEndsWithCondition extends FieldNameCondition
 			return false;
 		}
 	}
+	
+	@Override
+	public final boolean isCacheable()
+	{
+		return true;
+	}
 }
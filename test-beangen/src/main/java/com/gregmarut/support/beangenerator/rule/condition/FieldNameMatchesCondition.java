@@ -27,4 +27,10 @@ public class FieldNameMatchesCondition extends FieldNameCondition
 		// check to see if the field names match
 		return pattern.equals(field.getName());
 	}
+	
+	@Override
+	public final boolean isCacheable()
+	{
+		return true;
+	}
 }
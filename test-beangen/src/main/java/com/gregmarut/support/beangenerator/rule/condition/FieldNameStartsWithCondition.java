@@ -34,4 +34,10 @@ public class FieldNameStartsWithCondition extends FieldNameCondition
 			return false;
 		}
 	}
+	
+	@Override
+	public final boolean isCacheable()
+	{
+		return true;
+	}
 }
@@ -37,4 +37,30 @@ public abstract class MultipleConditions implements Condition
 		
 		this.conditions = conditions;
 	}
+	
+	/**
+	 * Returns a copy of the nested conditions
+	 * 
+	 * @return Condition[]
+	 */
+	public Condition[] getConditions()
+	{
+		return conditions.clone();
+	}
+	
+	@Override
+	public boolean isCacheable()
+	{
+		// for each of the conditions
+		for (Condition rule : conditions)
+		{
+			// this condition can only be cached if every nested condition can be cached
+			if (!rule.isCacheable())
+			{
+				return false;
+			}
+		}
+		
+		return true;
+	}
 }
@@ -0,0 +1,389 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.snapshot;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import com.gregmarut.support.beangenerator.config.ClassMapContainer;
+import com.gregmarut.support.beangenerator.config.Configuration;
+import com.gregmarut.support.beangenerator.config.DefaultValues;
+import com.gregmarut.support.beangenerator.plan.BeanPlan;
+import com.gregmarut.support.beangenerator.plan.FieldPlan;
+import com.gregmarut.support.beangenerator.plan.FieldPlan.ValueSource;
+import com.gregmarut.support.beangenerator.rule.Rule;
+import com.gregmarut.support.beangenerator.rule.RuleMapping;
+import com.gregmarut.support.util.ReflectionUtil;
+
+/**
+ * Computes the fingerprints that determine if a snapshot is stale. The fingerprint of a
+ * configuration describes every setting that changes the generated beans, including the values and
+ * conditions of the rules, which are described by their class and fields. The fingerprint of a
+ * class describes the fields of its compiled plan.
+ * 
+ * @author Greg Marut
+ */
+public final class Fingerprint
+{
+	// holds how deep the fields of values and conditions are described
+	private static final int MAX_DESCRIPTION_DEPTH = 8;
+	
+	// sorts classes by their name so that the description does not depend on the order of a map
+	private static final Comparator<Class<?>> CLASS_NAME_ORDER = new Comparator<Class<?>>()
+	{
+		@Override
+		public int compare(final Class<?> first, final Class<?> second)
+		{
+			return first.getName().compareTo(second.getName());
+		}
+	};
+	
+	private Fingerprint()
+	{
+		
+	}
+	
+	/**
+	 * Computes the fingerprint of a configuration
+	 * 
+	 * @param configuration
+	 * @param version
+	 *        an additional version that invalidates snapshots whenever it changes
+	 * @return long
+	 */
+	public static long of(final Configuration configuration, final String version)
+	{
+		StringBuilder description = new StringBuilder();
+		description.append("version=").append(version);
+		description.append(";maxRepeatDepth=").append(configuration.getMaxRepeatDepth());
+		description.append(";collectionAutoFillCount=").append(configuration.getCollectionAutoFillCount());
+		description.append(";proxyUnmappedInterfaces=").append(configuration.getProxyUnmappedInterfaces());
+		description.append(";cache=").append(configuration.isCache());
+		
+		describe(description, "defaultValues", configuration.getDefaultValues());
+		describe(description, "interfaceMapper", configuration.getInterfaceMapper());
+		describe(description, "cacheOverride", configuration.getCacheOverride());
+		describe(description, "repeatDepthOverride", configuration.getRepeatDepthOverride());
+		
+		// describe the rules of each type in the order that they were added
+		RuleMapping ruleMapping = configuration.getRuleMapping();
+		description.append(";ruleMapping=");
+		if (null != ruleMapping)
+		{
+			for (Class<?> type : sort(ruleMapping.getTypes()))
+			{
+				description.append(type.getName()).append('[');
+				Collection<Rule<?>> rules = ruleMapping.get(type);
+				if (null != rules)
+				{
+					for (Rule<?> rule : rules)
+					{
+						describe(description, rule.getCondition(), 0, new IdentityHashMap<Object, Object>());
+						description.append("->");
+						describe(description, rule.getValue(), 0, new IdentityHashMap<Object, Object>());
+						description.append(',');
+					}
+				}
+				description.append(']');
+			}
+		}
+		
+		return hash(description);
+	}
+	
+	/**
+	 * Computes the fingerprint of the shape of a class from its compiled plan
+	 * 
+	 * @param beanPlan
+	 * @return long
+	 */
+	static long of(final BeanPlan beanPlan)
+	{
+		StringBuilder description = new StringBuilder(beanPlan.getType().getName());
+		for (FieldPlan fieldPlan : beanPlan.getFieldPlans())
+		{
+			Field field = fieldPlan.getField();
+			description.append(';').append(field.getDeclaringClass().getName()).append('.').append(field.getName());
+			description.append(':').append(field.getType().getName());
+			
+			// final collections are filled instead of assigned
+			if (fieldPlan.getValueSource() == ValueSource.EXISTING_COLLECTION)
+			{
+				description.append(":existing");
+			}
+		}
+		
+		return hash(description);
+	}
+	
+	/**
+	 * Describes the contents of a container sorted by class name
+	 * 
+	 * @param description
+	 * @param name
+	 * @param container
+	 */
+	private static void describe(final StringBuilder description, final String name,
+		final ClassMapContainer<?> container)
+	{
+		description.append(';').append(name).append('=');
+		if (null != container)
+		{
+			for (Class<?> key : sort(container.keySet()))
+			{
+				description.append(key.getName()).append("->");
+				describe(description, container.get(key), 0, new IdentityHashMap<Object, Object>());
+				description.append(',');
+			}
+		}
+	}
+	
+	/**
+	 * Describes a value. Simple values and the value based types of the java packages are described
+	 * by their contents, and objects of other packages by their class and fields. The state of any other
+	 * object of the java packages cannot be described, so it is described by its identity instead,
+	 * which never matches the fingerprint of another configuration or run.
+	 * 
+	 * @param description
+	 * @param value
+	 * @param depth
+	 * @param visited
+	 *        the objects that are already being described
+	 */
+	private static void describe(final StringBuilder description, final Object value, final int depth,
+		final Map<Object, Object> visited)
+	{
+		if (null == value)
+		{
+			description.append("null");
+			return;
+		}
+		
+		Class<?> clazz = value.getClass();
+		if (value instanceof String || value instanceof Number || value instanceof Boolean
+			|| value instanceof Character || value instanceof Enum)
+		{
+			description.append(className(clazz)).append(':').append(value);
+		}
+		else if (value instanceof Class)
+		{
+			description.append("class:").append(((Class<?>) value).getName());
+		}
+		else if (value == DefaultValues.DEFAULT_DATE)
+		{
+			// the default date is the time the class was loaded, which differs in every run
+			description.append("DEFAULT_DATE");
+		}
+		else if (isValueBased(value))
+		{
+			description.append(className(clazz)).append(':').append(value);
+		}
+		else if (value instanceof Pattern)
+		{
+			description.append(className(clazz)).append(':').append(((Pattern) value).flags()).append(':')
+				.append(((Pattern) value).pattern());
+		}
+		else if (clazz.isArray())
+		{
+			description.append(className(clazz)).append('[');
+			for (int i = 0, length = Array.getLength(value); i < length; i++)
+			{
+				describeNested(description, Array.get(value, i), depth, visited);
+			}
+			description.append(']');
+		}
+		else if (value instanceof Collection)
+		{
+			description.append(className(clazz)).append('[');
+			for (Object element : (Collection<?>) value)
+			{
+				describeNested(description, element, depth, visited);
+			}
+			description.append(']');
+		}
+		else if (value instanceof Map)
+		{
+			description.append(className(clazz)).append('{');
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+			{
+				describeNested(description, entry.getKey(), depth, visited);
+				describeNested(description, entry.getValue(), depth, visited);
+			}
+			description.append('}');
+		}
+		else if (value instanceof Optional)
+		{
+			description.append(className(clazz)).append('[');
+			describeNested(description, ((Optional<?>) value).orElse(null), depth, visited);
+			description.append(']');
+		}
+		else if (depth >= MAX_DESCRIPTION_DEPTH || visited.containsKey(value))
+		{
+			// the state of these objects is not part of the description
+			description.append(className(clazz));
+		}
+		else if (clazz.getName().startsWith("java."))
+		{
+			// the state of this object is unknown, so the fingerprint fails closed
+			description.append(className(clazz)).append('@').append(System.identityHashCode(value));
+		}
+		else
+		{
+			visited.put(value, value);
+			description.append(className(clazz)).append('{');
+			for (Field field : ReflectionUtil.getAllFields(value))
+			{
+				// captured variables and outer instances are synthetic
+				if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic())
+				{
+					description.append(field.getName()).append('=');
+					describeNested(description, read(field, value), depth, visited);
+				}
+			}
+			description.append('}');
+			visited.remove(value);
+		}
+	}
+	
+	/**
+	 * Determines if a value of the java packages is fully described by its string representation
+	 * 
+	 * @param value
+	 * @return boolean
+	 */
+	private static boolean isValueBased(final Object value)
+	{
+		return value instanceof Date || value instanceof TemporalAccessor || value instanceof TemporalAmount
+			|| value instanceof UUID || value instanceof Currency || value instanceof Locale || value instanceof URI
+			|| value instanceof Path || value instanceof File || value instanceof Charset;
+	}
+	
+	/**
+	 * Describes a value that is nested inside another value
+	 * 
+	 * @param description
+	 * @param value
+	 * @param depth
+	 *        the depth of the enclosing value
+	 * @param visited
+	 */
+	private static void describeNested(final StringBuilder description, final Object value, final int depth,
+		final Map<Object, Object> visited)
+	{
+		describe(description, value, depth + 1, visited);
+		description.append(',');
+	}
+	
+	/**
+	 * Reads a field for its description
+	 * 
+	 * @param field
+	 * @param object
+	 * @return the value or the name of the field's type if it cannot be read
+	 */
+	private static Object read(final Field field, final Object object)
+	{
+		try
+		{
+			field.setAccessible(true);
+			return field.get(object);
+		}
+		catch (IllegalAccessException e)
+		{
+			return field.getType();
+		}
+		catch (RuntimeException e)
+		{
+			// the field belongs to a module that does not allow access
+			return field.getType();
+		}
+	}
+	
+	/**
+	 * Returns a name for a class that is the same in every JVM. The names of hidden classes such as
+	 * lambdas contain a suffix that changes between runs.
+	 * 
+	 * @param clazz
+	 * @return String
+	 */
+	private static String className(final Class<?> clazz)
+	{
+		// only hidden classes and the anonymous classes of older runtimes have a slash in their names
+		String name = clazz.getName();
+		if (name.indexOf('/') >= 0)
+		{
+			int suffix = name.indexOf("$$");
+			return suffix >= 0 ? name.substring(0, suffix) : name.substring(0, name.indexOf('/'));
+		}
+		
+		return name;
+	}
+	
+	/**
+	 * Returns the classes sorted by their name
+	 * 
+	 * @param classes
+	 * @return List
+	 */
+	private static List<Class<?>> sort(final Collection<Class<?>> classes)
+	{
+		List<Class<?>> sorted = new ArrayList<Class<?>>(classes);
+		Collections.sort(sorted, CLASS_NAME_ORDER);
+		return sorted;
+	}
+	
+	/**
+	 * Hashes a description into a fingerprint
+	 * 
+	 * @param description
+	 * @return long
+	 */
+	private static long hash(final CharSequence description)
+	{
+		try
+		{
+			MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+			byte[] digest = messageDigest.digest(description.toString().getBytes(StandardCharsets.UTF_8));
+			return ByteBuffer.wrap(digest).getLong();
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			// every java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+}
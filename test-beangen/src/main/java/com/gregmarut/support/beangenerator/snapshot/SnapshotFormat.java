@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.snapshot;
+
+/**
+ * Holds the constants of the binary snapshot format. A snapshot is written big endian and
+ * consists of
+ * 
+ * <pre>
+ * int     magic number
+ * short   format version
+ * long    fingerprint of the configuration
+ * strings the number of strings followed by the length and UTF-8 bytes of each string
+ * classes the number of classes followed by the name and shape fingerprint of each class
+ * objects the number of objects followed by the kind, class and allocation data of each object
+ * fill    the fields, elements or entries of each object in the same order
+ * roots   the number of roots followed by the value of each root
+ * </pre>
+ * 
+ * Every value is written as a tag followed by its data. Beans, collections, maps, arrays and dates
+ * are written once in the object table and referenced by their index, so objects that are shared
+ * within a graph are shared within the graph that is read back.
+ * 
+ * @author Greg Marut
+ */
+final class SnapshotFormat
+{
+	// holds the first bytes of every snapshot
+	static final int MAGIC = 0x4247534E;
+	
+	// holds the version of the format, which is increased whenever the layout changes
+	static final short VERSION = 1;
+	
+	// ** Kinds of objects **//
+	static final byte BEAN = 1;
+	static final byte COLLECTION = 2;
+	static final byte EXISTING_COLLECTION = 3;
+	static final byte MAP = 4;
+	static final byte ARRAY = 5;
+	static final byte PRIMITIVE_ARRAY = 6;
+	static final byte DATE = 7;
+	
+	// ** Tags of values **//
+	static final byte NULL = 0;
+	static final byte REFERENCE = 1;
+	static final byte STRING = 2;
+	static final byte BOOLEAN = 3;
+	static final byte BYTE = 4;
+	static final byte CHARACTER = 5;
+	static final byte SHORT = 6;
+	static final byte INTEGER = 7;
+	static final byte LONG = 8;
+	static final byte FLOAT = 9;
+	static final byte DOUBLE = 10;
+	static final byte ENUM = 11;
+	static final byte CLASS = 12;
+	static final byte BIG_INTEGER = 13;
+	static final byte BIG_DECIMAL = 14;
+	
+	private SnapshotFormat()
+	{
+		
+	}
+}
@@ -0,0 +1,489 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.snapshot;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.gregmarut.support.beangenerator.plan.BeanPlan;
+import com.gregmarut.support.beangenerator.plan.BeanPlanCache;
+import com.gregmarut.support.beangenerator.plan.FieldPlan;
+import com.gregmarut.support.beangenerator.plan.FieldPlan.ValueSource;
+
+/**
+ * Reads object graphs from a memory mapped snapshot in the {@link SnapshotFormat}. Every object is
+ * allocated before any of them is filled so that references can point in any direction. A
+ * snapshot is stale if it was written with a different configuration or if one of its classes no
+ * longer exists or has changed its fields.
+ * 
+ * @author Greg Marut
+ */
+final class SnapshotReader
+{
+	// holds the classes of the primitive types, which cannot be loaded by name
+	private static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<String, Class<?>>();
+	
+	static
+	{
+		for (Class<?> primitiveType : new Class<?>[] { boolean.class, byte.class, char.class, short.class, int.class,
+			long.class, float.class, double.class, void.class })
+		{
+			PRIMITIVE_TYPES.put(primitiveType.getName(), primitiveType);
+		}
+	}
+	
+	// ** Objects **//
+	// instantiate the logger
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+	
+	// holds the plans that determine which fields of a bean are read
+	private final BeanPlanCache beanPlanCache;
+	
+	// holds the class loader that loads the classes of the snapshot
+	private final ClassLoader classLoader;
+	
+	// holds the contents of the snapshot
+	private ByteBuffer buffer;
+	
+	// holds the tables of the snapshot
+	private String[] strings;
+	private Class<?>[] classes;
+	private long[] shapes;
+	private Object[] objects;
+	private int[] objectClasses;
+	
+	// holds the verified plan and constructor of each class
+	private BeanPlan[] beanPlans;
+	private Constructor<?>[] constructors;
+	
+	SnapshotReader(final BeanPlanCache beanPlanCache, final ClassLoader classLoader)
+	{
+		this.beanPlanCache = beanPlanCache;
+		this.classLoader = classLoader;
+	}
+	
+	/**
+	 * Reads the graphs of a snapshot
+	 * 
+	 * @param path
+	 * @param fingerprint
+	 *        the fingerprint of the current configuration
+	 * @return the root of each graph or null if the snapshot is stale
+	 * @throws IOException
+	 *         if the snapshot cannot be read or is corrupt
+	 * @throws ReflectiveOperationException
+	 *         if an object cannot be created
+	 */
+	List<Object> read(final Path path, final long fingerprint) throws IOException, ReflectiveOperationException
+	{
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try
+		{
+			// the mapping remains valid after the channel is closed
+			buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+		finally
+		{
+			channel.close();
+		}
+		
+		// make sure this is a snapshot of the current format
+		if (buffer.getInt() != SnapshotFormat.MAGIC || buffer.getShort() != SnapshotFormat.VERSION)
+		{
+			throw new IOException("Not a snapshot of the current format: " + path);
+		}
+		
+		// check to see if the snapshot was written with a different configuration
+		if (buffer.getLong() != fingerprint)
+		{
+			logger.debug("Snapshot {} was written with a different configuration", path);
+			return null;
+		}
+		
+		try
+		{
+			readTables();
+			
+			// allocate every object before filling any of them
+			objects = new Object[buffer.getInt()];
+			objectClasses = new int[objects.length];
+			byte[] kinds = new byte[objects.length];
+			for (int i = 0; i < objects.length; i++)
+			{
+				kinds[i] = buffer.get();
+				objectClasses[i] = buffer.getInt();
+				objects[i] = allocate(kinds[i], objectClasses[i]);
+			}
+			
+			for (int i = 0; i < objects.length; i++)
+			{
+				fill(objects[i], kinds[i], objectClasses[i]);
+			}
+			
+			// read the roots
+			int count = buffer.getInt();
+			List<Object> roots = new ArrayList<Object>(count);
+			for (int i = 0; i < count; i++)
+			{
+				roots.add(readValue());
+			}
+			
+			return roots;
+		}
+		catch (ClassNotFoundException e)
+		{
+			logger.debug("Snapshot {} references a class that no longer exists: {}", path, e.getMessage());
+			return null;
+		}
+		catch (StaleClassException e)
+		{
+			logger.debug("Snapshot {} was written before {} changed", path, e.getMessage());
+			return null;
+		}
+	}
+	
+	/**
+	 * Reads the tables of strings and classes
+	 * 
+	 * @throws ClassNotFoundException
+	 */
+	private void readTables() throws ClassNotFoundException
+	{
+		strings = new String[buffer.getInt()];
+		for (int i = 0; i < strings.length; i++)
+		{
+			byte[] bytes = new byte[buffer.getInt()];
+			buffer.get(bytes);
+			strings[i] = new String(bytes, StandardCharsets.UTF_8);
+		}
+		
+		classes = new Class<?>[buffer.getInt()];
+		shapes = new long[classes.length];
+		for (int i = 0; i < classes.length; i++)
+		{
+			classes[i] = loadClass(strings[buffer.getInt()]);
+			shapes[i] = buffer.getLong();
+		}
+		
+		beanPlans = new BeanPlan[classes.length];
+		constructors = new Constructor<?>[classes.length];
+	}
+	
+	/**
+	 * Allocates an object
+	 * 
+	 * @param kind
+	 * @param classIndex
+	 * @return Object
+	 * @throws ReflectiveOperationException
+	 * @throws StaleClassException
+	 */
+	private Object allocate(final byte kind, final int classIndex) throws ReflectiveOperationException,
+		StaleClassException
+	{
+		Class<?> clazz = classes[classIndex];
+		switch (kind)
+		{
+			case SnapshotFormat.BEAN:
+				// check to see if a compiled plan can allocate this object without reflection
+				BeanPlan beanPlan = beanPlanCache.findPlan(clazz);
+				if (null != beanPlan && beanPlan.canInstantiate())
+				{
+					return beanPlan.newInstance();
+				}
+				return getConstructor(classIndex, false).newInstance();
+			case SnapshotFormat.COLLECTION:
+			case SnapshotFormat.MAP:
+				return getConstructor(classIndex, true).newInstance();
+			case SnapshotFormat.EXISTING_COLLECTION:
+				// the bean that declares the field was allocated first
+				int ownerIndex = buffer.getInt();
+				Object owner = objects[ownerIndex];
+				FieldPlan fieldPlan = getBeanPlan(owner, objectClasses[ownerIndex]).getFieldPlans().get(buffer.getInt());
+				Collection<?> collection = (Collection<?>) fieldPlan.read(owner);
+				collection.clear();
+				return collection;
+			case SnapshotFormat.ARRAY:
+				return Array.newInstance(clazz.getComponentType(), buffer.getInt());
+			case SnapshotFormat.PRIMITIVE_ARRAY:
+				return readPrimitiveArray(clazz.getComponentType());
+			case SnapshotFormat.DATE:
+				return new Date(buffer.getLong());
+			default:
+				throw new IllegalStateException("Unknown kind of object " + kind);
+		}
+	}
+	
+	/**
+	 * Fills the fields, elements or entries of an object
+	 * 
+	 * @param object
+	 * @param kind
+	 * @param classIndex
+	 * @throws ReflectiveOperationException
+	 * @throws StaleClassException
+	 */
+	@SuppressWarnings("unchecked")
+	private void fill(final Object object, final byte kind, final int classIndex) throws ReflectiveOperationException,
+		StaleClassException
+	{
+		switch (kind)
+		{
+			case SnapshotFormat.BEAN:
+				for (FieldPlan fieldPlan : getBeanPlan(object, classIndex).getFieldPlans())
+				{
+					// final collections are filled as objects of their own
+					if (fieldPlan.getValueSource() != ValueSource.EXISTING_COLLECTION)
+					{
+						fieldPlan.write(object, readValue());
+					}
+				}
+				break;
+			case SnapshotFormat.COLLECTION:
+			case SnapshotFormat.EXISTING_COLLECTION:
+				Collection<Object> collection = (Collection<Object>) object;
+				for (int i = 0, size = buffer.getInt(); i < size; i++)
+				{
+					collection.add(readValue());
+				}
+				break;
+			case SnapshotFormat.MAP:
+				Map<Object, Object> map = (Map<Object, Object>) object;
+				for (int i = 0, size = buffer.getInt(); i < size; i++)
+				{
+					map.put(readValue(), readValue());
+				}
+				break;
+			case SnapshotFormat.ARRAY:
+				Object[] array = (Object[]) object;
+				for (int i = 0; i < array.length; i++)
+				{
+					array[i] = readValue();
+				}
+				break;
+			default:
+				break;
+		}
+	}
+	
+	/**
+	 * Reads a tagged value
+	 * 
+	 * @return Object
+	 * @throws ClassNotFoundException
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Object readValue() throws ClassNotFoundException
+	{
+		byte tag = buffer.get();
+		switch (tag)
+		{
+			case SnapshotFormat.NULL:
+				return null;
+			case SnapshotFormat.REFERENCE:
+				return objects[buffer.getInt()];
+			case SnapshotFormat.STRING:
+				return strings[buffer.getInt()];
+			case SnapshotFormat.BOOLEAN:
+				return buffer.get() != 0;
+			case SnapshotFormat.BYTE:
+				return buffer.get();
+			case SnapshotFormat.CHARACTER:
+				return buffer.getChar();
+			case SnapshotFormat.SHORT:
+				return buffer.getShort();
+			case SnapshotFormat.INTEGER:
+				return buffer.getInt();
+			case SnapshotFormat.LONG:
+				return buffer.getLong();
+			case SnapshotFormat.FLOAT:
+				return buffer.getFloat();
+			case SnapshotFormat.DOUBLE:
+				return buffer.getDouble();
+			case SnapshotFormat.ENUM:
+				Class enumClass = classes[buffer.getInt()];
+				return Enum.valueOf(enumClass, strings[buffer.getInt()]);
+			case SnapshotFormat.CLASS:
+				return loadClass(strings[buffer.getInt()]);
+			case SnapshotFormat.BIG_INTEGER:
+				return new BigInteger(strings[buffer.getInt()]);
+			case SnapshotFormat.BIG_DECIMAL:
+				return new BigDecimal(strings[buffer.getInt()]);
+			default:
+				throw new IllegalStateException("Unknown tag " + tag);
+		}
+	}
+	
+	/**
+	 * Reads the elements of a primitive array
+	 * 
+	 * @param componentType
+	 * @return Object
+	 */
+	private Object readPrimitiveArray(final Class<?> componentType)
+	{
+		int length = buffer.getInt();
+		if (componentType == boolean.class)
+		{
+			boolean[] array = new boolean[length];
+			for (int i = 0; i < length; i++)
+			{
+				array[i] = buffer.get() != 0;
+			}
+			return array;
+		}
+		else if (componentType == byte.class)
+		{
+			byte[] array = new byte[length];
+			buffer.get(array);
+			return array;
+		}
+		else if (componentType == char.class)
+		{
+			char[] array = new char[length];
+			buffer.asCharBuffer().get(array);
+			buffer.position(buffer.position() + length * Character.BYTES);
+			return array;
+		}
+		else if (componentType == short.class)
+		{
+			short[] array = new short[length];
+			buffer.asShortBuffer().get(array);
+			buffer.position(buffer.position() + length * Short.BYTES);
+			return array;
+		}
+		else if (componentType == int.class)
+		{
+			int[] array = new int[length];
+			buffer.asIntBuffer().get(array);
+			buffer.position(buffer.position() + length * Integer.BYTES);
+			return array;
+		}
+		else if (componentType == long.class)
+		{
+			long[] array = new long[length];
+			buffer.asLongBuffer().get(array);
+			buffer.position(buffer.position() + length * Long.BYTES);
+			return array;
+		}
+		else if (componentType == float.class)
+		{
+			float[] array = new float[length];
+			buffer.asFloatBuffer().get(array);
+			buffer.position(buffer.position() + length * Float.BYTES);
+			return array;
+		}
+		else
+		{
+			double[] array = new double[length];
+			buffer.asDoubleBuffer().get(array);
+			buffer.position(buffer.position() + length * Double.BYTES);
+			return array;
+		}
+	}
+	
+	/**
+	 * Returns the plan of a bean after making sure that the fields of its class have not changed
+	 * since the snapshot was written
+	 * 
+	 * @param bean
+	 * @param classIndex
+	 *        the index of the class of the bean
+	 * @return BeanPlan
+	 * @throws StaleClassException
+	 */
+	private BeanPlan getBeanPlan(final Object bean, final int classIndex) throws StaleClassException
+	{
+		BeanPlan beanPlan = beanPlans[classIndex];
+		if (null == beanPlan)
+		{
+			beanPlan = beanPlanCache.getPlan(bean);
+			if (Fingerprint.of(beanPlan) != shapes[classIndex])
+			{
+				throw new StaleClassException(bean.getClass().getName());
+			}
+			
+			beanPlans[classIndex] = beanPlan;
+		}
+		
+		return beanPlan;
+	}
+	
+	/**
+	 * Returns the no argument constructor of a class
+	 * 
+	 * @param classIndex
+	 * @param publicOnly
+	 * @return Constructor
+	 * @throws NoSuchMethodException
+	 */
+	private Constructor<?> getConstructor(final int classIndex, final boolean publicOnly) throws NoSuchMethodException
+	{
+		Constructor<?> constructor = constructors[classIndex];
+		if (null == constructor)
+		{
+			constructor = publicOnly ? classes[classIndex].getConstructor() : classes[classIndex]
+				.getDeclaredConstructor();
+			constructor.setAccessible(true);
+			constructors[classIndex] = constructor;
+		}
+		
+		return constructor;
+	}
+	
+	/**
+	 * Loads a class by its name
+	 * 
+	 * @param name
+	 * @return Class
+	 * @throws ClassNotFoundException
+	 */
+	private Class<?> loadClass(final String name) throws ClassNotFoundException
+	{
+		Class<?> primitiveType = PRIMITIVE_TYPES.get(name);
+		return null != primitiveType ? primitiveType : Class.forName(name, false, classLoader);
+	}
+	
+	/**
+	 * Thrown when the fields of a class have changed since the snapshot was written
+	 * 
+	 * @author Greg Marut
+	 */
+	private static final class StaleClassException extends Exception
+	{
+		private static final long serialVersionUID = -2261472137516453104L;
+		
+		private StaleClassException(final String className)
+		{
+			super(className);
+		}
+	}
+}
@@ -0,0 +1,340 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.snapshot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+import com.gregmarut.support.beangenerator.config.Configuration;
+
+/**
+ * Saves the beans of a {@link BeanPropertyGenerator} to binary snapshot files so that a later JVM
+ * can read them back instead of generating them again. Each snapshot is keyed by the class of its
+ * beans and a fingerprint of the {@link Configuration}, and is memory mapped when it is read.
+ * <p>
+ * A snapshot is generated again whenever it is stale, which is the case if the configuration or
+ * the given version has changed, or if any class in the snapshot no longer exists or has different
+ * fields. Values and conditions are compared by their class and fields, so changes to the code of a
+ * custom value require the version to be changed. Snapshots that cannot be read are generated
+ * again as well, while beans that cannot be written, such as those holding proxies, are simply
+ * returned without a snapshot.
+ * <p>
+ * Objects that are shared within a graph are shared within the graph that is read back, while
+ * cached beans and default values are no longer shared with beans outside of the snapshot.
+ * 
+ * @author Greg Marut
+ */
+public final class SnapshotStore
+{
+	// ** Finals **//
+	// holds the extension of the snapshot files
+	private static final String EXTENSION = ".snapshot";
+	
+	// ** Objects **//
+	// instantiate the logger
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+	
+	// holds the generator that creates the beans of stale snapshots
+	private final BeanPropertyGenerator beanPropertyGenerator;
+	
+	// holds the directory that contains the snapshots
+	private final Path directory;
+	
+	// holds the version that is part of the fingerprint
+	private final String version;
+	
+	/**
+	 * Constructs a new SnapshotStore
+	 * 
+	 * @param beanPropertyGenerator
+	 * @param directory
+	 *        the directory that contains the snapshots. It is created when the first snapshot is
+	 *        saved.
+	 */
+	public SnapshotStore(final BeanPropertyGenerator beanPropertyGenerator, final Path directory)
+	{
+		this(beanPropertyGenerator, directory, "");
+	}
+	
+	/**
+	 * Constructs a new SnapshotStore
+	 * 
+	 * @param beanPropertyGenerator
+	 * @param directory
+	 *        the directory that contains the snapshots. It is created when the first snapshot is
+	 *        saved.
+	 * @param version
+	 *        a version that invalidates every snapshot whenever it changes
+	 */
+	public SnapshotStore(final BeanPropertyGenerator beanPropertyGenerator, final Path directory,
+		final String version)
+	{
+		// make sure the generator is not null
+		if (null == beanPropertyGenerator)
+		{
+			throw new IllegalArgumentException("beanPropertyGenerator cannot be null");
+		}
+		
+		// make sure the directory is not null
+		if (null == directory)
+		{
+			throw new IllegalArgumentException("directory cannot be null");
+		}
+		
+		// make sure the version is not null
+		if (null == version)
+		{
+			throw new IllegalArgumentException("version cannot be null");
+		}
+		
+		this.beanPropertyGenerator = beanPropertyGenerator;
+		this.directory = directory;
+		this.version = version;
+	}
+	
+	/**
+	 * Reads an object of the specified class from its snapshot. If the snapshot does not exist or is
+	 * stale, the object is generated and saved.
+	 * 
+	 * @param clazz
+	 * @return T
+	 * @see BeanPropertyGenerator#get(Class)
+	 */
+	public <T> T get(final Class<T> clazz)
+	{
+		Path path = directory.resolve(clazz.getName() + EXTENSION);
+		long fingerprint = getFingerprint();
+		
+		// attempt to read the existing snapshot
+		List<T> roots = load(path, fingerprint, clazz, 1);
+		if (null != roots)
+		{
+			return roots.get(0);
+		}
+		
+		T obj = beanPropertyGenerator.get(clazz);
+		save(path, fingerprint, Collections.singletonList(obj));
+		return obj;
+	}
+	
+	/**
+	 * Reads a list of objects of the specified class from its snapshot. If the snapshot does not
+	 * exist or is stale, the list is generated and saved.
+	 * 
+	 * @param clazz
+	 * @param count
+	 *        How many objects to put into the list
+	 * @return List
+	 * @see BeanPropertyGenerator#getList(Class, int)
+	 */
+	public <T> List<T> getList(final Class<T> clazz, final int count)
+	{
+		Path path = directory.resolve(clazz.getName() + "-" + count + EXTENSION);
+		long fingerprint = getFingerprint();
+		
+		// attempt to read the existing snapshot
+		List<T> roots = load(path, fingerprint, clazz, count);
+		if (null != roots)
+		{
+			return roots;
+		}
+		
+		List<T> list = beanPropertyGenerator.getList(clazz, count);
+		save(path, fingerprint, list);
+		return list;
+	}
+	
+	/**
+	 * Returns the generator that creates the beans of stale snapshots
+	 * 
+	 * @return BeanPropertyGenerator
+	 */
+	public BeanPropertyGenerator getBeanPropertyGenerator()
+	{
+		return beanPropertyGenerator;
+	}
+	
+	/**
+	 * Returns the fingerprint of the current configuration of the generator
+	 * 
+	 * @return long
+	 */
+	public long getFingerprint()
+	{
+		return Fingerprint.of(beanPropertyGenerator.getConfiguration(), version);
+	}
+	
+	/**
+	 * Reads the roots of a snapshot
+	 * 
+	 * @param path
+	 * @param fingerprint
+	 * @param clazz
+	 *        the class of every root
+	 * @param count
+	 *        the number of roots
+	 * @return the roots or null if the snapshot does not exist, is stale or cannot be read
+	 */
+	private <T> List<T> load(final Path path, final long fingerprint, final Class<T> clazz, final int count)
+	{
+		// check to see if there is a snapshot to read
+		if (!Files.isRegularFile(path))
+		{
+			return null;
+		}
+		
+		try
+		{
+			ClassLoader classLoader =
+				null != clazz.getClassLoader() ? clazz.getClassLoader() : Thread.currentThread()
+					.getContextClassLoader();
+			SnapshotReader snapshotReader =
+				new SnapshotReader(beanPropertyGenerator.getConfiguration().getBeanPlanCache(), classLoader);
+			List<Object> roots = snapshotReader.read(path, fingerprint);
+			
+			// make sure the snapshot holds the expected objects
+			if (null == roots || roots.size() != count)
+			{
+				return null;
+			}
+			
+			List<T> list = new ArrayList<T>(count);
+			for (Object root : roots)
+			{
+				if (!clazz.isInstance(root))
+				{
+					return null;
+				}
+				
+				list.add(clazz.cast(root));
+			}
+			
+			logger.debug("Read {} objects of {} from snapshot {}", count, clazz.getName(), path);
+			return list;
+		}
+		catch (IOException e)
+		{
+			logger.warn("Could not read snapshot {}: {}", path, e.toString());
+		}
+		catch (ReflectiveOperationException e)
+		{
+			logger.warn("Could not read snapshot {}: {}", path, e.toString());
+		}
+		catch (RuntimeException e)
+		{
+			// the snapshot is truncated or corrupt
+			logger.warn("Could not read snapshot {}: {}", path, e.toString());
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Saves the roots to a snapshot. The snapshot is written to a temporary file first so that
+	 * other JVMs never read a partially written snapshot.
+	 * 
+	 * @param path
+	 * @param fingerprint
+	 * @param roots
+	 */
+	private void save(final Path path, final long fingerprint, final List<?> roots)
+	{
+		Path temporary = null;
+		try
+		{
+			Files.createDirectories(directory);
+			temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+			
+			OutputStream outputStream = Files.newOutputStream(temporary);
+			try
+			{
+				new SnapshotWriter(beanPropertyGenerator.getConfiguration().getBeanPlanCache()).write(outputStream,
+					fingerprint, roots);
+			}
+			finally
+			{
+				outputStream.close();
+			}
+			
+			move(temporary, path);
+			logger.debug("Saved snapshot {}", path);
+		}
+		catch (IOException e)
+		{
+			logger.warn("Could not save snapshot {}: {}", path, e.toString());
+		}
+		catch (IllegalAccessException e)
+		{
+			logger.warn("Could not save snapshot {}: {}", path, e.toString());
+		}
+		catch (IllegalArgumentException e)
+		{
+			// the objects hold a value that cannot be written
+			logger.info("Could not save snapshot {}: {}", path, e.getMessage());
+		}
+		finally
+		{
+			deleteQuietly(temporary);
+		}
+	}
+	
+	/**
+	 * Replaces a snapshot with a new file, atomically if the file system allows it
+	 * 
+	 * @param source
+	 * @param target
+	 * @throws IOException
+	 */
+	private static void move(final Path source, final Path target) throws IOException
+	{
+		try
+		{
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e)
+		{
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+	
+	/**
+	 * Deletes a temporary file if it still exists
+	 * 
+	 * @param path
+	 */
+	private void deleteQuietly(final Path path)
+	{
+		if (null != path)
+		{
+			try
+			{
+				Files.deleteIfExists(path);
+			}
+			catch (IOException e)
+			{
+				logger.debug("Could not delete {}: {}", path, e.toString());
+			}
+		}
+	}
+}
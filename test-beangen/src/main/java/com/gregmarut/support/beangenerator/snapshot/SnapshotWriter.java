@@ -0,0 +1,639 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+import com.gregmarut.support.beangenerator.plan.BeanPlan;
+import com.gregmarut.support.beangenerator.plan.BeanPlanCache;
+import com.gregmarut.support.beangenerator.plan.FieldPlan;
+import com.gregmarut.support.beangenerator.plan.FieldPlan.ValueSource;
+
+/**
+ * Writes object graphs in the {@link SnapshotFormat}. The graphs are walked once to assign an
+ * index to every object, string and class before anything is written, so that every reference can
+ * be written as an index.
+ * 
+ * @author Greg Marut
+ */
+final class SnapshotWriter
+{
+	// holds the plans that determine which fields of a bean are written
+	private final BeanPlanCache beanPlanCache;
+	
+	// holds the objects in the order that they are allocated and the index of each of them
+	private final List<Object> objects = new ArrayList<Object>();
+	private final Map<Object, Integer> objectIndexes = new IdentityHashMap<Object, Integer>();
+	
+	// holds how each of the objects is written
+	private final List<Byte> kinds = new ArrayList<Byte>();
+	
+	// holds the bean and index of the field that holds each final collection
+	private final Map<Object, int[]> owners = new IdentityHashMap<Object, int[]>();
+	
+	// holds the strings and classes that are referenced by index
+	private final List<String> strings = new ArrayList<String>();
+	private final Map<String, Integer> stringIndexes = new HashMap<String, Integer>();
+	private final List<Class<?>> classes = new ArrayList<Class<?>>();
+	private final Map<Class<?>, Integer> classIndexes = new HashMap<Class<?>, Integer>();
+	
+	// holds the plan of each bean class
+	private final Map<Class<?>, BeanPlan> beanPlans = new HashMap<Class<?>, BeanPlan>();
+	
+	// determines if each class has the constructor that is needed to read it back
+	private final Map<Class<?>, Boolean> constructors = new HashMap<Class<?>, Boolean>();
+	
+	SnapshotWriter(final BeanPlanCache beanPlanCache)
+	{
+		this.beanPlanCache = beanPlanCache;
+	}
+	
+	/**
+	 * Writes a snapshot of object graphs
+	 * 
+	 * @param outputStream
+	 * @param fingerprint
+	 *        the fingerprint of the configuration the graphs were generated with
+	 * @param roots
+	 *        the root of each graph
+	 * @throws IOException
+	 * @throws IllegalAccessException
+	 *         if a field cannot be read
+	 * @throws IllegalArgumentException
+	 *         if a graph contains an object that cannot be written
+	 */
+	void write(final OutputStream outputStream, final long fingerprint, final List<?> roots) throws IOException,
+		IllegalAccessException
+	{
+		// assign an index to every object reachable from the roots
+		for (Object root : roots)
+		{
+			visit(root);
+		}
+		for (int i = 0; i < objects.size(); i++)
+		{
+			walk(objects.get(i), kinds.get(i), i);
+		}
+		
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+		out.writeInt(SnapshotFormat.MAGIC);
+		out.writeShort(SnapshotFormat.VERSION);
+		out.writeLong(fingerprint);
+		
+		// write the table of strings
+		out.writeInt(strings.size());
+		for (String string : strings)
+		{
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+		
+		// write the table of classes
+		out.writeInt(classes.size());
+		for (Class<?> clazz : classes)
+		{
+			out.writeInt(stringIndexes.get(clazz.getName()));
+			BeanPlan beanPlan = beanPlans.get(clazz);
+			out.writeLong(null != beanPlan ? Fingerprint.of(beanPlan) : 0L);
+		}
+		
+		// write what is needed to allocate each object
+		out.writeInt(objects.size());
+		for (int i = 0; i < objects.size(); i++)
+		{
+			writeAllocation(out, objects.get(i), kinds.get(i));
+		}
+		
+		// write the contents of each object
+		for (int i = 0; i < objects.size(); i++)
+		{
+			writeContents(out, objects.get(i), kinds.get(i));
+		}
+		
+		// write the roots
+		out.writeInt(roots.size());
+		for (Object root : roots)
+		{
+			writeValue(out, root);
+		}
+		
+		out.flush();
+	}
+	
+	/**
+	 * Registers a value. Objects are added to the end of the list of objects.
+	 * 
+	 * @param value
+	 */
+	private void visit(final Object value)
+	{
+		// null values are written as they are
+		if (null == value)
+		{
+			return;
+		}
+		
+		// values that are written in place only need their strings and classes
+		if (value instanceof String)
+		{
+			indexOf((String) value);
+		}
+		else if (value instanceof Enum)
+		{
+			indexOf(((Enum<?>) value).getDeclaringClass());
+			indexOf(((Enum<?>) value).name());
+		}
+		else if (value instanceof Class)
+		{
+			indexOf(((Class<?>) value).getName());
+		}
+		else if (value instanceof BigInteger || value instanceof BigDecimal)
+		{
+			indexOf(value.toString());
+		}
+		else if (!isPrimitiveWrapper(value) && !objectIndexes.containsKey(value))
+		{
+			// make sure the object can be read back
+			kinds.add(kindOf(value));
+			
+			objectIndexes.put(value, objects.size());
+			objects.add(value);
+			indexOf(value.getClass());
+		}
+	}
+	
+	/**
+	 * Registers the values that are referenced by an object
+	 * 
+	 * @param object
+	 * @param kind
+	 * @param index
+	 *        the index of the object
+	 * @throws IllegalAccessException
+	 */
+	private void walk(final Object object, final byte kind, final int index) throws IllegalAccessException
+	{
+		if (object instanceof Collection)
+		{
+			for (Object element : (Collection<?>) object)
+			{
+				visit(element);
+			}
+		}
+		else if (object instanceof Map)
+		{
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet())
+			{
+				visit(entry.getKey());
+				visit(entry.getValue());
+			}
+		}
+		else if (object instanceof Object[])
+		{
+			for (Object element : (Object[]) object)
+			{
+				visit(element);
+			}
+		}
+		else if (kind == SnapshotFormat.BEAN)
+		{
+			List<FieldPlan> fieldPlans = getBeanPlan(object).getFieldPlans();
+			for (int i = 0; i < fieldPlans.size(); i++)
+			{
+				FieldPlan fieldPlan = fieldPlans.get(i);
+				Object value = fieldPlan.read(object);
+				
+				// final collections are created by the constructor of the bean and filled in place
+				if (fieldPlan.getValueSource() == ValueSource.EXISTING_COLLECTION && null != value
+					&& !objectIndexes.containsKey(value))
+				{
+					owners.put(value, new int[] { index, i });
+				}
+				
+				visit(value);
+			}
+		}
+	}
+	
+	/**
+	 * Writes the kind and class of an object and the data needed to allocate it
+	 * 
+	 * @param out
+	 * @param object
+	 * @param kind
+	 * @throws IOException
+	 */
+	private void writeAllocation(final DataOutputStream out, final Object object, final byte kind)
+		throws IOException
+	{
+		out.writeByte(kind);
+		out.writeInt(classIndexes.get(object.getClass()));
+		
+		switch (kind)
+		{
+			case SnapshotFormat.EXISTING_COLLECTION:
+				int[] owner = owners.get(object);
+				out.writeInt(owner[0]);
+				out.writeInt(owner[1]);
+				break;
+			case SnapshotFormat.ARRAY:
+				out.writeInt(((Object[]) object).length);
+				break;
+			case SnapshotFormat.PRIMITIVE_ARRAY:
+				writePrimitiveArray(out, object);
+				break;
+			case SnapshotFormat.DATE:
+				out.writeLong(((Date) object).getTime());
+				break;
+			default:
+				break;
+		}
+	}
+	
+	/**
+	 * Writes the fields, elements or entries of an object
+	 * 
+	 * @param out
+	 * @param object
+	 * @param kind
+	 * @throws IOException
+	 * @throws IllegalAccessException
+	 */
+	private void writeContents(final DataOutputStream out, final Object object, final byte kind)
+		throws IOException, IllegalAccessException
+	{
+		switch (kind)
+		{
+			case SnapshotFormat.BEAN:
+				for (FieldPlan fieldPlan : getBeanPlan(object).getFieldPlans())
+				{
+					// final collections are written as objects of their own
+					if (fieldPlan.getValueSource() != ValueSource.EXISTING_COLLECTION)
+					{
+						writeValue(out, fieldPlan.read(object));
+					}
+				}
+				break;
+			case SnapshotFormat.COLLECTION:
+			case SnapshotFormat.EXISTING_COLLECTION:
+				Collection<?> collection = (Collection<?>) object;
+				out.writeInt(collection.size());
+				for (Object element : collection)
+				{
+					writeValue(out, element);
+				}
+				break;
+			case SnapshotFormat.MAP:
+				Map<?, ?> map = (Map<?, ?>) object;
+				out.writeInt(map.size());
+				for (Map.Entry<?, ?> entry : map.entrySet())
+				{
+					writeValue(out, entry.getKey());
+					writeValue(out, entry.getValue());
+				}
+				break;
+			case SnapshotFormat.ARRAY:
+				for (Object element : (Object[]) object)
+				{
+					writeValue(out, element);
+				}
+				break;
+			default:
+				break;
+		}
+	}
+	
+	/**
+	 * Writes a tagged value
+	 * 
+	 * @param out
+	 * @param value
+	 * @throws IOException
+	 */
+	private void writeValue(final DataOutputStream out, final Object value) throws IOException
+	{
+		if (null == value)
+		{
+			out.writeByte(SnapshotFormat.NULL);
+		}
+		else if (value instanceof String)
+		{
+			out.writeByte(SnapshotFormat.STRING);
+			out.writeInt(stringIndexes.get(value));
+		}
+		else if (value instanceof Boolean)
+		{
+			out.writeByte(SnapshotFormat.BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		}
+		else if (value instanceof Byte)
+		{
+			out.writeByte(SnapshotFormat.BYTE);
+			out.writeByte((Byte) value);
+		}
+		else if (value instanceof Character)
+		{
+			out.writeByte(SnapshotFormat.CHARACTER);
+			out.writeChar((Character) value);
+		}
+		else if (value instanceof Short)
+		{
+			out.writeByte(SnapshotFormat.SHORT);
+			out.writeShort((Short) value);
+		}
+		else if (value instanceof Integer)
+		{
+			out.writeByte(SnapshotFormat.INTEGER);
+			out.writeInt((Integer) value);
+		}
+		else if (value instanceof Long)
+		{
+			out.writeByte(SnapshotFormat.LONG);
+			out.writeLong((Long) value);
+		}
+		else if (value instanceof Float)
+		{
+			out.writeByte(SnapshotFormat.FLOAT);
+			out.writeFloat((Float) value);
+		}
+		else if (value instanceof Double)
+		{
+			out.writeByte(SnapshotFormat.DOUBLE);
+			out.writeDouble((Double) value);
+		}
+		else if (value instanceof Enum)
+		{
+			out.writeByte(SnapshotFormat.ENUM);
+			out.writeInt(classIndexes.get(((Enum<?>) value).getDeclaringClass()));
+			out.writeInt(stringIndexes.get(((Enum<?>) value).name()));
+		}
+		else if (value instanceof Class)
+		{
+			out.writeByte(SnapshotFormat.CLASS);
+			out.writeInt(stringIndexes.get(((Class<?>) value).getName()));
+		}
+		else if (value instanceof BigInteger)
+		{
+			out.writeByte(SnapshotFormat.BIG_INTEGER);
+			out.writeInt(stringIndexes.get(value.toString()));
+		}
+		else if (value instanceof BigDecimal)
+		{
+			out.writeByte(SnapshotFormat.BIG_DECIMAL);
+			out.writeInt(stringIndexes.get(value.toString()));
+		}
+		else
+		{
+			// every other value was added to the objects
+			out.writeByte(SnapshotFormat.REFERENCE);
+			out.writeInt(objectIndexes.get(value));
+		}
+	}
+	
+	/**
+	 * Writes the length and elements of a primitive array
+	 * 
+	 * @param out
+	 * @param array
+	 * @throws IOException
+	 */
+	private void writePrimitiveArray(final DataOutputStream out, final Object array) throws IOException
+	{
+		if (array instanceof boolean[])
+		{
+			out.writeInt(((boolean[]) array).length);
+			for (boolean element : (boolean[]) array)
+			{
+				out.writeBoolean(element);
+			}
+		}
+		else if (array instanceof byte[])
+		{
+			out.writeInt(((byte[]) array).length);
+			out.write((byte[]) array);
+		}
+		else if (array instanceof char[])
+		{
+			out.writeInt(((char[]) array).length);
+			for (char element : (char[]) array)
+			{
+				out.writeChar(element);
+			}
+		}
+		else if (array instanceof short[])
+		{
+			out.writeInt(((short[]) array).length);
+			for (short element : (short[]) array)
+			{
+				out.writeShort(element);
+			}
+		}
+		else if (array instanceof int[])
+		{
+			out.writeInt(((int[]) array).length);
+			for (int element : (int[]) array)
+			{
+				out.writeInt(element);
+			}
+		}
+		else if (array instanceof long[])
+		{
+			out.writeInt(((long[]) array).length);
+			for (long element : (long[]) array)
+			{
+				out.writeLong(element);
+			}
+		}
+		else if (array instanceof float[])
+		{
+			out.writeInt(((float[]) array).length);
+			for (float element : (float[]) array)
+			{
+				out.writeFloat(element);
+			}
+		}
+		else
+		{
+			out.writeInt(((double[]) array).length);
+			for (double element : (double[]) array)
+			{
+				out.writeDouble(element);
+			}
+		}
+	}
+	
+	/**
+	 * Determines how an object is written
+	 * 
+	 * @param object
+	 * @return the kind of the object
+	 * @throws IllegalArgumentException
+	 *         if the object cannot be read back from a snapshot
+	 */
+	private byte kindOf(final Object object)
+	{
+		Class<?> clazz = object.getClass();
+		if (owners.containsKey(object))
+		{
+			return SnapshotFormat.EXISTING_COLLECTION;
+		}
+		else if (clazz.isArray())
+		{
+			return clazz.getComponentType().isPrimitive() ? SnapshotFormat.PRIMITIVE_ARRAY : SnapshotFormat.ARRAY;
+		}
+		else if (clazz == Date.class)
+		{
+			return SnapshotFormat.DATE;
+		}
+		else if (object instanceof Collection && !(object instanceof SortedSet && null != ((SortedSet<?>) object)
+			.comparator()) && hasConstructor(clazz))
+		{
+			return SnapshotFormat.COLLECTION;
+		}
+		else if (object instanceof Map && !(object instanceof SortedMap && null != ((SortedMap<?, ?>) object)
+			.comparator()) && hasConstructor(clazz))
+		{
+			return SnapshotFormat.MAP;
+		}
+		else if (object instanceof Collection || object instanceof Map || Proxy.isProxyClass(clazz)
+			|| clazz.getName().startsWith("java.") || !hasConstructor(clazz))
+		{
+			throw new IllegalArgumentException("Cannot write a snapshot of " + clazz.getName());
+		}
+		
+		return SnapshotFormat.BEAN;
+	}
+	
+	/**
+	 * Returns the plan of a bean
+	 * 
+	 * @param bean
+	 * @return BeanPlan
+	 */
+	private BeanPlan getBeanPlan(final Object bean)
+	{
+		BeanPlan beanPlan = beanPlans.get(bean.getClass());
+		if (null == beanPlan)
+		{
+			beanPlan = beanPlanCache.getPlan(bean);
+			beanPlans.put(bean.getClass(), beanPlan);
+		}
+		
+		return beanPlan;
+	}
+	
+	/**
+	 * Returns the index of a string, adding it to the table if needed
+	 * 
+	 * @param string
+	 * @return int
+	 */
+	private int indexOf(final String string)
+	{
+		Integer index = stringIndexes.get(string);
+		if (null == index)
+		{
+			index = strings.size();
+			stringIndexes.put(string, index);
+			strings.add(string);
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * Returns the index of a class, adding it and its name to the tables if needed
+	 * 
+	 * @param clazz
+	 * @return int
+	 */
+	private int indexOf(final Class<?> clazz)
+	{
+		Integer index = classIndexes.get(clazz);
+		if (null == index)
+		{
+			index = classes.size();
+			classIndexes.put(clazz, index);
+			classes.add(clazz);
+			indexOf(clazz.getName());
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * Determines if a value is the wrapper of a primitive
+	 * 
+	 * @param value
+	 * @return boolean
+	 */
+	private static boolean isPrimitiveWrapper(final Object value)
+	{
+		return value instanceof Boolean || value instanceof Byte || value instanceof Character
+			|| value instanceof Short || value instanceof Integer || value instanceof Long || value instanceof Float
+			|| value instanceof Double;
+	}
+	
+	/**
+	 * Determines if a class has the no argument constructor that is needed to read it back.
+	 * Collections and maps must have a public constructor.
+	 * 
+	 * @param clazz
+	 * @return boolean
+	 */
+	private boolean hasConstructor(final Class<?> clazz)
+	{
+		Boolean constructor = constructors.get(clazz);
+		if (null == constructor)
+		{
+			try
+			{
+				// collections and maps are always allocated through their public constructor
+				if (Collection.class.isAssignableFrom(clazz) || Map.class.isAssignableFrom(clazz))
+				{
+					constructor = Modifier.isPublic(clazz.getModifiers()) && null != clazz.getConstructor();
+				}
+				else
+				{
+					constructor = null != clazz.getDeclaredConstructor();
+				}
+			}
+			catch (NoSuchMethodException e)
+			{
+				constructor = Boolean.FALSE;
+			}
+			
+			constructors.put(clazz, constructor);
+		}
+		
+		return constructor;
+	}
+}
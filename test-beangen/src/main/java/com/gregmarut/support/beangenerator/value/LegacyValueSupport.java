@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.value;
+
+import java.util.Deque;
+
+import com.gregmarut.support.beangenerator.model.FieldPath;
+
+/**
+ * Detects {@link Value} subclasses that still override the deque based
+ * {@link Value#getValue(Deque)} so that the built in values keep honoring them, and values that
+ * override neither method so that they fail instead of recursing
+ * 
+ * @author Greg Marut
+ */
+final class LegacyValueSupport
+{
+	// holds the class that declares the deque based method for each value class
+	private static final ClassValue<Class<?>> DEQUE_METHOD_OWNER = new ClassValue<Class<?>>()
+	{
+		@Override
+		protected Class<?> computeValue(final Class<?> type)
+		{
+			try
+			{
+				return type.getMethod("getValue", Deque.class).getDeclaringClass();
+			}
+			catch (NoSuchMethodException e)
+			{
+				return Value.class;
+			}
+		}
+	};
+	
+	// holds the class that declares the path based method for each value class
+	private static final ClassValue<Class<?>> PATH_METHOD_OWNER = new ClassValue<Class<?>>()
+	{
+		@Override
+		protected Class<?> computeValue(final Class<?> type)
+		{
+			try
+			{
+				return type.getMethod("getValue", FieldPath.class).getDeclaringClass();
+			}
+			catch (NoSuchMethodException e)
+			{
+				return Value.class;
+			}
+		}
+	};
+	
+	private LegacyValueSupport()
+	{
+		
+	}
+	
+	/**
+	 * Determines if a subclass of a built in value overrides the deque based method
+	 * 
+	 * @param valueClass
+	 *        the runtime class of the value
+	 * @param baseClass
+	 *        the built in value class
+	 * @return boolean
+	 */
+	static boolean overridesDequeMethod(final Class<?> valueClass, final Class<?> baseClass)
+	{
+		return valueClass != baseClass && DEQUE_METHOD_OWNER.get(valueClass) != baseClass;
+	}
+	
+	/**
+	 * Determines if a value overrides the path based method instead of relying on the default
+	 * 
+	 * @param valueClass
+	 *        the runtime class of the value
+	 * @return boolean
+	 */
+	static boolean overridesPathMethod(final Class<?> valueClass)
+	{
+		return PATH_METHOD_OWNER.get(valueClass) != Value.class;
+	}
+
+}
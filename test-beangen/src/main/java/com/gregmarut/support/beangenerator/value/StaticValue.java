@@ -12,9 +12,11 @@
  ******************************************************************************/
 package com.gregmarut.support.beangenerator.value;
 
+import java.util.ArrayDeque;
 import java.util.Deque;
 
 import com.gregmarut.support.beangenerator.model.FieldMember;
+import com.gregmarut.support.beangenerator.model.FieldPath;
 
 /**
  * Represents a value that never changes
@@ -46,6 +48,19 @@ public class StaticValue<V> implements Value<V>
 	}
 	
 	@Override
+	public V getValue(FieldPath fieldPath)
+	{
+		// subclasses that were written against the deque are still honored
+		if (LegacyValueSupport.overridesDequeMethod(getClass(), StaticValue.class))
+		{
+			return getValue(null != fieldPath ? fieldPath.toDeque() : new ArrayDeque<FieldMember>());
+		}
+		
+		return value;
+	}
+	
+	@Override
+	@Deprecated
 	public V getValue(Deque<FieldMember> fieldMemberStack)
 	{
 		return value;
@@ -12,9 +12,11 @@
  ******************************************************************************/
 package com.gregmarut.support.beangenerator.value;
 
+import java.util.ArrayDeque;
 import java.util.Deque;
 
 import com.gregmarut.support.beangenerator.model.FieldMember;
+import com.gregmarut.support.beangenerator.model.FieldPath;
 
 /**
  * The default implementation for how strings are generated
@@ -36,6 +38,20 @@ public class StringValue implements Value<String>
 	}
 	
 	@Override
+	public String getValue(FieldPath fieldPath)
+	{
+		// subclasses that were written against the deque are still honored
+		if (LegacyValueSupport.overridesDequeMethod(getClass(), StringValue.class))
+		{
+			return getValue(null != fieldPath ? fieldPath.toDeque() : new ArrayDeque<FieldMember>());
+		}
+		
+		// the name of the field that is being populated is the value
+		return fieldPath.getField().getName();
+	}
+	
+	@Override
+	@Deprecated
 	public String getValue(Deque<FieldMember> fieldMemberStack)
 	{
 		return fieldMemberStack.pop().getField().getName();
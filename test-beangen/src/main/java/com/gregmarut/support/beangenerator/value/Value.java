@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.value;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import com.gregmarut.support.beangenerator.model.FieldMember;
+import com.gregmarut.support.beangenerator.model.FieldPath;
+
+/**
+ * Adds a layer of abstraction for a value allowing for the customization for how a value is
+ * retrieved
+ * <p>
+ * Implementations override {@link #getValue(FieldPath)}. Implementations written against the
+ * older {@link #getValue(Deque)} keep working since the path based method delegates to it by
+ * default. Implementations that override neither method fail with an
+ * {@link IllegalStateException}.
+ * 
+ * @author Greg Marut
+ * @param <T>
+ */
+public interface Value<T>
+{
+	/**
+	 * Returns the class for this value
+	 * 
+	 * @return
+	 */
+	Class<T> getType();
+	
+	/**
+	 * Returns the generated value
+	 * 
+	 * @return
+	 */
+	T getValue();
+	
+	/**
+	 * Returns the generated value
+	 * 
+	 * @param fieldPath
+	 *        the path of field members from the root object to the field that is being populated.
+	 *        The path is immutable and shared, so walking it through {@link FieldPath#parent()}
+	 *        does not copy anything.
+	 * @return
+	 */
+	default T getValue(FieldPath fieldPath)
+	{
+		return getValue(null != fieldPath ? fieldPath.toDeque() : new ArrayDeque<FieldMember>());
+	}
+	
+	/**
+	 * Returns the generated value. This method is kept for compatibility and adapts the deque to a
+	 * {@link FieldPath}.
+	 * 
+	 * @param fieldMemberStack
+	 *        the entire history of field members that have been created up until this point. This
+	 *        deque is a shallow copy of the original so deque modifications are allowed
+	 * @return
+	 * @throws IllegalStateException
+	 *         if the implementation overrides neither this method nor {@link #getValue(FieldPath)}
+	 * @deprecated override {@link #getValue(FieldPath)} instead
+	 */
+	@Deprecated
+	default T getValue(Deque<FieldMember> fieldMemberStack)
+	{
+		// the default path based method delegates to this one so it must not be called back
+		if (!LegacyValueSupport.overridesPathMethod(getClass()))
+		{
+			throw new IllegalStateException(getClass().getName() + " must override getValue(FieldPath)");
+		}
+		
+		return getValue(FieldPath.fromDeque(fieldMemberStack));
+	}
+}
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beantest;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.gregmarut.support.util.ReflectionUtil;
+
+/**
+ * Holds the getter and setter of every field of a class that has both. A plan is compiled once per
+ * class by indexing the methods of the class and its parent classes, and is shared by every
+ * {@link GetterSetterTester}. Plans are held in a {@link ClassValue} so that they do not prevent
+ * the classes from being unloaded.
+ * 
+ * @author Greg Marut
+ */
+final class AccessorPlan
+{
+	// instantiate the logger
+	private static final Logger logger = LoggerFactory.getLogger(AccessorPlan.class);
+	
+	// holds the compiled plan of each class
+	private static final ClassValue<AccessorPlan> PLANS = new ClassValue<AccessorPlan>()
+	{
+		@Override
+		protected AccessorPlan computeValue(final Class<?> type)
+		{
+			return compile(type);
+		}
+	};
+	
+	// holds the properties in the order of the fields
+	private final List<PropertyAccessor> properties;
+	
+	private AccessorPlan(final List<PropertyAccessor> properties)
+	{
+		this.properties = Collections.unmodifiableList(properties);
+	}
+	
+	/**
+	 * Returns the plan of a class, compiling it the first time
+	 * 
+	 * @param clazz
+	 * @return AccessorPlan
+	 */
+	static AccessorPlan forClass(final Class<?> clazz)
+	{
+		return PLANS.get(clazz);
+	}
+	
+	/**
+	 * Returns the properties in the order of the fields, starting with the fields declared by the
+	 * class itself
+	 * 
+	 * @return List
+	 */
+	List<PropertyAccessor> getProperties()
+	{
+		return properties;
+	}
+	
+	/**
+	 * Compiles the plan of a class
+	 * 
+	 * @param clazz
+	 * @return AccessorPlan
+	 */
+	private static AccessorPlan compile(final Class<?> clazz)
+	{
+		// holds the methods without parameters and the methods with a single parameter
+		Map<String, Method> getters = new HashMap<String, Method>();
+		Map<MethodKey, Method> setters = new HashMap<MethodKey, Method>();
+		
+		// index the methods of the class and its parent classes, a method hides those of its parents
+		for (Class<?> current = clazz; null != current; current = current.getSuperclass())
+		{
+			for (Method method : current.getDeclaredMethods())
+			{
+				// bridge methods dispatch to the methods they bridge
+				if (method.isBridge())
+				{
+					continue;
+				}
+				
+				if (0 == method.getParameterCount())
+				{
+					putIfAbsent(getters, method.getName(), method);
+				}
+				else if (1 == method.getParameterCount())
+				{
+					putIfAbsent(setters, new MethodKey(method.getName(), method.getParameterTypes()[0]), method);
+				}
+			}
+		}
+		
+		List<PropertyAccessor> properties = new ArrayList<PropertyAccessor>();
+		
+		// for each of the fields
+		for (Field field : ReflectionUtil.getAllFields(clazz))
+		{
+			// retrieve the getter and setter methods for this field
+			Method getterMethod = findGetterMethod(getters, field);
+			Method setterMethod =
+				setters.get(new MethodKey(GetterSetterTester.toMethodName(GetterSetterTester.SETTER_PREFIX,
+					field.getName()), field.getType()));
+			
+			// make sure the getter and setter methods are not null
+			if (null != getterMethod && null != setterMethod)
+			{
+				logger.debug("Found Getter Method: {}", getterMethod);
+				logger.debug("Found Setter Method: {}", setterMethod);
+				
+				try
+				{
+					properties.add(new PropertyAccessor(field, getterMethod, setterMethod));
+				}
+				catch (IllegalAccessException e)
+				{
+					logger.info(e.getMessage(), e);
+				}
+				catch (RuntimeException e)
+				{
+					// the methods belong to a module that does not allow access
+					logger.info(e.getMessage(), e);
+				}
+			}
+			else
+			{
+				logger.debug("No Getter/Setter Methods for {}", field);
+			}
+		}
+		
+		return new AccessorPlan(properties);
+	}
+	
+	/**
+	 * Searches the indexed methods for the getter that would match the field. Boolean fields use
+	 * the is prefix, and fall back to the get prefix.
+	 * 
+	 * @param getters
+	 * @param field
+	 * @return the getter or null if there is none
+	 */
+	private static Method findGetterMethod(final Map<String, Method> getters, final Field field)
+	{
+		// check to see if this is a boolean
+		if (field.getType() == Boolean.class || field.getType() == boolean.class)
+		{
+			Method getterMethod =
+				getters.get(GetterSetterTester.toMethodName(GetterSetterTester.BOOLEAN_GETTER_PREFIX, field.getName()));
+			if (null != getterMethod)
+			{
+				return getterMethod;
+			}
+		}
+		
+		return getters.get(GetterSetterTester.toMethodName(GetterSetterTester.GETTER_PREFIX, field.getName()));
+	}
+	
+	/**
+	 * Adds a method unless one with the same key was already found in a subclass
+	 * 
+	 * @param methods
+	 * @param key
+	 * @param method
+	 */
+	private static <K> void putIfAbsent(final Map<K, Method> methods, final K key, final Method method)
+	{
+		if (!methods.containsKey(key))
+		{
+			methods.put(key, method);
+		}
+	}
+	
+	/**
+	 * Identifies a method by its name and single parameter type
+	 * 
+	 * @author Greg Marut
+	 */
+	private static final class MethodKey
+	{
+		private final String name;
+		private final Class<?> parameterType;
+		
+		private MethodKey(final String name, final Class<?> parameterType)
+		{
+			this.name = name;
+			this.parameterType = parameterType;
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return 31 * name.hashCode() + parameterType.hashCode();
+		}
+		
+		@Override
+		public boolean equals(final Object obj)
+		{
+			if (!(obj instanceof MethodKey))
+			{
+				return false;
+			}
+			
+			MethodKey other = (MethodKey) obj;
+			return name.equals(other.name) && parameterType == other.parameterType;
+		}
+	}
+}
@@ -0,0 +1,622 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beantest;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Finds the classes whose getters and setters can be tested by reading their class files directly,
+ * so that classes are not loaded unless they are tested. A class is a candidate if it is a
+ * concrete, non-synthetic class with a constructor without parameters that either declares a
+ * method whose name starts with "set" and that has a single parameter, or extends a class other
+ * than Object.
+ * 
+ * @author Greg Marut
+ */
+public final class ClassFileScanner
+{
+	// holds the extension of class files
+	private static final String CLASS_EXTENSION = ".class";
+	
+	// holds the first bytes of every class file
+	private static final int MAGIC = 0xCAFEBABE;
+	
+	// holds the access flags of classes
+	private static final int ACC_STATIC = 0x0008;
+	private static final int ACC_INTERFACE = 0x0200;
+	private static final int ACC_ABSTRACT = 0x0400;
+	private static final int ACC_SYNTHETIC = 0x1000;
+	private static final int ACC_ANNOTATION = 0x2000;
+	private static final int ACC_ENUM = 0x4000;
+	private static final int ACC_MODULE = 0x8000;
+	
+	// holds the name of the attribute that holds the generic signature of a field
+	private static final String SIGNATURE_ATTRIBUTE = "Signature";
+	
+	// holds the tags of the constant pool
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_INTEGER = 3;
+	private static final int CONSTANT_FLOAT = 4;
+	private static final int CONSTANT_LONG = 5;
+	private static final int CONSTANT_DOUBLE = 6;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_STRING = 8;
+	private static final int CONSTANT_FIELD_REF = 9;
+	private static final int CONSTANT_METHOD_REF = 10;
+	private static final int CONSTANT_INTERFACE_METHOD_REF = 11;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+	private static final int CONSTANT_METHOD_HANDLE = 15;
+	private static final int CONSTANT_METHOD_TYPE = 16;
+	private static final int CONSTANT_DYNAMIC = 17;
+	private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+	private static final int CONSTANT_MODULE = 19;
+	private static final int CONSTANT_PACKAGE = 20;
+	
+	private ClassFileScanner()
+	{
+		
+	}
+	
+	/**
+	 * Finds the candidate classes in a package and its subpackages in every directory and jar file
+	 * of a class loader
+	 * 
+	 * @param classLoader
+	 * @param packageName
+	 * @return the names of the classes in alphabetical order
+	 * @throws IOException
+	 */
+	public static List<String> scanPackage(final ClassLoader classLoader, final String packageName) throws IOException
+	{
+		// make sure the class loader is not null
+		if (null == classLoader)
+		{
+			throw new IllegalArgumentException("classLoader cannot be null");
+		}
+		
+		// make sure the package name is not null
+		if (null == packageName)
+		{
+			throw new IllegalArgumentException("packageName cannot be null");
+		}
+		
+		// holds the directory of the package within each root
+		final String directory = packageName.replace('.', '/');
+		
+		TreeSet<String> classNames = new TreeSet<String>();
+		Enumeration<URL> urls = classLoader.getResources(directory);
+		while (urls.hasMoreElements())
+		{
+			URL url = urls.nextElement();
+			
+			// check to see if the package is a directory or an entry of a jar file
+			if ("file".equals(url.getProtocol()))
+			{
+				try
+				{
+					scanDirectory(Paths.get(url.toURI()), classNames);
+				}
+				catch (URISyntaxException e)
+				{
+					throw new IOException(e);
+				}
+			}
+			else if ("jar".equals(url.getProtocol()))
+			{
+				JarURLConnection connection = (JarURLConnection) url.openConnection();
+				connection.setUseCaches(false);
+				
+				JarFile jarFile = connection.getJarFile();
+				try
+				{
+					scanJar(jarFile, directory + "/", classNames);
+				}
+				finally
+				{
+					jarFile.close();
+				}
+			}
+		}
+		
+		return new ArrayList<String>(classNames);
+	}
+	
+	/**
+	 * Finds the candidate classes in a directory or jar file that is the root of a class path
+	 * 
+	 * @param root
+	 * @return the names of the classes in alphabetical order
+	 * @throws IOException
+	 */
+	public static List<String> scanRoot(final Path root) throws IOException
+	{
+		// make sure the root is not null
+		if (null == root)
+		{
+			throw new IllegalArgumentException("root cannot be null");
+		}
+		
+		TreeSet<String> classNames = new TreeSet<String>();
+		if (Files.isDirectory(root))
+		{
+			scanDirectory(root, classNames);
+		}
+		else
+		{
+			JarFile jarFile = new JarFile(root.toFile());
+			try
+			{
+				scanJar(jarFile, "", classNames);
+			}
+			finally
+			{
+				jarFile.close();
+			}
+		}
+		
+		return new ArrayList<String>(classNames);
+	}
+	
+	/**
+	 * Reads every class file within a directory and its subdirectories
+	 * 
+	 * @param directory
+	 * @param classNames
+	 * @throws IOException
+	 */
+	private static void scanDirectory(final Path directory, final TreeSet<String> classNames) throws IOException
+	{
+		// holds the class files in the order in which they are found
+		List<Path> classFiles = new ArrayList<Path>();
+		
+		Stream<Path> paths = Files.walk(directory);
+		try
+		{
+			Iterator<Path> iterator = paths.iterator();
+			while (iterator.hasNext())
+			{
+				Path path = iterator.next();
+				if (path.getFileName().toString().endsWith(CLASS_EXTENSION) && Files.isRegularFile(path))
+				{
+					classFiles.add(path);
+				}
+			}
+		}
+		finally
+		{
+			paths.close();
+		}
+		
+		for (Path classFile : classFiles)
+		{
+			InputStream inputStream = Files.newInputStream(classFile);
+			try
+			{
+				addCandidate(inputStream, classNames);
+			}
+			finally
+			{
+				inputStream.close();
+			}
+		}
+	}
+	
+	/**
+	 * Reads every class file of a jar file whose name starts with the given prefix
+	 * 
+	 * @param jarFile
+	 * @param prefix
+	 * @param classNames
+	 * @throws IOException
+	 */
+	private static void scanJar(final JarFile jarFile, final String prefix, final TreeSet<String> classNames)
+		throws IOException
+	{
+		for (JarEntry entry : Collections.list(jarFile.entries()))
+		{
+			if (!entry.isDirectory() && entry.getName().startsWith(prefix) && entry.getName().endsWith(CLASS_EXTENSION))
+			{
+				InputStream inputStream = jarFile.getInputStream(entry);
+				try
+				{
+					addCandidate(inputStream, classNames);
+				}
+				finally
+				{
+					inputStream.close();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Reads a class file and adds the name of its class if it is a candidate
+	 * 
+	 * @param inputStream
+	 * @param classNames
+	 * @throws IOException
+	 */
+	private static void addCandidate(final InputStream inputStream, final TreeSet<String> classNames)
+		throws IOException
+	{
+		String className = readCandidate(new DataInputStream(new BufferedInputStream(inputStream)));
+		if (null != className)
+		{
+			classNames.add(className);
+		}
+	}
+	
+	/**
+	 * Reads the classes that the getters and setters of a class depend on from its class file,
+	 * which are its superclass and the classes that are referenced by the types of its instance
+	 * fields, including their type arguments
+	 * 
+	 * @param inputStream
+	 * @return the internal names of the classes with the superclass first if there is one
+	 * @throws IOException
+	 */
+	static List<String> readDependencies(final InputStream inputStream) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+		ConstantPool constantPool = readConstantPool(in);
+		if (null == constantPool)
+		{
+			return Collections.emptyList();
+		}
+		
+		// holds the names in the order that they are found
+		Set<String> dependencies = new LinkedHashSet<String>();
+		
+		// skip the access flags and the class
+		in.readUnsignedShort();
+		in.readUnsignedShort();
+		String superclassName = constantPool.getClassName(in.readUnsignedShort());
+		if (null != superclassName)
+		{
+			dependencies.add(superclassName);
+		}
+		
+		// skip the interfaces
+		skip(in, 2 * in.readUnsignedShort());
+		
+		// read the descriptor and the generic signature of each instance field
+		final int fieldCount = in.readUnsignedShort();
+		for (int i = 0; i < fieldCount; i++)
+		{
+			final boolean isStatic = 0 != (in.readUnsignedShort() & ACC_STATIC);
+			in.readUnsignedShort();
+			final String descriptor = constantPool.strings[in.readUnsignedShort()];
+			if (!isStatic)
+			{
+				addClassNames(dependencies, descriptor);
+			}
+			
+			final int attributeCount = in.readUnsignedShort();
+			for (int j = 0; j < attributeCount; j++)
+			{
+				final String attributeName = constantPool.strings[in.readUnsignedShort()];
+				final int length = in.readInt();
+				if (!isStatic && SIGNATURE_ATTRIBUTE.equals(attributeName) && length == 2)
+				{
+					addClassNames(dependencies, constantPool.strings[in.readUnsignedShort()]);
+				}
+				else
+				{
+					skip(in, length);
+				}
+			}
+		}
+		
+		return new ArrayList<String>(dependencies);
+	}
+	
+	/**
+	 * Adds the internal names of the classes that are referenced by a field descriptor or signature
+	 * 
+	 * @param classNames
+	 * @param signature
+	 */
+	private static void addClassNames(final Set<String> classNames, final String signature)
+	{
+		int i = 0;
+		while (i < signature.length())
+		{
+			final char c = signature.charAt(i);
+			if (c == 'L' || c == 'T' || c == '.')
+			{
+				// the name ends at the end of the type, its type arguments or an inner class
+				int end = i + 1;
+				while (end < signature.length() && ";<.".indexOf(signature.charAt(end)) < 0)
+				{
+					end++;
+				}
+				
+				// type variables and the simple names of inner classes are not class names
+				if (c == 'L')
+				{
+					classNames.add(signature.substring(i + 1, end));
+				}
+				
+				i = end;
+			}
+			else
+			{
+				i++;
+			}
+		}
+	}
+	
+	/**
+	 * Reads the header, the fields and the methods of a class file
+	 * 
+	 * @param in
+	 * @return the binary name of the class or null if it is not a candidate
+	 * @throws IOException
+	 */
+	static String readCandidate(final DataInputStream in) throws IOException
+	{
+		ConstantPool constantPool = readConstantPool(in);
+		if (null == constantPool)
+		{
+			return null;
+		}
+		
+		// make sure this is a concrete class
+		final int accessFlags = in.readUnsignedShort();
+		if (0 != (accessFlags & (ACC_INTERFACE | ACC_ABSTRACT | ACC_SYNTHETIC | ACC_ANNOTATION | ACC_ENUM
+			| ACC_MODULE)))
+		{
+			return null;
+		}
+		
+		final String internalName = constantPool.getClassName(in.readUnsignedShort());
+		final String superclassName = constantPool.getClassName(in.readUnsignedShort());
+		
+		// anonymous and local classes cannot be instantiated on their own
+		final int nested = internalName.lastIndexOf('$');
+		if (nested >= 0 && nested + 1 < internalName.length() && Character.isDigit(internalName.charAt(nested + 1)))
+		{
+			return null;
+		}
+		
+		// skip the interfaces
+		skip(in, 2 * in.readUnsignedShort());
+		
+		// skip the fields
+		final int fieldCount = in.readUnsignedShort();
+		for (int i = 0; i < fieldCount; i++)
+		{
+			skip(in, 6);
+			skipAttributes(in);
+		}
+		
+		// look for a constructor without parameters and a setter
+		boolean defaultConstructor = false;
+		boolean setter = false;
+		final int methodCount = in.readUnsignedShort();
+		for (int i = 0; i < methodCount; i++)
+		{
+			in.readUnsignedShort();
+			String name = constantPool.strings[in.readUnsignedShort()];
+			String descriptor = constantPool.strings[in.readUnsignedShort()];
+			skipAttributes(in);
+			
+			if ("<init>".equals(name) && "()V".equals(descriptor))
+			{
+				defaultConstructor = true;
+			}
+			else if (name.startsWith(GetterSetterTester.SETTER_PREFIX) && isSingleParameter(descriptor))
+			{
+				setter = true;
+			}
+		}
+		
+		// a class without setters may still inherit them
+		final boolean inherits = null != superclassName && !"java/lang/Object".equals(superclassName);
+		if (!defaultConstructor || !(setter || inherits))
+		{
+			return null;
+		}
+		
+		return internalName.replace('/', '.');
+	}
+	
+	/**
+	 * Reads the version and the constant pool of a class file
+	 * 
+	 * @param in
+	 * @return the constant pool or null if this is not a class file
+	 * @throws IOException
+	 */
+	private static ConstantPool readConstantPool(final DataInputStream in) throws IOException
+	{
+		// make sure this is a class file
+		if (in.readInt() != MAGIC)
+		{
+			return null;
+		}
+		
+		// skip the version
+		in.readUnsignedShort();
+		in.readUnsignedShort();
+		
+		// holds the strings and the class references of the constant pool
+		final int constantCount = in.readUnsignedShort();
+		final ConstantPool constantPool = new ConstantPool(constantCount);
+		for (int i = 1; i < constantCount; i++)
+		{
+			final int tag = in.readUnsignedByte();
+			switch (tag)
+			{
+				case CONSTANT_UTF8:
+					constantPool.strings[i] = in.readUTF();
+					break;
+				
+				case CONSTANT_CLASS:
+					constantPool.classes[i] = in.readUnsignedShort();
+					break;
+				
+				case CONSTANT_STRING:
+				case CONSTANT_METHOD_TYPE:
+				case CONSTANT_MODULE:
+				case CONSTANT_PACKAGE:
+					skip(in, 2);
+					break;
+				
+				case CONSTANT_METHOD_HANDLE:
+					skip(in, 3);
+					break;
+				
+				case CONSTANT_INTEGER:
+				case CONSTANT_FLOAT:
+				case CONSTANT_FIELD_REF:
+				case CONSTANT_METHOD_REF:
+				case CONSTANT_INTERFACE_METHOD_REF:
+				case CONSTANT_NAME_AND_TYPE:
+				case CONSTANT_DYNAMIC:
+				case CONSTANT_INVOKE_DYNAMIC:
+					skip(in, 4);
+					break;
+				
+				case CONSTANT_LONG:
+				case CONSTANT_DOUBLE:
+					// these constants take up two entries
+					skip(in, 8);
+					i++;
+					break;
+				
+				default:
+					throw new IOException("Unknown constant pool tag " + tag);
+			}
+		}
+		
+		return constantPool;
+	}
+	
+	/**
+	 * Skips a number of bytes, which a buffered stream may not do at once
+	 * 
+	 * @param in
+	 * @param count
+	 * @throws IOException
+	 */
+	private static void skip(final DataInputStream in, final int count) throws IOException
+	{
+		int remaining = count;
+		while (remaining > 0)
+		{
+			int skipped = in.skipBytes(remaining);
+			if (skipped <= 0)
+			{
+				// make sure the end of the stream was not reached
+				in.readByte();
+				skipped = 1;
+			}
+			
+			remaining -= skipped;
+		}
+	}
+	
+	/**
+	 * Skips the attributes of a field or method
+	 * 
+	 * @param in
+	 * @throws IOException
+	 */
+	private static void skipAttributes(final DataInputStream in) throws IOException
+	{
+		final int attributeCount = in.readUnsignedShort();
+		for (int i = 0; i < attributeCount; i++)
+		{
+			in.readUnsignedShort();
+			skip(in, in.readInt());
+		}
+	}
+	
+	/**
+	 * Determines if a method descriptor has exactly one parameter
+	 * 
+	 * @param descriptor
+	 * @return boolean
+	 */
+	private static boolean isSingleParameter(final String descriptor)
+	{
+		// check to see if there are no parameters
+		int index = 1;
+		if (descriptor.charAt(index) == ')')
+		{
+			return false;
+		}
+		
+		// skip the array dimensions and the type of the first parameter
+		while (descriptor.charAt(index) == '[')
+		{
+			index++;
+		}
+		
+		if (descriptor.charAt(index) == 'L')
+		{
+			index = descriptor.indexOf(';', index);
+		}
+		
+		return descriptor.charAt(index + 1) == ')';
+	}
+	
+	/**
+	 * Holds the strings and the class references of a constant pool
+	 * 
+	 * @author Greg Marut
+	 */
+	private static final class ConstantPool
+	{
+		private final String[] strings;
+		private final int[] classes;
+		
+		private ConstantPool(final int constantCount)
+		{
+			this.strings = new String[constantCount];
+			this.classes = new int[constantCount];
+		}
+		
+		/**
+		 * Returns the internal name of a class reference
+		 * 
+		 * @param index
+		 * @return the name or null if the index is zero
+		 */
+		private String getClassName(final int index)
+		{
+			return 0 != index ? strings[classes[index]] : null;
+		}
+	}
+}
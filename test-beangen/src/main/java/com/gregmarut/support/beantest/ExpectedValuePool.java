@@ -0,0 +1,317 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beantest;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+import com.gregmarut.support.beangenerator.value.NullValue;
+import com.gregmarut.support.beangenerator.value.StaticValue;
+import com.gregmarut.support.beangenerator.value.Value;
+
+/**
+ * Holds a bounded number of generated values for each type so that testing a property does not
+ * wait for its value to be instantiated. Every value is generated by its own call to the generator
+ * and is taken at most once. An empty pool is refilled in a batch on the calling thread, while a
+ * pool with an executor is also refilled in the background once half of its values are taken.
+ * Static and null default values are not pooled since they cost nothing to create, and neither
+ * are cached types since the generator returns the same instance for every call. The values are
+ * discarded whenever the default values or rules of the configuration change.
+ * 
+ * @author Greg Marut
+ */
+final class ExpectedValuePool
+{
+	// stands in for null values, which cannot be held by the queues
+	private static final Object NULL = new Object();
+	
+	// instantiate the logger
+	private static final Logger logger = LoggerFactory.getLogger(ExpectedValuePool.class);
+	
+	// holds the bean property generator
+	private final BeanPropertyGenerator beanPropertyGenerator;
+	
+	// holds the maximum number of values of each type
+	private final int capacity;
+	
+	// holds the executor that refills the pools in the background or null
+	private final Executor executor;
+	
+	// holds the pools of each type for the current state of the configuration
+	private volatile Pools pools;
+	
+	/**
+	 * Constructs a new ExpectedValuePool
+	 * 
+	 * @param beanPropertyGenerator
+	 * @param capacity
+	 *        the maximum number of values of each type
+	 * @param executor
+	 *        the executor that refills the pools in the background or null to only refill them in
+	 *        batches on the calling thread
+	 */
+	ExpectedValuePool(final BeanPropertyGenerator beanPropertyGenerator, final int capacity, final Executor executor)
+	{
+		// make sure the bean property generator is not null
+		if (null == beanPropertyGenerator)
+		{
+			throw new IllegalArgumentException("beanPropertyGenerator cannot be null");
+		}
+		
+		// make sure the capacity is positive
+		if (capacity < 1)
+		{
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		
+		this.beanPropertyGenerator = beanPropertyGenerator;
+		this.capacity = capacity;
+		this.executor = executor;
+		this.pools = new Pools(getGeneration());
+	}
+	
+	/**
+	 * Takes a value of the specified type that has not been taken before
+	 * 
+	 * @param type
+	 * @return Object
+	 */
+	Object take(final Class<?> type)
+	{
+		// static and null values are shared by every property anyway
+		Value<?> defaultValue = beanPropertyGenerator.getConfiguration().getDefaultValues().get(type);
+		if (defaultValue instanceof StaticValue || defaultValue instanceof NullValue)
+		{
+			return defaultValue.getValue();
+		}
+		
+		// cached types would fill the pool with the same instance
+		if (beanPropertyGenerator.getConfiguration().useCache(type))
+		{
+			return beanPropertyGenerator.get(type, false);
+		}
+		
+		// discard the values that were generated with a different configuration
+		Pools current = pools;
+		Object generation = getGeneration();
+		if (current.generation != generation)
+		{
+			current = new Pools(generation);
+			pools = current;
+		}
+		
+		// retrieve the pool of this type
+		TypePool typePool = current.typePools.get(type);
+		if (null == typePool)
+		{
+			TypePool created = new TypePool(type);
+			typePool = current.typePools.putIfAbsent(type, created);
+			if (null == typePool)
+			{
+				typePool = created;
+			}
+		}
+		
+		return typePool.take();
+	}
+	
+	/**
+	 * Discards every value so that the following values are generated with the current
+	 * configuration
+	 */
+	void clear()
+	{
+		pools = new Pools(getGeneration());
+	}
+	
+	/**
+	 * Counts the values of a type that are ready to be taken
+	 * 
+	 * @param type
+	 * @return int
+	 */
+	int available(final Class<?> type)
+	{
+		TypePool typePool = pools.typePools.get(type);
+		return null != typePool ? typePool.size.get() : 0;
+	}
+	
+	/**
+	 * Returns the token that identifies the current state of the default values and rules
+	 * 
+	 * @return Object
+	 */
+	private Object getGeneration()
+	{
+		return beanPropertyGenerator.getConfiguration().getBeanPlanCache().getGeneration();
+	}
+	
+	/**
+	 * Holds the pools of each type that were filled with the same state of the configuration
+	 * 
+	 * @author Greg Marut
+	 */
+	private static final class Pools
+	{
+		private final Object generation;
+		private final ConcurrentMap<Class<?>, TypePool> typePools;
+		
+		private Pools(final Object generation)
+		{
+			this.generation = generation;
+			this.typePools = new ConcurrentHashMap<Class<?>, TypePool>();
+		}
+	}
+	
+	/**
+	 * Holds the values of a single type
+	 * 
+	 * @author Greg Marut
+	 */
+	private final class TypePool implements Runnable
+	{
+		private final Class<?> type;
+		private final Queue<Object> values;
+		
+		// counts the values in the queue and those that are being generated for it, since counting
+		// the queue itself is not constant time
+		private final AtomicInteger size;
+		
+		// determines if a background refill has been submitted and has not finished
+		private final AtomicBoolean refilling;
+		
+		private TypePool(final Class<?> type)
+		{
+			this.type = type;
+			this.values = new ConcurrentLinkedQueue<Object>();
+			this.size = new AtomicInteger();
+			this.refilling = new AtomicBoolean();
+		}
+		
+		/**
+		 * Takes the next value and refills the pool if it runs low
+		 * 
+		 * @return Object
+		 */
+		private Object take()
+		{
+			Object value = values.poll();
+			if (null != value)
+			{
+				// refill the pool in the background before it runs empty
+				if (size.decrementAndGet() <= capacity / 2)
+				{
+					submitRefill();
+				}
+			}
+			else
+			{
+				// generate this value on the calling thread and the following values in the
+				// background or in a batch
+				value = generate();
+				if (null != executor)
+				{
+					submitRefill();
+				}
+				else
+				{
+					fill(capacity - 1);
+				}
+			}
+			
+			return NULL != value ? value : null;
+		}
+		
+		@Override
+		public void run()
+		{
+			try
+			{
+				fill(capacity);
+			}
+			catch (RuntimeException e)
+			{
+				// the calling thread generates the values again and reports the failure
+				logger.debug("Could not refill the values of {}: {}", type, e.toString());
+			}
+			finally
+			{
+				refilling.set(false);
+			}
+		}
+		
+		/**
+		 * Submits a background refill unless there is no executor or a refill is already running
+		 */
+		private void submitRefill()
+		{
+			if (null != executor && refilling.compareAndSet(false, true))
+			{
+				try
+				{
+					executor.execute(this);
+				}
+				catch (RejectedExecutionException e)
+				{
+					refilling.set(false);
+				}
+			}
+		}
+		
+		/**
+		 * Generates values until the pool holds the specified number of values
+		 * 
+		 * @param count
+		 */
+		private void fill(final int count)
+		{
+			for (int current = size.get(); current < count; current = size.get())
+			{
+				// reserve a place for the value so that concurrent refills stay within the bound
+				if (size.compareAndSet(current, current + 1))
+				{
+					try
+					{
+						values.offer(generate());
+					}
+					catch (RuntimeException e)
+					{
+						size.decrementAndGet();
+						throw e;
+					}
+				}
+			}
+		}
+		
+		/**
+		 * Generates a new value of the type of this pool
+		 * 
+		 * @return the value or the placeholder for null
+		 */
+		private Object generate()
+		{
+			Object value = beanPropertyGenerator.get(type, false);
+			return null != value ? value : NULL;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beantest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds the outcome of testing the getters and setters of many classes, in the order in which the
+ * classes were given
+ * 
+ * @author Greg Marut
+ */
+public final class GetterSetterReport
+{
+	private final List<GetterSetterResult> results;
+	private final long nanos;
+	
+	/**
+	 * Constructs a new GetterSetterReport
+	 * 
+	 * @param results
+	 * @param nanos
+	 *        the time it took to test every class
+	 */
+	public GetterSetterReport(final List<GetterSetterResult> results, final long nanos)
+	{
+		// make sure the results are not null
+		if (null == results)
+		{
+			throw new IllegalArgumentException("results cannot be null");
+		}
+		
+		this.results = Collections.unmodifiableList(new ArrayList<GetterSetterResult>(results));
+		this.nanos = nanos;
+	}
+	
+	public List<GetterSetterResult> getResults()
+	{
+		return results;
+	}
+	
+	public long getNanos()
+	{
+		return nanos;
+	}
+	
+	/**
+	 * Returns the results of the classes that failed
+	 * 
+	 * @return List
+	 */
+	public List<GetterSetterResult> getFailures()
+	{
+		List<GetterSetterResult> failures = new ArrayList<GetterSetterResult>();
+		for (GetterSetterResult result : results)
+		{
+			if (!result.isPassed())
+			{
+				failures.add(result);
+			}
+		}
+		
+		return failures;
+	}
+	
+	/**
+	 * Counts the classes that were skipped because they passed before and have not changed since
+	 * 
+	 * @return int
+	 */
+	public int getSkippedCount()
+	{
+		int skippedCount = 0;
+		for (GetterSetterResult result : results)
+		{
+			if (result.isSkipped())
+			{
+				skippedCount++;
+			}
+		}
+		
+		return skippedCount;
+	}
+	
+	/**
+	 * Determines if every class passed
+	 * 
+	 * @return boolean
+	 */
+	public boolean isPassed()
+	{
+		return getFailures().isEmpty();
+	}
+	
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder();
+		sb.append(results.size() - getFailures().size());
+		sb.append(" of ");
+		sb.append(results.size());
+		sb.append(" classes passed in ");
+		sb.append(nanos / 1000000);
+		sb.append(" ms");
+		
+		final int skippedCount = getSkippedCount();
+		if (skippedCount > 0)
+		{
+			sb.append(" (");
+			sb.append(skippedCount);
+			sb.append(" unchanged classes skipped)");
+		}
+		
+		for (GetterSetterResult result : results)
+		{
+			sb.append("\n");
+			sb.append(result);
+		}
+		
+		return sb.toString();
+	}
+}
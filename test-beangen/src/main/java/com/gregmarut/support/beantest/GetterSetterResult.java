@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beantest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds the outcome of testing the getters and setters of a single class
+ * 
+ * @author Greg Marut
+ */
+public final class GetterSetterResult
+{
+	private final String className;
+	private final int propertyCount;
+	private final List<String> mismatches;
+	private final Throwable error;
+	private final long nanos;
+	private final boolean skipped;
+	
+	/**
+	 * Constructs a new GetterSetterResult
+	 * 
+	 * @param className
+	 * @param propertyCount
+	 *        the number of fields whose getter and setter were tested
+	 * @param mismatches
+	 *        the description of every field whose getter did not return the value of its setter
+	 * @param error
+	 *        the failure that prevented the class from being tested or null
+	 * @param nanos
+	 *        the time it took to test the class
+	 */
+	public GetterSetterResult(final String className, final int propertyCount, final List<String> mismatches,
+		final Throwable error, final long nanos)
+	{
+		// make sure the class name is not null
+		if (null == className)
+		{
+			throw new IllegalArgumentException("className cannot be null");
+		}
+		
+		this.className = className;
+		this.propertyCount = propertyCount;
+		this.mismatches = Collections.unmodifiableList(new ArrayList<String>(mismatches));
+		this.error = error;
+		this.nanos = nanos;
+		this.skipped = false;
+	}
+	
+	private GetterSetterResult(final String className)
+	{
+		this.className = className;
+		this.propertyCount = 0;
+		this.mismatches = Collections.emptyList();
+		this.error = null;
+		this.nanos = 0;
+		this.skipped = true;
+	}
+	
+	/**
+	 * Creates the result of a class that was not tested again because it passed before and has not
+	 * changed since
+	 * 
+	 * @param className
+	 * @return GetterSetterResult
+	 */
+	public static GetterSetterResult skipped(final String className)
+	{
+		// make sure the class name is not null
+		if (null == className)
+		{
+			throw new IllegalArgumentException("className cannot be null");
+		}
+		
+		return new GetterSetterResult(className);
+	}
+	
+	public String getClassName()
+	{
+		return className;
+	}
+	
+	public int getPropertyCount()
+	{
+		return propertyCount;
+	}
+	
+	public List<String> getMismatches()
+	{
+		return mismatches;
+	}
+	
+	public Throwable getError()
+	{
+		return error;
+	}
+	
+	public long getNanos()
+	{
+		return nanos;
+	}
+	
+	/**
+	 * Determines if the class was skipped because it passed before and has not changed since
+	 * 
+	 * @return boolean
+	 */
+	public boolean isSkipped()
+	{
+		return skipped;
+	}
+	
+	/**
+	 * Determines if every getter returned the value of its setter
+	 * 
+	 * @return boolean
+	 */
+	public boolean isPassed()
+	{
+		return null == error && mismatches.isEmpty();
+	}
+	
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder();
+		if (skipped)
+		{
+			return "SKIP " + className;
+		}
+		
+		sb.append(isPassed() ? "PASS " : "FAIL ");
+		sb.append(className);
+		sb.append(" (");
+		sb.append(propertyCount);
+		sb.append(" properties, ");
+		sb.append(nanos / 1000000);
+		sb.append(" ms)");
+		
+		if (null != error)
+		{
+			sb.append("\n\t");
+			sb.append(error);
+		}
+		
+		for (String mismatch : mismatches)
+		{
+			sb.append("\n\t");
+			sb.append(mismatch);
+		}
+		
+		return sb.toString();
+	}
+}
@@ -0,0 +1,545 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beantest;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+import com.gregmarut.support.beangenerator.jfr.Events;
+import com.gregmarut.support.beangenerator.jfr.GetterSetterTestEvent;
+import com.gregmarut.support.beangenerator.snapshot.Fingerprint;
+
+/**
+ * Automates the testing of getter and setter methods using reflection
+ * 
+ * @author Greg Marut
+ */
+public class GetterSetterTester
+{
+	public static final String SETTER_PREFIX = "set";
+	public static final String GETTER_PREFIX = "get";
+	public static final String BOOLEAN_GETTER_PREFIX = "is";
+	
+	// holds the default number of expected values that are kept ready for each type
+	public static final int DEFAULT_VALUE_POOL_SIZE = 16;
+	
+	// holds the version that is used when the library is not run from its jar
+	private static final String UNKNOWN_VERSION = "unknown";
+	
+	// instantiate the logger
+	protected final Logger logger = LoggerFactory.getLogger(getClass());
+	
+	// holds the bean property generator
+	private final BeanPropertyGenerator beanPropertyGenerator;
+	
+	// holds the file that records the classes that passed or null to always test every class
+	private Path resultsFile;
+	
+	// determines if every class is tested even if it passed before and has not changed
+	private boolean forceFullRun;
+	
+	// holds the expected values that are ready to be set on the properties
+	private ExpectedValuePool expectedValuePool;
+	
+	// holds the number of expected values that are kept ready for each type
+	private int valuePoolSize;
+	
+	// holds the executor that refills the expected values in the background or null
+	private Executor valuePoolExecutor;
+	
+	public GetterSetterTester()
+	{
+		this(new BeanPropertyGenerator(false, true));
+	}
+	
+	public GetterSetterTester(final BeanPropertyGenerator beanPropertyGenerator)
+	{
+		this.beanPropertyGenerator = beanPropertyGenerator;
+		this.valuePoolSize = DEFAULT_VALUE_POOL_SIZE;
+		this.expectedValuePool = new ExpectedValuePool(beanPropertyGenerator, valuePoolSize, null);
+	}
+	
+	/**
+	 * Execute the GetterSetter tests on the target class
+	 */
+	public void execute(final Class<?>... targetClasses)
+	{
+		// make sure the classes is not null
+		if (null != targetClasses)
+		{
+			// holds the results of the previous run or null if the mode is not incremental
+			IncrementalResults incrementalResults = loadResults();
+			
+			try
+			{
+				// for each of the target classes
+				for (Class<?> targetClass : targetClasses)
+				{
+					// skip the classes that passed before and have not changed since
+					String hash = null;
+					if (null != incrementalResults)
+					{
+						hash = IncrementalResults.hash(targetClass.getClassLoader(), targetClass.getName());
+						if (incrementalResults.isUnchanged(targetClass.getName(), hash))
+						{
+							logger.debug("Skipping unchanged {}", targetClass.getName());
+							continue;
+						}
+						
+						// the class is tested again if the test throws
+						incrementalResults.record(targetClass.getName(), hash, false);
+					}
+					
+					// the event is only begun while a recording is running so that it costs nothing
+					// otherwise
+					GetterSetterTestEvent event = Events.beginGetterSetterTest();
+					
+					// generate an instance of the target
+					Object target = beanPropertyGenerator.get(targetClass);
+					
+					// execute the test on the target object
+					int propertyCount = test(target, null);
+					
+					if (null != event && event.shouldCommit())
+					{
+						event.targetClass = targetClass;
+						event.propertyCount = propertyCount;
+						event.commit();
+					}
+					
+					if (null != incrementalResults)
+					{
+						incrementalResults.record(targetClass.getName(), hash, true);
+					}
+				}
+			}
+			finally
+			{
+				// record the classes that passed even if a later class failed
+				if (null != incrementalResults)
+				{
+					incrementalResults.save();
+				}
+			}
+		}
+		else
+		{
+			throw new IllegalArgumentException("Target classes cannot be null.");
+		}
+	}
+	
+	/**
+	 * Execute the GetterSetter tests on the target object
+	 */
+	public void executeObject(final Object target)
+	{
+		test(target, null);
+	}
+	
+	/**
+	 * Execute the GetterSetter tests on the candidate classes of a package and its subpackages
+	 * using the context class loader and the common fork-join pool
+	 * 
+	 * @param packageName
+	 * @return GetterSetterReport
+	 * @throws IOException
+	 * @see #executePackage(String, ClassLoader, Executor)
+	 */
+	public GetterSetterReport executePackage(final String packageName) throws IOException
+	{
+		return executePackage(packageName, Thread.currentThread().getContextClassLoader(), ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Execute the GetterSetter tests on the candidate classes of a package and its subpackages. The
+	 * classes are found by reading their class files, see {@link ClassFileScanner}.
+	 * 
+	 * @param packageName
+	 * @param classLoader
+	 *        the class loader whose directories and jar files are searched and that loads the classes
+	 * @param executor
+	 *        the executor that tests the classes
+	 * @return GetterSetterReport
+	 * @throws IOException
+	 */
+	public GetterSetterReport executePackage(final String packageName, final ClassLoader classLoader,
+		final Executor executor) throws IOException
+	{
+		return execute(ClassFileScanner.scanPackage(classLoader, packageName), classLoader, executor);
+	}
+	
+	/**
+	 * Execute the GetterSetter tests on the candidate classes of a directory or jar file that is the
+	 * root of a class path
+	 * 
+	 * @param root
+	 * @param classLoader
+	 *        the class loader that loads the classes
+	 * @param executor
+	 *        the executor that tests the classes
+	 * @return GetterSetterReport
+	 * @throws IOException
+	 */
+	public GetterSetterReport executeRoot(final Path root, final ClassLoader classLoader, final Executor executor)
+		throws IOException
+	{
+		return execute(ClassFileScanner.scanRoot(root), classLoader, executor);
+	}
+	
+	/**
+	 * Execute the GetterSetter tests on many classes concurrently. Every class is tested even if
+	 * others fail, and every mismatch of a class is collected instead of throwing a
+	 * {@link ValueMismatchException}. In incremental mode, the classes that passed before and have
+	 * not changed are not loaded and are reported as skipped.
+	 * 
+	 * @param classNames
+	 * @param classLoader
+	 *        the class loader that loads the classes
+	 * @param executor
+	 *        the executor that tests the classes
+	 * @return the result of each class in the order of the names
+	 */
+	public GetterSetterReport execute(final List<String> classNames, final ClassLoader classLoader,
+		final Executor executor)
+	{
+		// make sure the class names are not null
+		if (null == classNames)
+		{
+			throw new IllegalArgumentException("classNames cannot be null");
+		}
+		
+		// make sure the executor is not null
+		if (null == executor)
+		{
+			throw new IllegalArgumentException("executor cannot be null");
+		}
+		
+		// measure how long it takes to test every class
+		final long started = System.nanoTime();
+		
+		// holds the results at the index of their class
+		final GetterSetterResult[] results = new GetterSetterResult[classNames.size()];
+		
+		// holds the results of the previous run or null if the mode is not incremental
+		final IncrementalResults incrementalResults = loadResults();
+		
+		// submit each class to the executor
+		List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>();
+		for (int i = 0; i < results.length; i++)
+		{
+			final int index = i;
+			final String className = classNames.get(i);
+			
+			futures.add(CompletableFuture.runAsync(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					results[index] = test(className, classLoader, incrementalResults);
+				}
+			}, executor));
+		}
+		
+		// wait for every class, the failures are already part of the results
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).join();
+		
+		if (null != incrementalResults)
+		{
+			incrementalResults.save();
+		}
+		
+		return new GetterSetterReport(Arrays.asList(results), System.nanoTime() - started);
+	}
+	
+	/**
+	 * Loads a class and tests its getters and setters unless it passed before and has not changed
+	 * since
+	 * 
+	 * @param className
+	 * @param classLoader
+	 * @param incrementalResults
+	 *        the results of the previous run or null if the mode is not incremental
+	 * @return GetterSetterResult
+	 */
+	private GetterSetterResult test(final String className, final ClassLoader classLoader,
+		final IncrementalResults incrementalResults)
+	{
+		final long started = System.nanoTime();
+		
+		// skip the class without loading it if it passed before and has not changed since
+		String hash = null;
+		if (null != incrementalResults)
+		{
+			hash = IncrementalResults.hash(classLoader, className);
+			if (incrementalResults.isUnchanged(className, hash))
+			{
+				return GetterSetterResult.skipped(className);
+			}
+		}
+		
+		// the event is only begun while a recording is running so that it costs nothing otherwise
+		GetterSetterTestEvent event = Events.beginGetterSetterTest();
+		
+		// holds the mismatches of every field
+		List<String> mismatches = new ArrayList<String>();
+		int propertyCount = 0;
+		Throwable error = null;
+		
+		try
+		{
+			Class<?> targetClass = Class.forName(className, true, classLoader);
+			propertyCount = test(beanPropertyGenerator.get(targetClass), mismatches);
+			
+			if (null != event && event.shouldCommit())
+			{
+				event.targetClass = targetClass;
+				event.propertyCount = propertyCount;
+				event.commit();
+			}
+		}
+		catch (ClassNotFoundException e)
+		{
+			error = e;
+		}
+		catch (LinkageError e)
+		{
+			error = e;
+		}
+		catch (RuntimeException e)
+		{
+			error = e;
+		}
+		
+		GetterSetterResult result =
+			new GetterSetterResult(className, propertyCount, mismatches, error, System.nanoTime() - started);
+		
+		if (null != incrementalResults)
+		{
+			incrementalResults.record(className, hash, result.isPassed());
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Reads the results of the previous run in incremental mode
+	 * 
+	 * @return the results or null if the mode is not incremental
+	 */
+	private IncrementalResults loadResults()
+	{
+		if (null == resultsFile)
+		{
+			return null;
+		}
+		
+		// the results of another version of the library are not trusted
+		String version = GetterSetterTester.class.getPackage().getImplementationVersion();
+		long fingerprint = Fingerprint.of(beanPropertyGenerator.getConfiguration(), null != version ? version
+			: UNKNOWN_VERSION);
+		return IncrementalResults.load(resultsFile, fingerprint, forceFullRun);
+	}
+	
+	/**
+	 * Execute the GetterSetter tests on the target object
+	 * 
+	 * @param target
+	 * @param mismatches
+	 *        collects the description of every mismatch or null to throw the first mismatch
+	 * @return the number of fields whose getter and setter were tested
+	 */
+	private int test(final Object target, final List<String> mismatches)
+	{
+		// counts the fields whose getter and setter were tested
+		int propertyCount = 0;
+		
+		// make sure the target is not null
+		if (null != target)
+		{
+			// retrieve the getters and setters that were compiled for the class of the target
+			AccessorPlan accessorPlan = AccessorPlan.forClass(target.getClass());
+			
+			// for each of the properties
+			for (PropertyAccessor property : accessorPlan.getProperties())
+			{
+				try
+				{
+					logger.debug("Testing Getter/Setter Methods for {}", property.getField());
+					
+					// take a new value for this field that was generated ahead of time
+					Object expectedValue = expectedValuePool.take(property.getType());
+					
+					// invoke the setter method
+					property.set(target, expectedValue);
+					
+					// now retrieve the value by invoking the getter method
+					Object actualValue = property.get(target);
+					
+					// check to see if the values do not match
+					if (null != actualValue ? !actualValue.equals(expectedValue) : null != expectedValue)
+					{
+						ValueMismatchException e = new ValueMismatchException(expectedValue, actualValue);
+						if (null == mismatches)
+						{
+							throw e;
+						}
+						
+						mismatches.add(property.getField().getName() + ": " + e.getMessage());
+					}
+					
+					propertyCount++;
+				}
+				catch (IllegalArgumentException e)
+				{
+					logger.info(e.getMessage(), e);
+				}
+				catch (IllegalAccessException e)
+				{
+					logger.info(e.getMessage(), e);
+				}
+				catch (InvocationTargetException e)
+				{
+					logger.info(e.getMessage(), e);
+				}
+			}
+		}
+		else
+		{
+			throw new IllegalArgumentException("Target cannot be null.");
+		}
+		
+		return propertyCount;
+	}
+	
+	/**
+	 * Converts a field name into a representation of the getter/setter method
+	 * 
+	 * @param prefix
+	 * @param fieldName
+	 * @return
+	 */
+	static String toMethodName(final String prefix, final String fieldName)
+	{
+		// convert the field name to the appropriate method
+		StringBuilder sb = new StringBuilder();
+		sb.append(prefix);
+		sb.append(fieldName.substring(0, 1).toUpperCase());
+		
+		if (fieldName.length() > 1)
+		{
+			sb.append(fieldName.substring(1));
+		}
+		
+		return sb.toString();
+	}
+	
+	public BeanPropertyGenerator getBeanPropertyGenerator()
+	{
+		return beanPropertyGenerator;
+	}
+	
+	public Path getResultsFile()
+	{
+		return resultsFile;
+	}
+	
+	/**
+	 * Enables the incremental mode. The hash of the bytecode of every class that passes is recorded
+	 * in the results file together with a fingerprint of the configuration, and the following runs
+	 * skip the classes whose bytecode, and the bytecode of their superclasses, has not changed. Every
+	 * class is tested again when the configuration changes.
+	 * 
+	 * @param resultsFile
+	 *        the file that records the classes that passed or null to always test every class
+	 */
+	public void setResultsFile(final Path resultsFile)
+	{
+		this.resultsFile = resultsFile;
+	}
+	
+	public boolean isForceFullRun()
+	{
+		return forceFullRun;
+	}
+	
+	/**
+	 * Determines if every class is tested even if it passed before and has not changed. The results
+	 * file is still written so that the following runs can skip the classes again.
+	 * 
+	 * @param forceFullRun
+	 */
+	public void setForceFullRun(final boolean forceFullRun)
+	{
+		this.forceFullRun = forceFullRun;
+	}
+	
+	public int getValuePoolSize()
+	{
+		return valuePoolSize;
+	}
+	
+	/**
+	 * Sets how many expected values are kept ready for each type. Every value is generated by its
+	 * own call to the generator and is set on a single property. Changing the size discards the
+	 * values that are ready.
+	 * 
+	 * @param valuePoolSize
+	 */
+	public void setValuePoolSize(final int valuePoolSize)
+	{
+		this.expectedValuePool = new ExpectedValuePool(beanPropertyGenerator, valuePoolSize, valuePoolExecutor);
+		this.valuePoolSize = valuePoolSize;
+	}
+	
+	public Executor getValuePoolExecutor()
+	{
+		return valuePoolExecutor;
+	}
+	
+	/**
+	 * Sets the executor that generates the expected values in the background once half of the
+	 * values of a type are taken. Without an executor, the values are generated in batches whenever
+	 * the values of a type run out. The values are generated concurrently with the tests, so any
+	 * custom values and listeners of the generator must be thread safe. Changing the executor
+	 * discards the values that are ready.
+	 * 
+	 * @param valuePoolExecutor
+	 *        the executor or null to generate the values in batches on the testing thread
+	 */
+	public void setValuePoolExecutor(final Executor valuePoolExecutor)
+	{
+		this.expectedValuePool = new ExpectedValuePool(beanPropertyGenerator, valuePoolSize, valuePoolExecutor);
+		this.valuePoolExecutor = valuePoolExecutor;
+	}
+	
+	/**
+	 * Discards the expected values that are ready. The values are discarded automatically when the
+	 * default values or rules of the configuration are modified; after any other change to the
+	 * configuration, call this method.
+	 */
+	public void clearValuePool()
+	{
+		expectedValuePool.clear();
+	}
+}
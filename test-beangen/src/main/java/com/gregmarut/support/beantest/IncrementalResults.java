@@ -0,0 +1,355 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beantest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the bytecode hashes of the classes that passed a previous run of the
+ * {@link GetterSetterTester}. The results are only valid for the configuration fingerprint they
+ * were recorded with, and the hash of a class covers its own class file and those of its
+ * superclasses and field types, since the getters and setters that are tested may be inherited
+ * and their values are compared through the equals methods of the field types.
+ * 
+ * @author Greg Marut
+ */
+final class IncrementalResults
+{
+	// holds the key of the configuration fingerprint within the results file
+	private static final String FINGERPRINT_KEY = "#fingerprint";
+	
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	
+	// instantiate the logger
+	private static final Logger logger = LoggerFactory.getLogger(IncrementalResults.class);
+	
+	// holds the file the results are read from and written to
+	private final Path file;
+	
+	// holds the fingerprint of the configuration of the tester
+	private final long fingerprint;
+	
+	// holds the hash of each class that passed
+	private final Map<String, String> passed;
+	
+	private IncrementalResults(final Path file, final long fingerprint)
+	{
+		this.file = file;
+		this.fingerprint = fingerprint;
+		this.passed = new ConcurrentHashMap<String, String>();
+	}
+	
+	/**
+	 * Reads the results of a previous run. The previous results are discarded if they were recorded
+	 * with a different fingerprint, if they cannot be read or if a full run is forced.
+	 * 
+	 * @param file
+	 * @param fingerprint
+	 *        the fingerprint of the configuration of the tester
+	 * @param forceFullRun
+	 *        whether every class is tested again
+	 * @return IncrementalResults
+	 */
+	static IncrementalResults load(final Path file, final long fingerprint, final boolean forceFullRun)
+	{
+		IncrementalResults results = new IncrementalResults(file, fingerprint);
+		if (forceFullRun)
+		{
+			return results;
+		}
+		
+		try
+		{
+			Properties properties = new Properties();
+			InputStream inputStream = Files.newInputStream(file);
+			try
+			{
+				properties.load(inputStream);
+			}
+			finally
+			{
+				inputStream.close();
+			}
+			
+			// the results are only valid for the configuration they were recorded with
+			if (!Long.toString(fingerprint).equals(properties.getProperty(FINGERPRINT_KEY)))
+			{
+				logger.debug("The configuration changed since {} was written", file);
+				return results;
+			}
+			
+			for (String className : properties.stringPropertyNames())
+			{
+				if (!FINGERPRINT_KEY.equals(className))
+				{
+					results.passed.put(className, properties.getProperty(className));
+				}
+			}
+		}
+		catch (NoSuchFileException e)
+		{
+			logger.debug("No previous results in {}", file);
+		}
+		catch (IOException e)
+		{
+			logger.warn("Could not read results {}: {}", file, e.toString());
+		}
+		catch (IllegalArgumentException e)
+		{
+			logger.warn("Could not read results {}: {}", file, e.toString());
+		}
+		
+		return results;
+	}
+	
+	/**
+	 * Determines if a class passed a previous run and has not changed since
+	 * 
+	 * @param className
+	 * @param hash
+	 *        the current hash of the class or null if it is unknown
+	 * @return boolean
+	 */
+	boolean isUnchanged(final String className, final String hash)
+	{
+		return null != hash && hash.equals(passed.get(className));
+	}
+	
+	/**
+	 * Records the outcome of testing a class. Classes that failed or whose hash is unknown are tested
+	 * again on the next run.
+	 * 
+	 * @param className
+	 * @param hash
+	 *        the current hash of the class or null if it is unknown
+	 * @param isPassed
+	 */
+	void record(final String className, final String hash, final boolean isPassed)
+	{
+		if (isPassed && null != hash)
+		{
+			passed.put(className, hash);
+		}
+		else
+		{
+			passed.remove(className);
+		}
+	}
+	
+	/**
+	 * Writes the results to a temporary file next to the results file and moves it into place so
+	 * that concurrent runs never read a partial file
+	 */
+	void save()
+	{
+		Properties properties = new Properties();
+		properties.setProperty(FINGERPRINT_KEY, Long.toString(fingerprint));
+		properties.putAll(passed);
+		
+		Path temporary = null;
+		try
+		{
+			Path directory = file.toAbsolutePath().getParent();
+			Files.createDirectories(directory);
+			temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+			
+			OutputStream outputStream = Files.newOutputStream(temporary);
+			try
+			{
+				properties.store(outputStream, "GetterSetterTester results");
+			}
+			finally
+			{
+				outputStream.close();
+			}
+			
+			move(temporary, file);
+			temporary = null;
+		}
+		catch (IOException e)
+		{
+			logger.warn("Could not save results {}: {}", file, e.toString());
+		}
+		finally
+		{
+			deleteQuietly(temporary);
+		}
+	}
+	
+	/**
+	 * Computes the hash of the class file of a class and of the class files of the classes that its
+	 * getters and setters depend on without loading any of them. These are its superclasses and the
+	 * types of its instance fields, whose equals methods decide whether a property check passes, and
+	 * in turn their own dependencies. The classes of the JDK are not part of the hash.
+	 * 
+	 * @param classLoader
+	 * @param className
+	 * @return the hash or null if a class file cannot be read
+	 */
+	static String hash(final ClassLoader classLoader, final String className)
+	{
+		try
+		{
+			MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+			
+			// visit the dependencies breadth first so that the order of the class files is stable
+			Set<String> visited = new HashSet<String>();
+			Deque<String> pending = new ArrayDeque<String>();
+			pending.add(className.replace('.', '/'));
+			while (!pending.isEmpty())
+			{
+				String internalName = pending.removeFirst();
+				if (internalName.startsWith("java/") || !visited.add(internalName))
+				{
+					continue;
+				}
+				
+				byte[] bytes = readClassFile(classLoader, internalName);
+				if (null == bytes)
+				{
+					return null;
+				}
+				
+				// include the name so that moving bytes between classes changes the hash
+				messageDigest.update(internalName.getBytes(StandardCharsets.UTF_8));
+				messageDigest.update(bytes);
+				pending.addAll(ClassFileScanner.readDependencies(new ByteArrayInputStream(bytes)));
+			}
+			
+			return toHex(messageDigest.digest());
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException(e);
+		}
+		catch (IOException e)
+		{
+			logger.debug("Could not hash {}: {}", className, e.toString());
+			return null;
+		}
+	}
+	
+	/**
+	 * Reads the class file of a class
+	 * 
+	 * @param classLoader
+	 * @param internalName
+	 * @return the bytes of the class file or null if there is none
+	 * @throws IOException
+	 */
+	private static byte[] readClassFile(final ClassLoader classLoader, final String internalName) throws IOException
+	{
+		// the bootstrap classes are found through the system class loader
+		ClassLoader loader = null != classLoader ? classLoader : ClassLoader.getSystemClassLoader();
+		InputStream inputStream = loader.getResourceAsStream(internalName + ".class");
+		if (null == inputStream)
+		{
+			return null;
+		}
+		
+		try
+		{
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			for (int read = inputStream.read(buffer); read >= 0; read = inputStream.read(buffer))
+			{
+				outputStream.write(buffer, 0, read);
+			}
+			
+			return outputStream.toByteArray();
+		}
+		finally
+		{
+			inputStream.close();
+		}
+	}
+	
+	/**
+	 * Converts bytes to lowercase hexadecimal digits
+	 * 
+	 * @param bytes
+	 * @return String
+	 */
+	private static String toHex(final byte[] bytes)
+	{
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes)
+		{
+			sb.append(HEX_DIGITS[(b >> 4) & 0xf]);
+			sb.append(HEX_DIGITS[b & 0xf]);
+		}
+		
+		return sb.toString();
+	}
+	
+	/**
+	 * Moves a file atomically if the file system supports it
+	 * 
+	 * @param source
+	 * @param target
+	 * @throws IOException
+	 */
+	private static void move(final Path source, final Path target) throws IOException
+	{
+		try
+		{
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e)
+		{
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+	
+	/**
+	 * Deletes a file and ignores any failure
+	 * 
+	 * @param path
+	 */
+	private static void deleteQuietly(final Path path)
+	{
+		if (null != path)
+		{
+			try
+			{
+				Files.deleteIfExists(path);
+			}
+			catch (IOException e)
+			{
+				logger.debug("Could not delete {}: {}", path, e.toString());
+			}
+		}
+	}
+}
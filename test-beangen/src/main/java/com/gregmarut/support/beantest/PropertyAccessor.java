@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beantest;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import com.gregmarut.support.util.ClassConversionUtil;
+
+/**
+ * Calls the getter and setter of a single field using {@link MethodHandle}s. Values that the
+ * handles cannot convert, such as a null value for a primitive or a value that needs a widening
+ * conversion, are passed to the reflective methods so that the results are the same as with
+ * {@link Method#invoke(Object, Object...)}.
+ * 
+ * @author Greg Marut
+ */
+final class PropertyAccessor
+{
+	// holds the erased types of the handles
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+	
+	private final Field field;
+	private final Method getterMethod;
+	private final Method setterMethod;
+	private final MethodHandle getter;
+	private final MethodHandle setter;
+	
+	// holds the only class of values that the setter handle accepts without a conversion or null if
+	// any assignable value is accepted
+	private final Class<?> wrapperType;
+	
+	/**
+	 * Creates the handles of a getter and setter
+	 * 
+	 * @param field
+	 * @param getterMethod
+	 * @param setterMethod
+	 * @throws IllegalAccessException
+	 */
+	PropertyAccessor(final Field field, final Method getterMethod, final Method setterMethod)
+		throws IllegalAccessException
+	{
+		this.field = field;
+		this.getterMethod = getterMethod;
+		this.setterMethod = setterMethod;
+		this.getter = createHandle(getterMethod).asType(GETTER_TYPE);
+		this.setter = createHandle(setterMethod).asType(SETTER_TYPE);
+		this.wrapperType = field.getType().isPrimitive() ? ClassConversionUtil.convertToNonPrimitive(field.getType())
+			: null;
+	}
+	
+	/**
+	 * Creates a handle that takes the target as its first argument, even for static methods
+	 * 
+	 * @param method
+	 * @return MethodHandle
+	 * @throws IllegalAccessException
+	 */
+	private static MethodHandle createHandle(final Method method) throws IllegalAccessException
+	{
+		// the access checks are performed once instead of on every call
+		method.setAccessible(true);
+		MethodHandle handle = MethodHandles.lookup().unreflect(method);
+		
+		// static methods ignore the target like they do when they are invoked reflectively
+		if (Modifier.isStatic(method.getModifiers()))
+		{
+			handle = MethodHandles.dropArguments(handle, 0, Object.class);
+		}
+		
+		return handle;
+	}
+	
+	/**
+	 * Returns the field
+	 * 
+	 * @return Field
+	 */
+	Field getField()
+	{
+		return field;
+	}
+	
+	/**
+	 * Returns the type of the values of this property
+	 * 
+	 * @return Class
+	 */
+	Class<?> getType()
+	{
+		return field.getType();
+	}
+	
+	/**
+	 * Returns the getter method
+	 * 
+	 * @return Method
+	 */
+	Method getGetterMethod()
+	{
+		return getterMethod;
+	}
+	
+	/**
+	 * Returns the setter method
+	 * 
+	 * @return Method
+	 */
+	Method getSetterMethod()
+	{
+		return setterMethod;
+	}
+	
+	/**
+	 * Invokes the getter
+	 * 
+	 * @param target
+	 * @return the value returned by the getter, primitives are boxed
+	 * @throws InvocationTargetException
+	 *         if the getter threw an exception
+	 */
+	Object get(final Object target) throws InvocationTargetException
+	{
+		try
+		{
+			return (Object) getter.invokeExact(target);
+		}
+		catch (Throwable e)
+		{
+			throw new InvocationTargetException(e);
+		}
+	}
+	
+	/**
+	 * Invokes the setter
+	 * 
+	 * @param target
+	 * @param value
+	 * @throws IllegalAccessException
+	 * @throws IllegalArgumentException
+	 *         if the value cannot be assigned to the property
+	 * @throws InvocationTargetException
+	 *         if the setter threw an exception
+	 */
+	void set(final Object target, final Object value) throws IllegalAccessException, InvocationTargetException
+	{
+		// the handle only unboxes the exact wrapper type and rejects null primitives
+		if (null != wrapperType && (null == value || value.getClass() != wrapperType))
+		{
+			setterMethod.invoke(target, value);
+			return;
+		}
+		
+		// values of other types are reported like they are reflectively
+		if (null != value && null == wrapperType && !field.getType().isInstance(value))
+		{
+			throw new IllegalArgumentException("argument type mismatch");
+		}
+		
+		try
+		{
+			setter.invokeExact(target, value);
+		}
+		catch (Throwable e)
+		{
+			throw new InvocationTargetException(e);
+		}
+	}
+}
@@ -34,12 +34,23 @@ public class ReflectionUtil
 	 * @return
 	 */
 	public static Field[] getAllFields(final Object object)
+	{
+		return getAllFields(object.getClass());
+	}
+	
+	/**
+	 * Retrieve all of the fields for a given class including any parent classes
+	 * 
+	 * @param type
+	 * @return
+	 */
+	public static Field[] getAllFields(final Class<?> type)
 	{
 		// holds the list of fields
 		List<Field> allFields = new ArrayList<Field>();
 		
 		// holds the class to inspect
-		Class<?> clazz = object.getClass();
+		Class<?> clazz = type;
 		
 		// while the class is not null
 		while (null != clazz)
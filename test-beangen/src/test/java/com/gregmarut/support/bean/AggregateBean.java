@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.bean;
+
+import java.util.List;
+
+public class AggregateBean
+{
+	private String name;
+	private TestBean first;
+	private TestBean second;
+	private ChildBean child;
+	private FlatBean flat;
+	private FlatBean anotherFlat;
+	private List<FlatBean> flats;
+	private NodeBean node;
+	private AggregateBean nested;
+	private int count;
+	
+	public String getName()
+	{
+		return name;
+	}
+	
+	public void setName(String name)
+	{
+		this.name = name;
+	}
+	
+	public TestBean getFirst()
+	{
+		return first;
+	}
+	
+	public void setFirst(TestBean first)
+	{
+		this.first = first;
+	}
+	
+	public TestBean getSecond()
+	{
+		return second;
+	}
+	
+	public void setSecond(TestBean second)
+	{
+		this.second = second;
+	}
+	
+	public ChildBean getChild()
+	{
+		return child;
+	}
+	
+	public void setChild(ChildBean child)
+	{
+		this.child = child;
+	}
+	
+	public FlatBean getFlat()
+	{
+		return flat;
+	}
+	
+	public void setFlat(FlatBean flat)
+	{
+		this.flat = flat;
+	}
+	
+	public FlatBean getAnotherFlat()
+	{
+		return anotherFlat;
+	}
+	
+	public void setAnotherFlat(FlatBean anotherFlat)
+	{
+		this.anotherFlat = anotherFlat;
+	}
+	
+	public List<FlatBean> getFlats()
+	{
+		return flats;
+	}
+	
+	public void setFlats(List<FlatBean> flats)
+	{
+		this.flats = flats;
+	}
+	
+	public NodeBean getNode()
+	{
+		return node;
+	}
+	
+	public void setNode(NodeBean node)
+	{
+		this.node = node;
+	}
+	
+	public AggregateBean getNested()
+	{
+		return nested;
+	}
+	
+	public void setNested(AggregateBean nested)
+	{
+		this.nested = nested;
+	}
+	
+	public int getCount()
+	{
+		return count;
+	}
+	
+	public void setCount(int count)
+	{
+		this.count = count;
+	}
+}
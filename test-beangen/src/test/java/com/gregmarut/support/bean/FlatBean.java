@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.bean;
+
+public class FlatBean
+{
+	private String name;
+	private int count;
+	private long total;
+	private double ratio;
+	private float weight;
+	private short level;
+	private byte flags;
+	private char grade;
+	private boolean active;
+	private FlatChildBean child;
+	private Integer boxedCount;
+	private Long boxedTotal;
+	private Boolean boxedActive;
+	private String description;
+	
+	public String getName()
+	{
+		return name;
+	}
+	
+	public void setName(String name)
+	{
+		this.name = name;
+	}
+	
+	public int getCount()
+	{
+		return count;
+	}
+	
+	public void setCount(int count)
+	{
+		this.count = count;
+	}
+	
+	public long getTotal()
+	{
+		return total;
+	}
+	
+	public void setTotal(long total)
+	{
+		this.total = total;
+	}
+	
+	public double getRatio()
+	{
+		return ratio;
+	}
+	
+	public void setRatio(double ratio)
+	{
+		this.ratio = ratio;
+	}
+	
+	public float getWeight()
+	{
+		return weight;
+	}
+	
+	public void setWeight(float weight)
+	{
+		this.weight = weight;
+	}
+	
+	public short getLevel()
+	{
+		return level;
+	}
+	
+	public void setLevel(short level)
+	{
+		this.level = level;
+	}
+	
+	public byte getFlags()
+	{
+		return flags;
+	}
+	
+	public void setFlags(byte flags)
+	{
+		this.flags = flags;
+	}
+	
+	public char getGrade()
+	{
+		return grade;
+	}
+	
+	public void setGrade(char grade)
+	{
+		this.grade = grade;
+	}
+	
+	public boolean isActive()
+	{
+		return active;
+	}
+	
+	public void setActive(boolean active)
+	{
+		this.active = active;
+	}
+	
+	public FlatChildBean getChild()
+	{
+		return child;
+	}
+	
+	public void setChild(FlatChildBean child)
+	{
+		this.child = child;
+	}
+	
+	public Integer getBoxedCount()
+	{
+		return boxedCount;
+	}
+	
+	public void setBoxedCount(Integer boxedCount)
+	{
+		this.boxedCount = boxedCount;
+	}
+	
+	public Long getBoxedTotal()
+	{
+		return boxedTotal;
+	}
+	
+	public void setBoxedTotal(Long boxedTotal)
+	{
+		this.boxedTotal = boxedTotal;
+	}
+	
+	public Boolean getBoxedActive()
+	{
+		return boxedActive;
+	}
+	
+	public void setBoxedActive(Boolean boxedActive)
+	{
+		this.boxedActive = boxedActive;
+	}
+	
+	public String getDescription()
+	{
+		return description;
+	}
+	
+	public void setDescription(String description)
+	{
+		this.description = description;
+	}
+}
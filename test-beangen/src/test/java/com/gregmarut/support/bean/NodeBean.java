@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.bean;
+
+public class NodeBean
+{
+	private String value;
+	private NodeBean next;
+	
+	public String getValue()
+	{
+		return value;
+	}
+	
+	public void setValue(String value)
+	{
+		this.value = value;
+	}
+	
+	public NodeBean getNext()
+	{
+		return next;
+	}
+	
+	public void setNext(NodeBean next)
+	{
+		this.next = next;
+	}
+}
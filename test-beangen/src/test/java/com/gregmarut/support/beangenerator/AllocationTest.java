@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.gregmarut.support.bean.FlatBean;
+import com.gregmarut.support.bean.FlatChildBean;
+import com.gregmarut.support.beangenerator.config.DefaultValues;
+import com.gregmarut.support.beangenerator.model.FieldPath;
+import com.gregmarut.support.beangenerator.value.Value;
+
+/**
+ * Verifies that reusing the traversal state keeps the garbage created per populated field within
+ * a fixed budget
+ * 
+ * @author Greg Marut
+ */
+public class AllocationTest
+{
+	// holds the number of fields that are populated for every flat bean, including its child
+	private static final int FIELDS_PER_BEAN = 18;
+	
+	// holds the maximum number of bytes that may be allocated per populated field, which includes
+	// the generated beans themselves
+	private static final int MAX_BYTES_PER_FIELD = 16;
+	
+	// holds the number of beans that are generated before measuring
+	private static final int WARM_UP_ITERATIONS = 20000;
+	
+	// holds the number of beans that are measured
+	private static final int ITERATIONS = 10000;
+	
+	// instantiate the logger
+	private static final Logger logger = LoggerFactory.getLogger(AllocationTest.class);
+	
+	// holds the log level that was configured before this test
+	private static Level previousLevel;
+	
+	@BeforeClass
+	public static void setup()
+	{
+		// the debug output of the generator would dominate the measurements
+		org.apache.log4j.Logger generatorLogger = LogManager.getLogger("com.gregmarut.support");
+		previousLevel = generatorLogger.getLevel();
+		generatorLogger.setLevel(Level.WARN);
+		LogManager.getLogger(AllocationTest.class).setLevel(Level.INFO);
+	}
+	
+	@AfterClass
+	public static void tearDown()
+	{
+		LogManager.getLogger("com.gregmarut.support").setLevel(previousLevel);
+	}
+	
+	@Test
+	public void allocationBudgetTest()
+	{
+		// the allocation counters are specific to the HotSpot management extensions
+		if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean))
+		{
+			logger.info("Thread allocation counters are not available. Skipping measurement.");
+			return;
+		}
+		
+		com.sun.management.ThreadMXBean threadMXBean =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		if (!threadMXBean.isThreadAllocatedMemorySupported() || !threadMXBean.isThreadAllocatedMemoryEnabled())
+		{
+			logger.info("Thread allocation counters are not enabled. Skipping measurement.");
+			return;
+		}
+		
+		BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+		beanPropertyGenerator.getConfiguration().setReuseTraversalState(true);
+		
+		// warm up the generator, the compiled plans and the compiler
+		for (int i = 0; i < WARM_UP_ITERATIONS; i++)
+		{
+			assertNotNull(beanPropertyGenerator.get(FlatBean.class));
+		}
+		
+		long threadId = Thread.currentThread().getId();
+		long before = threadMXBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < ITERATIONS; i++)
+		{
+			beanPropertyGenerator.get(FlatBean.class);
+		}
+		long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+		
+		double bytesPerField = (double) allocated / ITERATIONS / FIELDS_PER_BEAN;
+		logger.info("Allocated {} bytes per populated field", String.format("%.2f", bytesPerField));
+		assertTrue("Allocated " + bytesPerField + " bytes per field", bytesPerField <= MAX_BYTES_PER_FIELD);
+	}
+	
+	@Test
+	public void reusedStateTest()
+	{
+		BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+		beanPropertyGenerator.getConfiguration().setReuseTraversalState(true);
+		
+		// every call must observe a clean traversal state
+		for (int i = 0; i < 3; i++)
+		{
+			FlatBean flatBean = beanPropertyGenerator.get(FlatBean.class);
+			assertEquals("name", flatBean.getName());
+			assertEquals("description", flatBean.getDescription());
+			assertEquals("label", flatBean.getChild().getLabel());
+			assertEquals(DefaultValues.DEFAULT_LONG, flatBean.getBoxedTotal());
+		}
+	}
+	
+	@Test
+	public void nestedCallTest()
+	{
+		final BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+		beanPropertyGenerator.getConfiguration().setReuseTraversalState(true);
+		
+		// this value generates the child with the same generator while the parent is being populated
+		beanPropertyGenerator.getConfiguration().getDefaultValues().put(FlatChildBean.class, new Value<FlatChildBean>()
+		{
+			@Override
+			public Class<FlatChildBean> getType()
+			{
+				return FlatChildBean.class;
+			}
+			
+			@Override
+			public FlatChildBean getValue()
+			{
+				return beanPropertyGenerator.populate(new FlatChildBean());
+			}
+			
+			@Override
+			public FlatChildBean getValue(FieldPath fieldPath)
+			{
+				assertEquals("child", fieldPath.getField().getName());
+				assertEquals(1, fieldPath.depth());
+				return getValue();
+			}
+		});
+		
+		FlatBean flatBean = beanPropertyGenerator.get(FlatBean.class);
+		assertEquals("label", flatBean.getChild().getLabel());
+		
+		// the fields after the child are still populated by the outer call
+		assertEquals("description", flatBean.getDescription());
+		assertEquals(DefaultValues.DEFAULT_BOOLEAN, flatBean.getBoxedActive());
+	}
+}
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.gregmarut.support.bean.AnotherTestBean;
+import com.gregmarut.support.bean.TestBean;
+import com.gregmarut.support.beangenerator.rule.RuleBuilder;
+import com.gregmarut.support.beangenerator.rule.condition.FieldNameMatchesCondition;
+
+/**
+ * A stress test that shares a single {@link BeanPropertyGenerator} between many threads. The
+ * scaling stress test that measured the throughput on a growing number of threads was replaced by
+ * the GetBenchmark of the benchmark module, whose generator is shared by every JMH thread when it
+ * is run with more than one thread.
+ * 
+ * @author Greg Marut
+ */
+public class ConcurrencyTest
+{
+	// holds the number of beans that each thread generates
+	private static final int ITERATIONS = 500;
+	
+	// holds the log level that was configured before this test
+	private static Level previousLevel;
+	
+	@BeforeClass
+	public static void setup()
+	{
+		// the debug output of the generator would dominate the run time
+		org.apache.log4j.Logger generatorLogger = LogManager.getLogger("com.gregmarut.support");
+		previousLevel = generatorLogger.getLevel();
+		generatorLogger.setLevel(Level.WARN);
+	}
+	
+	@AfterClass
+	public static void tearDown()
+	{
+		LogManager.getLogger("com.gregmarut.support").setLevel(previousLevel);
+	}
+	
+	/**
+	 * Generates beans on every core while rules are being added and verifies every bean
+	 */
+	@Test
+	public void sharedGeneratorTest() throws Exception
+	{
+		final BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+		int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+		
+		assertEquals(threads * ITERATIONS, run(beanPropertyGenerator, threads));
+	}
+	
+	/**
+	 * Ensures that all threads receive the same instance when caching is enabled
+	 */
+	@Test
+	public void sharedCacheTest() throws Exception
+	{
+		final BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(true);
+		int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+		
+		ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		try
+		{
+			List<Future<TestBean>> futures = new ArrayList<Future<TestBean>>();
+			for (int i = 0; i < threads * 4; i++)
+			{
+				futures.add(executorService.submit(new Callable<TestBean>()
+				{
+					@Override
+					public TestBean call()
+					{
+						return beanPropertyGenerator.get(TestBean.class);
+					}
+				}));
+			}
+			
+			// every thread must have received the same cached object
+			TestBean expected = futures.get(0).get();
+			for (Future<TestBean> future : futures)
+			{
+				assertTrue(expected == future.get());
+			}
+		}
+		finally
+		{
+			executorService.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Generates beans on several threads and verifies every bean while rules are added
+	 * concurrently, which forces the bean plans to be recompiled while they are in use
+	 * 
+	 * @param beanPropertyGenerator
+	 * @param threads
+	 * @return the number of beans that were generated and verified
+	 * @throws Exception
+	 */
+	private int run(final BeanPropertyGenerator beanPropertyGenerator, final int threads) throws Exception
+	{
+		ExecutorService executorService = Executors.newFixedThreadPool(threads + 1);
+		try
+		{
+			// start the generating threads
+			List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+			for (int i = 0; i < threads; i++)
+			{
+				futures.add(executorService.submit(new Callable<Integer>()
+				{
+					@Override
+					public Integer call()
+					{
+						for (int j = 0; j < ITERATIONS; j++)
+						{
+							verify(beanPropertyGenerator.get(TestBean.class));
+						}
+						
+						return ITERATIONS;
+					}
+				}));
+			}
+			
+			// add rules that do not match any field while the beans are generated
+			executorService.submit(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					RuleBuilder ruleBuilder = beanPropertyGenerator.getConfiguration().createRuleBuilder();
+					for (int i = 0; i < 50; i++)
+					{
+						ruleBuilder.forType(String.class).when(new FieldNameMatchesCondition("unused" + i))
+							.thenReturn("unused");
+					}
+				}
+			}).get(1, TimeUnit.MINUTES);
+			
+			// wait for all of the threads to finish
+			int total = 0;
+			for (Future<Integer> future : futures)
+			{
+				total += future.get(1, TimeUnit.MINUTES);
+			}
+			
+			return total;
+		}
+		finally
+		{
+			executorService.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Verifies that a bean was fully populated
+	 * 
+	 * @param testBean
+	 */
+	private void verify(final TestBean testBean)
+	{
+		assertEquals("firstName", testBean.getFirstName());
+		assertEquals("accountID", testBean.getAccountID());
+		assertEquals(BeanPropertyGenerator.DEFAULT_COLLECTION_AUTO_FILL_COUNT, testBean.getList().size());
+		assertEquals(BeanPropertyGenerator.DEFAULT_COLLECTION_AUTO_FILL_COUNT, testBean.getFinalList().size());
+		
+		AnotherTestBean anotherTestBean = testBean.getAnotherTestBean();
+		assertEquals("someID", anotherTestBean.getSomeID());
+	}
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.gregmarut.support.util.ReflectionUtil;
+
+/**
+ * Compares generated object graphs in tests that populate the same bean in different ways
+ * 
+ * @author Greg Marut
+ */
+public final class GraphAssert
+{
+	private GraphAssert()
+	{
+		
+	}
+	
+	/**
+	 * Asserts that two object graphs are identical
+	 * 
+	 * @param expected
+	 * @param actual
+	 * @throws IllegalAccessException
+	 */
+	public static void assertSameGraph(final Object expected, final Object actual) throws IllegalAccessException
+	{
+		assertSameGraph(expected, actual, new IdentityHashMap<Object, Object>());
+	}
+	
+	/**
+	 * Compares two object graphs field by field. Objects that are shared in the expected graph
+	 * must be shared in the actual graph as well.
+	 * 
+	 * @param expected
+	 * @param actual
+	 * @param visited
+	 *        the objects of the expected graph that were already compared
+	 * @throws IllegalAccessException
+	 */
+	private static void assertSameGraph(final Object expected, final Object actual, final Map<Object, Object> visited)
+		throws IllegalAccessException
+	{
+		if (null == expected || null == actual)
+		{
+			assertSame(expected, actual);
+			return;
+		}
+		
+		assertEquals(expected.getClass(), actual.getClass());
+		
+		// values of the java packages are compared by value
+		if (expected.getClass().isArray())
+		{
+			assertTrue(Arrays.deepEquals(new Object[] { expected }, new Object[] { actual }));
+			return;
+		}
+		else if (!(expected instanceof Collection) && expected.getClass().getName().startsWith("java"))
+		{
+			assertEquals(expected, actual);
+			return;
+		}
+		
+		// check to see if this object was already compared
+		if (visited.containsKey(expected))
+		{
+			assertSame(visited.get(expected), actual);
+			return;
+		}
+		visited.put(expected, actual);
+		
+		if (expected instanceof Collection)
+		{
+			Collection<?> expectedCollection = (Collection<?>) expected;
+			Collection<?> actualCollection = (Collection<?>) actual;
+			assertEquals(expectedCollection.size(), actualCollection.size());
+			
+			Iterator<?> iterator = actualCollection.iterator();
+			for (Object element : expectedCollection)
+			{
+				assertSameGraph(element, iterator.next(), visited);
+			}
+		}
+		else
+		{
+			for (Field field : ReflectionUtil.getAllFields(expected))
+			{
+				if (!Modifier.isStatic(field.getModifiers()))
+				{
+					field.setAccessible(true);
+					assertSameGraph(field.get(expected), field.get(actual), visited);
+				}
+			}
+		}
+		
+		assertNotNull(actual);
+	}
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Map;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.gregmarut.support.bean.ChildBean;
+import com.gregmarut.support.bean.FlatBean;
+import com.gregmarut.support.bean.NodeBean;
+import com.gregmarut.support.bean.TestBean;
+import com.gregmarut.support.beangenerator.config.TraversalMode;
+import com.gregmarut.support.beangenerator.model.FieldPath;
+import com.gregmarut.support.beangenerator.rule.RuleBuilder;
+import com.gregmarut.support.beangenerator.rule.condition.FieldNameMatchesCondition;
+import com.gregmarut.support.beangenerator.value.Value;
+
+/**
+ * Verifies that the iterative traversal produces the same beans as the recursive traversal and
+ * that it handles object graphs that are too deep for the call stack
+ * 
+ * @author Greg Marut
+ */
+public class IterativeTraversalTest
+{
+	// holds the number of nested nodes that are generated in the deep graph
+	private static final int DEEP_GRAPH_DEPTH = 100000;
+	
+	// holds the log level that was configured before this test
+	private static Level previousLevel;
+	
+	@BeforeClass
+	public static void setup()
+	{
+		// the deep graph would otherwise log every node and the failed fields are expected
+		org.apache.log4j.Logger generatorLogger = LogManager.getLogger("com.gregmarut.support");
+		previousLevel = generatorLogger.getLevel();
+		generatorLogger.setLevel(Level.ERROR);
+	}
+	
+	@AfterClass
+	public static void tearDown()
+	{
+		LogManager.getLogger("com.gregmarut.support").setLevel(previousLevel);
+	}
+	
+	@Test
+	public void sameResultTest() throws IllegalAccessException
+	{
+		for (boolean cache : new boolean[] { false, true })
+		{
+			for (Class<?> clazz : new Class<?>[] { TestBean.class, ChildBean.class, FlatBean.class, NodeBean.class })
+			{
+				BeanPropertyGenerator recursive = createGenerator(cache, TraversalMode.RECURSIVE);
+				BeanPropertyGenerator iterative = createGenerator(cache, TraversalMode.ITERATIVE);
+				
+				GraphAssert.assertSameGraph(recursive.get(clazz), iterative.get(clazz));
+				GraphAssert.assertSameGraph(recursive.populate(new TestBean()), iterative.populate(new TestBean()));
+			}
+		}
+	}
+	
+	@Test
+	public void failedFieldTest() throws IllegalAccessException
+	{
+		// without a mapping for maps, the map field cannot be instantiated and is skipped
+		BeanPropertyGenerator recursive = createGenerator(false, TraversalMode.RECURSIVE);
+		BeanPropertyGenerator iterative = createGenerator(false, TraversalMode.ITERATIVE);
+		recursive.getConfiguration().getInterfaceMapper().remove(Map.class);
+		iterative.getConfiguration().getInterfaceMapper().remove(Map.class);
+		
+		TestBean testBean = iterative.get(TestBean.class);
+		assertNull(testBean.getMap());
+		assertEquals("lastName", testBean.getLastName());
+		GraphAssert.assertSameGraph(recursive.get(TestBean.class), testBean);
+	}
+	
+	@Test
+	public void deepGraphTest()
+	{
+		BeanPropertyGenerator beanPropertyGenerator = createGenerator(false, TraversalMode.ITERATIVE);
+		beanPropertyGenerator.getConfiguration().setMaxRepeatDepth(DEEP_GRAPH_DEPTH);
+		
+		// count the nodes without recursion
+		int length = 0;
+		for (NodeBean node = beanPropertyGenerator.get(NodeBean.class); null != node; node = node.getNext())
+		{
+			assertEquals("value", node.getValue());
+			length++;
+		}
+		
+		assertEquals(DEEP_GRAPH_DEPTH + 1, length);
+		
+		// the state of the traversal is released so the generator can be used again
+		beanPropertyGenerator.getConfiguration().setMaxRepeatDepth(0);
+		assertNull(beanPropertyGenerator.get(NodeBean.class).getNext());
+	}
+	
+	/**
+	 * Creates a generator with rules, a repeat depth and an interface mapping
+	 * 
+	 * @param cache
+	 * @param traversalMode
+	 * @return BeanPropertyGenerator
+	 */
+	private BeanPropertyGenerator createGenerator(final boolean cache, final TraversalMode traversalMode)
+	{
+		BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(cache);
+		beanPropertyGenerator.getConfiguration().setTraversalMode(traversalMode);
+		beanPropertyGenerator.getConfiguration().setMaxRepeatDepth(2);
+		
+		// the value of this rule depends on the path to the field
+		RuleBuilder ruleBuilder = beanPropertyGenerator.getConfiguration().createRuleBuilder();
+		ruleBuilder.forType(String.class).when(new FieldNameMatchesCondition("something")).thenReturn(
+			new Value<String>()
+			{
+				@Override
+				public Class<String> getType()
+				{
+					return String.class;
+				}
+				
+				@Override
+				public String getValue()
+				{
+					return null;
+				}
+				
+				@Override
+				public String getValue(FieldPath fieldPath)
+				{
+					return fieldPath.depth() + ":" + fieldPath.getDeclaringObject().getClass().getSimpleName();
+				}
+			});
+		ruleBuilder.forType(Integer.class).when(new FieldNameMatchesCondition("someNumber")).thenReturn(42);
+		
+		return beanPropertyGenerator;
+	}
+}
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ *
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator;
+
+import com.gregmarut.support.bean.AnotherTestBean;
+import com.gregmarut.support.bean.TestBean;
+import junit.framework.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+
+public class ListTest
+{
+	// holds the BeanPropertyGenerator which is used for creating and populating objects with test
+	// data
+	private static BeanPropertyGenerator beanPropertyGenerator;
+	
+	@BeforeClass
+	public static void setup()
+	{
+		// create a new BeanPropertyGenerator
+		beanPropertyGenerator = new BeanPropertyGenerator();
+	}
+	
+	@Test
+	public void simpleListTest()
+	{
+		// generate the list of test beans
+		List<TestBean> testBeans = beanPropertyGenerator.getList(TestBean.class, 5);
+		
+		// make sure the size of the list is 5
+		Assert.assertEquals(5, testBeans.size());
+		
+		// for each of the test beans
+		for (TestBean testBean : testBeans)
+		{
+			// make sure all of the string fields were set correctly
+			assertEquals("accountID", testBean.getAccountID());
+			assertEquals("firstName", testBean.getFirstName());
+			assertEquals("lastName", testBean.getLastName());
+			assertEquals("dateOfBirth", testBean.getDateOfBirth());
+		}
+	}
+	
+	@Test
+	public void interiorListTest()
+	{
+		// create a new test bean object
+		TestBean testBean = beanPropertyGenerator.get(TestBean.class);
+		
+		// make sure the lists is filled correctly
+		Assert.assertEquals(BeanPropertyGenerator.DEFAULT_COLLECTION_AUTO_FILL_COUNT, testBean.getList().size());
+		Assert.assertEquals(BeanPropertyGenerator.DEFAULT_COLLECTION_AUTO_FILL_COUNT, testBean.getFinalList().size());
+		
+		// for each of the objects
+		for (int i = 0; i < BeanPropertyGenerator.DEFAULT_COLLECTION_AUTO_FILL_COUNT; i++)
+		{
+			// make sure there are values as expected
+			assertAnotherTestBean(testBean.getList().get(i));
+			assertAnotherTestBean(testBean.getFinalList().get(i));
+		}
+	}
+	
+	@Test
+	public void parallelListTest()
+	{
+		// the cache must be disabled so that every element is a new object
+		BeanPropertyGenerator generator = new BeanPropertyGenerator(false);
+		
+		// generate the list of test beans across the common pool
+		List<TestBean> testBeans = generator.getParallelList(TestBean.class, 1000);
+		Assert.assertEquals(1000, testBeans.size());
+		
+		// make sure every element was populated and is a distinct object
+		IdentityHashMap<TestBean, Boolean> distinct = new IdentityHashMap<TestBean, Boolean>();
+		for (TestBean testBean : testBeans)
+		{
+			assertEquals("accountID", testBean.getAccountID());
+			assertEquals("firstName", testBean.getFirstName());
+			assertAnotherTestBean(testBean.getAnotherTestBean());
+			distinct.put(testBean, Boolean.TRUE);
+		}
+		
+		Assert.assertEquals(1000, distinct.size());
+	}
+	
+	@Test
+	public void parallelListExecutorTest()
+	{
+		ExecutorService executorService = Executors.newFixedThreadPool(3);
+		try
+		{
+			// with caching enabled every index must hold the cached object
+			List<TestBean> testBeans = beanPropertyGenerator.getList(TestBean.class, 50, executorService);
+			TestBean cached = beanPropertyGenerator.get(TestBean.class);
+			
+			Assert.assertEquals(50, testBeans.size());
+			for (TestBean testBean : testBeans)
+			{
+				Assert.assertTrue(cached == testBean);
+			}
+			
+			// an empty list does not submit any work
+			Assert.assertTrue(beanPropertyGenerator.getList(TestBean.class, 0, executorService).isEmpty());
+		}
+		finally
+		{
+			executorService.shutdown();
+		}
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void parallelListNegativeCountTest()
+	{
+		ExecutorService executorService = Executors.newFixedThreadPool(1);
+		try
+		{
+			// a negative count is rejected before any work is submitted
+			beanPropertyGenerator.getList(TestBean.class, -1, executorService);
+		}
+		finally
+		{
+			executorService.shutdown();
+		}
+	}
+	
+	@Test
+	public void parallelListOrderTest() throws IllegalAccessException
+	{
+		// the cache must be disabled so that every element is generated on its own
+		BeanPropertyGenerator generator = new BeanPropertyGenerator(false);
+		List<TestBean> expected = generator.getList(TestBean.class, 40);
+		
+		// the list has the same contents as the sequential list whatever the number of threads
+		for (int threads : new int[] { 1, 2, Runtime.getRuntime().availableProcessors() })
+		{
+			ExecutorService executorService = Executors.newFixedThreadPool(threads);
+			try
+			{
+				List<TestBean> actual = generator.getList(TestBean.class, expected.size(), executorService);
+				Assert.assertEquals(expected.size(), actual.size());
+				for (int i = 0; i < expected.size(); i++)
+				{
+					GraphAssert.assertSameGraph(expected.get(i), actual.get(i));
+				}
+			}
+			finally
+			{
+				executorService.shutdown();
+			}
+		}
+	}
+	
+	private void assertAnotherTestBean(final AnotherTestBean anotherTestBean)
+	{
+		Assert.assertEquals("something", anotherTestBean.getSomething());
+		Assert.assertEquals("someID", anotherTestBean.getSomeID());
+		Assert.assertEquals(1.0, anotherTestBean.getSomeDouble(), 0.0);
+		Assert.assertEquals(1, anotherTestBean.getSomeNumber());
+	}
+}
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.gregmarut.support.bean.AggregateBean;
+import com.gregmarut.support.bean.TestBean;
+import com.gregmarut.support.beangenerator.model.FieldPath;
+import com.gregmarut.support.beangenerator.value.Value;
+
+/**
+ * Verifies that populating the subgraphs of a bean in parallel produces the same beans as
+ * populating them one after another
+ * 
+ * @author Greg Marut
+ */
+public class ParallelPopulationTest
+{
+	// holds the number of subgraphs of the aggregate bean
+	private static final int AGGREGATE_SUBGRAPHS = 8;
+	
+	// holds how many times the aggregate bean is generated until a forked subgraph is observed
+	private static final int FORK_ATTEMPTS = 50;
+	
+	// holds the log level that was configured before this test
+	private static Level previousLevel;
+	
+	@BeforeClass
+	public static void setup()
+	{
+		// logging every field from several threads slows this test down considerably
+		org.apache.log4j.Logger generatorLogger = LogManager.getLogger("com.gregmarut.support");
+		previousLevel = generatorLogger.getLevel();
+		generatorLogger.setLevel(Level.ERROR);
+	}
+	
+	@AfterClass
+	public static void tearDown()
+	{
+		LogManager.getLogger("com.gregmarut.support").setLevel(previousLevel);
+	}
+	
+	@Test
+	public void sameResultTest() throws IllegalAccessException
+	{
+		BeanPropertyGenerator sequential = createGenerator(false);
+		BeanPropertyGenerator parallel = createGenerator(true);
+		
+		for (Class<?> clazz : new Class<?>[] { AggregateBean.class, TestBean.class })
+		{
+			GraphAssert.assertSameGraph(sequential.get(clazz), parallel.get(clazz));
+		}
+		
+		GraphAssert.assertSameGraph(sequential.populate(new AggregateBean()), parallel.populate(new AggregateBean()));
+	}
+	
+	@Test
+	public void nestedCycleTest()
+	{
+		BeanPropertyGenerator beanPropertyGenerator = createGenerator(true);
+		
+		// every forked subgraph continues the cycle detection of the bean that forked it
+		AggregateBean aggregateBean = beanPropertyGenerator.get(AggregateBean.class);
+		assertNotNull(aggregateBean.getNested());
+		assertNotNull(aggregateBean.getNested().getFirst());
+		assertEquals(null, aggregateBean.getNested().getNested());
+		assertNotNull(aggregateBean.getNode().getNext());
+		assertEquals(null, aggregateBean.getNode().getNext().getNext());
+	}
+	
+	@Test
+	public void thresholdTest()
+	{
+		// below the threshold every value is created by the calling thread
+		Set<Thread> threads = getPopulatingThreads(AGGREGATE_SUBGRAPHS + 1);
+		assertEquals(Collections.singleton(Thread.currentThread()), threads);
+		
+		// at the threshold the subgraphs are forked, although a joining thread may still run every
+		// forked task itself when the pool is slow to pick them up, so a few attempts are allowed
+		boolean forked = false;
+		for (int attempt = 0; attempt < FORK_ATTEMPTS && !forked; attempt++)
+		{
+			threads = getPopulatingThreads(AGGREGATE_SUBGRAPHS);
+			forked = threads.size() > 1 || !threads.contains(Thread.currentThread());
+		}
+		
+		assertTrue(forked);
+	}
+	
+	@Test
+	public void cacheTest()
+	{
+		// cached beans are shared between subgraphs so they are always populated sequentially
+		BeanPropertyGenerator beanPropertyGenerator = createGenerator(true);
+		beanPropertyGenerator.getConfiguration().setCache(true);
+		
+		Set<Thread> threads = recordPopulatingThreads(beanPropertyGenerator);
+		beanPropertyGenerator.get(AggregateBean.class);
+		assertEquals(Collections.singleton(Thread.currentThread()), threads);
+		assertFalse(threads.isEmpty());
+	}
+	
+	/**
+	 * Generates an aggregate bean and returns the threads that created its strings
+	 * 
+	 * @param parallelThreshold
+	 * @return Set
+	 */
+	private Set<Thread> getPopulatingThreads(final int parallelThreshold)
+	{
+		BeanPropertyGenerator beanPropertyGenerator = createGenerator(true);
+		beanPropertyGenerator.getConfiguration().setParallelThreshold(parallelThreshold);
+		
+		Set<Thread> threads = recordPopulatingThreads(beanPropertyGenerator);
+		beanPropertyGenerator.get(AggregateBean.class);
+		return threads;
+	}
+	
+	/**
+	 * Replaces the default string value with one that records the thread that created it
+	 * 
+	 * @param beanPropertyGenerator
+	 * @return the set that receives the threads
+	 */
+	private Set<Thread> recordPopulatingThreads(final BeanPropertyGenerator beanPropertyGenerator)
+	{
+		final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+		beanPropertyGenerator.getConfiguration().getDefaultValues().put(String.class, new Value<String>()
+		{
+			@Override
+			public Class<String> getType()
+			{
+				return String.class;
+			}
+			
+			@Override
+			public String getValue()
+			{
+				return null;
+			}
+			
+			@Override
+			public String getValue(FieldPath fieldPath)
+			{
+				threads.add(Thread.currentThread());
+				return fieldPath.getField().getName();
+			}
+		});
+		
+		return threads;
+	}
+	
+	/**
+	 * Creates a generator that does not cache beans and repeats each class once
+	 * 
+	 * @param parallelPopulation
+	 * @return BeanPropertyGenerator
+	 */
+	private BeanPropertyGenerator createGenerator(final boolean parallelPopulation)
+	{
+		BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+		beanPropertyGenerator.getConfiguration().setMaxRepeatDepth(1);
+		beanPropertyGenerator.getConfiguration().setParallelPopulation(parallelPopulation);
+		beanPropertyGenerator.getConfiguration().setParallelThreshold(4);
+		return beanPropertyGenerator;
+	}
+}
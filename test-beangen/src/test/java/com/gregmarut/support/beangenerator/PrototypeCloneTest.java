@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.gregmarut.support.bean.AggregateBean;
+import com.gregmarut.support.bean.FlatBean;
+import com.gregmarut.support.bean.TestBean;
+import com.gregmarut.support.beangenerator.config.CacheOverrideType;
+import com.gregmarut.support.beangenerator.plan.PrototypeCopier;
+import com.gregmarut.support.beangenerator.rule.condition.FieldNameMatchesCondition;
+
+/**
+ * Verifies that beans copied from a prototype are identical to generated beans while sharing no
+ * mutable objects with each other
+ * 
+ * @author Greg Marut
+ */
+public class PrototypeCloneTest
+{
+	// holds the log level that was configured before this test
+	private static Level previousLevel;
+	
+	@BeforeClass
+	public static void setup()
+	{
+		org.apache.log4j.Logger generatorLogger = LogManager.getLogger("com.gregmarut.support");
+		previousLevel = generatorLogger.getLevel();
+		generatorLogger.setLevel(Level.WARN);
+	}
+	
+	@AfterClass
+	public static void tearDown()
+	{
+		LogManager.getLogger("com.gregmarut.support").setLevel(previousLevel);
+	}
+	
+	@Test
+	public void sameResultTest() throws IllegalAccessException
+	{
+		BeanPropertyGenerator generating = createGenerator(false);
+		BeanPropertyGenerator cloning = createGenerator(true);
+		
+		for (Class<?> clazz : new Class<?>[] { AggregateBean.class, TestBean.class, FlatBean.class })
+		{
+			// the first bean is a copy of the prototype as well
+			GraphAssert.assertSameGraph(generating.get(clazz), cloning.get(clazz));
+			GraphAssert.assertSameGraph(generating.get(clazz), cloning.get(clazz));
+		}
+	}
+	
+	@Test
+	public void distinctTest()
+	{
+		BeanPropertyGenerator beanPropertyGenerator = createGenerator(true);
+		List<AggregateBean> aggregateBeans = beanPropertyGenerator.getList(AggregateBean.class, 2);
+		AggregateBean first = aggregateBeans.get(0);
+		AggregateBean second = aggregateBeans.get(1);
+		
+		assertNotSame(first, second);
+		assertNotSame(first.getFirst(), second.getFirst());
+		assertNotSame(first.getFirst().getFinalList(), second.getFirst().getFinalList());
+		assertNotSame(first.getFlats(), second.getFlats());
+		assertNotSame(first.getFlats().get(0), second.getFlats().get(0));
+		assertNotSame(first.getNested(), second.getNested());
+		
+		// modifying one copy does not affect the other
+		first.getFirst().setFirstName("modified");
+		first.getFlats().clear();
+		assertEquals("firstName", second.getFirst().getFirstName());
+		assertEquals(BeanPropertyGenerator.DEFAULT_COLLECTION_AUTO_FILL_COUNT, second.getFlats().size());
+	}
+	
+	@Test
+	public void sharedIdentityTest() throws IllegalAccessException
+	{
+		BeanPropertyGenerator beanPropertyGenerator = createGenerator(false);
+		
+		// build a prototype that shares objects and references itself
+		AggregateBean prototype = new AggregateBean();
+		TestBean testBean = beanPropertyGenerator.get(TestBean.class);
+		FlatBean flatBean = beanPropertyGenerator.get(FlatBean.class);
+		prototype.setFirst(testBean);
+		prototype.setSecond(testBean);
+		prototype.setNested(prototype);
+		prototype.setFlats(new ArrayList<FlatBean>());
+		prototype.getFlats().add(flatBean);
+		prototype.getFlats().add(flatBean);
+		prototype.setName("name");
+		
+		PrototypeCopier prototypeCopier = PrototypeCopier.compile(prototype, beanPropertyGenerator.getConfiguration());
+		AggregateBean copy = (AggregateBean) prototypeCopier.copy();
+		
+		assertNotSame(prototype, copy);
+		assertNotSame(testBean, copy.getFirst());
+		assertSame(copy.getFirst(), copy.getSecond());
+		assertSame(copy, copy.getNested());
+		assertSame(copy.getFlats().get(0), copy.getFlats().get(1));
+		assertSame(prototype.getName(), copy.getName());
+		GraphAssert.assertSameGraph(prototype, copy);
+	}
+	
+	@Test
+	public void cachedBeanTest()
+	{
+		BeanPropertyGenerator beanPropertyGenerator = createGenerator(true);
+		beanPropertyGenerator.getConfiguration().getCacheOverride().put(FlatBean.class, CacheOverrideType.CACHE);
+		
+		// cached beans are shared by the copies just like by generated beans
+		AggregateBean first = beanPropertyGenerator.get(AggregateBean.class);
+		AggregateBean second = beanPropertyGenerator.get(AggregateBean.class);
+		assertNotSame(first, second);
+		assertSame(first.getFlat(), second.getFlat());
+		assertSame(beanPropertyGenerator.get(FlatBean.class), second.getFlat());
+	}
+	
+	@Test
+	public void staleTest()
+	{
+		BeanPropertyGenerator beanPropertyGenerator = createGenerator(true);
+		assertEquals("name", beanPropertyGenerator.get(AggregateBean.class).getName());
+		
+		// modifying the rules generates a new prototype
+		beanPropertyGenerator.getConfiguration().createRuleBuilder().forType(String.class)
+			.when(new FieldNameMatchesCondition("name")).thenReturn("renamed");
+		assertEquals("renamed", beanPropertyGenerator.get(AggregateBean.class).getName());
+		
+		// other changes require the prototypes to be cleared
+		beanPropertyGenerator.getConfiguration().setCollectionAutoFillCount(1);
+		assertEquals(BeanPropertyGenerator.DEFAULT_COLLECTION_AUTO_FILL_COUNT,
+			beanPropertyGenerator.get(AggregateBean.class).getFlats().size());
+		beanPropertyGenerator.clearPrototypes();
+		assertEquals(1, beanPropertyGenerator.get(AggregateBean.class).getFlats().size());
+	}
+	
+	/**
+	 * Creates a generator that does not cache beans and repeats each class once
+	 * 
+	 * @param clonePrototypes
+	 * @return BeanPropertyGenerator
+	 */
+	private BeanPropertyGenerator createGenerator(final boolean clonePrototypes)
+	{
+		BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+		beanPropertyGenerator.getConfiguration().setMaxRepeatDepth(1);
+		beanPropertyGenerator.getConfiguration().setClonePrototypes(clonePrototypes);
+		return beanPropertyGenerator;
+	}
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.gregmarut.support.bean.NodeBean;
+
+/**
+ * This test demonstrates how recursive structures can be generated to a bounded depth
+ * 
+ * @author Greg Marut
+ */
+public class RepeatDepthTest
+{
+	// holds the BeanPropertyGenerator which is used for creating and populating objects with test
+	// data
+	private BeanPropertyGenerator beanPropertyGenerator;
+	
+	@Before
+	public void setup()
+	{
+		// create a new BeanPropertyGenerator without caching so that every node is a new object
+		beanPropertyGenerator = new BeanPropertyGenerator(false);
+	}
+	
+	@Test
+	public void defaultDepthTest()
+	{
+		// by default the cycle is stopped as soon as the class repeats
+		NodeBean node = beanPropertyGenerator.get(NodeBean.class);
+		assertEquals("value", node.getValue());
+		assertNull(node.getNext());
+	}
+	
+	@Test
+	public void maxRepeatDepthTest()
+	{
+		beanPropertyGenerator.getConfiguration().setMaxRepeatDepth(3);
+		assertEquals(4, length(beanPropertyGenerator.get(NodeBean.class)));
+	}
+	
+	@Test
+	public void repeatDepthOverrideTest()
+	{
+		// the override takes precedence over the default depth
+		beanPropertyGenerator.getConfiguration().setMaxRepeatDepth(1);
+		beanPropertyGenerator.getConfiguration().getRepeatDepthOverride().put(NodeBean.class, 5);
+		assertEquals(6, length(beanPropertyGenerator.get(NodeBean.class)));
+		
+		// populating an existing object counts towards the depth as well
+		NodeBean root = beanPropertyGenerator.populate(new NodeBean());
+		assertEquals(6, length(root));
+	}
+	
+	/**
+	 * Returns the number of nodes in the chain
+	 * 
+	 * @param node
+	 * @return int
+	 */
+	private int length(NodeBean node)
+	{
+		int length = 0;
+		while (null != node)
+		{
+			assertNotNull(node.getValue());
+			length++;
+			node = node.getNext();
+		}
+		
+		return length;
+	}
+}
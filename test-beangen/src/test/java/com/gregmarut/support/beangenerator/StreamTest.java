@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.gregmarut.support.bean.AnotherTestBean;
+
+/**
+ * Demonstrates how beans can be generated lazily from a stream
+ * 
+ * @author Greg Marut
+ */
+public class StreamTest
+{
+	// holds the BeanPropertyGenerator which is used for creating and populating objects with test
+	// data
+	private static BeanPropertyGenerator beanPropertyGenerator;
+	
+	@BeforeClass
+	public static void setup()
+	{
+		// create a new BeanPropertyGenerator without caching so that every bean is new
+		beanPropertyGenerator = new BeanPropertyGenerator(false);
+	}
+	
+	@Test
+	public void unboundedStreamTest()
+	{
+		// only the beans that are pulled from the stream are generated
+		Iterator<AnotherTestBean> iterator = beanPropertyGenerator.stream(AnotherTestBean.class).iterator();
+		for (int i = 0; i < 5; i++)
+		{
+			assertEquals("something", iterator.next().getSomething());
+		}
+		
+		// limit an unbounded stream
+		List<AnotherTestBean> beans =
+			beanPropertyGenerator.stream(AnotherTestBean.class).limit(10).collect(Collectors.toList());
+		assertEquals(10, beans.size());
+	}
+	
+	@Test
+	public void sizedStreamTest()
+	{
+		List<AnotherTestBean> beans = beanPropertyGenerator.stream(AnotherTestBean.class, 25).collect(Collectors.toList());
+		assertEquals(25, beans.size());
+		
+		// the stream is empty if no beans are requested
+		assertEquals(0, beanPropertyGenerator.stream(AnotherTestBean.class, 0).collect(Collectors.toList()).size());
+	}
+	
+	@Test
+	public void parallelStreamTest()
+	{
+		List<AnotherTestBean> beans =
+			beanPropertyGenerator.stream(AnotherTestBean.class, 200).parallel().collect(Collectors.toList());
+		assertEquals(200, beans.size());
+		
+		for (AnotherTestBean bean : beans)
+		{
+			assertEquals("someID", bean.getSomeID());
+		}
+	}
+	
+	@Test
+	public void splitTest()
+	{
+		Spliterator<AnotherTestBean> spliterator = beanPropertyGenerator.stream(AnotherTestBean.class, 9).spliterator();
+		
+		// the range is split in half
+		Spliterator<AnotherTestBean> prefix = spliterator.trySplit();
+		assertNotNull(prefix);
+		assertEquals(4, prefix.estimateSize());
+		assertEquals(5, spliterator.getExactSizeIfKnown());
+		
+		// a single bean cannot be split any further
+		Spliterator<AnotherTestBean> single = beanPropertyGenerator.stream(AnotherTestBean.class, 1).spliterator();
+		assertNull(single.trySplit());
+	}
+}
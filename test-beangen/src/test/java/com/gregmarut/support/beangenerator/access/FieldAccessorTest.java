@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.access;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.gregmarut.support.bean.AnotherTestBean;
+import com.gregmarut.support.bean.FlatBean;
+import com.gregmarut.support.bean.TestBean;
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+import com.gregmarut.support.beangenerator.plan.BeanPlan;
+import com.gregmarut.support.beangenerator.plan.FieldPlan;
+import com.gregmarut.support.beangenerator.value.StaticValue;
+
+/**
+ * Ensures that every field access backend produces the same values
+ * 
+ * @author Greg Marut
+ */
+public class FieldAccessorTest
+{
+	// holds the generator that uses reflection
+	private BeanPropertyGenerator reflectionGenerator;
+	
+	// holds the generator that uses method handles
+	private BeanPropertyGenerator methodHandleGenerator;
+	
+	@Before
+	public void setup()
+	{
+		reflectionGenerator = new BeanPropertyGenerator(false);
+		
+		methodHandleGenerator = new BeanPropertyGenerator(false);
+		methodHandleGenerator.getConfiguration().setFieldAccessorFactory(new MethodHandleFieldAccessorFactory());
+	}
+	
+	@Test
+	public void sameValuesTest()
+	{
+		TestBean expected = reflectionGenerator.get(TestBean.class);
+		TestBean actual = methodHandleGenerator.get(TestBean.class);
+		
+		assertEquals(expected.getFirstName(), actual.getFirstName());
+		assertEquals(expected.getIntData(), actual.getIntData());
+		assertEquals(expected.getFloatData(), actual.getFloatData(), 0.0f);
+		assertEquals(expected.getList().size(), actual.getList().size());
+		assertEquals(expected.getFinalList().size(), actual.getFinalList().size());
+		assertEquals(expected.getAnotherTestBean().getSomeNumber(), actual.getAnotherTestBean().getSomeNumber());
+		assertEquals(expected.getAnotherTestBean().getSomeDouble(), actual.getAnotherTestBean().getSomeDouble(),
+			0.0);
+	}
+	
+	@Test
+	public void wideningTest()
+	{
+		// assign an integer to a double field which requires a widening conversion
+		reflectionGenerator.getConfiguration().getDefaultValues()
+			.put(double.class, new StaticValue<Integer>(5, Integer.class));
+		methodHandleGenerator.getConfiguration().getDefaultValues()
+			.put(double.class, new StaticValue<Integer>(5, Integer.class));
+		
+		assertEquals(5.0, reflectionGenerator.get(AnotherTestBean.class).getSomeDouble(), 0.0);
+		assertEquals(5.0, methodHandleGenerator.get(AnotherTestBean.class).getSomeDouble(), 0.0);
+	}
+	
+	@Test
+	public void backendChangeTest()
+	{
+		methodHandleGenerator.get(TestBean.class);
+		
+		// switching the backend must recompile the plans
+		methodHandleGenerator.getConfiguration().setFieldAccessorFactory(new ReflectionFieldAccessorFactory());
+		methodHandleGenerator.get(TestBean.class);
+		
+		BeanPlan beanPlan = methodHandleGenerator.getConfiguration().getBeanPlanCache().findPlan(TestBean.class);
+		assertNotNull(beanPlan);
+		assertFalse(beanPlan.getFieldPlans().isEmpty());
+	}
+	
+	@Test
+	public void finalFieldTest() throws Exception
+	{
+		FieldAccessor accessor =
+			new MethodHandleFieldAccessorFactory().create(TestBean.class.getDeclaredField("finalList"));
+		TestBean testBean = new TestBean();
+		
+		// final fields can be read but not written
+		assertTrue(accessor.get(testBean) == testBean.getFinalList());
+		
+		try
+		{
+			accessor.set(testBean, null);
+			assertTrue(false);
+		}
+		catch (IllegalAccessException e)
+		{
+			// expected
+		}
+	}
+	
+	@Test
+	public void illegalValueTest() throws Exception
+	{
+		for (FieldAccessorFactory factory : new FieldAccessorFactory[] { new ReflectionFieldAccessorFactory(),
+			new MethodHandleFieldAccessorFactory() })
+		{
+			FieldAccessor intAccessor = factory.create(TestBean.class.getDeclaredField("intData"));
+			FieldAccessor booleanAccessor = factory.create(FlatBean.class.getDeclaredField("active"));
+			FieldAccessor stringAccessor = factory.create(TestBean.class.getDeclaredField("firstName"));
+			TestBean testBean = new TestBean();
+			
+			// null primitives, narrowing conversions and values of the wrong type are illegal arguments
+			assertIllegalArgument(intAccessor, testBean, null);
+			assertIllegalArgument(intAccessor, testBean, 5L);
+			assertIllegalArgument(intAccessor, testBean, 5.0);
+			assertIllegalArgument(booleanAccessor, new FlatBean(), 5);
+			assertIllegalArgument(stringAccessor, testBean, 5);
+			
+			// widening conversions are applied
+			intAccessor.set(testBean, (short) 5);
+			assertEquals(5, testBean.getIntData());
+			intAccessor.set(testBean, 'A');
+			assertEquals('A', testBean.getIntData());
+			stringAccessor.set(testBean, null);
+			assertEquals(null, testBean.getFirstName());
+		}
+	}
+	
+	@Test
+	public void readTest() throws Exception
+	{
+		TestBean testBean = methodHandleGenerator.get(TestBean.class);
+		BeanPlan beanPlan = methodHandleGenerator.getConfiguration().getBeanPlanCache().findPlan(TestBean.class);
+		
+		// every field plan must be able to read back the value that was written
+		for (FieldPlan fieldPlan : beanPlan.getFieldPlans())
+		{
+			if (fieldPlan.getField().getName().equals("firstName"))
+			{
+				assertEquals(testBean.getFirstName(), fieldPlan.read(testBean));
+			}
+		}
+	}
+	
+	/**
+	 * Asserts that a value cannot be written to a field
+	 * 
+	 * @param accessor
+	 * @param target
+	 * @param value
+	 * @throws IllegalAccessException
+	 */
+	private void assertIllegalArgument(final FieldAccessor accessor, final Object target, final Object value)
+		throws IllegalAccessException
+	{
+		try
+		{
+			accessor.set(target, value);
+			fail("Expected an IllegalArgumentException for " + value + " on " + accessor.getField());
+		}
+		catch (IllegalArgumentException e)
+		{
+			// expected
+		}
+	}
+}
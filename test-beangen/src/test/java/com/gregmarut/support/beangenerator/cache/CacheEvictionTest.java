@@ -0,0 +1,279 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.gregmarut.support.bean.FlatBean;
+import com.gregmarut.support.bean.TestBean;
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+
+/**
+ * Verifies the eviction policies, weak keys and soft values of the cache
+ * 
+ * @author Greg Marut
+ */
+public class CacheEvictionTest
+{
+	// holds the classes that are used as keys
+	private static final Class<?>[] KEYS = { String.class, Integer.class, Long.class, Short.class, Byte.class,
+		Character.class, Boolean.class, Double.class, Float.class, Object.class, Number.class, StringBuilder.class,
+		Thread.class, Runnable.class, Math.class, System.class, Runtime.class, Enum.class, Class.class,
+		Iterable.class, Comparable.class, CharSequence.class, Exception.class, Error.class, Throwable.class,
+		RuntimeException.class, IllegalStateException.class, IllegalArgumentException.class,
+		NullPointerException.class, ClassLoader.class, Void.class, Process.class };
+	
+	// holds the number of attempts to have the garbage collector unload a class
+	private static final int COLLECT_ATTEMPTS = 50;
+	
+	@Test
+	public void lruTest()
+	{
+		Cache cache = new Cache(CachePolicy.unbounded().maximumSize(2, EvictionPolicy.LRU));
+		cache.put(KEYS[0], "0");
+		cache.put(KEYS[1], "1");
+		
+		// using the first key makes the second one the least recently used
+		assertEquals("0", cache.get(KEYS[0]));
+		cache.put(KEYS[2], "2");
+		
+		assertEquals(2, cache.size());
+		assertEquals("0", cache.get(KEYS[0]));
+		assertNull(cache.get(KEYS[1]));
+		assertEquals("2", cache.get(KEYS[2]));
+	}
+	
+	@Test
+	public void tinyLfuTest()
+	{
+		final int maximumSize = 10;
+		Cache cache = new Cache(CachePolicy.unbounded().maximumSize(maximumSize, EvictionPolicy.TINY_LFU));
+		
+		// request the first classes repeatedly
+		for (int i = 0; i < 5; i++)
+		{
+			for (int k = 0; k < maximumSize - 1; k++)
+			{
+				retrieve(cache, KEYS[k]);
+			}
+		}
+		
+		// a scan of classes that are only requested once does not flush the frequently used classes
+		for (int k = maximumSize; k < KEYS.length; k++)
+		{
+			retrieve(cache, KEYS[k]);
+		}
+		
+		assertTrue(cache.size() <= maximumSize);
+		assertEquals(maximumSize - 1, countCached(cache, maximumSize - 1));
+		
+		// the same scan with a plain LRU policy flushes all of them
+		cache.setPolicy(CachePolicy.unbounded().maximumSize(maximumSize, EvictionPolicy.LRU));
+		for (int k = 0; k < KEYS.length; k++)
+		{
+			retrieve(cache, KEYS[k]);
+		}
+		
+		assertEquals(0, countCached(cache, maximumSize - 1));
+	}
+	
+	@Test
+	public void getOrRetrieveTest()
+	{
+		Cache cache = new Cache(CachePolicy.unbounded().maximumSize(1, EvictionPolicy.TINY_LFU).softValues());
+		final AtomicInteger retrievals = new AtomicInteger();
+		
+		// the retrieved object is always returned, whether or not it is kept
+		for (int i = 0; i < KEYS.length; i++)
+		{
+			final Object object = cache.getOrRetieve(KEYS[i % 2], new Retrieve<Object>()
+			{
+				@Override
+				public Object retrieve()
+				{
+					return retrievals.incrementAndGet();
+				}
+			});
+			
+			assertNotNull(object);
+		}
+		
+		// every other request replaces the only cached object
+		assertEquals(KEYS.length, retrievals.get());
+		assertEquals(1, cache.size());
+	}
+	
+	@Test
+	public void invalidateTest()
+	{
+		for (CachePolicy policy : new CachePolicy[] { CachePolicy.unbounded(),
+			CachePolicy.unbounded().maximumSize(4, EvictionPolicy.TINY_LFU).weakKeys().softValues() })
+		{
+			Cache cache = new Cache(policy);
+			cache.put(KEYS[0], "0");
+			cache.put(KEYS[1], "1");
+			
+			// an object that is already cached is kept
+			assertEquals("0", cache.putIfAbsent(KEYS[0], "other"));
+			
+			cache.invalidate(KEYS[0]);
+			assertNull(cache.get(KEYS[0]));
+			assertEquals("1", cache.get(KEYS[1]));
+			assertEquals("other", cache.putIfAbsent(KEYS[0], "other"));
+			
+			cache.clear();
+			assertEquals(0, cache.size());
+			assertNull(cache.get(KEYS[0]));
+			assertNull(cache.get(KEYS[1]));
+		}
+	}
+	
+	@Test
+	public void generatorTest()
+	{
+		// a generator whose cache holds a single bean still shares it within one graph
+		BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(true);
+		beanPropertyGenerator.getCache().setPolicy(CachePolicy.unbounded().maximumSize(1, EvictionPolicy.LRU));
+		
+		TestBean testBean = beanPropertyGenerator.get(TestBean.class);
+		assertSame(testBean, beanPropertyGenerator.get(TestBean.class));
+		
+		// generating another bean evicts the first one
+		beanPropertyGenerator.get(FlatBean.class);
+		assertNotSame(testBean, beanPropertyGenerator.get(TestBean.class));
+	}
+	
+	@Test
+	public void weakKeysTest() throws Exception
+	{
+		Cache cache = new Cache(CachePolicy.unbounded().weakKeys());
+		WeakReference<ClassLoader> loader = cacheIsolatedBean(cache);
+		assertEquals(1, cache.size());
+		
+		// the cached bean does not keep its class or its class loader alive
+		for (int i = 0; i < COLLECT_ATTEMPTS && (null != loader.get() || cache.size() > 0); i++)
+		{
+			System.gc();
+			Thread.sleep(10);
+		}
+		
+		assertNull(loader.get());
+		assertEquals(0, cache.size());
+	}
+	
+	/**
+	 * Caches a bean whose class is defined by a class loader that is not referenced anywhere else
+	 * 
+	 * @param cache
+	 * @return a weak reference to the class loader
+	 * @throws Exception
+	 */
+	private WeakReference<ClassLoader> cacheIsolatedBean(final Cache cache) throws Exception
+	{
+		IsolatedClassLoader classLoader = new IsolatedClassLoader();
+		Class<?> clazz = classLoader.define(FlatBean.class.getName());
+		
+		// the bean is a different class than the one of the test
+		Object bean = clazz.getDeclaredConstructor().newInstance();
+		assertNotSame(FlatBean.class, clazz);
+		cache.put(clazz, bean);
+		assertSame(bean, cache.get(clazz));
+		
+		return new WeakReference<ClassLoader>(classLoader);
+	}
+	
+	/**
+	 * Counts how many of the first keys are cached
+	 * 
+	 * @param cache
+	 * @param count
+	 * @return int
+	 */
+	private int countCached(final Cache cache, final int count)
+	{
+		int cached = 0;
+		for (int k = 0; k < count; k++)
+		{
+			if (null != cache.get(KEYS[k]))
+			{
+				cached++;
+			}
+		}
+		
+		return cached;
+	}
+	
+	/**
+	 * Retrieves a placeholder object through the cache
+	 * 
+	 * @param cache
+	 * @param key
+	 */
+	private void retrieve(final Cache cache, final Class<?> key)
+	{
+		cache.getOrRetieve(key, new Retrieve<Object>()
+		{
+			@Override
+			public Object retrieve()
+			{
+				return key.getName();
+			}
+		});
+	}
+	
+	/**
+	 * Defines copies of the test classes that can be unloaded independently
+	 */
+	private static class IsolatedClassLoader extends ClassLoader
+	{
+		private IsolatedClassLoader()
+		{
+			super(CacheEvictionTest.class.getClassLoader());
+		}
+		
+		/**
+		 * Defines a copy of the given class
+		 * 
+		 * @param name
+		 * @return Class
+		 * @throws IOException
+		 */
+		private Class<?> define(final String name) throws IOException
+		{
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (InputStream inputStream = getParent().getResourceAsStream(name.replace('.', '/') + ".class"))
+			{
+				byte[] buffer = new byte[4096];
+				for (int read; (read = inputStream.read(buffer)) > 0;)
+				{
+					bytes.write(buffer, 0, read);
+				}
+			}
+			
+			return defineClass(name, bytes.toByteArray(), 0, bytes.size());
+		}
+	}
+}
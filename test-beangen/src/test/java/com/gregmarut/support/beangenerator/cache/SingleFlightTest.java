@@ -0,0 +1,497 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.gregmarut.support.bean.TestBean;
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+import com.gregmarut.support.beangenerator.config.TraversalMode;
+import com.gregmarut.support.beangenerator.model.FieldPath;
+import com.gregmarut.support.beangenerator.rule.condition.FieldNameMatchesCondition;
+import com.gregmarut.support.beangenerator.value.Value;
+
+/**
+ * Verifies that the object of a class is retrieved by a single thread at a time
+ * 
+ * @author Greg Marut
+ */
+public class SingleFlightTest
+{
+	// holds the number of threads that request the same class
+	private static final int THREADS = 8;
+	
+	// holds the number of seconds after which a test is considered to be deadlocked
+	private static final int TIMEOUT = 10;
+	
+	// holds the log level that was configured before this test
+	private static Level previousLevel;
+	
+	// runs the threads of each test
+	private ExecutorService executorService;
+	
+	@BeforeClass
+	public static void setupClass()
+	{
+		// logging every field from several threads slows this test down considerably
+		org.apache.log4j.Logger generatorLogger = LogManager.getLogger("com.gregmarut.support");
+		previousLevel = generatorLogger.getLevel();
+		generatorLogger.setLevel(Level.ERROR);
+	}
+	
+	@AfterClass
+	public static void tearDownClass()
+	{
+		LogManager.getLogger("com.gregmarut.support").setLevel(previousLevel);
+	}
+	
+	@Before
+	public void setup()
+	{
+		executorService = Executors.newFixedThreadPool(THREADS);
+	}
+	
+	@After
+	public void tearDown()
+	{
+		executorService.shutdownNow();
+	}
+	
+	@Test
+	public void singleFlightTest() throws Exception
+	{
+		final Cache cache = new Cache();
+		final AtomicInteger retrievals = new AtomicInteger();
+		final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+		
+		List<Future<Object>> futures = submit(THREADS, new Callable<Object>()
+		{
+			@Override
+			public Object call() throws Exception
+			{
+				barrier.await();
+				return cache.getOrRetieve(String.class, new Retrieve<Object>()
+				{
+					@Override
+					public Object retrieve()
+					{
+						retrievals.incrementAndGet();
+						sleep(100);
+						return new Object();
+					}
+				});
+			}
+		});
+		
+		// every thread receives the object of the only retrieval
+		Object object = futures.get(0).get(TIMEOUT, TimeUnit.SECONDS);
+		for (Future<Object> future : futures)
+		{
+			assertSame(object, future.get(TIMEOUT, TimeUnit.SECONDS));
+		}
+		assertEquals(1, retrievals.get());
+	}
+	
+	@Test
+	public void differentKeysTest() throws Exception
+	{
+		final Cache cache = new Cache();
+		final CountDownLatch started = new CountDownLatch(2);
+		
+		// each retrieval only completes once the other one has started, so they have to run at the same time
+		List<Future<Object>> futures = new ArrayList<Future<Object>>();
+		for (final Class<?> key : new Class<?>[] { String.class, Integer.class })
+		{
+			futures.add(executorService.submit(new Callable<Object>()
+			{
+				@Override
+				public Object call() throws Exception
+				{
+					return cache.getOrRetieve(key, new Retrieve<Object>()
+					{
+						@Override
+						public Object retrieve()
+						{
+							started.countDown();
+							await(started);
+							return key.getName();
+						}
+					});
+				}
+			}));
+		}
+		
+		assertEquals(String.class.getName(), futures.get(0).get(TIMEOUT, TimeUnit.SECONDS));
+		assertEquals(Integer.class.getName(), futures.get(1).get(TIMEOUT, TimeUnit.SECONDS));
+	}
+	
+	@Test(timeout = TIMEOUT * 1000)
+	public void reentrantTest()
+	{
+		final Cache cache = new Cache();
+		
+		// the nested request of the same class does not wait for the retrieval that contains it
+		Object object = cache.getOrRetieve(String.class, new Retrieve<Object>()
+		{
+			@Override
+			public Object retrieve()
+			{
+				final Object early = new Object();
+				cache.put(String.class, early);
+				assertSame(early, cache.getOrRetieve(String.class, null));
+				return early;
+			}
+		});
+		
+		assertNotNull(object);
+		assertSame(object, cache.get(String.class));
+	}
+	
+	@Test
+	public void crossDependencyTest() throws Exception
+	{
+		final Cache cache = new Cache();
+		final CyclicBarrier barrier = new CyclicBarrier(2);
+		
+		// each retrieval needs the class that the other thread is retrieving at the same time
+		List<Future<Object>> futures = new ArrayList<Future<Object>>();
+		for (final Class<?>[] keys : new Class<?>[][] { { String.class, Integer.class },
+			{ Integer.class, String.class } })
+		{
+			futures.add(executorService.submit(new Callable<Object>()
+			{
+				@Override
+				public Object call() throws Exception
+				{
+					return cache.getOrRetieve(keys[0], new Retrieve<Object>()
+					{
+						@Override
+						public Object retrieve()
+						{
+							// place the object early like a bean whose graph is still being populated
+							List<Object> object = new ArrayList<Object>();
+							cache.put(keys[0], object);
+							await(barrier);
+							object.add(cache.getOrRetieve(keys[1], null));
+							return object;
+						}
+					});
+				}
+			}));
+		}
+		
+		// neither thread waits for the other forever, and both share the objects that were placed first
+		List<?> first = (List<?>) futures.get(0).get(TIMEOUT, TimeUnit.SECONDS);
+		List<?> second = (List<?>) futures.get(1).get(TIMEOUT, TimeUnit.SECONDS);
+		assertSame(first, cache.get(String.class));
+		assertSame(second, cache.get(Integer.class));
+		assertSame(second, first.get(0));
+		assertSame(first, second.get(0));
+	}
+	
+	@Test
+	public void failureTest() throws Exception
+	{
+		final Cache cache = new Cache();
+		final AtomicInteger retrievals = new AtomicInteger();
+		final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+		
+		// the first retrieval fails, so the waiting threads retrieve the object again
+		List<Future<Object>> futures = submit(THREADS, new Callable<Object>()
+		{
+			@Override
+			public Object call() throws Exception
+			{
+				barrier.await();
+				return cache.getOrRetieve(String.class, new Retrieve<Object>()
+				{
+					@Override
+					public Object retrieve()
+					{
+						sleep(50);
+						if (1 == retrievals.incrementAndGet())
+						{
+							throw new IllegalStateException("retrieval failed");
+						}
+						return "retrieved";
+					}
+				});
+			}
+		});
+		
+		int failures = 0;
+		for (Future<Object> future : futures)
+		{
+			try
+			{
+				assertEquals("retrieved", future.get(TIMEOUT, TimeUnit.SECONDS));
+			}
+			catch (ExecutionException e)
+			{
+				failures++;
+			}
+		}
+		
+		assertEquals(1, failures);
+		assertEquals(2, retrievals.get());
+	}
+	
+	@Test
+	public void generatorTest() throws Exception
+	{
+		for (TraversalMode traversalMode : TraversalMode.values())
+		{
+			final AtomicInteger populations = new AtomicInteger();
+			final BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(true);
+			beanPropertyGenerator.getConfiguration().setTraversalMode(traversalMode);
+			
+			// populating the last name is slow so that the other threads request the bean in the meantime
+			beanPropertyGenerator.getConfiguration().createRuleBuilder().forType(String.class)
+				.when(new FieldNameMatchesCondition("lastName")).thenReturn(new Value<String>()
+				{
+					@Override
+					public Class<String> getType()
+					{
+						return String.class;
+					}
+					
+					@Override
+					public String getValue()
+					{
+						populations.incrementAndGet();
+						sleep(100);
+						return "populated";
+					}
+					
+					@Override
+					public String getValue(final FieldPath fieldPath)
+					{
+						return getValue();
+					}
+				});
+			
+			final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+			List<Future<Object>> futures = submit(THREADS, new Callable<Object>()
+			{
+				@Override
+				public Object call() throws Exception
+				{
+					barrier.await();
+					return beanPropertyGenerator.get(TestBean.class);
+				}
+			});
+			
+			// no thread receives the bean before it is fully populated
+			for (Future<Object> future : futures)
+			{
+				TestBean testBean = (TestBean) future.get(TIMEOUT, TimeUnit.SECONDS);
+				assertEquals(traversalMode.name(), "populated", testBean.getLastName());
+			}
+			assertEquals(traversalMode.name(), 1, populations.get());
+		}
+	}
+	
+	@Test
+	public void interfaceMappingTest() throws Exception
+	{
+		for (TraversalMode traversalMode : TraversalMode.values())
+		{
+			final AtomicBoolean first = new AtomicBoolean(true);
+			final CountDownLatch populating = new CountDownLatch(1);
+			final CountDownLatch proceed = new CountDownLatch(1);
+			final BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(true);
+			beanPropertyGenerator.getConfiguration().setTraversalMode(traversalMode);
+			beanPropertyGenerator.getConfiguration().getInterfaceMapper().put(Named.class, NamedBean.class);
+			
+			// the first bean stops in the middle of being populated until it is allowed to proceed
+			beanPropertyGenerator.getConfiguration().createRuleBuilder().forType(String.class)
+				.when(new FieldNameMatchesCondition("name")).thenReturn(new Value<String>()
+				{
+					@Override
+					public Class<String> getType()
+					{
+						return String.class;
+					}
+					
+					@Override
+					public String getValue()
+					{
+						if (first.compareAndSet(true, false))
+						{
+							populating.countDown();
+							SingleFlightTest.await(proceed);
+						}
+						
+						return "populated";
+					}
+					
+					@Override
+					public String getValue(final FieldPath fieldPath)
+					{
+						return getValue();
+					}
+				});
+			
+			// the concrete class is populated while the interface is retrieved
+			Future<Object> mapped = executorService.submit(new Callable<Object>()
+			{
+				@Override
+				public Object call()
+				{
+					return beanPropertyGenerator.get(Named.class);
+				}
+			});
+			await(populating);
+			
+			// another thread never receives the concrete bean before it is fully populated
+			Future<Object> concrete = executorService.submit(new Callable<Object>()
+			{
+				@Override
+				public Object call()
+				{
+					return beanPropertyGenerator.get(NamedBean.class);
+				}
+			});
+			try
+			{
+				NamedBean namedBean = (NamedBean) concrete.get(TIMEOUT, TimeUnit.SECONDS);
+				assertEquals(traversalMode.name(), "populated", namedBean.getName());
+			}
+			finally
+			{
+				proceed.countDown();
+			}
+			
+			assertEquals(traversalMode.name(), "populated", ((Named) mapped.get(TIMEOUT, TimeUnit.SECONDS)).getName());
+		}
+	}
+	
+	/**
+	 * Submits the same task several times
+	 * 
+	 * @param count
+	 * @param callable
+	 * @return the futures of the tasks
+	 */
+	private List<Future<Object>> submit(final int count, final Callable<Object> callable)
+	{
+		List<Future<Object>> futures = new ArrayList<Future<Object>>();
+		for (int i = 0; i < count; i++)
+		{
+			futures.add(executorService.submit(callable));
+		}
+		
+		return futures;
+	}
+	
+	/**
+	 * Sleeps without being interrupted
+	 * 
+	 * @param millis
+	 */
+	private static void sleep(final long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Waits for a latch
+	 * 
+	 * @param latch
+	 */
+	private static void await(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await(TIMEOUT, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Waits for a barrier
+	 * 
+	 * @param barrier
+	 */
+	private static void await(final CyclicBarrier barrier)
+	{
+		try
+		{
+			barrier.await(TIMEOUT, TimeUnit.SECONDS);
+		}
+		catch (Exception e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * An interface that is mapped to a concrete bean
+	 */
+	public interface Named
+	{
+		String getName();
+	}
+	
+	/**
+	 * The concrete bean of the mapped interface
+	 */
+	public static class NamedBean implements Named
+	{
+		private String name;
+		
+		@Override
+		public String getName()
+		{
+			return name;
+		}
+		
+		public void setName(final String name)
+		{
+			this.name = name;
+		}
+	}
+}
@@ -0,0 +1,310 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.SettingDescriptor;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.gregmarut.support.bean.AggregateBean;
+import com.gregmarut.support.bean.FlatBean;
+import com.gregmarut.support.bean.NodeBean;
+import com.gregmarut.support.bean.TestBean;
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+import com.gregmarut.support.beangenerator.config.TraversalMode;
+import com.gregmarut.support.beantest.GetterSetterTester;
+
+/**
+ * Verifies the flight recorder events of the generator, its cache and the getter setter tester
+ * 
+ * @author Greg Marut
+ */
+public class FlightRecorderEventTest
+{
+	// holds the number of nested nodes that are generated
+	private static final int DEPTH = 3;
+	
+	// holds the log level that was configured before this test
+	private static Level previousLevel;
+	
+	@BeforeClass
+	public static void setup()
+	{
+		// the failed fields are expected
+		org.apache.log4j.Logger generatorLogger = LogManager.getLogger("com.gregmarut.support");
+		previousLevel = generatorLogger.getLevel();
+		generatorLogger.setLevel(Level.ERROR);
+	}
+	
+	@AfterClass
+	public static void tearDown()
+	{
+		LogManager.getLogger("com.gregmarut.support").setLevel(previousLevel);
+	}
+	
+	@Test
+	public void generateTest() throws IOException
+	{
+		for (TraversalMode traversalMode : TraversalMode.values())
+		{
+			BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+			beanPropertyGenerator.getConfiguration().setTraversalMode(traversalMode);
+			beanPropertyGenerator.getConfiguration().setMaxRepeatDepth(DEPTH);
+			
+			Recording recording = start(GenerateEvent.NAME, InitializeEvent.NAME);
+			beanPropertyGenerator.get(NodeBean.class);
+			List<RecordedEvent> events = stop(recording);
+			
+			// every node is initialized and the root is generated
+			List<RecordedEvent> generated = filter(events, GenerateEvent.NAME);
+			assertEquals(1, generated.size());
+			assertEquals(NodeBean.class.getName(), generated.get(0).getClass("beanClass").getName());
+			assertEquals(DEPTH + 1, generated.get(0).getInt("objectCount"));
+			assertEquals(DEPTH + 1, generated.get(0).getInt("depth"));
+			
+			List<RecordedEvent> initialized = filter(events, InitializeEvent.NAME);
+			assertEquals(DEPTH + 1, initialized.size());
+			for (RecordedEvent event : initialized)
+			{
+				// the nested beans finish first
+				int depth = event.getInt("depth");
+				assertEquals(DEPTH + 1 - depth, event.getInt("objectCount"));
+			}
+		}
+	}
+	
+	@Test
+	public void parallelPopulationTest() throws IOException
+	{
+		// the forked subgraphs are part of the counts of the beans that forked them
+		List<RecordedEvent> sequential = recordAggregate(false);
+		List<RecordedEvent> parallel = recordAggregate(true);
+		
+		List<RecordedEvent> sequentialGenerated = filter(sequential, GenerateEvent.NAME);
+		List<RecordedEvent> parallelGenerated = filter(parallel, GenerateEvent.NAME);
+		assertEquals(1, parallelGenerated.size());
+		assertTrue(sequentialGenerated.get(0).getInt("objectCount") > 1);
+		assertEquals(sequentialGenerated.get(0).getInt("objectCount"), parallelGenerated.get(0).getInt("objectCount"));
+		assertEquals(sequentialGenerated.get(0).getInt("depth"), parallelGenerated.get(0).getInt("depth"));
+		
+		// the root bean finishes last in both traversals
+		assertEquals(getRootObjectCount(sequential), getRootObjectCount(parallel));
+		assertEquals(sequentialGenerated.get(0).getInt("objectCount"), getRootObjectCount(parallel));
+	}
+	
+	@Test
+	public void cacheTest() throws IOException
+	{
+		BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(true);
+		
+		Recording recording = start(CacheRetrieveEvent.NAME);
+		beanPropertyGenerator.get(FlatBean.class);
+		beanPropertyGenerator.get(FlatBean.class);
+		List<RecordedEvent> events = filter(stop(recording), CacheRetrieveEvent.NAME);
+		
+		// the root bean was retrieved once and found once
+		int retrieved = 0;
+		int found = 0;
+		for (RecordedEvent event : events)
+		{
+			if (event.getClass("beanClass").getName().equals(FlatBean.class.getName()))
+			{
+				if (event.getBoolean("retrieved"))
+				{
+					retrieved++;
+				}
+				else
+				{
+					found++;
+				}
+			}
+		}
+		
+		assertEquals(1, retrieved);
+		assertEquals(1, found);
+	}
+	
+	@Test
+	public void prototypeTest() throws IOException
+	{
+		BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+		beanPropertyGenerator.getConfiguration().setMaxRepeatDepth(DEPTH);
+		beanPropertyGenerator.getConfiguration().setClonePrototypes(true);
+		
+		Recording recording = start(GenerateEvent.NAME);
+		beanPropertyGenerator.get(NodeBean.class);
+		beanPropertyGenerator.get(NodeBean.class);
+		List<RecordedEvent> events = filter(stop(recording), GenerateEvent.NAME);
+		
+		// every call copies the whole chain of nodes from the prototype
+		assertEquals(2, events.size());
+		for (RecordedEvent event : events)
+		{
+			assertEquals(DEPTH + 1, event.getInt("objectCount"));
+			assertEquals(DEPTH + 1, event.getInt("depth"));
+		}
+	}
+	
+	@Test
+	public void getterSetterTest() throws IOException
+	{
+		Recording recording = start(GetterSetterTestEvent.NAME);
+		new GetterSetterTester().execute(TestBean.class);
+		List<RecordedEvent> events = filter(stop(recording), GetterSetterTestEvent.NAME);
+		
+		assertEquals(1, events.size());
+		assertEquals(TestBean.class.getName(), events.get(0).getClass("targetClass").getName());
+		assertTrue(events.get(0).getInt("propertyCount") > 0);
+	}
+	
+	@Test
+	public void thresholdTest()
+	{
+		// every event only records slow calls unless the recording changes its threshold
+		for (Class<? extends Event> eventClass : Arrays.asList(GenerateEvent.class, InitializeEvent.class,
+			CacheRetrieveEvent.class, GetterSetterTestEvent.class))
+		{
+			boolean found = false;
+			for (SettingDescriptor setting : EventType.getEventType(eventClass).getSettingDescriptors())
+			{
+				if ("threshold".equals(setting.getName()))
+				{
+					assertEquals(GenerateEvent.DEFAULT_THRESHOLD, setting.getDefaultValue());
+					found = true;
+				}
+			}
+			
+			assertTrue(found);
+		}
+	}
+	
+	/**
+	 * Records the events of generating an aggregate bean
+	 * 
+	 * @param parallelPopulation
+	 * @return List
+	 * @throws IOException
+	 */
+	private List<RecordedEvent> recordAggregate(final boolean parallelPopulation) throws IOException
+	{
+		BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+		beanPropertyGenerator.getConfiguration().setMaxRepeatDepth(1);
+		beanPropertyGenerator.getConfiguration().setParallelPopulation(parallelPopulation);
+		beanPropertyGenerator.getConfiguration().setParallelThreshold(1);
+		
+		Recording recording = start(GenerateEvent.NAME, InitializeEvent.NAME);
+		beanPropertyGenerator.get(AggregateBean.class);
+		return stop(recording);
+	}
+	
+	/**
+	 * Returns the object count of the initialize event of the root bean
+	 * 
+	 * @param events
+	 * @return int
+	 */
+	private int getRootObjectCount(final List<RecordedEvent> events)
+	{
+		for (RecordedEvent event : filter(events, InitializeEvent.NAME))
+		{
+			if (event.getInt("depth") == 0)
+			{
+				return event.getInt("objectCount");
+			}
+		}
+		
+		throw new AssertionError("No initialize event for the root bean");
+	}
+	
+	/**
+	 * Starts a recording of the given events without a threshold
+	 * 
+	 * @param names
+	 * @return Recording
+	 */
+	private Recording start(final String... names)
+	{
+		Recording recording = new Recording();
+		for (String name : names)
+		{
+			recording.enable(name).withThreshold(Duration.ZERO);
+		}
+		
+		recording.start();
+		return recording;
+	}
+	
+	/**
+	 * Stops a recording and reads its events
+	 * 
+	 * @param recording
+	 * @return List
+	 * @throws IOException
+	 */
+	private List<RecordedEvent> stop(final Recording recording) throws IOException
+	{
+		Path file = Files.createTempFile("beangen", ".jfr");
+		try
+		{
+			recording.stop();
+			recording.dump(file);
+			return RecordingFile.readAllEvents(file);
+		}
+		finally
+		{
+			recording.close();
+			Files.delete(file);
+		}
+	}
+	
+	/**
+	 * Returns the events with the given name
+	 * 
+	 * @param events
+	 * @param name
+	 * @return List
+	 */
+	private List<RecordedEvent> filter(final List<RecordedEvent> events, final String name)
+	{
+		List<RecordedEvent> result = new ArrayList<RecordedEvent>();
+		for (RecordedEvent event : events)
+		{
+			if (event.getEventType().getName().equals(name))
+			{
+				result.add(event);
+			}
+		}
+		
+		return result;
+	}
+}
@@ -0,0 +1,312 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.gregmarut.support.bean.FlatBean;
+import com.gregmarut.support.bean.NodeBean;
+import com.gregmarut.support.bean.TestBean;
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+import com.gregmarut.support.beangenerator.config.TraversalMode;
+import com.gregmarut.support.beangenerator.rule.Rule;
+import com.gregmarut.support.beangenerator.rule.condition.FieldNameMatchesCondition;
+
+/**
+ * Verifies the events that are delivered to the listeners of a configuration
+ * 
+ * @author Greg Marut
+ */
+public class GenerationListenerTest
+{
+	// holds the log level that was configured before this test
+	private static Level previousLevel;
+	
+	@BeforeClass
+	public static void setup()
+	{
+		// the failed fields are expected
+		org.apache.log4j.Logger generatorLogger = LogManager.getLogger("com.gregmarut.support");
+		previousLevel = generatorLogger.getLevel();
+		generatorLogger.setLevel(Level.ERROR);
+	}
+	
+	@AfterClass
+	public static void tearDown()
+	{
+		LogManager.getLogger("com.gregmarut.support").setLevel(previousLevel);
+	}
+	
+	@Test
+	public void eventsTest()
+	{
+		// holds the events of each traversal mode
+		List<List<String>> events = new ArrayList<List<String>>();
+		
+		for (TraversalMode traversalMode : TraversalMode.values())
+		{
+			BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+			beanPropertyGenerator.getConfiguration().setTraversalMode(traversalMode);
+			beanPropertyGenerator.getConfiguration().createRuleBuilder().forType(String.class)
+				.when(new FieldNameMatchesCondition("firstName")).thenReturn("first");
+			
+			RecordingListener listener = new RecordingListener();
+			beanPropertyGenerator.getConfiguration().addGenerationListener(listener);
+			
+			TestBean testBean = beanPropertyGenerator.get(TestBean.class);
+			assertEquals("first", testBean.getFirstName());
+			
+			// the root bean is started first and finished last
+			assertEquals("beanStarted " + TestBean.class.getSimpleName(), listener.events.get(0));
+			assertEquals("beanFinished " + TestBean.class.getSimpleName(),
+				listener.events.get(listener.events.size() - 1));
+			assertEquals(listener.count("beanStarted"), listener.count("beanFinished"));
+			assertTrue(listener.events.contains("ruleMatched firstName"));
+			assertTrue(listener.events.contains("fieldPopulated lastName"));
+			assertEquals(listener.nanos.size(), listener.count("beanFinished"));
+			for (long nanos : listener.nanos)
+			{
+				assertTrue(nanos >= 0);
+			}
+			
+			events.add(listener.events);
+		}
+		
+		// both traversals deliver the same events in the same order
+		assertEquals(events.get(0), events.get(1));
+	}
+	
+	@Test
+	public void generatedPopulatorTest()
+	{
+		for (TraversalMode traversalMode : TraversalMode.values())
+		{
+			// holds the events with and without generated populators
+			List<List<String>> events = new ArrayList<List<String>>();
+			
+			for (boolean generatePopulators : new boolean[] { false, true })
+			{
+				BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+				beanPropertyGenerator.getConfiguration().setTraversalMode(traversalMode);
+				beanPropertyGenerator.getConfiguration().setGeneratePopulators(generatePopulators);
+				beanPropertyGenerator.getConfiguration().createRuleBuilder().forType(String.class)
+					.when(new FieldNameMatchesCondition("firstName")).thenReturn("first");
+				
+				RecordingListener listener = new RecordingListener();
+				beanPropertyGenerator.getConfiguration().addGenerationListener(listener);
+				
+				beanPropertyGenerator.get(TestBean.class);
+				events.add(listener.events);
+			}
+			
+			// the constants that are written by the generated populators are reported as well
+			assertTrue(events.get(1).contains("ruleMatched firstName"));
+			assertEquals(events.get(0), events.get(1));
+		}
+	}
+	
+	@Test
+	public void cacheTest()
+	{
+		for (TraversalMode traversalMode : TraversalMode.values())
+		{
+			BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(true);
+			beanPropertyGenerator.getConfiguration().setTraversalMode(traversalMode);
+			
+			RecordingListener listener = new RecordingListener();
+			beanPropertyGenerator.getConfiguration().addGenerationListener(listener);
+			
+			beanPropertyGenerator.get(FlatBean.class);
+			assertEquals(Collections.singletonList("cacheMiss FlatBean"), listener.filter("cacheMiss FlatBean"));
+			assertTrue(listener.filter("cacheHit").isEmpty());
+			
+			// the second bean is found in the cache and nothing is generated
+			listener.events.clear();
+			beanPropertyGenerator.get(FlatBean.class);
+			assertEquals(Collections.singletonList("cacheHit FlatBean"), listener.events);
+		}
+	}
+	
+	@Test
+	public void cycleTest()
+	{
+		for (TraversalMode traversalMode : TraversalMode.values())
+		{
+			BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+			beanPropertyGenerator.getConfiguration().setTraversalMode(traversalMode);
+			beanPropertyGenerator.getConfiguration().setMaxRepeatDepth(0);
+			
+			RecordingListener listener = new RecordingListener();
+			beanPropertyGenerator.getConfiguration().addGenerationListener(listener);
+			
+			assertNull(beanPropertyGenerator.get(NodeBean.class).getNext());
+			assertEquals(1, listener.count("cycleSkipped NodeBean"));
+			assertEquals(1, listener.count("beanStarted NodeBean"));
+			assertTrue(listener.events.contains("fieldPopulated next"));
+		}
+	}
+	
+	@Test
+	public void instantiationFailedTest()
+	{
+		for (TraversalMode traversalMode : TraversalMode.values())
+		{
+			BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+			beanPropertyGenerator.getConfiguration().setTraversalMode(traversalMode);
+			beanPropertyGenerator.getConfiguration().getInterfaceMapper().remove(Map.class);
+			
+			RecordingListener listener = new RecordingListener();
+			beanPropertyGenerator.getConfiguration().addGenerationListener(listener);
+			
+			assertNull(beanPropertyGenerator.get(TestBean.class).getMap());
+			assertEquals(1, listener.count("instantiationFailed Map"));
+		}
+	}
+	
+	@Test
+	public void registrationTest()
+	{
+		BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+		assertNull(beanPropertyGenerator.getConfiguration().getGenerationListener());
+		
+		RecordingListener first = new RecordingListener();
+		RecordingListener second = new RecordingListener();
+		beanPropertyGenerator.getConfiguration().addGenerationListener(first);
+		assertSame(first, beanPropertyGenerator.getConfiguration().getGenerationListener());
+		
+		// every listener receives every event
+		beanPropertyGenerator.getConfiguration().addGenerationListener(second);
+		assertEquals(2, beanPropertyGenerator.getConfiguration().getGenerationListeners().size());
+		beanPropertyGenerator.get(FlatBean.class);
+		assertFalse(first.events.isEmpty());
+		assertEquals(first.events, second.events);
+		
+		// removed listeners no longer receive events
+		assertTrue(beanPropertyGenerator.getConfiguration().removeGenerationListener(first));
+		assertFalse(beanPropertyGenerator.getConfiguration().removeGenerationListener(first));
+		assertSame(second, beanPropertyGenerator.getConfiguration().getGenerationListener());
+		first.events.clear();
+		beanPropertyGenerator.get(FlatBean.class);
+		assertTrue(first.events.isEmpty());
+		
+		beanPropertyGenerator.getConfiguration().removeGenerationListener(second);
+		assertNull(beanPropertyGenerator.getConfiguration().getGenerationListener());
+	}
+	
+	/**
+	 * Records the events as the name of the event and the simple name of its class or field
+	 * 
+	 * @author Greg Marut
+	 */
+	private static class RecordingListener implements GenerationListener
+	{
+		private final List<String> events = new ArrayList<String>();
+		private final List<Long> nanos = new ArrayList<Long>();
+		
+		@Override
+		public void beanStarted(final Class<?> type)
+		{
+			events.add("beanStarted " + type.getSimpleName());
+		}
+		
+		@Override
+		public void beanFinished(final Class<?> type, final Object bean, final long nanos)
+		{
+			events.add("beanFinished " + type.getSimpleName());
+			this.nanos.add(nanos);
+		}
+		
+		@Override
+		public void fieldPopulated(final Object bean, final Field field, final Object value)
+		{
+			events.add("fieldPopulated " + field.getName());
+		}
+		
+		@Override
+		public void ruleMatched(final Object bean, final Field field, final Rule<?> rule)
+		{
+			events.add("ruleMatched " + field.getName());
+		}
+		
+		@Override
+		public void cacheHit(final Class<?> type)
+		{
+			events.add("cacheHit " + type.getSimpleName());
+		}
+		
+		@Override
+		public void cacheMiss(final Class<?> type)
+		{
+			events.add("cacheMiss " + type.getSimpleName());
+		}
+		
+		@Override
+		public void cycleSkipped(final Class<?> type)
+		{
+			events.add("cycleSkipped " + type.getSimpleName());
+		}
+		
+		@Override
+		public void instantiationFailed(final Class<?> type, final InstantiationException e)
+		{
+			events.add("instantiationFailed " + type.getSimpleName());
+		}
+		
+		/**
+		 * Returns the events that start with the given prefix
+		 * 
+		 * @param prefix
+		 * @return List
+		 */
+		private List<String> filter(final String prefix)
+		{
+			List<String> result = new ArrayList<String>();
+			for (String event : events)
+			{
+				if (event.startsWith(prefix))
+				{
+					result.add(event);
+				}
+			}
+			
+			return result;
+		}
+		
+		/**
+		 * Counts the events that start with the given prefix
+		 * 
+		 * @param prefix
+		 * @return int
+		 */
+		private int count(final String prefix)
+		{
+			return filter(prefix).size();
+		}
+	}
+}
@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.gregmarut.support.bean.AnotherTestBean;
+import com.gregmarut.support.bean.TestBean;
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+import com.gregmarut.support.beangenerator.cache.CacheStats;
+import com.gregmarut.support.beangenerator.config.TraversalMode;
+import com.gregmarut.support.beangenerator.rule.condition.Condition;
+
+/**
+ * Verifies the metrics of a generator and its cache
+ * 
+ * @author Greg Marut
+ */
+public class GeneratorMetricsTest
+{
+	// holds the number of beans of each list
+	private static final int LIST_SIZE = 5;
+	
+	// holds the log level that was configured before this test
+	private static Level previousLevel;
+	
+	@BeforeClass
+	public static void setup()
+	{
+		// the failed fields are expected
+		org.apache.log4j.Logger generatorLogger = LogManager.getLogger("com.gregmarut.support");
+		previousLevel = generatorLogger.getLevel();
+		generatorLogger.setLevel(Level.ERROR);
+	}
+	
+	@AfterClass
+	public static void tearDown()
+	{
+		LogManager.getLogger("com.gregmarut.support").setLevel(previousLevel);
+	}
+	
+	@Test
+	public void generatorTest()
+	{
+		for (TraversalMode traversalMode : TraversalMode.values())
+		{
+			BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+			beanPropertyGenerator.getConfiguration().setTraversalMode(traversalMode);
+			
+			beanPropertyGenerator.get(TestBean.class);
+			MetricsSnapshot single = beanPropertyGenerator.getMetrics().snapshot();
+			assertEquals(1, single.getInstantiations(TestBean.class));
+			assertTrue(single.getInstantiations(AnotherTestBean.class) > 0);
+			assertTrue(single.getFieldsPopulated() > 0);
+			assertEquals(1, single.getGetLatency().getCount());
+			assertEquals(0, single.getGetListLatency().getCount());
+			
+			// every bean of the list is counted the same way as the first one
+			beanPropertyGenerator.getList(TestBean.class, LIST_SIZE);
+			MetricsSnapshot list = beanPropertyGenerator.getMetrics().snapshot();
+			assertEquals(traversalMode.name(), 1 + LIST_SIZE, list.getInstantiations(TestBean.class));
+			assertEquals((1 + LIST_SIZE) * single.getFieldsPopulated(), list.getFieldsPopulated());
+			assertEquals((1 + LIST_SIZE) * single.getTotalInstantiations(), list.getTotalInstantiations());
+			assertEquals(1 + LIST_SIZE, list.getGetLatency().getCount());
+			assertEquals(1, list.getGetListLatency().getCount());
+			assertTrue(list.getGetListLatency().getTotalNanos() > 0);
+			
+			beanPropertyGenerator.getMetrics().reset();
+			assertEquals(0, beanPropertyGenerator.getMetrics().snapshot().getTotalInstantiations());
+		}
+	}
+	
+	@Test
+	public void prototypeTest()
+	{
+		BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+		beanPropertyGenerator.getConfiguration().setClonePrototypes(true);
+		
+		// the prototype is generated by the first call and copied by every call
+		beanPropertyGenerator.get(TestBean.class);
+		MetricsSnapshot first = beanPropertyGenerator.getMetrics().snapshot();
+		assertEquals(2, first.getInstantiations(TestBean.class));
+		
+		beanPropertyGenerator.get(TestBean.class);
+		MetricsSnapshot second = beanPropertyGenerator.getMetrics().snapshot();
+		assertEquals(3, second.getInstantiations(TestBean.class));
+		assertTrue(second.getInstantiations(AnotherTestBean.class) > first.getInstantiations(AnotherTestBean.class));
+		
+		// the classes are only referred to by name
+		assertTrue(second.getInstantiations().containsKey(TestBean.class.getName()));
+	}
+	
+	@Test
+	public void ruleTest()
+	{
+		BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+		
+		// a custom condition is evaluated every time a string field is populated
+		beanPropertyGenerator.getConfiguration().createRuleBuilder().forType(String.class).when(new Condition()
+		{
+			@Override
+			public boolean isTrue(final Field field, final Object declaringObject)
+			{
+				return field.getName().equals("lastName");
+			}
+		}).thenReturn("Smith");
+		
+		beanPropertyGenerator.getList(TestBean.class, LIST_SIZE);
+		MetricsSnapshot snapshot = beanPropertyGenerator.getMetrics().snapshot();
+		
+		assertEquals(LIST_SIZE, snapshot.getRuleMatches());
+		assertTrue(snapshot.getRuleEvaluations() > snapshot.getRuleMatches());
+	}
+	
+	@Test
+	public void cacheTest()
+	{
+		BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(true);
+		beanPropertyGenerator.get(TestBean.class);
+		beanPropertyGenerator.get(TestBean.class);
+		
+		// the second bean and the nested beans that refer to cached classes are hits
+		CacheStats cacheStats = beanPropertyGenerator.getMetrics().snapshot().getCacheStats();
+		assertTrue(cacheStats.getHits() > 0);
+		assertTrue(cacheStats.getMisses() > 0);
+		assertEquals(cacheStats.getMisses(), cacheStats.getBuilds());
+		assertEquals(0, cacheStats.getEvictions());
+		assertEquals(1, beanPropertyGenerator.getMetrics().snapshot().getInstantiations(TestBean.class));
+	}
+	
+	@Test
+	public void failureTest()
+	{
+		// without a mapping for maps, the map field cannot be instantiated
+		BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+		beanPropertyGenerator.getConfiguration().getInterfaceMapper().remove(Map.class);
+		
+		assertNull(beanPropertyGenerator.get(TestBean.class).getMap());
+		assertEquals(1, beanPropertyGenerator.getMetrics().snapshot().getInstantiationFailures());
+	}
+	
+	@Test
+	public void latencyTest()
+	{
+		LatencyHistogram latencyHistogram = new LatencyHistogram();
+		for (long nanos = 1; nanos <= 1000; nanos++)
+		{
+			latencyHistogram.record(nanos);
+		}
+		
+		LatencySnapshot snapshot = latencyHistogram.snapshot();
+		assertEquals(1000, snapshot.getCount());
+		assertEquals(1000, snapshot.getMaxNanos());
+		assertEquals(500.5, snapshot.getMeanNanos(), 0.001);
+		
+		// each percentile is bounded by the power of two above it
+		assertEquals(511, snapshot.getPercentileNanos(50));
+		assertEquals(1000, snapshot.getPercentileNanos(99));
+		assertEquals(1, snapshot.getPercentileNanos(0));
+	}
+	
+	@Test
+	public void mbeanTest() throws Exception
+	{
+		BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+		ObjectName objectName = beanPropertyGenerator.getMetrics().register("mbeanTest");
+		
+		try
+		{
+			beanPropertyGenerator.get(TestBean.class);
+			
+			MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+			assertEquals(1L, mBeanServer.getAttribute(objectName, "GetCount"));
+			assertEquals(beanPropertyGenerator.getMetrics().snapshot().getFieldsPopulated(),
+				mBeanServer.getAttribute(objectName, "FieldsPopulated"));
+			
+			TabularData instantiations = (TabularData) mBeanServer.getAttribute(objectName, "Instantiations");
+			assertTrue(instantiations.containsKey(new Object[] { TestBean.class.getName() }));
+			
+			mBeanServer.invoke(objectName, "reset", null, null);
+			assertEquals(0L, mBeanServer.getAttribute(objectName, "GetCount"));
+		}
+		finally
+		{
+			beanPropertyGenerator.getMetrics().unregister();
+		}
+		
+		assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName));
+	}
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.plan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.gregmarut.support.bean.TestBean;
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+import com.gregmarut.support.beangenerator.plan.FieldPlan.ValueSource;
+import com.gregmarut.support.beangenerator.rule.condition.FieldNameCondition;
+import com.gregmarut.support.beangenerator.rule.condition.FieldNameMatchesCondition;
+
+/**
+ * This test demonstrates that bean plans are compiled once per configuration and recompiled when
+ * the configuration changes
+ * 
+ * @author Greg Marut
+ */
+public class BeanPlanTest
+{
+	// holds the BeanPropertyGenerator which is used for creating and populating objects with test
+	// data
+	private BeanPropertyGenerator beanPropertyGenerator;
+	
+	@Before
+	public void setup()
+	{
+		// create a new BeanPropertyGenerator
+		beanPropertyGenerator = new BeanPropertyGenerator(false);
+	}
+	
+	@Test
+	public void sharedPlanTest()
+	{
+		// create a second generator that shares the same configuration
+		BeanPropertyGenerator sharedGenerator = new BeanPropertyGenerator(beanPropertyGenerator.getConfiguration());
+		
+		BeanPlan plan1 = beanPropertyGenerator.getConfiguration().getBeanPlanCache().getPlan(new TestBean());
+		BeanPlan plan2 = sharedGenerator.getConfiguration().getBeanPlanCache().getPlan(new TestBean());
+		
+		// the plan is only compiled once
+		assertSame(plan1, plan2);
+		
+		// the transient and final non collection fields are not part of the plan
+		assertEquals(TestBean.class, plan1.getType());
+		assertEquals(ValueSource.EXISTING_COLLECTION, findFieldPlan(plan1, "finalList").getValueSource());
+		assertEquals(ValueSource.COLLECTION, findFieldPlan(plan1, "list").getValueSource());
+		assertEquals(ValueSource.DEFAULT_VALUE, findFieldPlan(plan1, "firstName").getValueSource());
+		assertEquals(ValueSource.BEAN, findFieldPlan(plan1, "anotherTestBean").getValueSource());
+	}
+	
+	@Test
+	public void recompileOnRuleChangeTest()
+	{
+		BeanPlan plan1 = beanPropertyGenerator.getConfiguration().getBeanPlanCache().getPlan(new TestBean());
+		
+		// add a new rule after the plan was compiled
+		beanPropertyGenerator.getConfiguration().createRuleBuilder().forType(String.class)
+			.when(new FieldNameMatchesCondition("firstName")).thenReturn("John");
+		
+		BeanPlan plan2 = beanPropertyGenerator.getConfiguration().getBeanPlanCache().getPlan(new TestBean());
+		
+		// the plan must be compiled again and reflect the new rule
+		assertNotSame(plan1, plan2);
+		assertEquals(ValueSource.RULE, findFieldPlan(plan2, "firstName").getValueSource());
+		assertEquals("John", beanPropertyGenerator.get(TestBean.class).getFirstName());
+	}
+	
+	@Test
+	public void customConditionTest()
+	{
+		// the built in field name conditions are resolved when the plan is compiled
+		beanPropertyGenerator.getConfiguration().createRuleBuilder().forType(String.class)
+			.when(new FieldNameMatchesCondition("firstName")).thenReturn("John");
+		BeanPlan plan1 = beanPropertyGenerator.getConfiguration().getBeanPlanCache().getPlan(new TestBean());
+		assertFalse(findFieldPlan(plan1, "firstName").isRuleLookupRequired());
+		
+		// a custom condition may inspect the declaring object, so its rules are looked up for every object
+		beanPropertyGenerator.getConfiguration().createRuleBuilder().forType(String.class)
+			.when(new FieldNameCondition("lastName")
+			{
+				@Override
+				public boolean isTrue(final Field field, final Object declaringObject)
+				{
+					return pattern.equals(field.getName());
+				}
+			}).thenReturn("Doe");
+		BeanPlan plan2 = beanPropertyGenerator.getConfiguration().getBeanPlanCache().getPlan(new TestBean());
+		assertTrue(findFieldPlan(plan2, "lastName").isRuleLookupRequired());
+		assertEquals("Doe", beanPropertyGenerator.get(TestBean.class).getLastName());
+	}
+	
+	private FieldPlan findFieldPlan(final BeanPlan beanPlan, final String name)
+	{
+		for (FieldPlan fieldPlan : beanPlan.getFieldPlans())
+		{
+			if (fieldPlan.getField().getName().equals(name))
+			{
+				return fieldPlan;
+			}
+		}
+		
+		throw new AssertionError("No plan for field " + name);
+	}
+}
@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.plan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.gregmarut.support.bean.AnotherTestBean;
+import com.gregmarut.support.bean.ChildBean;
+import com.gregmarut.support.bean.GrandParentBean;
+import com.gregmarut.support.bean.ParentBean;
+import com.gregmarut.support.bean.TestBean;
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+import com.gregmarut.support.util.ReflectionUtil;
+
+/**
+ * A differential test to ensure that the generated populators build exactly the same object graphs
+ * as reflection
+ * 
+ * @author Greg Marut
+ */
+public class GeneratedPopulatorTest
+{
+	// holds the generator that uses reflection
+	private BeanPropertyGenerator reflectiveGenerator;
+	
+	// holds the generator that uses generated populators
+	private BeanPropertyGenerator generatedGenerator;
+	
+	@Before
+	public void setup()
+	{
+		reflectiveGenerator = new BeanPropertyGenerator(false);
+		
+		generatedGenerator = new BeanPropertyGenerator(false);
+		generatedGenerator.getConfiguration().setGeneratePopulators(true);
+	}
+	
+	@Test
+	public void identicalGraphsTest()
+	{
+		// generate each bean twice so that the second pass allocates through the generated populator
+		for (int i = 0; i < 2; i++)
+		{
+			assertGraphEquals(reflectiveGenerator.get(TestBean.class), generatedGenerator.get(TestBean.class));
+			assertGraphEquals(reflectiveGenerator.get(AnotherTestBean.class),
+				generatedGenerator.get(AnotherTestBean.class));
+			assertGraphEquals(reflectiveGenerator.get(ChildBean.class), generatedGenerator.get(ChildBean.class));
+			assertGraphEquals(reflectiveGenerator.get(ParentBean.class), generatedGenerator.get(ParentBean.class));
+			assertGraphEquals(reflectiveGenerator.get(GrandParentBean.class),
+				generatedGenerator.get(GrandParentBean.class));
+		}
+	}
+	
+	@Test
+	public void populatorUsedTest()
+	{
+		generatedGenerator.get(ChildBean.class);
+		
+		// make sure the plan was compiled with generated populators
+		BeanPlan beanPlan = generatedGenerator.getConfiguration().getBeanPlanCache().findPlan(ChildBean.class);
+		assertTrue(beanPlan.canInstantiate());
+		
+		// the inherited string fields and the primitive are all constants
+		for (FieldPlan fieldPlan : beanPlan.getFieldPlans())
+		{
+			assertTrue(fieldPlan.getField().getName(), fieldPlan.isConstant());
+		}
+	}
+	
+	@Test
+	public void toggleTest()
+	{
+		BeanPlanCache beanPlanCache = reflectiveGenerator.getConfiguration().getBeanPlanCache();
+		reflectiveGenerator.get(ChildBean.class);
+		assertFalse(beanPlanCache.findPlan(ChildBean.class).canInstantiate());
+		
+		// the plans that were compiled before are discarded whenever the setting changes
+		reflectiveGenerator.getConfiguration().setGeneratePopulators(true);
+		reflectiveGenerator.get(ChildBean.class);
+		assertTrue(beanPlanCache.findPlan(ChildBean.class).canInstantiate());
+		
+		reflectiveGenerator.getConfiguration().setGeneratePopulators(false);
+		reflectiveGenerator.get(ChildBean.class);
+		assertFalse(beanPlanCache.findPlan(ChildBean.class).canInstantiate());
+	}
+	
+	@Test
+	public void writeConversionTest() throws IllegalAccessException
+	{
+		generatedGenerator.get(TestBean.class);
+		BeanPlan beanPlan = generatedGenerator.getConfiguration().getBeanPlanCache().findPlan(TestBean.class);
+		FieldPlan intData = findFieldPlan(beanPlan, "intData");
+		FieldPlan integer = findFieldPlan(beanPlan, "integer");
+		TestBean testBean = new TestBean();
+		
+		// values of the exact type are written by the populator and others are widened by the accessor
+		intData.write(testBean, Integer.valueOf(7));
+		assertEquals(7, testBean.getIntData());
+		intData.write(testBean, Short.valueOf((short) 8));
+		assertEquals(8, testBean.getIntData());
+		
+		// null is only accepted by fields that are not primitive
+		integer.write(testBean, null);
+		assertNull(testBean.getInteger());
+		assertIllegalArgument(intData, testBean, null);
+		assertIllegalArgument(intData, testBean, "9");
+		assertIllegalArgument(integer, testBean, Short.valueOf((short) 9));
+		assertEquals(8, testBean.getIntData());
+	}
+	
+	/**
+	 * Returns the plan of the field with the given name
+	 * 
+	 * @param beanPlan
+	 * @param name
+	 * @return FieldPlan
+	 */
+	private FieldPlan findFieldPlan(final BeanPlan beanPlan, final String name)
+	{
+		for (FieldPlan fieldPlan : beanPlan.getFieldPlans())
+		{
+			if (name.equals(fieldPlan.getField().getName()))
+			{
+				return fieldPlan;
+			}
+		}
+		
+		throw new AssertionError(name);
+	}
+	
+	/**
+	 * Asserts that a value is rejected by a field in the same way as by reflection
+	 * 
+	 * @param fieldPlan
+	 * @param obj
+	 * @param value
+	 * @throws IllegalAccessException
+	 */
+	private void assertIllegalArgument(final FieldPlan fieldPlan, final Object obj, final Object value)
+		throws IllegalAccessException
+	{
+		try
+		{
+			fieldPlan.write(obj, value);
+			fail(fieldPlan.getField().getName() + " accepted " + value);
+		}
+		catch (IllegalArgumentException e)
+		{
+			// expected
+		}
+	}
+	
+	/**
+	 * Walks both object graphs and asserts that they are identical
+	 * 
+	 * @param expected
+	 * @param actual
+	 */
+	private void assertGraphEquals(final Object expected, final Object actual)
+	{
+		assertGraphEquals(expected, actual, new IdentityHashMap<Object, Object>(), "root");
+	}
+	
+	private void assertGraphEquals(final Object expected, final Object actual, final Map<Object, Object> visited,
+		final String path)
+	{
+		if (null == expected || null == actual)
+		{
+			assertEquals(path, expected, actual);
+			return;
+		}
+		
+		assertEquals(path, expected.getClass(), actual.getClass());
+		
+		// make sure this object has not already been compared
+		if (visited.containsKey(expected))
+		{
+			return;
+		}
+		visited.put(expected, actual);
+		
+		if (expected.getClass().isArray())
+		{
+			assertEquals(path, Array.getLength(expected), Array.getLength(actual));
+			for (int i = 0; i < Array.getLength(expected); i++)
+			{
+				assertGraphEquals(Array.get(expected, i), Array.get(actual, i), visited, path + "[" + i + "]");
+			}
+		}
+		else if (expected instanceof Collection)
+		{
+			Collection<?> expectedCollection = (Collection<?>) expected;
+			Collection<?> actualCollection = (Collection<?>) actual;
+			assertEquals(path, expectedCollection.size(), actualCollection.size());
+			
+			Iterator<?> iterator = actualCollection.iterator();
+			int i = 0;
+			for (Object element : expectedCollection)
+			{
+				assertGraphEquals(element, iterator.next(), visited, path + "[" + i++ + "]");
+			}
+		}
+		else if (expected.getClass().getName().startsWith("java."))
+		{
+			assertEquals(path, expected, actual);
+		}
+		else
+		{
+			for (Field field : ReflectionUtil.getAllFields(expected))
+			{
+				try
+				{
+					field.setAccessible(true);
+					assertGraphEquals(field.get(expected), field.get(actual), visited, path + "." + field.getName());
+				}
+				catch (IllegalAccessException e)
+				{
+					throw new AssertionError(e);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.gregmarut.support.bean.AnotherTestBean;
+import com.gregmarut.support.bean.ChildBean;
+import com.gregmarut.support.bean.GrandParentBean;
+import com.gregmarut.support.bean.ParentBean;
+import com.gregmarut.support.bean.TestBean;
+import com.gregmarut.support.beangenerator.rule.Rule;
+import com.gregmarut.support.beangenerator.rule.RuleMapping;
+import com.gregmarut.support.beangenerator.rule.condition.AndCondition;
+import com.gregmarut.support.beangenerator.rule.condition.Condition;
+import com.gregmarut.support.beangenerator.rule.condition.DeclaringAnyClassCondition;
+import com.gregmarut.support.beangenerator.rule.condition.DeclaringClassCondition;
+import com.gregmarut.support.beangenerator.rule.condition.FieldNameEndsWithCondition;
+import com.gregmarut.support.beangenerator.rule.condition.FieldNameMatchesCondition;
+import com.gregmarut.support.beangenerator.rule.condition.FieldNameStartsWithCondition;
+import com.gregmarut.support.beangenerator.rule.condition.OrCondition;
+import com.gregmarut.support.util.ReflectionUtil;
+
+/**
+ * Ensures that the indexed rule lookup always finds the same rule as a linear scan
+ * 
+ * @author Greg Marut
+ */
+public class IndexedRulesTest
+{
+	// holds the beans whose fields are matched against the rules
+	private static final Object[] BEANS =
+		{ new TestBean(), new AnotherTestBean(), new ChildBean(), new ParentBean(), new GrandParentBean() };
+	
+	@Test
+	public void sameWinnerTest()
+	{
+		Random random = new Random(42);
+		
+		// collect all of the fields and their names
+		List<Field> fields = new ArrayList<Field>();
+		List<Object> declaringObjects = new ArrayList<Object>();
+		for (Object bean : BEANS)
+		{
+			for (Field field : ReflectionUtil.getAllFields(bean))
+			{
+				fields.add(field);
+				declaringObjects.add(bean);
+			}
+		}
+		
+		// add a large number of random rules
+		RuleMapping ruleMapping = new RuleMapping();
+		for (int i = 0; i < 500; i++)
+		{
+			ruleMapping.add(new Rule<String>(randomCondition(random, fields, 0), "rule" + i));
+		}
+		
+		// every field must resolve to the same rule
+		for (int i = 0; i < fields.size(); i++)
+		{
+			Field field = fields.get(i);
+			Object declaringObject = declaringObjects.get(i);
+			
+			assertSame(field.toString(), linearScan(ruleMapping, field, declaringObject),
+				ruleMapping.findMatchingRule(String.class, field, declaringObject));
+		}
+	}
+	
+	@Test
+	public void lastRuleWinsTest() throws Exception
+	{
+		RuleMapping ruleMapping = new RuleMapping();
+		Rule<String> first = new Rule<String>(new FieldNameMatchesCondition("firstName"), "first");
+		Rule<String> second = new Rule<String>(new FieldNameStartsWithCondition("first"), "second");
+		Rule<String> other = new Rule<String>(new FieldNameEndsWithCondition("Name"), "other");
+		ruleMapping.add(first);
+		ruleMapping.add(second);
+		
+		Field field = TestBean.class.getDeclaredField("firstName");
+		assertSame(second, ruleMapping.findMatchingRule(String.class, field, new TestBean()));
+		
+		// a later rule overrides the earlier ones
+		ruleMapping.add(other);
+		assertSame(other, ruleMapping.findMatchingRule(String.class, field, new TestBean()));
+		assertEquals(3, ruleMapping.get(String.class).size());
+		
+		// the returned rules are a copy that does not change the mapping
+		ruleMapping.get(String.class).clear();
+		assertEquals(3, ruleMapping.get(String.class).size());
+		assertSame(other, ruleMapping.findMatchingRule(String.class, field, new TestBean()));
+	}
+	
+	/**
+	 * Finds the matching rule by evaluating every rule
+	 * 
+	 * @param ruleMapping
+	 * @param field
+	 * @param declaringObject
+	 * @return Rule
+	 */
+	private Rule<?> linearScan(final RuleMapping ruleMapping, final Field field, final Object declaringObject)
+	{
+		Rule<?> rule = null;
+		for (Rule<?> current : ruleMapping.get(String.class))
+		{
+			if (current.isTrue(field, declaringObject))
+			{
+				rule = current;
+			}
+		}
+		
+		return rule;
+	}
+	
+	/**
+	 * Creates a random condition that may or may not match one of the fields
+	 * 
+	 * @param random
+	 * @param fields
+	 * @param depth
+	 * @return Condition
+	 */
+	private Condition randomCondition(final Random random, final List<Field> fields, final int depth)
+	{
+		Field field = fields.get(random.nextInt(fields.size()));
+		String name = field.getName();
+		
+		switch (random.nextInt(depth < 2 ? 9 : 6))
+		{
+			case 0:
+				return new FieldNameMatchesCondition(random.nextBoolean() ? name : name + "X");
+			case 1:
+				return new FieldNameStartsWithCondition(name.substring(0, random.nextInt(name.length() + 1)));
+			case 2:
+				return new FieldNameEndsWithCondition(name.substring(random.nextInt(name.length() + 1)));
+			case 3:
+				return new DeclaringClassCondition(field.getDeclaringClass());
+			case 4:
+				return new DeclaringAnyClassCondition(BEANS[random.nextInt(BEANS.length)].getClass());
+			case 5:
+				// an opaque condition that cannot be indexed
+				final int length = name.length();
+				return new Condition()
+				{
+					@Override
+					public boolean isTrue(final Field field, final Object declaringObject)
+					{
+						return field.getName().length() == length;
+					}
+				};
+			case 6:
+			case 7:
+				return new AndCondition(randomCondition(random, fields, depth + 1),
+					randomCondition(random, fields, depth + 1));
+			default:
+				return new OrCondition(randomCondition(random, fields, depth + 1),
+					randomCondition(random, fields, depth + 1));
+		}
+	}
+}
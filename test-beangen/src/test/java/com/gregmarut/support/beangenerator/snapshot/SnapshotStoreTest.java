@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.snapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.gregmarut.support.bean.AggregateBean;
+import com.gregmarut.support.bean.FlatBean;
+import com.gregmarut.support.bean.TestBean;
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+import com.gregmarut.support.beangenerator.GraphAssert;
+import com.gregmarut.support.beangenerator.config.CacheOverrideType;
+import com.gregmarut.support.beangenerator.model.FieldPath;
+import com.gregmarut.support.beangenerator.rule.condition.FieldNameMatchesCondition;
+import com.gregmarut.support.beangenerator.value.Value;
+
+/**
+ * Verifies that beans read back from a snapshot are identical to the generated beans and that
+ * stale snapshots are generated again
+ * 
+ * @author Greg Marut
+ */
+public class SnapshotStoreTest
+{
+	// holds the log level that was configured before this test
+	private static Level previousLevel;
+	
+	// holds the directory of the snapshots
+	private Path directory;
+	
+	// counts how many times the name rule of the current generator was evaluated
+	private AtomicInteger names;
+	
+	@BeforeClass
+	public static void setupLogging()
+	{
+		// the corrupt snapshot is expected to be logged
+		org.apache.log4j.Logger generatorLogger = LogManager.getLogger("com.gregmarut.support");
+		previousLevel = generatorLogger.getLevel();
+		generatorLogger.setLevel(Level.ERROR);
+	}
+	
+	@AfterClass
+	public static void tearDownLogging()
+	{
+		LogManager.getLogger("com.gregmarut.support").setLevel(previousLevel);
+	}
+	
+	@Before
+	public void setup() throws IOException
+	{
+		directory = Files.createTempDirectory("snapshots");
+	}
+	
+	@After
+	public void tearDown() throws IOException
+	{
+		DirectoryStream<Path> paths = Files.newDirectoryStream(directory);
+		try
+		{
+			for (Path path : paths)
+			{
+				Files.delete(path);
+			}
+		}
+		finally
+		{
+			paths.close();
+		}
+		
+		Files.delete(directory);
+	}
+	
+	@Test
+	public void roundTripTest() throws IllegalAccessException
+	{
+		AggregateBean generated = createStore().get(AggregateBean.class);
+		assertTrue(names.get() > 0);
+		
+		// a new generator reads the snapshot instead of generating the bean
+		AggregateBean read = createStore().get(AggregateBean.class);
+		assertEquals(0, names.get());
+		assertNotSame(generated, read);
+		GraphAssert.assertSameGraph(generated, read);
+	}
+	
+	@Test
+	public void listTest() throws IllegalAccessException
+	{
+		List<FlatBean> generated = createStore().getList(FlatBean.class, 5);
+		List<FlatBean> read = createStore().getList(FlatBean.class, 5);
+		
+		assertEquals(5, read.size());
+		assertNotSame(read.get(0), read.get(1));
+		GraphAssert.assertSameGraph(generated, read);
+	}
+	
+	@Test
+	public void sharedIdentityTest()
+	{
+		SnapshotStore snapshotStore = createStore();
+		BeanPropertyGenerator beanPropertyGenerator = snapshotStore.getBeanPropertyGenerator();
+		beanPropertyGenerator.getConfiguration().getCacheOverride().put(TestBean.class, CacheOverrideType.CACHE);
+		snapshotStore.get(AggregateBean.class);
+		
+		// the cached bean is shared within the graph that is read back
+		snapshotStore = createStore();
+		snapshotStore.getBeanPropertyGenerator().getConfiguration().getCacheOverride()
+			.put(TestBean.class, CacheOverrideType.CACHE);
+		AggregateBean read = snapshotStore.get(AggregateBean.class);
+		assertEquals(0, names.get());
+		assertSame(read.getFirst(), read.getSecond());
+	}
+	
+	@Test
+	public void staleTest()
+	{
+		createStore().get(AggregateBean.class);
+		
+		// changing the configuration generates the snapshot again
+		SnapshotStore snapshotStore = createStore();
+		snapshotStore.getBeanPropertyGenerator().getConfiguration().setCollectionAutoFillCount(1);
+		assertEquals(1, snapshotStore.get(AggregateBean.class).getFlats().size());
+		assertTrue(names.get() > 0);
+		
+		// the new snapshot is read by the next generator with the same configuration
+		snapshotStore = createStore();
+		snapshotStore.getBeanPropertyGenerator().getConfiguration().setCollectionAutoFillCount(1);
+		assertEquals(1, snapshotStore.get(AggregateBean.class).getFlats().size());
+		assertEquals(0, names.get());
+		
+		// changing the version generates the snapshot again
+		BeanPropertyGenerator beanPropertyGenerator = createStore().getBeanPropertyGenerator();
+		beanPropertyGenerator.getConfiguration().setCollectionAutoFillCount(1);
+		new SnapshotStore(beanPropertyGenerator, directory, "2").get(AggregateBean.class);
+		assertTrue(names.get() > 0);
+	}
+	
+	@Test
+	public void dateTest()
+	{
+		SnapshotStore snapshotStore = createStore();
+		snapshotStore.getBeanPropertyGenerator().getConfiguration().getDefaultValues().putStaticValue(Date.class,
+			new Date(0));
+		snapshotStore.get(AggregateBean.class);
+		
+		// an equal date reads the snapshot
+		snapshotStore = createStore();
+		snapshotStore.getBeanPropertyGenerator().getConfiguration().getDefaultValues().putStaticValue(Date.class,
+			new Date(0));
+		snapshotStore.get(AggregateBean.class);
+		assertEquals(0, names.get());
+		
+		// a different date generates the snapshot again
+		snapshotStore = createStore();
+		snapshotStore.getBeanPropertyGenerator().getConfiguration().getDefaultValues().putStaticValue(Date.class,
+			new Date(1000));
+		snapshotStore.get(AggregateBean.class);
+		assertTrue(names.get() > 0);
+	}
+	
+	@Test
+	public void unknownStateTest()
+	{
+		// the state of other objects of the java packages is unknown, so the snapshot is not reused
+		for (int i = 0; i < 2; i++)
+		{
+			SnapshotStore snapshotStore = createStore();
+			snapshotStore.getBeanPropertyGenerator().getConfiguration().getDefaultValues()
+				.putStaticValue(Random.class, new Random(0));
+			snapshotStore.get(AggregateBean.class);
+			assertTrue(names.get() > 0);
+		}
+	}
+	
+	@Test
+	public void corruptTest() throws IOException
+	{
+		createStore().get(AggregateBean.class);
+		
+		// truncate the snapshot
+		Path path = directory.resolve(AggregateBean.class.getName() + ".snapshot");
+		byte[] bytes = Files.readAllBytes(path);
+		Files.write(path, Arrays.copyOf(bytes, bytes.length / 2));
+		
+		// the snapshot is generated and saved again
+		assertEquals("renamed", createStore().get(AggregateBean.class).getName());
+		assertTrue(names.get() > 0);
+		createStore().get(AggregateBean.class);
+		assertEquals(0, names.get());
+	}
+	
+	/**
+	 * Creates a store with a new generator that counts how many times its name rule is evaluated
+	 * 
+	 * @return SnapshotStore
+	 */
+	private SnapshotStore createStore()
+	{
+		BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+		beanPropertyGenerator.getConfiguration().setMaxRepeatDepth(1);
+		
+		final AtomicInteger counter = new AtomicInteger();
+		names = counter;
+		beanPropertyGenerator.getConfiguration().createRuleBuilder().forType(String.class)
+			.when(new FieldNameMatchesCondition("name")).thenReturn(new Value<String>()
+			{
+				@Override
+				public Class<String> getType()
+				{
+					return String.class;
+				}
+				
+				@Override
+				public String getValue()
+				{
+					return null;
+				}
+				
+				@Override
+				public String getValue(FieldPath fieldPath)
+				{
+					counter.incrementAndGet();
+					return "renamed";
+				}
+			});
+		
+		return new SnapshotStore(beanPropertyGenerator, directory);
+	}
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beangenerator.value;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.gregmarut.support.bean.TestBean;
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+import com.gregmarut.support.beangenerator.model.FieldMember;
+import com.gregmarut.support.beangenerator.model.FieldPath;
+
+/**
+ * This test demonstrates how a value can use the path of fields that leads to it
+ * 
+ * @author Greg Marut
+ */
+public class FieldPathTest
+{
+	// holds the BeanPropertyGenerator which is used for creating and populating objects with test
+	// data
+	private static BeanPropertyGenerator beanPropertyGenerator;
+	
+	@BeforeClass
+	public static void setup()
+	{
+		// create a new BeanPropertyGenerator
+		beanPropertyGenerator = new BeanPropertyGenerator(false);
+		
+		// set every string to the dotted path of its field
+		beanPropertyGenerator.getConfiguration().getDefaultValues().put(String.class, new Value<String>()
+		{
+			@Override
+			public Class<String> getType()
+			{
+				return String.class;
+			}
+			
+			@Override
+			public String getValue()
+			{
+				return null;
+			}
+			
+			@Override
+			public String getValue(final FieldPath fieldPath)
+			{
+				StringBuilder builder = new StringBuilder();
+				for (FieldMember fieldMember : fieldPath.path())
+				{
+					if (builder.length() > 0)
+					{
+						builder.append('.');
+					}
+					
+					builder.append(fieldMember.getField().getName());
+				}
+				
+				return builder.toString();
+			}
+		});
+	}
+	
+	@Test
+	public void pathTest()
+	{
+		TestBean testBean = beanPropertyGenerator.get(TestBean.class);
+		
+		assertEquals("firstName", testBean.getFirstName());
+		assertEquals("anotherTestBean.something", testBean.getAnotherTestBean().getSomething());
+	}
+	
+	@Test
+	public void dequeAdapterTest() throws Exception
+	{
+		TestBean testBean = new TestBean();
+		FieldPath parent = new FieldPath(null, TestBean.class.getDeclaredField("anotherTestBean"), testBean);
+		FieldPath child =
+			new FieldPath(parent, TestBean.class.getDeclaredField("firstName"), testBean.getAnotherTestBean());
+		
+		assertEquals(2, child.depth());
+		assertTrue(parent == child.parent());
+		assertNull(parent.parent());
+		
+		// the deque holds the most recent field at its head
+		Deque<FieldMember> deque = child.toDeque();
+		assertTrue(child == deque.peek());
+		assertEquals(2, FieldPath.fromDeque(deque).depth());
+		
+		// the built in values accept both forms
+		assertEquals("firstName", new StringValue().getValue(child));
+		assertEquals("firstName", new StringValue().getValue(deque));
+		assertNull(FieldPath.fromDeque(new ArrayDeque<FieldMember>()));
+	}
+	
+	@Test
+	public void missingOverrideTest()
+	{
+		// a value that overrides neither form of the method
+		Value<String> value = new Value<String>()
+		{
+			@Override
+			public Class<String> getType()
+			{
+				return String.class;
+			}
+			
+			@Override
+			public String getValue()
+			{
+				return null;
+			}
+		};
+		
+		try
+		{
+			value.getValue((FieldPath) null);
+			fail();
+		}
+		catch (IllegalStateException e)
+		{
+			assertTrue(e.getMessage(), e.getMessage().startsWith(getClass().getName() + "$"));
+			assertTrue(e.getMessage(), e.getMessage().endsWith("must override getValue(FieldPath)"));
+		}
+	}
+}
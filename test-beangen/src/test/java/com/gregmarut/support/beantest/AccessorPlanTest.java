@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beantest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.gregmarut.support.bean.ChildBean;
+
+/**
+ * Verifies the getters and setters that are compiled into an {@link AccessorPlan}
+ * 
+ * @author Greg Marut
+ */
+public class AccessorPlanTest
+{
+	@Test
+	public void inheritedTest()
+	{
+		// the fields of the class come first, followed by those of the parent classes
+		List<String> names = new ArrayList<String>();
+		for (PropertyAccessor property : AccessorPlan.forClass(ChildBean.class).getProperties())
+		{
+			names.add(property.getField().getName());
+		}
+		
+		assertEquals(4, names.size());
+		assertEquals("childValue", names.get(0));
+		assertEquals("grandparentString", names.get(3));
+		
+		// the plan is compiled once
+		assertSame(AccessorPlan.forClass(ChildBean.class), AccessorPlan.forClass(ChildBean.class));
+	}
+	
+	@Test
+	public void booleanTest()
+	{
+		List<PropertyAccessor> properties = AccessorPlan.forClass(BooleanBean.class).getProperties();
+		assertEquals(3, properties.size());
+		
+		// primitive booleans use the is prefix unless there is only a get prefix
+		assertEquals("isActive", properties.get(0).getGetterMethod().getName());
+		assertEquals("getVisible", properties.get(1).getGetterMethod().getName());
+		assertEquals("isEnabled", properties.get(2).getGetterMethod().getName());
+		
+		new GetterSetterTester().execute(BooleanBean.class);
+	}
+	
+	@Test(expected = ValueMismatchException.class)
+	public void mismatchTest()
+	{
+		new GetterSetterTester().execute(BrokenBean.class);
+	}
+	
+	@Test
+	public void conversionTest() throws Exception
+	{
+		PropertyAccessor property = AccessorPlan.forClass(ChildBean.class).getProperties().get(0);
+		ChildBean childBean = new ChildBean();
+		
+		// the handles unbox the exact wrapper type while other values are converted reflectively
+		property.set(childBean, Integer.valueOf(3));
+		assertEquals(Integer.valueOf(3), property.get(childBean));
+		property.set(childBean, Short.valueOf((short) 4));
+		assertEquals(Integer.valueOf(4), property.get(childBean));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void nullPrimitiveTest() throws Exception
+	{
+		AccessorPlan.forClass(ChildBean.class).getProperties().get(0).set(new ChildBean(), null);
+	}
+	
+	public static class BooleanBean
+	{
+		private boolean active;
+		private boolean visible;
+		private Boolean enabled;
+		
+		public boolean isActive()
+		{
+			return active;
+		}
+		
+		public void setActive(boolean active)
+		{
+			this.active = active;
+		}
+		
+		public boolean getVisible()
+		{
+			return visible;
+		}
+		
+		public void setVisible(boolean visible)
+		{
+			this.visible = visible;
+		}
+		
+		public Boolean isEnabled()
+		{
+			return enabled;
+		}
+		
+		public void setEnabled(Boolean enabled)
+		{
+			this.enabled = enabled;
+		}
+	}
+	
+	public static class BrokenBean
+	{
+		private boolean active;
+		
+		public boolean isActive()
+		{
+			return !active;
+		}
+		
+		public void setActive(boolean active)
+		{
+			this.active = active;
+		}
+	}
+}
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beantest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.gregmarut.support.bean.FlatBean;
+import com.gregmarut.support.bean.TestBean;
+import com.gregmarut.support.beangenerator.BeanPropertyGenerator;
+import com.gregmarut.support.beangenerator.value.Value;
+
+/**
+ * Verifies that the expected values of the GetterSetterTester are generated ahead of time, are
+ * distinct and stay within the bound of their pool
+ * 
+ * @author Greg Marut
+ */
+public class ExpectedValuePoolTest
+{
+	@Test
+	public void batchTest()
+	{
+		ExpectedValuePool expectedValuePool = new ExpectedValuePool(new BeanPropertyGenerator(false), 4, null);
+		
+		// the first value generates a batch that fills the pool
+		Set<Object> values = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		values.add(expectedValuePool.take(FlatBean.class));
+		assertEquals(3, expectedValuePool.available(FlatBean.class));
+		
+		// every value is taken at most once
+		for (int i = 1; i < 10; i++)
+		{
+			Object value = expectedValuePool.take(FlatBean.class);
+			assertTrue(value instanceof FlatBean);
+			assertTrue(values.add(value));
+			assertTrue(expectedValuePool.available(FlatBean.class) < 4);
+		}
+		
+		// the values are generated without populating them
+		assertNull(((FlatBean) values.iterator().next()).getName());
+	}
+	
+	@Test
+	public void backgroundTest() throws InterruptedException
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try
+		{
+			ExpectedValuePool expectedValuePool = new ExpectedValuePool(new BeanPropertyGenerator(false), 8, executor);
+			Set<Object> values = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+			for (int i = 0; i < 100; i++)
+			{
+				assertTrue(values.add(expectedValuePool.take(FlatBean.class)));
+				assertTrue(expectedValuePool.available(FlatBean.class) <= 8);
+			}
+			
+			// the pool is refilled to its bound in the background
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while (expectedValuePool.available(FlatBean.class) < 8 && System.nanoTime() < deadline)
+			{
+				Thread.sleep(10);
+			}
+			
+			assertEquals(8, expectedValuePool.available(FlatBean.class));
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void configurationTest()
+	{
+		BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator(false);
+		ExpectedValuePool expectedValuePool = new ExpectedValuePool(beanPropertyGenerator, 4, null);
+		assertNotNull(expectedValuePool.take(FlatBean.class));
+		assertEquals(3, expectedValuePool.available(FlatBean.class));
+		
+		// the values are discarded when the default values change
+		beanPropertyGenerator.getConfiguration().getDefaultValues().put(FlatBean.class, new FlatBeanValue("changed"));
+		assertEquals("changed", ((FlatBean) expectedValuePool.take(FlatBean.class)).getName());
+		
+		// null values of custom values are pooled as well
+		beanPropertyGenerator.getConfiguration().getDefaultValues().put(FlatBean.class, new FlatBeanValue(null));
+		assertNull(expectedValuePool.take(FlatBean.class));
+		assertEquals(3, expectedValuePool.available(FlatBean.class));
+		
+		// static values are not pooled
+		assertEquals(0, expectedValuePool.available(Integer.class));
+		assertNotNull(expectedValuePool.take(Integer.class));
+		assertEquals(0, expectedValuePool.available(Integer.class));
+	}
+	
+	@Test
+	public void cacheTest()
+	{
+		BeanPropertyGenerator beanPropertyGenerator = new BeanPropertyGenerator();
+		ExpectedValuePool expectedValuePool = new ExpectedValuePool(beanPropertyGenerator, 4, null);
+		
+		// cached types are taken from the cache of the generator instead of the pool
+		Object value = expectedValuePool.take(FlatBean.class);
+		assertSame(beanPropertyGenerator.get(FlatBean.class, false), value);
+		assertSame(value, expectedValuePool.take(FlatBean.class));
+		assertEquals(0, expectedValuePool.available(FlatBean.class));
+		
+		// the tester passes with a caching generator
+		new GetterSetterTester(new BeanPropertyGenerator()).execute(TestBean.class, FlatBean.class);
+	}
+	
+	@Test
+	public void testerTest()
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try
+		{
+			GetterSetterTester getterSetterTester = new GetterSetterTester();
+			getterSetterTester.setValuePoolSize(4);
+			getterSetterTester.setValuePoolExecutor(executor);
+			
+			for (int i = 0; i < 10; i++)
+			{
+				getterSetterTester.execute(TestBean.class, FlatBean.class);
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Creates a new flat bean with a name or null if there is no name
+	 * 
+	 * @author Greg Marut
+	 */
+	private static class FlatBeanValue implements Value<FlatBean>
+	{
+		private final String name;
+		
+		public FlatBeanValue(final String name)
+		{
+			this.name = name;
+		}
+		
+		@Override
+		public Class<FlatBean> getType()
+		{
+			return FlatBean.class;
+		}
+		
+		@Override
+		public FlatBean getValue()
+		{
+			if (null == name)
+			{
+				return null;
+			}
+			
+			FlatBean flatBean = new FlatBean();
+			flatBean.setName(name);
+			return flatBean;
+		}
+	}
+}
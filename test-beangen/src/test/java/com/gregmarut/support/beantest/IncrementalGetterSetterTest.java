@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beantest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.gregmarut.support.bean.AggregateBean;
+import com.gregmarut.support.bean.AnotherTestBean;
+import com.gregmarut.support.bean.ChildBean;
+import com.gregmarut.support.bean.FlatBean;
+import com.gregmarut.support.bean.GrandParentBean;
+import com.gregmarut.support.bean.NodeBean;
+import com.gregmarut.support.bean.ParentBean;
+import com.gregmarut.support.bean.TestBean;
+import com.gregmarut.support.beangenerator.listener.GenerationListener;
+import com.gregmarut.support.beantest.ParallelGetterSetterTest.BrokenBean;
+
+/**
+ * Verifies that the incremental mode of the GetterSetterTester skips the classes that passed before
+ * and have not changed since
+ * 
+ * @author Greg Marut
+ */
+public class IncrementalGetterSetterTest
+{
+	// holds the classes that are tested by each run
+	private static final List<String> CLASS_NAMES =
+		Arrays.asList(ChildBean.class.getName(), BrokenBean.class.getName(), TestBean.class.getName());
+	
+	private Path directory;
+	private ExecutorService executor;
+	
+	@Before
+	public void setup() throws IOException
+	{
+		directory = Files.createTempDirectory("results");
+		executor = Executors.newFixedThreadPool(4);
+	}
+	
+	@After
+	public void tearDown() throws IOException
+	{
+		executor.shutdown();
+		
+		for (Path path : Files.newDirectoryStream(directory))
+		{
+			Files.delete(path);
+		}
+		
+		Files.delete(directory);
+	}
+	
+	@Test
+	public void skipTest()
+	{
+		GetterSetterReport first = createTester().execute(CLASS_NAMES, getClass().getClassLoader(), executor);
+		assertEquals(0, first.getSkippedCount());
+		assertEquals(1, first.getFailures().size());
+		assertTrue(Files.exists(directory.resolve("results.properties")));
+		
+		// the classes that passed are skipped while the failed class is tested again
+		GetterSetterReport second = createTester().execute(CLASS_NAMES, getClass().getClassLoader(), executor);
+		assertEquals(2, second.getSkippedCount());
+		assertTrue(second.getResults().get(0).isSkipped());
+		assertTrue(second.getResults().get(0).isPassed());
+		assertFalse(second.getResults().get(1).isSkipped());
+		assertFalse(second.getResults().get(1).isPassed());
+		assertTrue(second.getResults().get(2).isSkipped());
+		assertTrue(second.toString(), second.toString().startsWith("2 of 3 classes passed"));
+		assertTrue(second.toString(), second.toString().contains("SKIP " + ChildBean.class.getName()));
+	}
+	
+	@Test
+	public void forceFullRunTest()
+	{
+		createTester().execute(CLASS_NAMES, getClass().getClassLoader(), executor);
+		
+		GetterSetterTester tester = createTester();
+		tester.setForceFullRun(true);
+		assertEquals(0, tester.execute(CLASS_NAMES, getClass().getClassLoader(), executor).getSkippedCount());
+		
+		// the forced run records its results for the following runs
+		assertEquals(2, createTester().execute(CLASS_NAMES, getClass().getClassLoader(), executor).getSkippedCount());
+	}
+	
+	@Test
+	public void configurationTest()
+	{
+		createTester().execute(CLASS_NAMES, getClass().getClassLoader(), executor);
+		
+		// every class is tested again when the configuration changes
+		GetterSetterTester tester = createTester();
+		tester.getBeanPropertyGenerator().getConfiguration().setMaxRepeatDepth(2);
+		assertEquals(0, tester.execute(CLASS_NAMES, getClass().getClassLoader(), executor).getSkippedCount());
+		assertEquals(2, tester.execute(CLASS_NAMES, getClass().getClassLoader(), executor).getSkippedCount());
+	}
+	
+	@Test
+	public void executeClassesTest()
+	{
+		// counts the flat beans that are generated
+		final AtomicInteger started = new AtomicInteger();
+		GenerationListener listener = new GenerationListener()
+		{
+			@Override
+			public void beanStarted(final Class<?> type)
+			{
+				if (FlatBean.class.equals(type))
+				{
+					started.incrementAndGet();
+				}
+			}
+		};
+		
+		GetterSetterTester first = createTester();
+		first.getBeanPropertyGenerator().getConfiguration().addGenerationListener(listener);
+		first.execute(FlatBean.class);
+		assertEquals(1, started.get());
+		
+		GetterSetterTester second = createTester();
+		second.getBeanPropertyGenerator().getConfiguration().addGenerationListener(listener);
+		second.execute(FlatBean.class);
+		assertEquals(1, started.get());
+	}
+	
+	@Test
+	public void hashTest() throws IOException
+	{
+		// copy the class files of the hierarchy so that they can be changed
+		copyClassFiles(ChildBean.class, ParentBean.class, GrandParentBean.class);
+		
+		URLClassLoader classLoader = createClassLoader();
+		try
+		{
+			String hash = IncrementalResults.hash(classLoader, ChildBean.class.getName());
+			assertNotNull(hash);
+			assertEquals(hash, IncrementalResults.hash(classLoader, ChildBean.class.getName()));
+			
+			// a change to a superclass changes the hash of the class
+			Files.write(directory.resolve("GrandParentBean.class"), new byte[] { 0 }, StandardOpenOption.APPEND);
+			assertFalse(hash.equals(IncrementalResults.hash(classLoader, ChildBean.class.getName())));
+			
+			// classes without a class file are always tested
+			Files.delete(directory.resolve("ParentBean.class"));
+			assertNull(IncrementalResults.hash(classLoader, ChildBean.class.getName()));
+		}
+		finally
+		{
+			classLoader.close();
+		}
+	}
+	
+	@Test
+	public void fieldTypeHashTest() throws IOException
+	{
+		// the test bean holds another test bean both directly and as the element type of its lists
+		copyClassFiles(TestBean.class, AnotherTestBean.class);
+		
+		URLClassLoader classLoader = createClassLoader();
+		try
+		{
+			String hash = IncrementalResults.hash(classLoader, TestBean.class.getName());
+			assertNotNull(hash);
+			
+			// a change to the class of a field changes the hash of the class
+			Files.write(directory.resolve("AnotherTestBean.class"), new byte[] { 0 }, StandardOpenOption.APPEND);
+			assertFalse(hash.equals(IncrementalResults.hash(classLoader, TestBean.class.getName())));
+			
+			// classes whose field types have no class file are always tested
+			Files.delete(directory.resolve("AnotherTestBean.class"));
+			assertNull(IncrementalResults.hash(classLoader, TestBean.class.getName()));
+		}
+		finally
+		{
+			classLoader.close();
+		}
+	}
+	
+	@Test
+	public void dependenciesTest() throws IOException
+	{
+		InputStream inputStream = getClass().getClassLoader().getResourceAsStream(
+			AggregateBean.class.getName().replace('.', '/') + ".class");
+		try
+		{
+			// the superclass comes first followed by the field types in the order of the fields
+			assertEquals(Arrays.asList("java/lang/Object", "java/lang/String", internalName(TestBean.class),
+				internalName(ChildBean.class), internalName(FlatBean.class), "java/util/List",
+				internalName(NodeBean.class), internalName(AggregateBean.class)),
+				ClassFileScanner.readDependencies(inputStream));
+		}
+		finally
+		{
+			inputStream.close();
+		}
+	}
+	
+	/**
+	 * Copies the class files of classes into the temporary directory
+	 * 
+	 * @param classes
+	 * @throws IOException
+	 */
+	private void copyClassFiles(final Class<?>... classes) throws IOException
+	{
+		for (Class<?> clazz : classes)
+		{
+			Path path = directory.resolve(clazz.getSimpleName() + ".class");
+			InputStream inputStream = clazz.getClassLoader().getResourceAsStream(internalName(clazz) + ".class");
+			try
+			{
+				Files.copy(inputStream, path);
+			}
+			finally
+			{
+				inputStream.close();
+			}
+		}
+	}
+	
+	/**
+	 * Creates a class loader that only finds the class files of the temporary directory
+	 * 
+	 * @return URLClassLoader
+	 */
+	private URLClassLoader createClassLoader()
+	{
+		return new URLClassLoader(new URL[0], null)
+		{
+			@Override
+			public InputStream getResourceAsStream(final String name)
+			{
+				try
+				{
+					Path path = directory.resolve(name.substring(name.lastIndexOf('/') + 1));
+					return Files.exists(path) ? Files.newInputStream(path) : null;
+				}
+				catch (IOException e)
+				{
+					return null;
+				}
+			}
+		};
+	}
+	
+	/**
+	 * Returns the name of a class as it is used within class files
+	 * 
+	 * @param clazz
+	 * @return String
+	 */
+	private static String internalName(final Class<?> clazz)
+	{
+		return clazz.getName().replace('.', '/');
+	}
+	
+	/**
+	 * Creates a tester that records its results in the temporary directory
+	 * 
+	 * @return GetterSetterTester
+	 */
+	private GetterSetterTester createTester()
+	{
+		GetterSetterTester tester = new GetterSetterTester();
+		tester.setResultsFile(directory.resolve("results.properties"));
+		return tester;
+	}
+}
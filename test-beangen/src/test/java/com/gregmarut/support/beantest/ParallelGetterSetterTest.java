@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * <pre>
+ * Copyright (c) 2015 Greg Marut.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ * 
+ * Contributors:
+ *     Greg Marut - initial API and implementation
+ * </pre>
+ ******************************************************************************/
+package com.gregmarut.support.beantest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.Test;
+
+import com.gregmarut.support.bean.ChildBean;
+import com.gregmarut.support.bean.FlatBean;
+import com.gregmarut.support.bean.GrandParentBean;
+import com.gregmarut.support.bean.TestBean;
+
+/**
+ * Verifies that the getters and setters of many classes are tested concurrently and reported
+ * 
+ * @author Greg Marut
+ */
+public class ParallelGetterSetterTest
+{
+	@Test
+	public void scanPackageTest() throws IOException
+	{
+		// a class loader that records every class it loads
+		final AtomicInteger loaded = new AtomicInteger();
+		URL root = ChildBean.class.getProtectionDomain().getCodeSource().getLocation();
+		URLClassLoader classLoader = new URLClassLoader(new URL[] { root }, null)
+		{
+			@Override
+			protected Class<?> findClass(final String name) throws ClassNotFoundException
+			{
+				loaded.incrementAndGet();
+				return super.findClass(name);
+			}
+		};
+		
+		try
+		{
+			List<String> classNames = ClassFileScanner.scanPackage(classLoader, "com.gregmarut.support.bean");
+			assertTrue(classNames.contains(ChildBean.class.getName()));
+			assertTrue(classNames.contains(TestBean.class.getName()));
+			assertTrue(classNames.contains(GrandParentBean.class.getName()));
+			
+			// the classes are found without loading them
+			assertEquals(0, loaded.get());
+			
+			// subpackages are included and classes without setters are not candidates
+			List<String> all = ClassFileScanner.scanPackage(classLoader, "com.gregmarut.support");
+			assertTrue(all.containsAll(classNames));
+			assertTrue(all.contains(BrokenBean.class.getName()));
+			assertFalse(all.contains(ParallelGetterSetterTest.class.getName()));
+			assertFalse(all.contains(Undefined.class.getName()));
+		}
+		finally
+		{
+			classLoader.close();
+		}
+	}
+	
+	@Test
+	public void scanRootTest() throws IOException
+	{
+		// package a few classes into a jar file
+		Path jar = Files.createTempFile("beans", ".jar");
+		try
+		{
+			OutputStream outputStream = Files.newOutputStream(jar);
+			JarOutputStream jarOutputStream = new JarOutputStream(outputStream);
+			try
+			{
+				for (Class<?> clazz : new Class<?>[] { FlatBean.class, ChildBean.class, Undefined.class })
+				{
+					String name = clazz.getName().replace('.', '/') + ".class";
+					jarOutputStream.putNextEntry(new JarEntry(name));
+					
+					InputStream inputStream = clazz.getClassLoader().getResourceAsStream(name);
+					try
+					{
+						byte[] buffer = new byte[4096];
+						for (int read = inputStream.read(buffer); read > 0; read = inputStream.read(buffer))
+						{
+							jarOutputStream.write(buffer, 0, read);
+						}
+					}
+					finally
+					{
+						inputStream.close();
+					}
+					
+					jarOutputStream.closeEntry();
+				}
+			}
+			finally
+			{
+				jarOutputStream.close();
+			}
+			
+			assertEquals(Arrays.asList(ChildBean.class.getName(), FlatBean.class.getName()),
+				ClassFileScanner.scanRoot(jar));
+		}
+		finally
+		{
+			Files.delete(jar);
+		}
+	}
+	
+	@Test
+	public void reportTest()
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			GetterSetterReport report = new GetterSetterTester().execute(
+				Arrays.asList(ChildBean.class.getName(), BrokenBean.class.getName(), "com.gregmarut.support.Missing",
+					TestBean.class.getName()), getClass().getClassLoader(), executor);
+			
+			// the results are in the order of the classes
+			assertEquals(4, report.getResults().size());
+			assertFalse(report.isPassed());
+			assertEquals(2, report.getFailures().size());
+			
+			GetterSetterResult child = report.getResults().get(0);
+			assertTrue(child.isPassed());
+			assertEquals(4, child.getPropertyCount());
+			assertTrue(child.getNanos() > 0);
+			
+			// every mismatch of the class is collected
+			GetterSetterResult broken = report.getResults().get(1);
+			assertFalse(broken.isPassed());
+			assertNull(broken.getError());
+			assertEquals(2, broken.getPropertyCount());
+			assertEquals(2, broken.getMismatches().size());
+			assertTrue(broken.getMismatches().get(0).startsWith("name: "));
+			assertTrue(broken.getMismatches().get(1).startsWith("count: "));
+			
+			GetterSetterResult missing = report.getResults().get(2);
+			assertTrue(missing.getError() instanceof ClassNotFoundException);
+			
+			assertTrue(report.getResults().get(3).isPassed());
+			assertTrue(report.toString().startsWith("2 of 4 classes passed"));
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void packageTest() throws IOException
+	{
+		GetterSetterReport report = new GetterSetterTester().executePackage("com.gregmarut.support.bean");
+		assertTrue(report.toString(), report.isPassed());
+		assertTrue(report.getResults().size() > 5);
+	}
+	
+	public static class BrokenBean
+	{
+		private String name;
+		private int count;
+		
+		public String getName()
+		{
+			return name + "!";
+		}
+		
+		public void setName(String name)
+		{
+			this.name = name;
+		}
+		
+		public int getCount()
+		{
+			return count + 1;
+		}
+		
+		public void setCount(int count)
+		{
+			this.count = count;
+		}
+	}
+	
+	public static class Undefined
+	{
+		private final String name;
+		
+		public Undefined(final String name)
+		{
+			this.name = name;
+		}
+		
+		public String getName()
+		{
+			return name;
+		}
+	}
+}